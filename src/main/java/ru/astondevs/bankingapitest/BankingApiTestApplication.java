@@ -2,8 +2,13 @@ package ru.astondevs.bankingapitest;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import ru.astondevs.bankingapitest.config.NativeRuntimeHints;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class BankingApiTestApplication {
 
     public static void main(String[] args) {
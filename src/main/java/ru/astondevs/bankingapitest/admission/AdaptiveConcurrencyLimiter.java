@@ -0,0 +1,119 @@
+package ru.astondevs.bankingapitest.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Класс AdaptiveConcurrencyLimiter ограничивает число одновременно выполняемых запросов и подстраивает
+ * ограничение под текущую пропускную способность по алгоритму TCP Vegas.
+ * <p>
+ * Минимальное наблюдаемое время ответа считается временем обработки без очереди. По отношению
+ * текущего времени ответа к минимальному оценивается, сколько запросов из выполняющихся на самом деле
+ * ждут в очереди (в пуле потоков Tomcat, пуле соединений или на блокировках базы данных):
+ * {@code queue = limit * (1 - rttNoLoad / rtt)}. Пока очередь мала, ограничение растет, когда очередь
+ * превышает порог, ограничение уменьшается, а запросы сверх ограничения отклоняются сразу, не занимая ресурсы.
+ * Ошибки сервера и тайм-ауты считаются признаком перегрузки и уменьшают ограничение.
+ * <p>
+ * Минимальное время ответа периодически сбрасывается, чтобы ограничение подстраивалось и к ускорению
+ * обработки, а не только к замедлению.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int NO_LOAD_RTT_RESET_SAMPLES = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile int limit;
+    private double estimatedLimit;
+    private long noLoadRttNanos = Long.MAX_VALUE;
+    private int samplesSinceReset;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.min(Math.max(initialLimit, minLimit), maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Пытается занять место для нового запроса.
+     *
+     * @return true, если запрос можно выполнять; false, если ограничение исчерпано и запрос нужно отклонить
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Освобождает место, занятое запросом, и учитывает время его выполнения.
+     *
+     * @param rttNanos время выполнения запроса в наносекундах
+     * @param dropped  true, если запрос завершился ошибкой сервера или тайм-аутом
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        update(rttNanos, inFlightAtRelease, dropped);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtRelease, boolean dropped) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (++samplesSinceReset >= NO_LOAD_RTT_RESET_SAMPLES) {
+            samplesSinceReset = 0;
+            noLoadRttNanos = rttNanos;
+        } else if (rttNanos < noLoadRttNanos) {
+            noLoadRttNanos = rttNanos;
+        }
+
+        double current = estimatedLimit;
+        double log = Math.max(1, Math.log10(current));
+        double alpha = 3 * log;
+        double beta = 6 * log;
+        double queue = Math.ceil(current * (1 - (double) noLoadRttNanos / rttNanos));
+
+        double next;
+        if (dropped) {
+            next = current - log;
+        } else if (inFlightAtRelease * 2 < current) {
+            // Нагрузка мала, и время ответа ничего не говорит о пропускной способности
+            return;
+        } else if (queue <= log) {
+            next = current + beta;
+        } else if (queue < alpha) {
+            next = current + log;
+        } else if (queue > beta) {
+            next = current - log;
+        } else {
+            return;
+        }
+        estimatedLimit = Math.min(Math.max(next, minLimit), maxLimit);
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
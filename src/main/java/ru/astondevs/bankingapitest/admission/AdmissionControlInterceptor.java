@@ -0,0 +1,113 @@
+package ru.astondevs.bankingapitest.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import ru.astondevs.bankingapitest.config.AdmissionControlProperties;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Класс AdmissionControlInterceptor пропускает запросы к API счетов через адаптивные ограничения
+ * числа одновременно обрабатываемых запросов, отдельные для чтения и для изменяющих операций.
+ * <p>
+ * Если ограничение исчерпано, запрос сразу получает ответ 503 с заголовком Retry-After и не занимает
+ * соединение с базой данных. Так при перегрузке очередь не растет, а время ответа принятых запросов
+ * остается ограниченным. Отдельное ограничение для чтения не дает долгим чтениям вытеснить переводы.
+ * <p>
+ * Пакетное создание и импорт счетов выполняются секунды и минуты в зависимости от размера тела. В общем
+ * ограничении изменяющих запросов они занимали бы места переводов, а их время ответа алгоритм принял бы
+ * за очередь и снизил бы ограничение для всех, поэтому для них используется собственное ограничение.
+ */
+@Component
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".PERMIT";
+    private static final Set<String> IMPORT_PATHS = Set.of("/api/accounts/bulk", "/api/accounts/import");
+
+    private final AdmissionControlProperties properties;
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final AdaptiveConcurrencyLimiter importLimiter;
+
+    public AdmissionControlInterceptor(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.readLimiter = createLimiter(properties.getReads());
+        this.writeLimiter = createLimiter(properties.getWrites());
+        this.importLimiter = createLimiter(properties.getImports());
+        registerMetrics(meterRegistry, "read", readLimiter);
+        registerMetrics(meterRegistry, "write", writeLimiter);
+        registerMetrics(meterRegistry, "import", importLimiter);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (!properties.isEnabled() || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            // Повторная диспетчеризация асинхронного запроса использует уже полученное разрешение
+            return true;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiterFor(request);
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(properties.getRetryAfterSeconds()));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Service is overloaded, retry later");
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object attribute = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (attribute instanceof Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            boolean dropped = ex != null || response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+            permit.limiter.release(System.nanoTime() - permit.startNanos, dropped);
+        }
+    }
+
+    AdaptiveConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        if (IMPORT_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()))) {
+            return importLimiter;
+        }
+        String method = request.getMethod();
+        boolean read = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method);
+        return read ? readLimiter : writeLimiter;
+    }
+
+    private static AdaptiveConcurrencyLimiter createLimiter(AdmissionControlProperties.Limit limit) {
+        return new AdaptiveConcurrencyLimiter(limit.getInitialLimit(), limit.getMinLimit(), limit.getMaxLimit());
+    }
+
+    private static void registerMetrics(MeterRegistry meterRegistry, String requestClass,
+                                        AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("banking.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("class", requestClass)
+                .register(meterRegistry);
+        Gauge.builder("banking.admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests currently admitted")
+                .tag("class", requestClass)
+                .register(meterRegistry);
+        FunctionCounter.builder("banking.admission.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                .description("Requests rejected with 503 because the limit was reached")
+                .tag("class", requestClass)
+                .register(meterRegistry);
+    }
+
+    private record Permit(AdaptiveConcurrencyLimiter limiter, long startNanos) {
+    }
+}
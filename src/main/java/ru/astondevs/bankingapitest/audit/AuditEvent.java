@@ -0,0 +1,30 @@
+package ru.astondevs.bankingapitest.audit;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Запись AuditEvent описывает событие, прочитанное из файла журнала аудита.
+ *
+ * @param sequence              сквозной номер события; номера идут подряд во всех файлах журнала
+ * @param timestamp             время события
+ * @param type                  вид операции
+ * @param accountId             идентификатор счета, с которым выполнена операция
+ * @param counterpartyAccountId идентификатор счета получателя перевода или null
+ * @param amount                сумма операции
+ */
+public record AuditEvent(long sequence, Instant timestamp, AuditEventType type, long accountId,
+                         Long counterpartyAccountId, BigDecimal amount) {
+
+    /**
+     * Возвращает событие в виде одной строки JSON.
+     */
+    public String toJson() {
+        return "{\"sequence\":" + sequence
+                + ",\"timestamp\":\"" + timestamp
+                + "\",\"type\":\"" + type
+                + "\",\"accountId\":" + accountId
+                + ",\"counterpartyAccountId\":" + counterpartyAccountId
+                + ",\"amount\":" + amount.toPlainString() + "}";
+    }
+}
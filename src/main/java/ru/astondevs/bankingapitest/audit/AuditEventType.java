@@ -0,0 +1,47 @@
+package ru.astondevs.bankingapitest.audit;
+
+/**
+ * Перечисление AuditEventType содержит виды операций, попадающих в журнал аудита.
+ * Код операции записывается в файл журнала одним байтом и не должен меняться.
+ */
+public enum AuditEventType {
+
+    DEPOSIT(1),
+    WITHDRAWAL(2),
+    TRANSFER(3),
+    /**
+     * Отмена перевода между шардами: сумма, списанная со счета, возвращена на него. Получателю средства
+     * не зачислялись, поэтому событие перевода для отмененного перевода не записывается.
+     */
+    REVERSAL(4),
+    INTEREST(5),
+    FEE(6);
+
+    private static final AuditEventType[] BY_CODE = new AuditEventType[7];
+
+    static {
+        for (AuditEventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+
+    AuditEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Возвращает вид операции по коду из файла журнала.
+     *
+     * @param code код операции
+     * @return вид операции или null, если код неизвестен
+     */
+    public static AuditEventType fromCode(byte code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
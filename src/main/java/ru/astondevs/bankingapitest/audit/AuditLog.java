@@ -0,0 +1,349 @@
+package ru.astondevs.bankingapitest.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.config.AuditProperties;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Класс AuditLog ведет журнал аудита операций со счетами.
+ * <p>
+ * Поток запроса только копирует поля события в заранее выделенную ячейку кольцевого буфера и не выполняет
+ * ввод-вывод. Ячейки хранятся в массивах примитивов, поэтому запись события не создает объектов. Отдельный поток
+ * забирает события пачками, записывает их в файлы формата {@link AuditLogFormat} и периодически сбрасывает на диск.
+ * Когда файл достигает {@code banking.audit.max-file-size}, запись продолжается в новый файл.
+ * <p>
+ * Если буфер заполнен, поток запроса ждет освобождения места или отбрасывает событие со счетом в метрике
+ * {@code banking.audit.events} - в зависимости от {@code banking.audit.overflow-policy}.
+ * Номера событий продолжаются после перезапуска приложения, поэтому пропуск в номерах означает потерю записей.
+ */
+@Component
+public class AuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int BATCH_SIZE = 256;
+    private static final String LOCK_FILE = ".lock";
+
+    private final AuditProperties properties;
+    private final Path directory;
+    private final int mask;
+    private final long[] timestamps;
+    private final byte[] types;
+    private final long[] accountIds;
+    private final long[] counterpartyAccountIds;
+    private final long[] amounts;
+    /**
+     * Номер события, опубликованного в ячейке. Запись номера после полей события делает их видимыми потоку записи.
+     */
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1;
+    private volatile boolean running;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private Thread writer;
+    private FileChannel lockChannel;
+    private FileChannel channel;
+    private long fileSize;
+    private long firstSequence;
+
+    public AuditLog(AuditProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        String path = properties.getDirectory();
+        this.directory = path == null || path.isBlank() ? null : Path.of(path);
+        int capacity = Integer.highestOneBit(Math.max(2, properties.getBufferSize()) * 2 - 1);
+        this.mask = capacity - 1;
+        this.timestamps = new long[capacity];
+        this.types = new byte[capacity];
+        this.accountIds = new long[capacity];
+        this.counterpartyAccountIds = new long[capacity];
+        this.amounts = new long[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.written = counter(meterRegistry, "written");
+        this.dropped = counter(meterRegistry, "dropped");
+        this.failed = counter(meterRegistry, "failed");
+        Gauge.builder("banking.audit.backlog", this, AuditLog::getBacklog)
+                .description("Audit events accepted but not yet written to the log file")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Добавляет в журнал операцию со счетом.
+     *
+     * @param type                  вид операции
+     * @param accountId             идентификатор счета
+     * @param counterpartyAccountId идентификатор счета получателя перевода или null
+     * @param amount                сумма операции
+     */
+    public void record(AuditEventType type, Long accountId, Long counterpartyAccountId, BigDecimal amount) {
+        if (directory == null) {
+            return;
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            dropped.increment();
+            return;
+        }
+        int slot = (int) (sequence & mask);
+        timestamps[slot] = System.currentTimeMillis();
+        types[slot] = type.getCode();
+        accountIds[slot] = accountId;
+        counterpartyAccountIds[slot] = counterpartyAccountId == null ? 0 : counterpartyAccountId;
+        amounts[slot] = toCents(amount);
+        published.set(slot, sequence);
+    }
+
+    /**
+     * Занимает ячейку буфера.
+     *
+     * @return номер события в буфере или -1, если событие нужно отбросить
+     */
+    private long claim() {
+        int capacity = mask + 1;
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            if (next - capacity > consumed) {
+                if (!running || properties.getOverflowPolicy() == AuditProperties.OverflowPolicy.DROP) {
+                    return -1;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Определяет номер следующего события по существующим файлам журнала и запускает поток записи.
+     * Новый файл открывается при записи первой пачки событий.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        lockDirectory();
+        firstSequence = lastWrittenSequence(directory) + 1;
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Audit log started in {} at sequence {}", directory.toAbsolutePath(), firstSequence);
+    }
+
+    /**
+     * Останавливает поток записи, дождавшись записи всех принятых событий, и закрывает файл.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join();
+        writer = null;
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to release audit log directory lock: {}", e.getMessage());
+        }
+    }
+
+    public long getBacklog() {
+        return claimed.get() - consumed;
+    }
+
+    private void writeLoop() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BATCH_SIZE * AuditLogFormat.RECORD_SIZE);
+        CRC32 crc = new CRC32();
+        long syncIntervalNanos = properties.getSyncInterval().toNanos();
+        long lastSync = System.nanoTime();
+        boolean unsynced = false;
+        long next = consumed + 1;
+        while (true) {
+            buffer.clear();
+            int count = 0;
+            while (count < BATCH_SIZE) {
+                int slot = (int) (next & mask);
+                if (published.get(slot) != next) {
+                    break;
+                }
+                AuditLogFormat.writeRecord(buffer, crc, firstSequence + next, timestamps[slot], types[slot],
+                        accountIds[slot], counterpartyAccountIds[slot], amounts[slot]);
+                next++;
+                count++;
+            }
+            if (count > 0) {
+                buffer.flip();
+                write(buffer, count);
+                consumed = next - 1;
+                unsynced = true;
+            } else if (!running && claimed.get() < next) {
+                break;
+            } else {
+                if (unsynced && System.nanoTime() - lastSync >= syncIntervalNanos) {
+                    sync();
+                    unsynced = false;
+                    lastSync = System.nanoTime();
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        closeFile();
+    }
+
+    private void write(ByteBuffer buffer, int count) {
+        try {
+            if (channel == null || fileSize + buffer.remaining() > properties.getMaxFileSize().toBytes()) {
+                closeFile();
+                openFile(firstSequence + consumed + 1);
+            }
+            while (buffer.hasRemaining()) {
+                fileSize += channel.write(buffer);
+            }
+            written.increment(count);
+        } catch (IOException e) {
+            // Файл мог быть поврежден частичной записью: следующая пачка будет записана в новый файл
+            logger.error("Failed to write {} audit events", count, e);
+            failed.increment(count);
+            closeFile();
+        }
+    }
+
+    /**
+     * Захватывает директорию журнала: два экземпляра приложения, пишущие в одну директорию, нарушили бы
+     * нумерацию событий.
+     */
+    private void lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Audit log directory " + directory.toAbsolutePath()
+                    + " is used by another application instance");
+        }
+    }
+
+    private void openFile(long sequence) throws IOException {
+        Path file = AuditLogFormat.fileName(directory, sequence);
+        // Файл без единой целой записи остается, если приложение остановилось сразу после его создания
+        if (Files.exists(file) && Files.size(file) < AuditLogFormat.HEADER_SIZE + AuditLogFormat.RECORD_SIZE) {
+            channel = FileChannel.open(file, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        } else {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+        ByteBuffer header = ByteBuffer.allocate(AuditLogFormat.HEADER_SIZE);
+        AuditLogFormat.writeHeader(header);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        fileSize = AuditLogFormat.HEADER_SIZE;
+    }
+
+    private void sync() {
+        try {
+            if (channel != null) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to sync audit log: {}", e.getMessage());
+        }
+    }
+
+    private void closeFile() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close audit log file: {}", e.getMessage());
+        }
+        channel = null;
+    }
+
+    /**
+     * Находит номер последнего целого события в журнале. Читается только конец последнего файла.
+     */
+    private static long lastWrittenSequence(Path directory) throws IOException {
+        Path last;
+        try (Stream<Path> files = Files.list(directory)) {
+            last = files.filter(AuditLogFormat::isLogFile).max(Path::compareTo).orElse(null);
+        }
+        if (last == null) {
+            return -1;
+        }
+        try (FileChannel file = FileChannel.open(last, StandardOpenOption.READ)) {
+            ByteBuffer record = ByteBuffer.allocate(AuditLogFormat.RECORD_SIZE);
+            CRC32 crc = new CRC32();
+            long records = Math.max(0, file.size() - AuditLogFormat.HEADER_SIZE) / AuditLogFormat.RECORD_SIZE;
+            // Последняя запись могла остаться недописанной при аварийной остановке
+            for (long index = records - 1; index >= 0; index--) {
+                record.clear();
+                file.read(record, AuditLogFormat.HEADER_SIZE + index * AuditLogFormat.RECORD_SIZE);
+                record.flip();
+                AuditEvent event = AuditLogFormat.readRecord(record, crc);
+                if (event != null) {
+                    return event.sequence();
+                }
+            }
+            // Ни одной целой записи: номера поврежденных записей считаются занятыми
+            String name = last.getFileName().toString();
+            return Long.parseLong(name.substring(AuditLogFormat.FILE_PREFIX.length(),
+                    name.length() - AuditLogFormat.FILE_SUFFIX.length())) + records - 1;
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("banking.audit.events")
+                .description("Audit events by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
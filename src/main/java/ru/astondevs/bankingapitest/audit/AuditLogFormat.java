@@ -0,0 +1,92 @@
+package ru.astondevs.bankingapitest.audit;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * Класс AuditLogFormat описывает формат файлов журнала аудита.
+ * <p>
+ * Файл начинается с заголовка: сигнатура {@code BAUD} и версия формата (по 4 байта). Далее следуют записи
+ * фиксированной длины {@value #RECORD_SIZE} байт: номер события, время в миллисекундах, код операции,
+ * идентификатор счета, идентификатор счета получателя (0, если его нет), сумма в копейках и контрольная сумма
+ * CRC32 всех предыдущих полей записи. Числа записываются в порядке big-endian.
+ * <p>
+ * Имя файла содержит номер первого события в нем, поэтому файлы журнала упорядочиваются по имени.
+ */
+public final class AuditLogFormat {
+
+    static final int MAGIC = 0x42415544;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int PAYLOAD_SIZE = 8 + 8 + 1 + 8 + 8 + 8;
+    static final int RECORD_SIZE = PAYLOAD_SIZE + 4;
+    static final String FILE_PREFIX = "audit-";
+    static final String FILE_SUFFIX = ".log";
+
+    private AuditLogFormat() {
+    }
+
+    static Path fileName(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", FILE_PREFIX, firstSequence, FILE_SUFFIX));
+    }
+
+    static boolean isLogFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+    }
+
+    static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    /**
+     * Записывает событие в буфер, не создавая объектов.
+     */
+    static void writeRecord(ByteBuffer buffer, CRC32 crc, long sequence, long timestampMillis, byte type,
+                            long accountId, long counterpartyAccountId, long amountCents) {
+        int start = buffer.position();
+        buffer.putLong(sequence)
+                .putLong(timestampMillis)
+                .put(type)
+                .putLong(accountId)
+                .putLong(counterpartyAccountId)
+                .putLong(amountCents);
+        buffer.putInt((int) checksum(buffer, crc, start));
+    }
+
+    /**
+     * Читает событие из буфера, начиная с его текущей позиции.
+     *
+     * @return событие или null, если контрольная сумма не совпала или код операции неизвестен
+     */
+    static AuditEvent readRecord(ByteBuffer buffer, CRC32 crc) {
+        int start = buffer.position();
+        long sequence = buffer.getLong();
+        long timestampMillis = buffer.getLong();
+        byte type = buffer.get();
+        long accountId = buffer.getLong();
+        long counterpartyAccountId = buffer.getLong();
+        long amountCents = buffer.getLong();
+        int expected = (int) checksum(buffer, crc, start);
+        int actual = buffer.getInt();
+        AuditEventType eventType = AuditEventType.fromCode(type);
+        if (expected != actual || eventType == null) {
+            return null;
+        }
+        return new AuditEvent(sequence, Instant.ofEpochMilli(timestampMillis), eventType, accountId,
+                counterpartyAccountId == 0 ? null : counterpartyAccountId, BigDecimal.valueOf(amountCents, 2));
+    }
+
+    private static long checksum(ByteBuffer buffer, CRC32 crc, int start) {
+        int end = buffer.position();
+        int limit = buffer.limit();
+        crc.reset();
+        buffer.position(start).limit(end);
+        crc.update(buffer);
+        buffer.limit(limit);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,125 @@
+package ru.astondevs.bankingapitest.audit;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Класс AuditLogReader читает файлы журнала аудита и проверяет их целостность: заголовок файла, контрольную сумму
+ * каждой записи и непрерывность номеров событий между записями и файлами.
+ * <p>
+ * Запускается из командной строки без зависимостей, кроме классов приложения:
+ * {@code java -cp target/classes ru.astondevs.bankingapitest.audit.AuditLogReader ./data/audit}.
+ * События выводятся в стандартный вывод по одному в строке в формате JSON, нарушения целостности - в поток ошибок.
+ * Код завершения 1 означает, что найдены поврежденные записи или пропуски в номерах.
+ */
+public final class AuditLogReader {
+
+    /**
+     * Итог чтения журнала.
+     *
+     * @param events         количество прочитанных событий
+     * @param corruptRecords количество записей с неверной контрольной суммой, недописанных записей
+     *                       и файлов с неверным заголовком
+     * @param missingEvents  количество событий, пропущенных в нумерации
+     */
+    public record Result(long events, long corruptRecords, long missingEvents) {
+
+        public boolean isIntact() {
+            return corruptRecords == 0 && missingEvents == 0;
+        }
+    }
+
+    private AuditLogReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: AuditLogReader <audit log directory>");
+            System.exit(2);
+        }
+        PrintStream out = new PrintStream(System.out, false, StandardCharsets.UTF_8);
+        Result result = read(Path.of(args[0]), event -> out.println(event.toJson()), System.err::println);
+        out.flush();
+        System.err.printf("%d events, %d corrupt records, %d missing events%n", result.events(),
+                result.corruptRecords(), result.missingEvents());
+        System.exit(result.isIntact() ? 0 : 1);
+    }
+
+    /**
+     * Читает все файлы журнала из директории в порядке номеров событий.
+     *
+     * @param directory директория журнала
+     * @param events    получатель прочитанных событий
+     * @param problems  получатель описаний нарушений целостности
+     * @return итог чтения
+     */
+    public static Result read(Path directory, Consumer<AuditEvent> events, Consumer<String> problems)
+            throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(AuditLogFormat::isLogFile).sorted().toList();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1024 * AuditLogFormat.RECORD_SIZE);
+        CRC32 crc = new CRC32();
+        long count = 0;
+        long corrupt = 0;
+        long missing = 0;
+        long expected = -1;
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(AuditLogFormat.HEADER_SIZE);
+                channel.read(header);
+                header.flip();
+                if (header.remaining() < AuditLogFormat.HEADER_SIZE || header.getInt() != AuditLogFormat.MAGIC
+                        || header.getInt() != AuditLogFormat.VERSION) {
+                    problems.accept(file + ": unknown file format");
+                    corrupt++;
+                    continue;
+                }
+                long offset = AuditLogFormat.HEADER_SIZE;
+                buffer.clear();
+                while (true) {
+                    int read = channel.read(buffer);
+                    buffer.flip();
+                    while (buffer.remaining() >= AuditLogFormat.RECORD_SIZE) {
+                        AuditEvent event = AuditLogFormat.readRecord(buffer, crc);
+                        if (event == null) {
+                            problems.accept(file + ": checksum mismatch at offset " + offset);
+                            corrupt++;
+                        } else {
+                            if (expected >= 0 && event.sequence() != expected) {
+                                problems.accept(file + ": expected event " + expected + ", found "
+                                        + event.sequence());
+                                missing += Math.max(0, event.sequence() - expected);
+                            }
+                            expected = event.sequence() + 1;
+                            events.accept(event);
+                            count++;
+                        }
+                        offset += AuditLogFormat.RECORD_SIZE;
+                    }
+                    if (read < 0) {
+                        // Недописанная запись в конце файла остается после аварийной остановки
+                        if (buffer.hasRemaining()) {
+                            problems.accept(file + ": incomplete record at offset " + offset);
+                            corrupt++;
+                        }
+                        break;
+                    }
+                    buffer.compact();
+                }
+            }
+        }
+        return new Result(count, corrupt, missing);
+    }
+}
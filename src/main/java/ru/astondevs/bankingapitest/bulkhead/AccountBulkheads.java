@@ -0,0 +1,115 @@
+package ru.astondevs.bankingapitest.bulkhead;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.config.BulkheadProperties;
+import ru.astondevs.bankingapitest.exception.BulkheadFullException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Класс AccountBulkheads выполняет запросы к API счетов асинхронно в двух независимых пулах потоков:
+ * для чтения и для изменяющих операций. Потоки сервера приложений при этом не ждут базу данных,
+ * а долгое чтение истории транзакций может занять только потоки пула чтения и не задерживает переводы.
+ * <p>
+ * Время ожидания задается для каждого эндпоинта в {@code banking.bulkhead.timeouts}, по умолчанию
+ * действует время ожидания пула. Состояние пулов публикуется как метрики {@code banking.bulkhead.active},
+ * {@code banking.bulkhead.queued}, {@code banking.bulkhead.rejected} и {@code banking.bulkhead.timeouts}.
+ */
+@Component
+public class AccountBulkheads {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountBulkheads.class);
+
+    private final BulkheadProperties properties;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Bulkhead reads;
+    private final Bulkhead writes;
+
+    public AccountBulkheads(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("bulkhead-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Отмененные проверки времени ожидания удаляются сразу, а не копятся до своего срока
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.reads = createBulkhead("reads", properties.getReads(), true);
+        this.writes = createBulkhead("writes", properties.getWrites(), false);
+        registerMetrics(meterRegistry, reads);
+        registerMetrics(meterRegistry, writes);
+    }
+
+    /**
+     * Выполняет чтение в пуле чтения.
+     *
+     * @param endpoint имя эндпоинта для выбора времени ожидания
+     * @param action   действие
+     * @return результат действия
+     * @throws BulkheadFullException если очередь пула заполнена
+     */
+    public <T> CompletableFuture<T> read(String endpoint, Supplier<T> action) {
+        return reads.submit(action, timeout(endpoint, properties.getReads()));
+    }
+
+    /**
+     * Выполняет изменяющую операцию в пуле изменяющих операций.
+     *
+     * @param endpoint имя эндпоинта для выбора времени ожидания
+     * @param action   действие
+     * @return результат действия
+     * @throws BulkheadFullException если очередь пула заполнена
+     */
+    public <T> CompletableFuture<T> write(String endpoint, Supplier<T> action) {
+        return writes.submit(action, timeout(endpoint, properties.getWrites()));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!writes.shutdown(Duration.ofSeconds(30))) {
+            logger.warn("Account write requests did not complete within 30 seconds");
+        }
+        reads.shutdown(Duration.ZERO);
+        timer.shutdownNow();
+    }
+
+    private Duration timeout(String endpoint, BulkheadProperties.Pool pool) {
+        Duration timeout = properties.getTimeouts().get(endpoint);
+        return timeout != null ? timeout : pool.getTimeout();
+    }
+
+    private Bulkhead createBulkhead(String name, BulkheadProperties.Pool pool, boolean abandonRunning) {
+        return new Bulkhead(name, pool.getThreads(), pool.getQueueCapacity(), abandonRunning,
+                properties.getRetryAfterSeconds(), timer);
+    }
+
+    private static void registerMetrics(MeterRegistry meterRegistry, Bulkhead bulkhead) {
+        Gauge.builder("banking.bulkhead.active", bulkhead, Bulkhead::getActive)
+                .description("Requests currently executing in the pool")
+                .tag("pool", bulkhead.getName())
+                .register(meterRegistry);
+        Gauge.builder("banking.bulkhead.queued", bulkhead, Bulkhead::getQueued)
+                .description("Requests waiting for a pool thread")
+                .tag("pool", bulkhead.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder("banking.bulkhead.rejected", bulkhead, Bulkhead::getRejected)
+                .description("Requests rejected with 503 because the pool queue was full")
+                .tag("pool", bulkhead.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder("banking.bulkhead.timeouts", bulkhead, Bulkhead::getTimedOut)
+                .description("Requests answered with 503 because they did not complete in time")
+                .tag("pool", bulkhead.getName())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,184 @@
+package ru.astondevs.bankingapitest.bulkhead;
+
+import ru.astondevs.bankingapitest.exception.BulkheadFullException;
+import ru.astondevs.bankingapitest.exception.RequestTimeoutException;
+import ru.astondevs.bankingapitest.metrics.RequestMetricsContext;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Класс Bulkhead выполняет запросы одного класса в собственном пуле потоков с ограниченной очередью,
+ * поэтому медленные запросы одного класса не могут занять потоки, нужные запросам другого.
+ * <p>
+ * Запрос, не поместившийся в очередь, сразу отклоняется с {@link BulkheadFullException}. По истечении времени
+ * ожидания результат запроса завершается с {@link RequestTimeoutException}, а сам запрос отменяется:
+ * <ul>
+ *     <li>запрос, еще ожидающий в очереди, удаляется из нее и не выполняется;</li>
+ *     <li>выполняющийся запрос пула с {@code abandonRunning} дорабатывает в фоне, а его результат отбрасывается.
+ *     Пул без этого признака (изменяющие запросы) дожидается результата выполняющегося запроса, чтобы клиент
+ *     не получил ошибку по уже зафиксированной операции.</li>
+ * </ul>
+ * Выполняющиеся потоки не прерываются: прерывание потока во время записи в файл закрывает файл базы данных H2.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService timer;
+    private final boolean abandonRunning;
+    private final long retryAfterSeconds;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    /**
+     * @param name              имя пула, используется в именах потоков и метриках
+     * @param threads           количество потоков
+     * @param queueCapacity     количество запросов, ожидающих свободного потока
+     * @param abandonRunning    отменять ли по истечении времени ожидания уже выполняющиеся запросы
+     * @param retryAfterSeconds значение Retry-After для отклоненных запросов
+     * @param timer             планировщик, отслеживающий время ожидания
+     */
+    public Bulkhead(String name, int threads, int queueCapacity, boolean abandonRunning, long retryAfterSeconds,
+                    ScheduledExecutorService timer) {
+        this.name = name;
+        this.abandonRunning = abandonRunning;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.timer = timer;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+            Thread thread = new Thread(runnable, "bulkhead-" + name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Ставит действие в очередь пула.
+     *
+     * @param action  действие
+     * @param timeout время ожидания результата
+     * @return результат действия
+     * @throws BulkheadFullException если очередь пула заполнена
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> action, Duration timeout) {
+        Task<T> task = new Task<>(action, RequestMetricsContext.capture());
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new BulkheadFullException("Too many " + name + " requests in progress, retry later",
+                    retryAfterSeconds);
+        }
+        ScheduledFuture<?> timeoutCheck = timer.schedule(task::timeout, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        task.future.whenComplete((result, failure) -> {
+            timeoutCheck.cancel(false);
+            if (failure instanceof CancellationException) {
+                // Результат отменен снаружи, например при отключении клиента
+                task.cancel();
+            }
+        });
+        return task.future;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    /**
+     * Прекращает прием запросов и ждет завершения уже принятых.
+     */
+    public boolean shutdown(Duration timeout) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private final class Task<T> implements Runnable {
+
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+        private static final int CANCELLED = 3;
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final Supplier<T> action;
+        private final RequestMetricsContext context;
+        private final long submittedNanos = System.nanoTime();
+
+        private Task(Supplier<T> action, RequestMetricsContext context) {
+            this.action = action;
+            this.context = context;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return;
+            }
+            context.attach(System.nanoTime() - submittedNanos);
+            T result = null;
+            Throwable failure = null;
+            try {
+                result = action.get();
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                context.detach();
+            }
+            if (!state.compareAndSet(RUNNING, DONE)) {
+                // Ответ уже отправлен по истечении времени ожидания
+                return;
+            }
+            context.merge();
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+
+        private void timeout() {
+            if (cancel()) {
+                timedOut.incrementAndGet();
+                future.completeExceptionally(new RequestTimeoutException(
+                        "Request did not complete in time, retry later", retryAfterSeconds));
+            }
+        }
+
+        private boolean cancel() {
+            if (state.compareAndSet(QUEUED, CANCELLED)) {
+                executor.remove(this);
+                return true;
+            }
+            return abandonRunning && state.compareAndSet(RUNNING, CANCELLED);
+        }
+    }
+}
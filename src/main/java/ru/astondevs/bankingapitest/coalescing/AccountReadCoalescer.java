@@ -0,0 +1,97 @@
+package ru.astondevs.bankingapitest.coalescing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.config.CoalescingProperties;
+import ru.astondevs.bankingapitest.dto.AccountDto;
+import ru.astondevs.bankingapitest.dto.TransactionDto;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Класс AccountReadCoalescer объединяет одновременные одинаковые запросы счета и его транзакций с помощью
+ * {@link SingleFlight}. Запросы одинаковы, если совпадают идентификатор счета и заголовок If-None-Match:
+ * тогда у них один и тот же ответ, и он вычисляется один раз - вместе с загрузкой из базы данных
+ * и преобразованием в DTO. Формат ответа выбирается для каждого запроса отдельно при сериализации.
+ * Запрос, пришедший после зафиксированного изменения счета, не присоединяется к загрузке, начатой до него
+ * (см. {@link AccountWriteStamps}), поэтому клиент всегда видит результат своей предыдущей операции.
+ * <p>
+ * Для каждой операции публикуются метрики {@code banking.coalescing.requests} с признаком {@code role}:
+ * {@code leader} - запрос выполнил загрузку, {@code follower} - получил результат чужой загрузки,
+ * и {@code banking.coalescing.ratio} - доля запросов, получивших результат чужой загрузки.
+ */
+@Component
+public class AccountReadCoalescer {
+
+    private final CoalescingProperties properties;
+    private final AccountWriteStamps writeStamps;
+    private final SingleFlight<ReadKey, ResponseEntity<AccountDto>> accountReads = new SingleFlight<>();
+    private final SingleFlight<ReadKey, ResponseEntity<List<TransactionDto>>> transactionReads = new SingleFlight<>();
+
+    public AccountReadCoalescer(CoalescingProperties properties, AccountWriteStamps writeStamps,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.writeStamps = writeStamps;
+        registerMetrics(meterRegistry, "account", accountReads);
+        registerMetrics(meterRegistry, "transactions", transactionReads);
+    }
+
+    /**
+     * Возвращает ответ на запрос счета, объединяя его с одновременными одинаковыми запросами.
+     *
+     * @param accountId   идентификатор счета
+     * @param ifNoneMatch значение заголовка If-None-Match или null
+     * @param load        запуск вычисления ответа
+     * @return ответ
+     */
+    public CompletableFuture<ResponseEntity<AccountDto>> account(
+            Long accountId, String ifNoneMatch, Supplier<CompletableFuture<ResponseEntity<AccountDto>>> load) {
+        if (!properties.isEnabled()) {
+            return load.get();
+        }
+        return accountReads.execute(new ReadKey(accountId, ifNoneMatch), writeStamps.current(accountId), load);
+    }
+
+    /**
+     * Возвращает ответ на запрос транзакций счета, объединяя его с одновременными одинаковыми запросами.
+     *
+     * @param accountId   идентификатор счета
+     * @param ifNoneMatch значение заголовка If-None-Match или null
+     * @param load        запуск вычисления ответа
+     * @return ответ
+     */
+    public CompletableFuture<ResponseEntity<List<TransactionDto>>> transactions(
+            Long accountId, String ifNoneMatch,
+            Supplier<CompletableFuture<ResponseEntity<List<TransactionDto>>>> load) {
+        if (!properties.isEnabled()) {
+            return load.get();
+        }
+        return transactionReads.execute(new ReadKey(accountId, ifNoneMatch), writeStamps.current(accountId), load);
+    }
+
+    private static void registerMetrics(MeterRegistry meterRegistry, String operation,
+                                        SingleFlight<?, ?> singleFlight) {
+        FunctionCounter.builder("banking.coalescing.requests", singleFlight, SingleFlight::getLeaders)
+                .description("Read requests that loaded the result themselves or shared an in-flight load")
+                .tag("operation", operation)
+                .tag("role", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder("banking.coalescing.requests", singleFlight, SingleFlight::getFollowers)
+                .description("Read requests that loaded the result themselves or shared an in-flight load")
+                .tag("operation", operation)
+                .tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("banking.coalescing.ratio", singleFlight, SingleFlight::getCoalescingRatio)
+                .description("Share of read requests served by another request's in-flight load")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private record ReadKey(Long accountId, String ifNoneMatch) {
+    }
+}
@@ -0,0 +1,45 @@
+package ru.astondevs.bankingapitest.coalescing;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.model.Account;
+
+/**
+ * Класс AccountWriteListener отмечает в {@link AccountWriteStamps} изменения счетов, выполненные через JPA.
+ * Hibernate вызывает его после фиксации транзакции и обновления кэша второго уровня. Изменения, выполненные
+ * напрямую через JDBC, отмечает {@link ru.astondevs.bankingapitest.service.AccountCacheEvictor}.
+ */
+@Component
+public class AccountWriteListener implements PostCommitUpdateEventListener {
+
+    private final AccountWriteStamps writeStamps;
+
+    public AccountWriteListener(EntityManagerFactory entityManagerFactory, AccountWriteStamps writeStamps) {
+        this.writeStamps = writeStamps;
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_COMMIT_UPDATE, this);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Account account) {
+            writeStamps.advance(account.getId());
+        }
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return Account.class.isAssignableFrom(persister.getMappedClass());
+    }
+}
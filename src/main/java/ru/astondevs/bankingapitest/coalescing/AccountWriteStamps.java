@@ -0,0 +1,48 @@
+package ru.astondevs.bankingapitest.coalescing;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Класс AccountWriteStamps хранит метки изменений счетов для {@link AccountReadCoalescer}. Метка счета
+ * увеличивается после фиксации каждого его изменения, и запрос присоединяется только к загрузке, начатой при той же
+ * или более новой метке.
+ * <p>
+ * Метки хранятся в массиве фиксированного размера по хешу счета, поэтому память не зависит от числа счетов.
+ * Изменение одного счета может помешать объединению запросов другого счета с той же ячейкой, но не приводит
+ * к устаревшему ответу.
+ */
+@Component
+public class AccountWriteStamps {
+
+    private static final int SLOTS = 4096;
+
+    private final AtomicLongArray stamps = new AtomicLongArray(SLOTS);
+
+    /**
+     * Возвращает текущую метку изменений счета.
+     *
+     * @param accountId идентификатор счета
+     * @return метка; не убывает со временем
+     */
+    public long current(Long accountId) {
+        return stamps.get(slot(accountId));
+    }
+
+    /**
+     * Отмечает зафиксированное изменение счета. Вызывается после фиксации транзакции, иначе запрос, пришедший
+     * между отметкой и фиксацией, снова присоединится к загрузке старого состояния.
+     *
+     * @param accountId идентификатор счета
+     */
+    public void advance(Long accountId) {
+        stamps.incrementAndGet(slot(accountId));
+    }
+
+    private static int slot(Long accountId) {
+        int hash = Long.hashCode(accountId);
+        hash ^= hash >>> 16;
+        return hash & (SLOTS - 1);
+    }
+}
@@ -0,0 +1,113 @@
+package ru.astondevs.bankingapitest.coalescing;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Класс SingleFlight объединяет одновременные одинаковые запросы: пока загрузка по ключу не завершена,
+ * новые запросы с тем же ключом не запускают свою загрузку, а получают результат уже выполняющейся.
+ * <p>
+ * Ключ удаляется до выдачи результата, поэтому запрос, пришедший после завершения загрузки, запускает новую
+ * и не получает устаревший результат. Каждый запрос получает собственную копию результата: отмена одного
+ * запроса, например при отключении клиента, не отменяет загрузку для остальных.
+ * <p>
+ * Загрузка помечается меткой изменений данных, действовавшей при ее запуске. Запрос присоединяется к загрузке,
+ * только если его метка не новее: загрузка, начатая до зафиксированного изменения, могла прочитать старые данные,
+ * поэтому запрос, пришедший после изменения, запускает новую загрузку и заменяет ею прежнюю.
+ *
+ * @param <K> тип ключа запроса
+ * @param <V> тип результата
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    /**
+     * Возвращает результат выполняющейся загрузки по ключу или запускает новую.
+     *
+     * @param key  ключ запроса
+     * @param load запуск загрузки; вызывается только для первого из одновременных запросов
+     * @return результат загрузки
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> load) {
+        return execute(key, 0, load);
+    }
+
+    /**
+     * Возвращает результат выполняющейся загрузки по ключу, если она начата не раньше последнего изменения данных,
+     * или запускает новую.
+     *
+     * @param key   ключ запроса
+     * @param stamp метка изменений данных на момент прихода запроса; не убывает со временем
+     * @param load  запуск загрузки; вызывается, если нет выполняющейся загрузки с той же или более новой меткой
+     * @return результат загрузки
+     */
+    public CompletableFuture<V> execute(K key, long stamp, Supplier<CompletableFuture<V>> load) {
+        Flight<V> created = new Flight<>(stamp, new CompletableFuture<>());
+        while (true) {
+            Flight<V> shared = inFlight.get(key);
+            if (shared != null && shared.stamp() >= stamp) {
+                followers.increment();
+                return shared.result().copy();
+            }
+            boolean started = shared == null
+                    ? inFlight.putIfAbsent(key, created) == null
+                    : inFlight.replace(key, shared, created);
+            if (started) {
+                break;
+            }
+        }
+        leaders.increment();
+        CompletableFuture<V> loading;
+        try {
+            loading = load.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.result().completeExceptionally(e);
+            throw e;
+        }
+        loading.whenComplete((value, failure) -> {
+            inFlight.remove(key, created);
+            if (failure != null) {
+                created.result().completeExceptionally(failure);
+            } else {
+                created.result().complete(value);
+            }
+        });
+        return created.result().copy();
+    }
+
+    /**
+     * Возвращает количество запросов, запустивших загрузку.
+     */
+    public long getLeaders() {
+        return leaders.sum();
+    }
+
+    /**
+     * Возвращает количество запросов, получивших результат чужой загрузки.
+     */
+    public long getFollowers() {
+        return followers.sum();
+    }
+
+    /**
+     * Возвращает долю запросов, получивших результат чужой загрузки, от 0 до 1.
+     */
+    public double getCoalescingRatio() {
+        long followers = getFollowers();
+        long total = getLeaders() + followers;
+        return total == 0 ? 0 : (double) followers / total;
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private record Flight<V>(long stamp, CompletableFuture<V> result) {
+    }
+}
@@ -0,0 +1,51 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Класс AccountExistenceIndexProperties содержит настройки индекса существования счетов.
+ * Значения задаются в application.yml с префиксом {@code banking.existence-index}.
+ */
+@ConfigurationProperties(prefix = "banking.existence-index")
+public class AccountExistenceIndexProperties {
+
+    /**
+     * Включает проверку существования счета по индексу до обращения к базе данных.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Ожидаемое количество счетов. При перестроении индекс рассчитывается на большее из этого значения
+     * и удвоенного текущего количества счетов.
+     */
+    private long expectedAccounts = 1_000_000;
+
+    /**
+     * Целевая вероятность ложноположительного ответа при ожидаемом количестве счетов.
+     */
+    private double falsePositiveProbability = 0.01;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getExpectedAccounts() {
+        return expectedAccounts;
+    }
+
+    public void setExpectedAccounts(long expectedAccounts) {
+        this.expectedAccounts = expectedAccounts;
+    }
+
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+
+    public void setFalsePositiveProbability(double falsePositiveProbability) {
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Класс AccountImportProperties содержит настройки пакетного создания и импорта счетов.
+ * Значения задаются в application.yml с префиксом {@code banking.import}.
+ */
+@ConfigurationProperties(prefix = "banking.import")
+public class AccountImportProperties {
+
+    /**
+     * Количество счетов, вставляемых в базу данных одним JDBC-пакетом и одной транзакцией.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Максимальное количество ошибок по строкам, сохраняемых в отчете об импорте.
+     * Остальные ошибки учитываются только в счетчике, чтобы объем отчета оставался ограниченным.
+     */
+    private int maxReportedErrors = 1000;
+
+    /**
+     * Максимальное количество счетов в одном запросе пакетного создания в формате JSON.
+     * Большие объемы следует загружать через потоковый импорт CSV.
+     */
+    private int maxBulkSize = 10000;
+
+    /**
+     * Количество завершенных импортов, информация о которых хранится для запросов о ходе выполнения.
+     */
+    private int retainedImports = 100;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxReportedErrors() {
+        return maxReportedErrors;
+    }
+
+    public void setMaxReportedErrors(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public int getMaxBulkSize() {
+        return maxBulkSize;
+    }
+
+    public void setMaxBulkSize(int maxBulkSize) {
+        this.maxBulkSize = maxBulkSize;
+    }
+
+    public int getRetainedImports() {
+        return retainedImports;
+    }
+
+    public void setRetainedImports(int retainedImports) {
+        this.retainedImports = retainedImports;
+    }
+}
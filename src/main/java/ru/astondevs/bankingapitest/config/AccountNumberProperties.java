@@ -0,0 +1,25 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Класс AccountNumberProperties содержит настройки генерации номеров счетов.
+ * Значения задаются в application.yml с префиксом {@code banking.account-number}.
+ */
+@ConfigurationProperties(prefix = "banking.account-number")
+public class AccountNumberProperties {
+
+    /**
+     * Идентификатор узла от 0 до 1023. Узлы, одновременно создающие счета в одной базе данных,
+     * должны иметь разные идентификаторы, иначе уникальность номеров не гарантируется.
+     */
+    private int nodeId = 0;
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(int nodeId) {
+        this.nodeId = nodeId;
+    }
+}
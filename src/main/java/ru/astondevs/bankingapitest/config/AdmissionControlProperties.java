@@ -0,0 +1,131 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Класс AdmissionControlProperties содержит настройки ограничения числа одновременно обрабатываемых запросов.
+ * Значения задаются в application.yml с префиксом {@code banking.admission}.
+ */
+@ConfigurationProperties(prefix = "banking.admission")
+public class AdmissionControlProperties {
+
+    /**
+     * Включает ограничение числа одновременно обрабатываемых запросов.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Значение заголовка Retry-After в секундах для отклоненных запросов.
+     */
+    private int retryAfterSeconds = 1;
+
+    /**
+     * Ограничение для запросов на чтение (GET).
+     */
+    private Limit reads = new Limit(50, 5, 500);
+
+    /**
+     * Ограничение для изменяющих запросов (POST и другие).
+     */
+    private Limit writes = new Limit(20, 2, 200);
+
+    /**
+     * Ограничение для пакетного создания и импорта счетов. Время такого запроса зависит от размера тела,
+     * а не от загрузки, поэтому по умолчанию ограничение постоянное.
+     */
+    private Limit imports = new Limit(2, 2, 2);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Limit getReads() {
+        return reads;
+    }
+
+    public void setReads(Limit reads) {
+        this.reads = reads;
+    }
+
+    public Limit getWrites() {
+        return writes;
+    }
+
+    public void setWrites(Limit writes) {
+        this.writes = writes;
+    }
+
+    public Limit getImports() {
+        return imports;
+    }
+
+    public void setImports(Limit imports) {
+        this.imports = imports;
+    }
+
+    /**
+     * Границы адаптивного ограничения одного класса запросов.
+     */
+    public static class Limit {
+
+        /**
+         * Начальное ограничение числа одновременных запросов.
+         */
+        private int initialLimit;
+
+        /**
+         * Нижняя граница, ниже которой ограничение не опускается.
+         */
+        private int minLimit;
+
+        /**
+         * Верхняя граница, выше которой ограничение не поднимается.
+         */
+        private int maxLimit;
+
+        public Limit() {
+        }
+
+        public Limit(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Класс AuditProperties содержит настройки журнала аудита операций со счетами.
+ * Значения задаются в application.yml с префиксом {@code banking.audit}.
+ */
+@ConfigurationProperties(prefix = "banking.audit")
+public class AuditProperties {
+
+    /**
+     * Поведение при заполнении буфера событий.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Поток запроса ждет, пока в буфере освободится место. Ни одно событие не теряется.
+         */
+        BLOCK,
+        /**
+         * Событие отбрасывается, а счетчик отброшенных событий увеличивается. Запрос не ждет записи журнала.
+         */
+        DROP
+    }
+
+    /**
+     * Директория файлов журнала. Если не задана, журнал не ведется.
+     */
+    private String directory;
+
+    /**
+     * Количество событий в буфере между потоками запросов и потоком записи. Округляется вверх до степени двойки.
+     */
+    private int bufferSize = 8192;
+
+    /**
+     * Поведение при заполнении буфера.
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /**
+     * Размер файла, после которого запись продолжается в новый файл.
+     */
+    private DataSize maxFileSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Интервал принудительного сброса записанных событий на диск.
+     */
+    private Duration syncInterval = Duration.ofSeconds(1);
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public DataSize getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(DataSize maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public Duration getSyncInterval() {
+        return syncInterval;
+    }
+
+    public void setSyncInterval(Duration syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+}
@@ -0,0 +1,125 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Класс BulkheadProperties содержит настройки пулов потоков, в которых асинхронно выполняются запросы к API счетов.
+ * Значения задаются в application.yml с префиксом {@code banking.bulkhead}.
+ */
+@ConfigurationProperties(prefix = "banking.bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * Значение заголовка Retry-After в секундах для запросов, отклоненных из-за заполненной очереди пула
+     * или истечения времени ожидания.
+     */
+    private int retryAfterSeconds = 1;
+
+    /**
+     * Пул для запросов на чтение.
+     */
+    private Pool reads = new Pool(8, 64, Duration.ofSeconds(5));
+
+    /**
+     * Пул для изменяющих запросов.
+     */
+    private Pool writes = new Pool(16, 128, Duration.ofSeconds(10));
+
+    /**
+     * Время ожидания отдельных эндпоинтов, переопределяющее время ожидания пула. Ключ - имя эндпоинта:
+     * {@code create-account}, {@code get-account}, {@code get-account-by-number}, {@code deposit},
+     * {@code withdraw}, {@code transfer}, {@code transactions}, {@code transaction-search}, {@code balance},
+     * {@code accounts}.
+     */
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Pool getReads() {
+        return reads;
+    }
+
+    public void setReads(Pool reads) {
+        this.reads = reads;
+    }
+
+    public Pool getWrites() {
+        return writes;
+    }
+
+    public void setWrites(Pool writes) {
+        this.writes = writes;
+    }
+
+    public Map<String, Duration> getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(Map<String, Duration> timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * Размеры и время ожидания одного пула.
+     */
+    public static class Pool {
+
+        /**
+         * Количество потоков пула.
+         */
+        private int threads;
+
+        /**
+         * Количество запросов, ожидающих свободного потока. Запросы сверх очереди сразу отклоняются.
+         */
+        private int queueCapacity;
+
+        /**
+         * Время ожидания запроса по умолчанию: от постановки в очередь до получения результата.
+         */
+        private Duration timeout;
+
+        public Pool() {
+        }
+
+        public Pool(int threads, int queueCapacity, Duration timeout) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.timeout = timeout;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Класс CheckpointProperties содержит настройки контрольных точек баланса, по которым вычисляется баланс счета
+ * на произвольный момент времени. Значения задаются в application.yml с префиксом {@code banking.checkpoint}.
+ */
+@ConfigurationProperties(prefix = "banking.checkpoint")
+public class CheckpointProperties {
+
+    /**
+     * Включает фоновое построение контрольных точек. Без них баланс на момент времени вычисляется
+     * по всем транзакциям счета.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Пауза между запусками построения контрольных точек.
+     */
+    private Duration interval = Duration.ofMinutes(1);
+
+    /**
+     * Количество транзакций счета между соседними контрольными точками. Ограничивает число транзакций,
+     * которые нужно просуммировать после ближайшей контрольной точки.
+     */
+    private int transactionsPerCheckpoint = 1000;
+
+    /**
+     * Время, за которое транзакция гарантированно фиксируется после получения своего времени. Транзакции моложе
+     * этого времени в контрольные точки не попадают: более старая транзакция может быть еще не зафиксирована.
+     */
+    private Duration settleTime = Duration.ofMinutes(1);
+
+    /**
+     * Количество строк, запрашиваемых у драйвера за один раз при чтении транзакций счета.
+     */
+    private int fetchSize = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public int getTransactionsPerCheckpoint() {
+        return transactionsPerCheckpoint;
+    }
+
+    public void setTransactionsPerCheckpoint(int transactionsPerCheckpoint) {
+        this.transactionsPerCheckpoint = transactionsPerCheckpoint;
+    }
+
+    public Duration getSettleTime() {
+        return settleTime;
+    }
+
+    public void setSettleTime(Duration settleTime) {
+        this.settleTime = settleTime;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Класс CoalescingProperties содержит настройки объединения одновременных одинаковых запросов на чтение.
+ * Значения задаются в application.yml с префиксом {@code banking.coalescing}.
+ */
+@ConfigurationProperties(prefix = "banking.coalescing")
+public class CoalescingProperties {
+
+    /**
+     * Включает объединение одновременных запросов счета и его транзакций.
+     */
+    private boolean enabled = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Класс GrpcProperties содержит настройки gRPC-сервера, который работает рядом с HTTP-сервером.
+ * Значения задаются в application.yml с префиксом {@code banking.grpc}.
+ */
+@ConfigurationProperties(prefix = "banking.grpc")
+public class GrpcProperties {
+
+    /**
+     * Включает gRPC-сервер.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Порт gRPC-сервера. Значение 0 означает любой свободный порт.
+     */
+    private int port = 9090;
+
+    /**
+     * Время, в течение которого при остановке приложения ожидается завершение выполняющихся вызовов.
+     */
+    private Duration shutdownGracePeriod = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public Duration getShutdownGracePeriod() {
+        return shutdownGracePeriod;
+    }
+
+    public void setShutdownGracePeriod(Duration shutdownGracePeriod) {
+        this.shutdownGracePeriod = shutdownGracePeriod;
+    }
+}
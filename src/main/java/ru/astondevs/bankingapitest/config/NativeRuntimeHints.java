@@ -0,0 +1,70 @@
+package ru.astondevs.bankingapitest.config;
+
+import com.google.protobuf.Descriptors;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import ru.astondevs.bankingapitest.dto.AccountCreationRequest;
+import ru.astondevs.bankingapitest.dto.AccountDto;
+import ru.astondevs.bankingapitest.dto.AccountImportDto;
+import ru.astondevs.bankingapitest.dto.AccountImportErrorDto;
+import ru.astondevs.bankingapitest.dto.BalanceDto;
+import ru.astondevs.bankingapitest.dto.DepositRequest;
+import ru.astondevs.bankingapitest.dto.PostingRunDto;
+import ru.astondevs.bankingapitest.dto.PostingRunRequest;
+import ru.astondevs.bankingapitest.dto.ReconciliationDiscrepancyDto;
+import ru.astondevs.bankingapitest.dto.ReconciliationRunDto;
+import ru.astondevs.bankingapitest.dto.SlowRequestDto;
+import ru.astondevs.bankingapitest.dto.TransactionDto;
+import ru.astondevs.bankingapitest.dto.TransferRequest;
+import ru.astondevs.bankingapitest.dto.WithdrawRequest;
+import ru.astondevs.bankingapitest.grpc.proto.BankingProto;
+import ru.astondevs.bankingapitest.metrics.RequestStatisticsListener;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.model.Transaction;
+import ru.astondevs.bankingapitest.model.TransactionTypeConverter;
+
+/**
+ * Класс NativeRuntimeHints описывает для GraalVM native-image то, что приложение использует через
+ * отражение или загружает как ресурсы и что не выводится автоматически при обработке Spring AOT:
+ * сущности JPA, DTO для сериализации в JSON, CBOR и Smile, миграции Flyway, драйвер H2,
+ * настройки кэша второго уровня и сообщения gRPC.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources().registerPattern("db/migration/*.sql");
+        hints.resources().registerPattern("ehcache.xml");
+
+        for (Class<?> entity : new Class<?>[]{Account.class, Transaction.class}) {
+            hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                AccountDto.class, TransactionDto.class, AccountCreationRequest.class, DepositRequest.class,
+                WithdrawRequest.class, TransferRequest.class, AccountImportDto.class, AccountImportErrorDto.class,
+                ReconciliationRunDto.class, ReconciliationDiscrepancyDto.class,
+                PostingRunRequest.class, PostingRunDto.class, SlowRequestDto.class, BalanceDto.class);
+
+        hints.reflection().registerType(TypeReference.of("org.h2.Driver"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        // Hibernate создает конвертер типа транзакции по классу из аннотации @Convert
+        hints.reflection().registerType(TransactionTypeConverter.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+        // Hibernate создает слушатель событий сессии по имени класса из hibernate.session.events.auto
+        hints.reflection().registerType(RequestStatisticsListener.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        // Сообщения protobuf обращаются к своим методам доступа через отражение
+        String javaPackage = BankingProto.getDescriptor().getOptions().getJavaPackage();
+        for (Descriptors.Descriptor message : BankingProto.getDescriptor().getMessageTypes()) {
+            String className = javaPackage + "." + message.getName();
+            hints.reflection().registerType(TypeReference.of(className), MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.reflection().registerType(TypeReference.of(className + "$Builder"),
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Класс PinThrottleProperties содержит настройки ограничения неудачных попыток ввода PIN-кода.
+ * Значения задаются в application.yml с префиксом {@code banking.pin-throttle}.
+ */
+@ConfigurationProperties(prefix = "banking.pin-throttle")
+public class PinThrottleProperties {
+
+    /**
+     * Включает ограничение неудачных попыток ввода PIN-кода.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Ограничение неудачных попыток для одного счета.
+     */
+    private Bucket account = new Bucket(5, Duration.ofMinutes(1));
+
+    /**
+     * Ограничение неудачных попыток для одного клиента (IP-адреса) по всем счетам.
+     */
+    private Bucket client = new Bucket(20, Duration.ofSeconds(10));
+
+    /**
+     * Количество сегментов хранилища. Каждый сегмент вытесняет записи независимо от остальных.
+     */
+    private int stripes = 16;
+
+    /**
+     * Максимальное количество записей в каждом из хранилищ (по счетам и по клиентам).
+     */
+    private int maxEntries = 100_000;
+
+    /**
+     * Файл, в который периодически сохраняется состояние ограничений. Если не задан, состояние не сохраняется.
+     */
+    private String snapshotFile;
+
+    /**
+     * Интервал сохранения состояния ограничений.
+     */
+    private Duration snapshotInterval = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Bucket getAccount() {
+        return account;
+    }
+
+    public void setAccount(Bucket account) {
+        this.account = account;
+    }
+
+    public Bucket getClient() {
+        return client;
+    }
+
+    public void setClient(Bucket client) {
+        this.client = client;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public Duration getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(Duration snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Параметры корзины токенов: каждая неудачная попытка расходует один токен,
+     * токены восстанавливаются по одному за указанный период.
+     */
+    public static class Bucket {
+
+        /**
+         * Количество неудачных попыток, допустимых подряд.
+         */
+        private int capacity;
+
+        /**
+         * Время восстановления одного токена.
+         */
+        private Duration refillPeriod;
+
+        public Bucket() {
+        }
+
+        public Bucket(int capacity, Duration refillPeriod) {
+            this.capacity = capacity;
+            this.refillPeriod = refillPeriod;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getRefillPeriod() {
+            return refillPeriod;
+        }
+
+        public void setRefillPeriod(Duration refillPeriod) {
+            this.refillPeriod = refillPeriod;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Класс PostingProperties содержит настройки массового начисления процентов и списания комиссий.
+ * Значения задаются в application.yml с префиксом {@code banking.posting}.
+ */
+@ConfigurationProperties(prefix = "banking.posting")
+public class PostingProperties {
+
+    /**
+     * Размер диапазона идентификаторов счетов, проводимого одной транзакцией базы данных.
+     */
+    private long chunkSize = 10_000;
+
+    /**
+     * Количество потоков пула fork-join. Каждый поток во время работы занимает одно соединение с базой данных,
+     * поэтому значение не должно превышать размер пула соединений. При значении 0 используется число процессоров.
+     */
+    private int parallelism = 0;
+
+    /**
+     * Количество строк в одном JDBC-пакете обновления балансов и вставки транзакций.
+     */
+    private int batchSize = 1000;
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Класс ReconciliationProperties содержит настройки сверки балансов счетов с журналом транзакций.
+ * Значения задаются в application.yml с префиксом {@code banking.reconciliation}.
+ */
+@ConfigurationProperties(prefix = "banking.reconciliation")
+public class ReconciliationProperties {
+
+    /**
+     * Размер диапазона идентификаторов счетов, обрабатываемого одной задачей и фиксируемого одной контрольной точкой.
+     */
+    private long chunkSize = 10_000;
+
+    /**
+     * Количество потоков пула fork-join. Каждый поток во время работы занимает одно соединение с базой данных,
+     * поэтому значение не должно превышать размер пула соединений. При значении 0 используется число процессоров.
+     */
+    private int parallelism = 0;
+
+    /**
+     * Количество строк, запрашиваемых у драйвера за один раз при чтении транзакций диапазона.
+     */
+    private int fetchSize = 1000;
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+}
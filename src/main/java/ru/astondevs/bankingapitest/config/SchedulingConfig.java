@@ -0,0 +1,12 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Класс SchedulingConfig включает выполнение периодических задач приложения.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
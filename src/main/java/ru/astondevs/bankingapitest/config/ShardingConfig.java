@@ -0,0 +1,100 @@
+package ru.astondevs.bankingapitest.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс ShardingConfig настраивает работу с несколькими базами данных шардов при {@code banking.sharding.enabled}.
+ * <p>
+ * Вместо одной базы данных из {@code spring.datasource} создается пул соединений для каждого шарда и
+ * {@link ShardRoutingDataSource}, который выбирает шард по {@link ru.astondevs.bankingapitest.sharding.ShardContext}.
+ * Миграции применяются к каждому шарду, после чего счетчик идентификаторов счетов шарда переводится
+ * на начало его диапазона.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "banking.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+    public ShardingConfig(Environment environment) {
+        // При open-in-view сессия Hibernate удерживает первое полученное соединение до конца HTTP-запроса,
+        // и все последующие транзакции запроса выполнялись бы в шарде этого соединения
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException("banking.sharding.enabled requires spring.jpa.open-in-view=false");
+        }
+    }
+
+    @Bean
+    public ShardRoutingDataSource dataSource(ShardingProperties properties) {
+        List<DataSource> shards = new ArrayList<>();
+        for (int shard = 0; shard < properties.getShards().size(); shard++) {
+            ShardingProperties.Shard settings = properties.getShards().get(shard);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(settings.getUrl())
+                    .username(settings.getUsername())
+                    .password(settings.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + shard);
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardRoutingDataSource dataSource, ShardRouter shardRouter) {
+        return flyway -> {
+            for (int shard = 0; shard < dataSource.getShardCount(); shard++) {
+                DataSource shardDataSource = dataSource.getShard(shard);
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shardDataSource)
+                        .load()
+                        .migrate();
+                prepareShard(new JdbcTemplate(shardDataSource), shardRouter.firstAccountId(shard));
+            }
+        };
+    }
+
+    /**
+     * Кэш запросов хранит идентификаторы найденных счетов без указания шарда, поэтому результат запроса
+     * к одному шарду был бы возвращен и для другого.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardQueryCacheCustomizer() {
+        return properties -> properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+    }
+
+    /**
+     * Переводит счетчик идентификаторов счетов шарда на начало его диапазона. Пока в шарде нет собственных счетов,
+     * счета начального заполнения из миграций, идентификаторы которых принадлежат шарду 0, удаляются.
+     */
+    private static void prepareShard(JdbcTemplate jdbcTemplate, long firstAccountId) {
+        Long maxAccountId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM account", Long.class);
+        if (maxAccountId != null && maxAccountId >= firstAccountId) {
+            return;
+        }
+        int removedRows = jdbcTemplate.update("DELETE FROM transaction WHERE account_id < ?", firstAccountId);
+        removedRows += jdbcTemplate.update("DELETE FROM account WHERE id < ?", firstAccountId);
+        jdbcTemplate.execute("ALTER TABLE account ALTER COLUMN id RESTART WITH " + firstAccountId);
+        logger.info("Shard account ids start at {}, {} seed rows removed", firstAccountId, removedRows);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс ShardingProperties содержит настройки горизонтального разделения счетов по нескольким базам данных (шардам).
+ * Значения задаются в application.yml с префиксом {@code banking.sharding}.
+ */
+@ConfigurationProperties(prefix = "banking.sharding")
+public class ShardingProperties {
+
+    /**
+     * Включает разделение счетов по шардам. Без него приложение работает с одной базой данных
+     * из {@code spring.datasource}.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Количество идентификаторов счетов, выделенных каждому шарду: шард с номером {@code n} выдает идентификаторы
+     * начиная с {@code n * accountIdRange + 1}, поэтому шард счета определяется по его идентификатору.
+     */
+    private long accountIdRange = 1_000_000_000_000L;
+
+    /**
+     * Базы данных шардов. Номер шарда - позиция в списке; список нельзя переупорядочивать после создания счетов.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Количество попыток зачисления перевода между шардами при конфликте параллельного изменения счета получателя.
+     */
+    private int creditAttempts = 3;
+
+    /**
+     * Периодичность проверки незавершенных переводов между шардами.
+     */
+    private Duration recoveryInterval = Duration.ofSeconds(30);
+
+    /**
+     * Время, после которого незавершенный перевод считается прерванным и завершается фоновой задачей,
+     * а не выполняющим его запросом.
+     */
+    private Duration recoveryDelay = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getAccountIdRange() {
+        return accountIdRange;
+    }
+
+    public void setAccountIdRange(long accountIdRange) {
+        this.accountIdRange = accountIdRange;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public int getCreditAttempts() {
+        return creditAttempts;
+    }
+
+    public void setCreditAttempts(int creditAttempts) {
+        this.creditAttempts = creditAttempts;
+    }
+
+    public Duration getRecoveryInterval() {
+        return recoveryInterval;
+    }
+
+    public void setRecoveryInterval(Duration recoveryInterval) {
+        this.recoveryInterval = recoveryInterval;
+    }
+
+    public Duration getRecoveryDelay() {
+        return recoveryDelay;
+    }
+
+    public void setRecoveryDelay(Duration recoveryDelay) {
+        this.recoveryDelay = recoveryDelay;
+    }
+
+    /**
+     * Параметры подключения к базе данных одного шарда.
+     */
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Класс TimingProperties содержит настройки замера этапов обработки HTTP-запросов.
+ * Значения задаются в application.yml с префиксом {@code banking.timing}.
+ */
+@ConfigurationProperties(prefix = "banking.timing")
+public class TimingProperties {
+
+    /**
+     * Включает замер этапов обработки запросов.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Добавляет в ответ заголовок Server-Timing с длительностью этапов на момент отправки заголовков.
+     */
+    private boolean serverTimingHeader = true;
+
+    /**
+     * Длительность обработки, начиная с которой запрос считается медленным и попадает в журнал медленных запросов.
+     */
+    private Duration slowRequestThreshold = Duration.ofMillis(500);
+
+    /**
+     * Доля медленных запросов, попадающих в журнал, от 0 до 1.
+     */
+    private double slowRequestSampleRate = 1.0;
+
+    /**
+     * Количество последних медленных запросов, хранимых в журнале.
+     */
+    private int slowRequestCapacity = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isServerTimingHeader() {
+        return serverTimingHeader;
+    }
+
+    public void setServerTimingHeader(boolean serverTimingHeader) {
+        this.serverTimingHeader = serverTimingHeader;
+    }
+
+    public Duration getSlowRequestThreshold() {
+        return slowRequestThreshold;
+    }
+
+    public void setSlowRequestThreshold(Duration slowRequestThreshold) {
+        this.slowRequestThreshold = slowRequestThreshold;
+    }
+
+    public double getSlowRequestSampleRate() {
+        return slowRequestSampleRate;
+    }
+
+    public void setSlowRequestSampleRate(double slowRequestSampleRate) {
+        this.slowRequestSampleRate = slowRequestSampleRate;
+    }
+
+    public int getSlowRequestCapacity() {
+        return slowRequestCapacity;
+    }
+
+    public void setSlowRequestCapacity(int slowRequestCapacity) {
+        this.slowRequestCapacity = slowRequestCapacity;
+    }
+}
@@ -0,0 +1,149 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Класс VelocityProperties содержит настройки лимитов на снятие и исходящие переводы за скользящее окно времени.
+ * Значения задаются в application.yml с префиксом {@code banking.velocity}. По умолчанию проверка выключена и лимиты
+ * не заданы: их значения зависят от продукта и задаются при развертывании.
+ */
+@ConfigurationProperties(prefix = "banking.velocity")
+public class VelocityProperties {
+
+    /**
+     * Включает проверку лимитов.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Лимиты на снятие средств со счета.
+     */
+    private Limit withdrawals = new Limit(Duration.ofHours(24), 24, null, 0);
+
+    /**
+     * Лимиты на исходящие переводы со счета.
+     */
+    private Limit transfers = new Limit(Duration.ofMinutes(1), 12, null, 0);
+
+    /**
+     * Количество сегментов хранилища. Каждый сегмент вытесняет записи независимо от остальных.
+     */
+    private int stripes = 16;
+
+    /**
+     * Максимальное количество счетов в каждом из хранилищ (снятия и переводы).
+     */
+    private int maxEntries = 100_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limit getWithdrawals() {
+        return withdrawals;
+    }
+
+    public void setWithdrawals(Limit withdrawals) {
+        this.withdrawals = withdrawals;
+    }
+
+    public Limit getTransfers() {
+        return transfers;
+    }
+
+    public void setTransfers(Limit transfers) {
+        this.transfers = transfers;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Лимиты операций одного вида за скользящее окно. Окно делится на равные интервалы; операция учитывается
+     * в окне до тех пор, пока не истечет весь ее интервал.
+     */
+    public static class Limit {
+
+        /**
+         * Длительность скользящего окна.
+         */
+        private Duration window;
+
+        /**
+         * Количество интервалов, на которые делится окно. Определяет точность окна и объем памяти на счет.
+         */
+        private int buckets;
+
+        /**
+         * Наибольшая сумма операций за окно. Если не задана, сумма не ограничивается.
+         */
+        private BigDecimal maxAmount;
+
+        /**
+         * Наибольшее количество операций за окно. При значении 0 количество не ограничивается.
+         */
+        private int maxCount;
+
+        public Limit() {
+        }
+
+        public Limit(Duration window, int buckets, BigDecimal maxAmount, int maxCount) {
+            this.window = window;
+            this.buckets = buckets;
+            this.maxAmount = maxAmount;
+            this.maxCount = maxCount;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getBuckets() {
+            return buckets;
+        }
+
+        public void setBuckets(int buckets) {
+            this.buckets = buckets;
+        }
+
+        public BigDecimal getMaxAmount() {
+            return maxAmount;
+        }
+
+        public void setMaxAmount(BigDecimal maxAmount) {
+            this.maxAmount = maxAmount;
+        }
+
+        public int getMaxCount() {
+            return maxCount;
+        }
+
+        public void setMaxCount(int maxCount) {
+            this.maxCount = maxCount;
+        }
+    }
+}
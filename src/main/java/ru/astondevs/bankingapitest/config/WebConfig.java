@@ -0,0 +1,60 @@
+package ru.astondevs.bankingapitest.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.astondevs.bankingapitest.admission.AdmissionControlInterceptor;
+
+import java.util.List;
+
+/**
+ * Класс WebConfig содержит настройки Spring MVC для API счетов.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    public WebConfig(AdmissionControlInterceptor admissionControlInterceptor,
+                     ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        this.admissionControlInterceptor = admissionControlInterceptor;
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionControlInterceptor).addPathPatterns("/api/accounts/**");
+    }
+
+    /**
+     * Добавляет двоичные форматы CBOR ({@code application/cbor}) и Smile ({@code application/x-jackson-smile})
+     * сразу после JSON. Преобразователи создаются из того же построителя, что и JSON, поэтому настройки
+     * {@code spring.jackson.*} действуют во всех форматах. JSON остается первым и используется,
+     * если клиент не запросил другой формат явно.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        int index = 0;
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+                index = i + 1;
+                break;
+            }
+        }
+        converters.add(index, new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+        converters.add(index, new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+    }
+}
@@ -5,48 +5,88 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.astondevs.bankingapitest.bulkhead.AccountBulkheads;
+import ru.astondevs.bankingapitest.coalescing.AccountReadCoalescer;
 import ru.astondevs.bankingapitest.dto.AccountCreationRequest;
 import ru.astondevs.bankingapitest.dto.AccountDto;
+import ru.astondevs.bankingapitest.dto.BalanceDto;
 import ru.astondevs.bankingapitest.dto.DepositRequest;
 import ru.astondevs.bankingapitest.dto.TransactionDto;
 import ru.astondevs.bankingapitest.dto.TransferRequest;
 import ru.astondevs.bankingapitest.dto.WithdrawRequest;
 import ru.astondevs.bankingapitest.exception.InvalidRequestException;
 import ru.astondevs.bankingapitest.mapper.AccountMapper;
+import ru.astondevs.bankingapitest.mapper.BalanceMapper;
 import ru.astondevs.bankingapitest.mapper.TransactionMapper;
 import ru.astondevs.bankingapitest.model.Account;
 import ru.astondevs.bankingapitest.model.Transaction;
+import ru.astondevs.bankingapitest.model.TransactionType;
 import ru.astondevs.bankingapitest.service.AccountService;
+import ru.astondevs.bankingapitest.service.BalanceCheckpointService;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
  * Класс AccountController обрабатывает HTTP-запросы, связанные с операциями над счетами.
  * Он содержит методы для создания счетов, получения информации о счетах, внесения депозитов, снятия средств и перевода средств между счетами.
+ * <p>
+ * Запросы выполняются асинхронно в пулах {@link AccountBulkheads}: чтения и изменяющие операции в разных пулах,
+ * поэтому долгие чтения не занимают потоки, нужные переводам. Тело запроса проверяется до постановки в пул.
+ * Одновременные одинаковые запросы счета и его транзакций объединяются {@link AccountReadCoalescer}.
  */
 @Tag(name = "Account Management", description = "Operations pertaining to account in Account Management")
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
 
+    /**
+     * Форматы ответа в порядке преобразователей сообщений (см. WebConfig) и их признаки в ETag.
+     */
+    private static final Map<MediaType, String> REPRESENTATIONS = representations();
+
     private final AccountService accountService;
     private final AccountMapper accountMapper;
     private final TransactionMapper transactionMapper;
+    private final AccountBulkheads bulkheads;
+    private final AccountReadCoalescer readCoalescer;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final BalanceMapper balanceMapper;
 
-    public AccountController(AccountService accountService, AccountMapper accountMapper, TransactionMapper transactionMapper) {
+    public AccountController(AccountService accountService, AccountMapper accountMapper,
+                             TransactionMapper transactionMapper, AccountBulkheads bulkheads,
+                             AccountReadCoalescer readCoalescer, BalanceCheckpointService balanceCheckpointService,
+                             BalanceMapper balanceMapper) {
         this.accountService = accountService;
         this.accountMapper = accountMapper;
         this.transactionMapper = transactionMapper;
+        this.bulkheads = bulkheads;
+        this.readCoalescer = readCoalescer;
+        this.balanceCheckpointService = balanceCheckpointService;
+        this.balanceMapper = balanceMapper;
     }
 
     /**
@@ -61,31 +101,73 @@ public class AccountController {
             @ApiResponse(responseCode = "400", description = "Invalid request body"),
     })
     @PostMapping
-    public ResponseEntity<AccountDto> createAccount(
+    public CompletableFuture<ResponseEntity<AccountDto>> createAccount(
             @Parameter(description = "Account creation object", required = true) @RequestBody AccountCreationRequest request) {
         if (request == null) {
             throw new InvalidRequestException("Request body must not be null");
         }
-        Account account = accountService.createAccount(request.getBeneficiaryName(), request.getPin());
-        return ResponseEntity.ok(accountMapper.toDto(account));
+        return bulkheads.write("create-account", () -> {
+            Account account = accountService.createAccount(request.getBeneficiaryName(), request.getPin());
+            return ResponseEntity.ok(accountMapper.toDto(account));
+        });
     }
 
     /**
      * Обрабатывает HTTP-запрос GET для получения информации о счете.
      *
-     * @param id идентификатор счета, информацию о котором нужно получить.
+     * Ответ содержит ETag с версией загруженного счета и форматом ответа. Если версия счета в базе данных совпадает
+     * с переданной в заголовке If-None-Match для того же формата, возвращается 304 без загрузки счета.
+     *
+     * @param id          идентификатор счета, информацию о котором нужно получить.
+     * @param ifNoneMatch значение заголовка If-None-Match или null.
+     * @param accept      значение заголовка Accept или null.
      * @return ResponseEntity с информацией о счете.
      */
     @Operation(summary = "Get an account by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Account retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Account not modified"),
             @ApiResponse(responseCode = "404", description = "Account not found"),
     })
     @GetMapping("/{id}")
-    public ResponseEntity<AccountDto> getAccount(
-            @Parameter(description = "ID of the account to be obtained", required = true) @PathVariable Long id) {
-        Account account = accountService.getAccount(id);
-        return ResponseEntity.ok(accountMapper.toDto(account));
+    public CompletableFuture<ResponseEntity<AccountDto>> getAccount(
+            @Parameter(description = "ID of the account to be obtained", required = true) @PathVariable Long id,
+            @Parameter(description = "ETag of a cached copy of the account")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String representation = representation(accept);
+        String versionTags = versionTags(ifNoneMatch, representation);
+        return readCoalescer.account(id, versionTags, () -> bulkheads.read("get-account", () -> {
+            if (versionTags != null) {
+                String eTag = eTag(accountService.getAccountVersion(id));
+                if (isNotModified(versionTags, eTag)) {
+                    return notModified(eTag);
+                }
+            }
+            Account account = accountService.getAccount(id);
+            return ResponseEntity.ok().eTag(eTag(account.getVersion())).varyBy(HttpHeaders.ACCEPT)
+                    .body(accountMapper.toDto(account));
+        })).thenApply(response -> withRepresentation(response, representation));
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос GET для получения информации о счете по его номеру.
+     *
+     * @param accountNumber номер счета, информацию о котором нужно получить.
+     * @return ResponseEntity с информацией о счете.
+     */
+    @Operation(summary = "Get an account by its number")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Account retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+    })
+    @GetMapping("/by-number/{accountNumber}")
+    public CompletableFuture<ResponseEntity<AccountDto>> getAccountByNumber(
+            @Parameter(description = "Number of the account to be obtained", required = true) @PathVariable String accountNumber) {
+        return bulkheads.read("get-account-by-number", () -> {
+            Account account = accountService.getAccountByNumber(accountNumber);
+            return ResponseEntity.ok(accountMapper.toDto(account));
+        });
     }
 
     /**
@@ -102,14 +184,16 @@ public class AccountController {
             @ApiResponse(responseCode = "404", description = "Account not found"),
     })
     @PostMapping("/{id}/deposit")
-    public ResponseEntity<AccountDto> deposit(
+    public CompletableFuture<ResponseEntity<AccountDto>> deposit(
             @Parameter(description = "ID of the account to deposit to", required = true) @PathVariable Long id,
             @Parameter(description = "Deposit request object", required = true) @RequestBody @Valid DepositRequest request) {
         if (request == null) {
             throw new InvalidRequestException("Request body must not be null");
         }
-        Account account = accountService.deposit(id, request.getAmount());
-        return ResponseEntity.ok(accountMapper.toDto(account));
+        return bulkheads.write("deposit", () -> {
+            Account account = accountService.deposit(id, request.getAmount());
+            return ResponseEntity.ok(accountMapper.toDto(account));
+        });
     }
 
     /**
@@ -126,16 +210,21 @@ public class AccountController {
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "404", description = "Account not found"),
             @ApiResponse(responseCode = "402", description = "Payment Required"),
+            @ApiResponse(responseCode = "429", description = "Too many invalid PIN attempts"),
     })
     @PostMapping("/{id}/withdraw")
-    public ResponseEntity<AccountDto> withdraw(
+    public CompletableFuture<ResponseEntity<AccountDto>> withdraw(
             @Parameter(description = "ID of the account to withdraw from", required = true) @PathVariable Long id,
-            @Parameter(description = "Withdraw request object", required = true) @RequestBody @Valid WithdrawRequest request) {
+            @Parameter(description = "Withdraw request object", required = true) @RequestBody @Valid WithdrawRequest request,
+            HttpServletRequest httpRequest) {
         if (request == null) {
             throw new InvalidRequestException("Request body must not be null");
         }
-        Account account = accountService.withdraw(id, request.getPin(), request.getAmount());
-        return ResponseEntity.ok(accountMapper.toDto(account));
+        String clientId = httpRequest.getRemoteAddr();
+        return bulkheads.write("withdraw", () -> {
+            Account account = accountService.withdraw(id, request.getPin(), request.getAmount(), clientId);
+            return ResponseEntity.ok(accountMapper.toDto(account));
+        });
     }
 
     /**
@@ -152,37 +241,128 @@ public class AccountController {
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "404", description = "Account not found"),
             @ApiResponse(responseCode = "402", description = "Payment Required"),
+            @ApiResponse(responseCode = "429", description = "Too many invalid PIN attempts"),
     })
     @PostMapping("/{id}/transfer")
-    public ResponseEntity<AccountDto> transfer(
+    public CompletableFuture<ResponseEntity<AccountDto>> transfer(
             @Parameter(description = "ID of the account to transfer from", required = true) @PathVariable Long id,
-            @Parameter(description = "Transfer request object", required = true) @RequestBody @Valid TransferRequest request) {
+            @Parameter(description = "Transfer request object", required = true) @RequestBody @Valid TransferRequest request,
+            HttpServletRequest httpRequest) {
         if (request == null) {
             throw new InvalidRequestException("Request body must not be null");
         }
-        Account account = accountService.transfer(id, request.getPin(), request.getAmount(), request.getToAccountId());
-        return ResponseEntity.ok(accountMapper.toDto(account));
+        String clientId = httpRequest.getRemoteAddr();
+        return bulkheads.write("transfer", () -> {
+            Account account = accountService.transfer(id, request.getPin(), request.getAmount(),
+                    request.getToAccountId(), clientId);
+            return ResponseEntity.ok(accountMapper.toDto(account));
+        });
     }
 
     /**
      * Обрабатывает HTTP-запрос GET для получения списка всех транзакций для указанного счета.
      *
-     * @param id идентификатор счета, транзакции которого нужно получить.
+     * Каждая транзакция меняет баланс и, соответственно, версию счета, поэтому ETag списка совпадает с версией счета.
+     * Счет загружается до транзакций, поэтому список не старше версии в ETag.
+     *
+     * @param id          идентификатор счета, транзакции которого нужно получить.
+     * @param ifNoneMatch значение заголовка If-None-Match или null.
+     * @param accept      значение заголовка Accept или null.
      * @return ResponseEntity со списком всех транзакций для указанного счета.
      */
     @Operation(summary = "Get transactions of an account")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Transactions retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Transactions not modified"),
             @ApiResponse(responseCode = "404", description = "Account not found"),
     })
     @GetMapping("/{id}/transactions")
-    public ResponseEntity<List<TransactionDto>> getTransactions(
-            @Parameter(description = "ID of the account to get transactions from", required = true) @PathVariable Long id) {
-        List<Transaction> transactions = accountService.getTransactions(id);
-        List<TransactionDto> transactionDtos = transactions.stream()
-                .map(transactionMapper::toDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(transactionDtos);
+    public CompletableFuture<ResponseEntity<List<TransactionDto>>> getTransactions(
+            @Parameter(description = "ID of the account to get transactions from", required = true) @PathVariable Long id,
+            @Parameter(description = "ETag of a cached copy of the transactions")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String representation = representation(accept);
+        String versionTags = versionTags(ifNoneMatch, representation);
+        return readCoalescer.transactions(id, versionTags, () -> bulkheads.read("transactions", () -> {
+            if (versionTags != null) {
+                String eTag = eTag(accountService.getAccountVersion(id));
+                if (isNotModified(versionTags, eTag)) {
+                    return notModified(eTag);
+                }
+            }
+            Account account = accountService.getAccount(id);
+            List<Transaction> transactions = accountService.getTransactions(account);
+            List<TransactionDto> transactionDtos = transactions.stream()
+                    .map(transactionMapper::toDto)
+                    .toList();
+            return ResponseEntity.ok().eTag(eTag(account.getVersion())).varyBy(HttpHeaders.ACCEPT)
+                    .body(transactionDtos);
+        })).thenApply(response -> withRepresentation(response, representation));
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос GET для поиска транзакций счета по типу, счету другой стороны перевода
+     * и диапазону сумм. Транзакции возвращаются от новых к старым.
+     *
+     * @param id                    идентификатор счета, транзакции которого нужно найти.
+     * @param type                  опциональный параметр: тип транзакции, например "transfer in".
+     * @param counterpartyAccountId опциональный параметр: идентификатор счета другой стороны перевода.
+     * @param minAmount             опциональный параметр: наименьшая сумма включительно.
+     * @param maxAmount             опциональный параметр: наибольшая сумма включительно.
+     * @param limit                 наибольшее количество транзакций в ответе.
+     * @return ResponseEntity со списком найденных транзакций.
+     */
+    @Operation(summary = "Search transactions of an account")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transactions found successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid search filters"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+    })
+    @GetMapping("/{id}/transactions/search")
+    public CompletableFuture<ResponseEntity<List<TransactionDto>>> searchTransactions(
+            @Parameter(description = "ID of the account to search transactions of", required = true) @PathVariable Long id,
+            @Parameter(description = "Optional: Type of the transactions", example = "transfer in")
+            @RequestParam(required = false) String type,
+            @Parameter(description = "Optional: ID of the other account of the transfers", example = "2")
+            @RequestParam(required = false) Long counterpartyAccountId,
+            @Parameter(description = "Optional: Minimum amount, inclusive", example = "10.00")
+            @RequestParam(required = false) BigDecimal minAmount,
+            @Parameter(description = "Optional: Maximum amount, inclusive", example = "100.00")
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @Parameter(description = "Maximum number of transactions to return, from 1 to 1000")
+            @RequestParam(defaultValue = "100") int limit) {
+        TransactionType transactionType = parseTransactionType(type);
+        return bulkheads.read("transaction-search", () -> {
+            List<TransactionDto> transactionDtos = accountService.searchTransactions(id, transactionType,
+                            counterpartyAccountId, minAmount, maxAmount, limit).stream()
+                    .map(transactionMapper::toDto)
+                    .toList();
+            return ResponseEntity.ok(transactionDtos);
+        });
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос GET для получения баланса счета на момент времени. Баланс вычисляется по журналу
+     * транзакций от ближайшей более ранней контрольной точки баланса.
+     *
+     * @param id идентификатор счета, баланс которого нужно получить.
+     * @param at момент времени.
+     * @return ResponseEntity с балансом счета на момент времени.
+     */
+    @Operation(summary = "Get the balance of an account at a point in time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Balance computed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid point in time"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+    })
+    @GetMapping("/{id}/balance")
+    public CompletableFuture<ResponseEntity<BalanceDto>> getBalanceAt(
+            @Parameter(description = "ID of the account to get the balance of", required = true) @PathVariable Long id,
+            @Parameter(description = "Point in time, ISO date-time without offset", required = true, example = "2024-01-01T12:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return bulkheads.read("balance", () ->
+                ResponseEntity.ok(balanceMapper.toDto(balanceCheckpointService.getBalanceAt(id, at))));
     }
 
     /**
@@ -196,18 +376,158 @@ public class AccountController {
             @ApiResponse(responseCode = "200", description = "Accounts retrieved successfully"),
     })
     @GetMapping
-    public ResponseEntity<List<AccountDto>> getAllAccounts(
+    public CompletableFuture<ResponseEntity<List<AccountDto>>> getAllAccounts(
             @Parameter(description = "Optional: Beneficiary name to filter accounts")
             @RequestParam(required = false) String beneficiaryName) {
-        List<Account> accounts;
-        if (beneficiaryName != null) {
-            accounts = accountService.getAllAccountsByBeneficiaryName(beneficiaryName);
-        } else {
-            accounts = accountService.getAllAccounts();
+        return bulkheads.read("accounts", () -> {
+            List<Account> accounts;
+            if (beneficiaryName != null) {
+                accounts = accountService.getAllAccountsByBeneficiaryName(beneficiaryName);
+            } else {
+                accounts = accountService.getAllAccounts();
+            }
+            List<AccountDto> accountDtos = accounts.stream()
+                    .map(accountMapper::toDto)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(accountDtos);
+        });
+    }
+
+    /**
+     * Разбирает название типа транзакции из параметра запроса.
+     *
+     * @return тип транзакции или null, если параметр не передан
+     * @throws InvalidRequestException если тип с таким названием неизвестен
+     */
+    private static TransactionType parseTransactionType(String type) {
+        if (type == null) {
+            return null;
+        }
+        TransactionType transactionType = TransactionType.fromName(type);
+        if (transactionType == null) {
+            throw new InvalidRequestException("Unknown transaction type: " + type);
+        }
+        return transactionType;
+    }
+
+    /**
+     * Формирует ETag по версии счета без признака формата; признак добавляет {@link #withRepresentation}.
+     * Ответ 200 получает версию загруженного счета, а не версию из запроса к базе данных: счет может быть прочитан
+     * из кэша второго уровня до его вытеснения после фиксации проводок, и тогда ETag из базы данных оказался бы
+     * новее тела. Версия из базы данных используется только для ответа 304.
+     */
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Проверяет, есть ли ETag среди значений заголовка If-None-Match. Для GET сравнение слабое, поэтому признак
+     * {@code W/} не учитывается. Ответ зависит только от заголовка и версии, поэтому его можно отдать всем
+     * одновременным запросам с тем же заголовком.
+     */
+    private static boolean isNotModified(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Формирует ответ 304. Одна версия счета может быть отдана в разных форматах (JSON, CBOR, Smile),
+     * поэтому ответы с ETag содержат заголовок Vary: Accept.
+     */
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    /**
+     * Определяет формат ответа по заголовку Accept так же, как при выборе преобразователя сообщений: из форматов,
+     * совместимых с запрошенными, выбирается самый предпочтительный, а при равенстве - первый в порядке JSON, CBOR,
+     * Smile. Сильный ETag должен различаться для разных представлений (RFC 9110, раздел 8.8.1), поэтому к версии
+     * счета в ETag двоичных форматов добавляется признак формата, например {@code "5-cbor"}.
+     *
+     * @return признак формата для ETag; пустая строка для JSON
+     */
+    private static String representation(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "";
+        }
+        List<MediaType> candidates = new ArrayList<>();
+        try {
+            List<MediaType> requested = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(requested);
+            for (MediaType requestedType : requested) {
+                for (MediaType representation : REPRESENTATIONS.keySet()) {
+                    if (requestedType.isCompatibleWith(representation)) {
+                        candidates.add(representation.copyQualityValue(requestedType));
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        if (candidates.isEmpty()) {
+            return "";
+        }
+        MimeTypeUtils.sortBySpecificity(candidates);
+        return REPRESENTATIONS.get(candidates.get(0).removeQualityValue());
+    }
+
+    private static Map<MediaType, String> representations() {
+        Map<MediaType, String> representations = new LinkedHashMap<>();
+        representations.put(MediaType.APPLICATION_JSON, "");
+        representations.put(MediaType.APPLICATION_CBOR, "-cbor");
+        representations.put(MediaType.parseMediaType("application/x-jackson-smile"), "-smile");
+        return representations;
+    }
+
+    /**
+     * Оставляет в значении If-None-Match только ETag запрошенного формата и убирает из них признак формата,
+     * чтобы сравнить их с версией счета. Одинаковые после этого запросы в разных форматах объединяются.
+     *
+     * @return ETag без признака формата или null, если подходящих ETag нет
+     */
+    private static String versionTags(String ifNoneMatch, String representation) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String suffix = representation + "\"";
+        List<String> tags = new ArrayList<>();
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*")) {
+                tags.add(tag);
+            } else if (tag.endsWith(suffix)) {
+                tags.add(tag.substring(0, tag.length() - suffix.length()) + "\"");
+            }
+        }
+        return tags.isEmpty() ? null : String.join(", ", tags);
+    }
+
+    /**
+     * Добавляет к ETag ответа признак формата текущего запроса. Ответ может быть общим для объединенных запросов
+     * в разных форматах, поэтому признак добавляется после объединения.
+     */
+    private static <T> ResponseEntity<T> withRepresentation(ResponseEntity<T> response, String representation) {
+        String eTag = response.getHeaders().getETag();
+        if (representation.isEmpty() || eTag == null) {
+            return response;
         }
-        List<AccountDto> accountDtos = accounts.stream()
-                .map(accountMapper::toDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(accountDtos);
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.setETag(eTag.substring(0, eTag.length() - 1) + representation + "\"");
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
     }
 }
@@ -0,0 +1,112 @@
+package ru.astondevs.bankingapitest.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.astondevs.bankingapitest.dto.AccountCreationRequest;
+import ru.astondevs.bankingapitest.dto.AccountImportDto;
+import ru.astondevs.bankingapitest.mapper.AccountImportMapper;
+import ru.astondevs.bankingapitest.service.AccountImport;
+import ru.astondevs.bankingapitest.service.AccountImportService;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Класс AccountImportController обрабатывает HTTP-запросы пакетного создания счетов и импорта счетов из CSV.
+ * Он также позволяет следить за ходом выполнения импорта.
+ */
+@Tag(name = "Account Import", description = "Bulk creation and CSV import of accounts")
+@RestController
+@RequestMapping("/api/accounts")
+public class AccountImportController {
+
+    private final AccountImportService accountImportService;
+    private final AccountImportMapper accountImportMapper;
+
+    public AccountImportController(AccountImportService accountImportService, AccountImportMapper accountImportMapper) {
+        this.accountImportService = accountImportService;
+        this.accountImportMapper = accountImportMapper;
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос POST для пакетного создания счетов.
+     *
+     * @param requests список объектов AccountCreationRequest.
+     * @return ResponseEntity с результатом импорта и ошибками по строкам.
+     */
+    @Operation(summary = "Create accounts in bulk")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Accounts processed, see per-row errors"),
+            @ApiResponse(responseCode = "400", description = "Invalid request body"),
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<AccountImportDto> createAccounts(
+            @Parameter(description = "List of account creation objects", required = true)
+            @RequestBody List<AccountCreationRequest> requests) {
+        AccountImport accountImport = accountImportService.createAccounts(requests);
+        return ResponseEntity.ok(accountImportMapper.toDto(accountImport));
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос POST для потокового импорта счетов из CSV.
+     * Тело запроса читается построчно и не загружается в память целиком.
+     *
+     * @param body содержимое CSV со столбцами beneficiaryName,pin.
+     * @return ResponseEntity с результатом импорта и ошибками по строкам.
+     */
+    @Operation(summary = "Import accounts from CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Accounts processed, see per-row errors"),
+            @ApiResponse(responseCode = "400", description = "Invalid request body"),
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<AccountImportDto> importCsv(InputStream body) {
+        AccountImport accountImport = accountImportService.importCsv(body);
+        return ResponseEntity.ok(accountImportMapper.toDto(accountImport));
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос GET для получения хода выполнения импорта.
+     *
+     * @param importId идентификатор импорта.
+     * @return ResponseEntity с текущим состоянием импорта.
+     */
+    @Operation(summary = "Get progress of an import")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Import not found"),
+    })
+    @GetMapping("/imports/{importId}")
+    public ResponseEntity<AccountImportDto> getImport(
+            @Parameter(description = "ID of the import", required = true) @PathVariable String importId) {
+        return ResponseEntity.ok(accountImportMapper.toDto(accountImportService.getImport(importId)));
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос GET для получения выполняющихся и недавно завершенных импортов.
+     *
+     * @return ResponseEntity со списком импортов.
+     */
+    @Operation(summary = "Get running and recent imports")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Imports retrieved successfully"),
+    })
+    @GetMapping("/imports")
+    public ResponseEntity<List<AccountImportDto>> getImports() {
+        List<AccountImportDto> importDtos = accountImportService.getImports().stream()
+                .map(accountImportMapper::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(importDtos);
+    }
+}
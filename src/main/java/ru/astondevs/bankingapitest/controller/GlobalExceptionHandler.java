@@ -1,16 +1,28 @@
 package ru.astondevs.bankingapitest.controller;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import ru.astondevs.bankingapitest.exception.AccountNotFoundException;
+import ru.astondevs.bankingapitest.exception.BulkheadFullException;
+import ru.astondevs.bankingapitest.exception.ImportNotFoundException;
 import ru.astondevs.bankingapitest.exception.InsufficientBalanceException;
 import ru.astondevs.bankingapitest.exception.InvalidAmountException;
 import ru.astondevs.bankingapitest.exception.InvalidNameException;
 import ru.astondevs.bankingapitest.exception.InvalidPinException;
 import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+import ru.astondevs.bankingapitest.exception.PostingAlreadyRunningException;
+import ru.astondevs.bankingapitest.exception.PostingNotFoundException;
+import ru.astondevs.bankingapitest.exception.ReconciliationAlreadyRunningException;
+import ru.astondevs.bankingapitest.exception.ReconciliationNotFoundException;
+import ru.astondevs.bankingapitest.exception.RequestTimeoutException;
+import ru.astondevs.bankingapitest.exception.TooManyPinAttemptsException;
+import ru.astondevs.bankingapitest.exception.TransferFailedException;
+import ru.astondevs.bankingapitest.exception.VelocityLimitExceededException;
 
 /**
  * Класс GlobalExceptionHandler обрабатывает исключения на глобальном уровне в приложении.
@@ -24,6 +36,31 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
     }
 
+    @ExceptionHandler(ImportNotFoundException.class)
+    public ResponseEntity<String> handleImportNotFoundException(ImportNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    @ExceptionHandler(ReconciliationNotFoundException.class)
+    public ResponseEntity<String> handleReconciliationNotFoundException(ReconciliationNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    @ExceptionHandler(ReconciliationAlreadyRunningException.class)
+    public ResponseEntity<String> handleReconciliationAlreadyRunningException(ReconciliationAlreadyRunningException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(PostingNotFoundException.class)
+    public ResponseEntity<String> handlePostingNotFoundException(PostingNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    @ExceptionHandler(PostingAlreadyRunningException.class)
+    public ResponseEntity<String> handlePostingAlreadyRunningException(PostingAlreadyRunningException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
     @ExceptionHandler(InsufficientBalanceException.class)
     public ResponseEntity<String> handleInsufficientBalanceException(InsufficientBalanceException e) {
         return ResponseEntity.status(HttpStatus.PAYMENT_REQUIRED).body(e.getMessage());
@@ -49,6 +86,44 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
     }
 
+    @ExceptionHandler(TooManyPinAttemptsException.class)
+    public ResponseEntity<String> handleTooManyPinAttemptsException(TooManyPinAttemptsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(VelocityLimitExceededException.class)
+    public ResponseEntity<String> handleVelocityLimitExceededException(VelocityLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<String> handleBulkheadFullException(BulkheadFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(RequestTimeoutException.class)
+    public ResponseEntity<String> handleRequestTimeoutException(RequestTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(TransferFailedException.class)
+    public ResponseEntity<String> handleTransferFailedException(TransferFailedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Account was modified concurrently, please retry");
+    }
+
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<String> handleHttpMessageNotReadableException(HttpMessageNotReadableException e) {
         String errorMessage = "Неверный формат JSON в запросе";
@@ -0,0 +1,98 @@
+package ru.astondevs.bankingapitest.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.astondevs.bankingapitest.dto.PostingRunDto;
+import ru.astondevs.bankingapitest.dto.PostingRunRequest;
+import ru.astondevs.bankingapitest.mapper.PostingMapper;
+import ru.astondevs.bankingapitest.service.PostingRun;
+import ru.astondevs.bankingapitest.service.PostingService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Класс PostingController обрабатывает административные HTTP-запросы массового начисления процентов
+ * и списания комиссий по всем счетам.
+ */
+@Tag(name = "Postings", description = "Batch interest and fee postings")
+@RestController
+@RequestMapping("/api/admin/postings")
+public class PostingController {
+
+    private final PostingService postingService;
+    private final PostingMapper postingMapper;
+
+    public PostingController(PostingService postingService, PostingMapper postingMapper) {
+        this.postingService = postingService;
+        this.postingMapper = postingMapper;
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос POST для запуска проводок. Повторная отправка запуска с тем же идентификатором
+     * возвращает его состояние, а прерванный запуск продолжает с последнего проведенного участка.
+     *
+     * @param request параметры запуска.
+     * @return ResponseEntity с состоянием запуска.
+     */
+    @Operation(summary = "Submit or resume a posting run")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Run is already completed"),
+            @ApiResponse(responseCode = "202", description = "Run started, resumed or still running"),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters or run ID reused with other parameters"),
+            @ApiResponse(responseCode = "409", description = "Another run is in progress"),
+    })
+    @PostMapping
+    public ResponseEntity<PostingRunDto> submit(
+            @Parameter(description = "Posting run parameters", required = true)
+            @RequestBody PostingRunRequest request) {
+        PostingRun run = postingService.submit(request);
+        HttpStatus status = run.getStatus() == PostingRun.Status.COMPLETED ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(postingMapper.toDto(run));
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос GET для получения хода выполнения запуска.
+     *
+     * @param runId идентификатор запуска.
+     * @return ResponseEntity с текущим состоянием запуска.
+     */
+    @Operation(summary = "Get progress of a posting run")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Run retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Run not found"),
+    })
+    @GetMapping("/{runId}")
+    public ResponseEntity<PostingRunDto> getRun(
+            @Parameter(description = "ID of the posting run", required = true) @PathVariable String runId) {
+        return ResponseEntity.ok(postingMapper.toDto(postingService.getRun(runId)));
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос GET для получения последних запусков.
+     *
+     * @return ResponseEntity со списком запусков.
+     */
+    @Operation(summary = "Get recent posting runs")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Runs retrieved successfully"),
+    })
+    @GetMapping
+    public ResponseEntity<List<PostingRunDto>> getRuns() {
+        List<PostingRunDto> runDtos = postingService.getRuns().stream()
+                .map(postingMapper::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(runDtos);
+    }
+}
@@ -0,0 +1,141 @@
+package ru.astondevs.bankingapitest.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.astondevs.bankingapitest.dto.ReconciliationDiscrepancyDto;
+import ru.astondevs.bankingapitest.dto.ReconciliationRunDto;
+import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+import ru.astondevs.bankingapitest.mapper.ReconciliationMapper;
+import ru.astondevs.bankingapitest.service.ReconciliationService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Класс ReconciliationController обрабатывает административные HTTP-запросы сверки балансов счетов
+ * с журналом транзакций: запуск, продолжение и получение хода выполнения и найденных расхождений.
+ */
+@Tag(name = "Reconciliation", description = "Balance-vs-ledger reconciliation")
+@RestController
+@RequestMapping("/api/admin/reconciliation")
+public class ReconciliationController {
+
+    private static final int MAX_DISCREPANCIES_PAGE = 10_000;
+
+    private final ReconciliationService reconciliationService;
+    private final ReconciliationMapper reconciliationMapper;
+
+    public ReconciliationController(ReconciliationService reconciliationService,
+                                    ReconciliationMapper reconciliationMapper) {
+        this.reconciliationService = reconciliationService;
+        this.reconciliationMapper = reconciliationMapper;
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос POST для запуска новой сверки. Сверка выполняется в фоне.
+     *
+     * @return ResponseEntity с состоянием запущенной сверки.
+     */
+    @Operation(summary = "Start a reconciliation run")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Reconciliation started"),
+            @ApiResponse(responseCode = "409", description = "Another reconciliation is running"),
+    })
+    @PostMapping
+    public ResponseEntity<ReconciliationRunDto> start() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(reconciliationMapper.toDto(reconciliationService.start()));
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос POST для продолжения прерванной сверки с последней контрольной точки.
+     *
+     * @param runId идентификатор сверки.
+     * @return ResponseEntity с состоянием продолженной сверки.
+     */
+    @Operation(summary = "Resume an interrupted or failed reconciliation run")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Reconciliation resumed"),
+            @ApiResponse(responseCode = "400", description = "Reconciliation is already completed"),
+            @ApiResponse(responseCode = "404", description = "Reconciliation not found"),
+            @ApiResponse(responseCode = "409", description = "Another reconciliation is running"),
+    })
+    @PostMapping("/{runId}/resume")
+    public ResponseEntity<ReconciliationRunDto> resume(
+            @Parameter(description = "ID of the reconciliation run", required = true) @PathVariable String runId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(reconciliationMapper.toDto(reconciliationService.resume(runId)));
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос GET для получения хода выполнения сверки.
+     *
+     * @param runId идентификатор сверки.
+     * @return ResponseEntity с текущим состоянием сверки.
+     */
+    @Operation(summary = "Get progress of a reconciliation run")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reconciliation retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Reconciliation not found"),
+    })
+    @GetMapping("/{runId}")
+    public ResponseEntity<ReconciliationRunDto> getRun(
+            @Parameter(description = "ID of the reconciliation run", required = true) @PathVariable String runId) {
+        return ResponseEntity.ok(reconciliationMapper.toDto(reconciliationService.getRun(runId)));
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос GET для получения последних сверок.
+     *
+     * @return ResponseEntity со списком сверок.
+     */
+    @Operation(summary = "Get recent reconciliation runs")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reconciliations retrieved successfully"),
+    })
+    @GetMapping
+    public ResponseEntity<List<ReconciliationRunDto>> getRuns() {
+        List<ReconciliationRunDto> runDtos = reconciliationService.getRuns().stream()
+                .map(reconciliationMapper::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(runDtos);
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос GET для получения расхождений, найденных сверкой.
+     *
+     * @param runId идентификатор сверки.
+     * @param limit максимальное количество расхождений в ответе.
+     * @return ResponseEntity со списком расхождений в порядке идентификаторов счетов.
+     */
+    @Operation(summary = "Get discrepancies found by a reconciliation run")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Discrepancies retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit"),
+            @ApiResponse(responseCode = "404", description = "Reconciliation not found"),
+    })
+    @GetMapping("/{runId}/discrepancies")
+    public ResponseEntity<List<ReconciliationDiscrepancyDto>> getDiscrepancies(
+            @Parameter(description = "ID of the reconciliation run", required = true) @PathVariable String runId,
+            @Parameter(description = "Maximum number of discrepancies") @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_DISCREPANCIES_PAGE) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_DISCREPANCIES_PAGE);
+        }
+        List<ReconciliationDiscrepancyDto> discrepancyDtos = reconciliationService.getDiscrepancies(runId, limit)
+                .stream()
+                .map(reconciliationMapper::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(discrepancyDtos);
+    }
+}
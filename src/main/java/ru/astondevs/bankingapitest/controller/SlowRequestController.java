@@ -0,0 +1,50 @@
+package ru.astondevs.bankingapitest.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.astondevs.bankingapitest.dto.SlowRequestDto;
+import ru.astondevs.bankingapitest.mapper.SlowRequestMapper;
+import ru.astondevs.bankingapitest.metrics.SlowRequestLog;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Класс SlowRequestController обрабатывает административные HTTP-запросы к журналу медленных запросов.
+ */
+@Tag(name = "Slow requests", description = "Phase breakdown of recent slow requests")
+@RestController
+@RequestMapping("/api/admin/slow-requests")
+public class SlowRequestController {
+
+    private final SlowRequestLog slowRequestLog;
+    private final SlowRequestMapper slowRequestMapper;
+
+    public SlowRequestController(SlowRequestLog slowRequestLog, SlowRequestMapper slowRequestMapper) {
+        this.slowRequestLog = slowRequestLog;
+        this.slowRequestMapper = slowRequestMapper;
+    }
+
+    /**
+     * Обрабатывает HTTP-запрос GET для получения последних медленных запросов.
+     *
+     * @return ResponseEntity со списком медленных запросов, начиная с самого нового.
+     */
+    @Operation(summary = "Get recent slow requests")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Slow requests retrieved successfully"),
+    })
+    @GetMapping
+    public ResponseEntity<List<SlowRequestDto>> getSlowRequests() {
+        List<SlowRequestDto> slowRequestDtos = slowRequestLog.getRecent().stream()
+                .map(slowRequestMapper::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(slowRequestDtos);
+    }
+}
@@ -0,0 +1,122 @@
+package ru.astondevs.bankingapitest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Класс AccountImportDto представляет собой объект передачи данных для результата или хода выполнения импорта счетов.
+ */
+public class AccountImportDto {
+
+    @Schema(description = "ID of the import", example = "0f8fad5b-d9cb-469f-a165-70867728950e")
+    private String id;
+    @Schema(description = "Source of the import", example = "csv")
+    private String source;
+    @Schema(description = "Status of the import", example = "COMPLETED")
+    private String status;
+    @Schema(description = "Start time of the import", example = "2022-01-01T00:00:00Z")
+    private String startedAt;
+    @Schema(description = "Finish time of the import", example = "2022-01-01T00:00:05Z")
+    private String finishedAt;
+    @Schema(description = "Number of processed rows", example = "100000")
+    private long processedRows;
+    @Schema(description = "Number of created accounts", example = "99998")
+    private long createdCount;
+    @Schema(description = "Number of failed rows", example = "2")
+    private long failedCount;
+    @Schema(description = "Errors per row, limited in size")
+    private List<AccountImportErrorDto> errors;
+    @Schema(description = "Whether some errors were omitted from the list", example = "false")
+    private boolean errorsTruncated;
+    @Schema(description = "Reason the import failed as a whole")
+    private String failureMessage;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(long processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public void setCreatedCount(long createdCount) {
+        this.createdCount = createdCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public List<AccountImportErrorDto> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<AccountImportErrorDto> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public void setFailureMessage(String failureMessage) {
+        this.failureMessage = failureMessage;
+    }
+}
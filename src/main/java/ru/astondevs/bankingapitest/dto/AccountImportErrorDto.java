@@ -0,0 +1,30 @@
+package ru.astondevs.bankingapitest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Класс AccountImportErrorDto представляет собой объект передачи данных для ошибки в одной строке импорта счетов.
+ */
+public class AccountImportErrorDto {
+
+    @Schema(description = "Row number in the request or CSV file", example = "42")
+    private long row;
+    @Schema(description = "Error message", example = "PIN must be a 4-digit number")
+    private String message;
+
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
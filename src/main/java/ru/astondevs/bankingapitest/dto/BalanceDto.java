@@ -0,0 +1,63 @@
+package ru.astondevs.bankingapitest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс BalanceDto представляет собой объект передачи данных для баланса счета на момент времени.
+ */
+public class BalanceDto {
+
+    @Schema(description = "ID of the account", example = "1")
+    private Long accountId;
+    @Schema(description = "Point in time the balance is computed for", example = "2024-01-01T12:00:00")
+    private String at;
+    @Schema(description = "Sum of the account transactions up to the point in time", example = "100.00")
+    private BigDecimal balance;
+    @Schema(description = "Time of the balance checkpoint the balance is computed from, if any",
+            example = "2024-01-01T11:58:41.512")
+    private String checkpointAt;
+    @Schema(description = "Number of transactions summed after the checkpoint", example = "12")
+    private long replayedTransactions;
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getAt() {
+        return at;
+    }
+
+    public void setAt(String at) {
+        this.at = at;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public String getCheckpointAt() {
+        return checkpointAt;
+    }
+
+    public void setCheckpointAt(String checkpointAt) {
+        this.checkpointAt = checkpointAt;
+    }
+
+    public long getReplayedTransactions() {
+        return replayedTransactions;
+    }
+
+    public void setReplayedTransactions(long replayedTransactions) {
+        this.replayedTransactions = replayedTransactions;
+    }
+}
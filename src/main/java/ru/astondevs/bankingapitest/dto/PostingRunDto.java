@@ -0,0 +1,152 @@
+package ru.astondevs.bankingapitest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс PostingRunDto представляет собой объект передачи данных для состояния запуска массовых проводок.
+ */
+public class PostingRunDto {
+
+    @Schema(description = "ID of the run", example = "2024-01-interest")
+    private String id;
+    @Schema(description = "Posting type", example = "INTEREST")
+    private String type;
+    @Schema(description = "Interest rate", example = "0.01")
+    private BigDecimal rate;
+    @Schema(description = "Fee amount")
+    private BigDecimal amount;
+    @Schema(description = "Status of the run", example = "COMPLETED")
+    private String status;
+    @Schema(description = "Posting time recorded on the transactions", example = "2024-01-31T23:00:00Z")
+    private String postedAt;
+    @Schema(description = "Finish time of the run", example = "2024-01-31T23:01:00Z")
+    private String finishedAt;
+    @Schema(description = "Number of account ID ranges", example = "100")
+    private int chunkCount;
+    @Schema(description = "Number of posted account ID ranges", example = "40")
+    private int completedChunks;
+    @Schema(description = "Number of processed accounts", example = "400000")
+    private long accountsProcessed;
+    @Schema(description = "Number of accounts with a non-zero posting", example = "350000")
+    private long accountsPosted;
+    @Schema(description = "Total amount posted", example = "123456.78")
+    private BigDecimal totalAmount;
+    @Schema(description = "Processed accounts per second since the run was started or last resumed", example = "25000.0")
+    private double accountsPerSecond;
+    @Schema(description = "Reason the run failed")
+    private String failureMessage;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public void setRate(BigDecimal rate) {
+        this.rate = rate;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getPostedAt() {
+        return postedAt;
+    }
+
+    public void setPostedAt(String postedAt) {
+        this.postedAt = postedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks;
+    }
+
+    public void setCompletedChunks(int completedChunks) {
+        this.completedChunks = completedChunks;
+    }
+
+    public long getAccountsProcessed() {
+        return accountsProcessed;
+    }
+
+    public void setAccountsProcessed(long accountsProcessed) {
+        this.accountsProcessed = accountsProcessed;
+    }
+
+    public long getAccountsPosted() {
+        return accountsPosted;
+    }
+
+    public void setAccountsPosted(long accountsPosted) {
+        this.accountsPosted = accountsPosted;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public double getAccountsPerSecond() {
+        return accountsPerSecond;
+    }
+
+    public void setAccountsPerSecond(double accountsPerSecond) {
+        this.accountsPerSecond = accountsPerSecond;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public void setFailureMessage(String failureMessage) {
+        this.failureMessage = failureMessage;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.astondevs.bankingapitest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс PostingRunRequest представляет собой запрос на массовое начисление процентов или списание комиссий.
+ */
+public class PostingRunRequest {
+
+    @Schema(description = "Client-assigned ID of the run; resubmitting the same ID never posts twice", example = "2024-01-interest")
+    private String runId;
+    @Schema(description = "Posting type: INTEREST or FEE", example = "INTEREST")
+    private String type;
+    @Schema(description = "Interest rate applied to positive balances, required for INTEREST", example = "0.01")
+    private BigDecimal rate;
+    @Schema(description = "Fee charged per account, at most the balance, required for FEE", example = "5.00")
+    private BigDecimal amount;
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public void setRate(BigDecimal rate) {
+        this.rate = rate;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.astondevs.bankingapitest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс ReconciliationDiscrepancyDto представляет собой объект передачи данных для расхождения баланса счета с суммой его транзакций.
+ */
+public class ReconciliationDiscrepancyDto {
+
+    @Schema(description = "ID of the account", example = "1")
+    private Long accountId;
+    @Schema(description = "Balance stored in the account", example = "100.00")
+    private BigDecimal balance;
+    @Schema(description = "Sum of the account transactions", example = "90.00")
+    private BigDecimal ledgerBalance;
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public BigDecimal getLedgerBalance() {
+        return ledgerBalance;
+    }
+
+    public void setLedgerBalance(BigDecimal ledgerBalance) {
+        this.ledgerBalance = ledgerBalance;
+    }
+}
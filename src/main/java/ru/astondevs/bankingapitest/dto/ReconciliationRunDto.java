@@ -0,0 +1,130 @@
+package ru.astondevs.bankingapitest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Класс ReconciliationRunDto представляет собой объект передачи данных для состояния сверки балансов с журналом транзакций.
+ */
+public class ReconciliationRunDto {
+
+    @Schema(description = "ID of the reconciliation run", example = "0f8fad5b-d9cb-469f-a165-70867728950e")
+    private String id;
+    @Schema(description = "Status of the run", example = "COMPLETED")
+    private String status;
+    @Schema(description = "Start time of the run", example = "2022-01-01T00:00:00Z")
+    private String startedAt;
+    @Schema(description = "Finish time of the run", example = "2022-01-01T00:01:00Z")
+    private String finishedAt;
+    @Schema(description = "Lowest account ID covered by the run", example = "1")
+    private long minAccountId;
+    @Schema(description = "Highest account ID covered by the run", example = "1000000")
+    private long maxAccountId;
+    @Schema(description = "Number of account ID ranges", example = "100")
+    private int chunkCount;
+    @Schema(description = "Number of checkpointed account ID ranges", example = "40")
+    private int completedChunks;
+    @Schema(description = "Number of checked accounts", example = "400000")
+    private long accountsChecked;
+    @Schema(description = "Number of scanned transactions", example = "2500000")
+    private long transactionsScanned;
+    @Schema(description = "Number of confirmed discrepancies", example = "0")
+    private long discrepancyCount;
+    @Schema(description = "Reason the run failed")
+    private String failureMessage;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(String finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getMinAccountId() {
+        return minAccountId;
+    }
+
+    public void setMinAccountId(long minAccountId) {
+        this.minAccountId = minAccountId;
+    }
+
+    public long getMaxAccountId() {
+        return maxAccountId;
+    }
+
+    public void setMaxAccountId(long maxAccountId) {
+        this.maxAccountId = maxAccountId;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks;
+    }
+
+    public void setCompletedChunks(int completedChunks) {
+        this.completedChunks = completedChunks;
+    }
+
+    public long getAccountsChecked() {
+        return accountsChecked;
+    }
+
+    public void setAccountsChecked(long accountsChecked) {
+        this.accountsChecked = accountsChecked;
+    }
+
+    public long getTransactionsScanned() {
+        return transactionsScanned;
+    }
+
+    public void setTransactionsScanned(long transactionsScanned) {
+        this.transactionsScanned = transactionsScanned;
+    }
+
+    public long getDiscrepancyCount() {
+        return discrepancyCount;
+    }
+
+    public void setDiscrepancyCount(long discrepancyCount) {
+        this.discrepancyCount = discrepancyCount;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public void setFailureMessage(String failureMessage) {
+        this.failureMessage = failureMessage;
+    }
+}
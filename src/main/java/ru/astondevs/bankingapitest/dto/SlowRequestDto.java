@@ -0,0 +1,73 @@
+package ru.astondevs.bankingapitest.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+/**
+ * Класс SlowRequestDto представляет собой объект передачи данных для медленного HTTP-запроса с разбивкой по этапам.
+ */
+public class SlowRequestDto {
+
+    @Schema(description = "Time the request finished", example = "2024-01-01T12:00:00Z")
+    private String timestamp;
+    @Schema(description = "HTTP method", example = "POST")
+    private String method;
+    @Schema(description = "Endpoint path pattern", example = "/api/accounts/{id}/transfer")
+    private String uri;
+    @Schema(description = "HTTP status code", example = "200")
+    private int status;
+    @Schema(description = "Total processing time in milliseconds", example = "612.5")
+    private double durationMillis;
+    @Schema(description = "Time spent in each phase in milliseconds",
+            example = "{\"validation\": 0.2, \"load\": 1.4, \"insert\": 2.1, \"lock\": 600.3, \"commit\": 5.0}")
+    private Map<String, Double> phases;
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(String timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(double durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public Map<String, Double> getPhases() {
+        return phases;
+    }
+
+    public void setPhases(Map<String, Double> phases) {
+        this.phases = phases;
+    }
+}
@@ -16,6 +16,8 @@ public class TransactionDto {
     private String accountNumber;
     @Schema(description = "Type of the transaction", example = "deposit")
     private String type;
+    @Schema(description = "ID of the other account of a transfer, null for other transactions", example = "2")
+    private Long counterpartyAccountId;
     @Schema(description = "Amount of the transaction", example = "100.00")
     private BigDecimal amount;
     @Schema(description = "Timestamp of the transaction", example = "2022-01-01T00:00:00Z")
@@ -45,6 +47,14 @@ public class TransactionDto {
         this.type = type;
     }
 
+    public Long getCounterpartyAccountId() {
+        return counterpartyAccountId;
+    }
+
+    public void setCounterpartyAccountId(Long counterpartyAccountId) {
+        this.counterpartyAccountId = counterpartyAccountId;
+    }
+
     public BigDecimal getAmount() {
         return amount;
     }
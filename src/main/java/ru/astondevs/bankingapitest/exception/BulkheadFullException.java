@@ -0,0 +1,19 @@
+package ru.astondevs.bankingapitest.exception;
+
+/**
+ * Исключение BulkheadFullException выбрасывается, когда все потоки пула, выполняющего запросы этого класса,
+ * заняты и очередь пула заполнена.
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public BulkheadFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
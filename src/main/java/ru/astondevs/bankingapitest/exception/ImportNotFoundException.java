@@ -0,0 +1,10 @@
+package ru.astondevs.bankingapitest.exception;
+
+/**
+ * Исключение ImportNotFoundException выбрасывается, когда запрошенный импорт счетов не найден.
+ */
+public class ImportNotFoundException extends RuntimeException {
+    public ImportNotFoundException(String message) {
+        super(message);
+    }
+}
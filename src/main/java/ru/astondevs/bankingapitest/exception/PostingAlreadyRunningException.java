@@ -0,0 +1,10 @@
+package ru.astondevs.bankingapitest.exception;
+
+/**
+ * Исключение PostingAlreadyRunningException выбрасывается при попытке запустить проводки, пока выполняется другой запуск.
+ */
+public class PostingAlreadyRunningException extends RuntimeException {
+    public PostingAlreadyRunningException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.astondevs.bankingapitest.exception;
+
+/**
+ * Исключение PostingNotFoundException выбрасывается, когда запрошенный запуск проводок не найден.
+ */
+public class PostingNotFoundException extends RuntimeException {
+    public PostingNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.astondevs.bankingapitest.exception;
+
+/**
+ * Исключение ReconciliationAlreadyRunningException выбрасывается при попытке запустить сверку,
+ * пока выполняется другая.
+ */
+public class ReconciliationAlreadyRunningException extends RuntimeException {
+    public ReconciliationAlreadyRunningException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.astondevs.bankingapitest.exception;
+
+/**
+ * Исключение ReconciliationNotFoundException выбрасывается, когда запрошенная сверка не найдена.
+ */
+public class ReconciliationNotFoundException extends RuntimeException {
+    public ReconciliationNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.astondevs.bankingapitest.exception;
+
+/**
+ * Исключение RequestTimeoutException выбрасывается, когда асинхронно выполняемый запрос не получил результата
+ * за время ожидания своего эндпоинта.
+ */
+public class RequestTimeoutException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RequestTimeoutException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
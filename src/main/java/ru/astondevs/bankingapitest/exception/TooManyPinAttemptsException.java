@@ -0,0 +1,19 @@
+package ru.astondevs.bankingapitest.exception;
+
+/**
+ * Исключение TooManyPinAttemptsException выбрасывается, когда для счета или клиента превышено
+ * допустимое количество неудачных попыток ввода PIN-кода.
+ */
+public class TooManyPinAttemptsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyPinAttemptsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.astondevs.bankingapitest.exception;
+
+/**
+ * Исключение TransferFailedException выбрасывается, когда перевод между шардами не удалось завершить после списания
+ * средств. Средства возвращаются отправителю сразу или фоновой задачей восстановления переводов.
+ */
+public class TransferFailedException extends RuntimeException {
+    public TransferFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package ru.astondevs.bankingapitest.exception;
+
+/**
+ * Исключение VelocityLimitExceededException выбрасывается, когда операция превысила бы лимит суммы или количества
+ * снятий или переводов со счета за скользящее окно времени.
+ */
+public class VelocityLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public VelocityLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
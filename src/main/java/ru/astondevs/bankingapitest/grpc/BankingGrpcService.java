@@ -0,0 +1,139 @@
+package ru.astondevs.bankingapitest.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.grpc.proto.AccountReply;
+import ru.astondevs.bankingapitest.grpc.proto.BankingServiceGrpc;
+import ru.astondevs.bankingapitest.grpc.proto.CreateAccountRequest;
+import ru.astondevs.bankingapitest.grpc.proto.DepositRequest;
+import ru.astondevs.bankingapitest.grpc.proto.GetAccountRequest;
+import ru.astondevs.bankingapitest.grpc.proto.GetTransactionsRequest;
+import ru.astondevs.bankingapitest.grpc.proto.TransactionReply;
+import ru.astondevs.bankingapitest.grpc.proto.TransferAck;
+import ru.astondevs.bankingapitest.grpc.proto.TransferRequest;
+import ru.astondevs.bankingapitest.grpc.proto.WithdrawRequest;
+import ru.astondevs.bankingapitest.mapper.GrpcMapper;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.model.Transaction;
+import ru.astondevs.bankingapitest.service.AccountService;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Класс BankingGrpcService реализует gRPC-интерфейс счетов поверх {@link AccountService}.
+ * Проверка входных данных и бизнес-правила те же, что и в REST API, а исключения преобразуются
+ * в статусы gRPC классом {@link GrpcExceptionMapper}.
+ */
+@Component
+public class BankingGrpcService extends BankingServiceGrpc.BankingServiceImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(BankingGrpcService.class);
+
+    private final AccountService accountService;
+    private final GrpcMapper grpcMapper;
+
+    public BankingGrpcService(AccountService accountService, GrpcMapper grpcMapper) {
+        this.accountService = accountService;
+        this.grpcMapper = grpcMapper;
+    }
+
+    @Override
+    public void createAccount(CreateAccountRequest request, StreamObserver<AccountReply> responseObserver) {
+        unary(responseObserver, () -> grpcMapper.toReply(
+                accountService.createAccount(request.getBeneficiaryName(), request.getPin())));
+    }
+
+    @Override
+    public void getAccount(GetAccountRequest request, StreamObserver<AccountReply> responseObserver) {
+        unary(responseObserver, () -> grpcMapper.toReply(accountService.getAccount(request.getAccountId())));
+    }
+
+    @Override
+    public void deposit(DepositRequest request, StreamObserver<AccountReply> responseObserver) {
+        unary(responseObserver, () -> grpcMapper.toReply(
+                accountService.deposit(request.getAccountId(), grpcMapper.parseAmount(request.getAmount()))));
+    }
+
+    @Override
+    public void withdraw(WithdrawRequest request, StreamObserver<AccountReply> responseObserver) {
+        String clientId = ClientAddressInterceptor.CLIENT_ID.get();
+        unary(responseObserver, () -> grpcMapper.toReply(accountService.withdraw(request.getAccountId(),
+                request.getPin(), grpcMapper.parseAmount(request.getAmount()), clientId)));
+    }
+
+    /**
+     * Принимает поток переводов. Каждый перевод выполняется в отдельной транзакции в порядке поступления,
+     * и на каждый отправляется подтверждение с результатом. Ошибка перевода передается в подтверждении
+     * и не прерывает поток.
+     */
+    @Override
+    public StreamObserver<TransferRequest> submitTransfers(StreamObserver<TransferAck> responseObserver) {
+        String clientId = ClientAddressInterceptor.CLIENT_ID.get();
+        return new StreamObserver<>() {
+
+            @Override
+            public void onNext(TransferRequest request) {
+                TransferAck.Builder ack = TransferAck.newBuilder().setRequestId(request.getRequestId());
+                try {
+                    Account account = accountService.transfer(request.getFromAccountId(), request.getPin(),
+                            grpcMapper.parseAmount(request.getAmount()), request.getToAccountId(), clientId);
+                    ack.setStatus(Status.Code.OK.name()).setAccount(grpcMapper.toReply(account));
+                } catch (RuntimeException e) {
+                    Status status = GrpcExceptionMapper.toStatus(e);
+                    ack.setStatus(status.getCode().name());
+                    if (status.getDescription() != null) {
+                        ack.setMessage(status.getDescription());
+                    }
+                }
+                responseObserver.onNext(ack.build());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                logger.debug("Transfer stream from {} cancelled: {}", clientId, t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
+    @Override
+    public void getTransactions(GetTransactionsRequest request, StreamObserver<TransactionReply> responseObserver) {
+        List<Transaction> transactions;
+        try {
+            transactions = accountService.getTransactions(request.getAccountId());
+        } catch (RuntimeException e) {
+            responseObserver.onError(GrpcExceptionMapper.toStatusException(e));
+            return;
+        }
+        ServerCallStreamObserver<TransactionReply> callObserver =
+                (ServerCallStreamObserver<TransactionReply>) responseObserver;
+        for (Transaction transaction : transactions) {
+            if (callObserver.isCancelled()) {
+                return;
+            }
+            responseObserver.onNext(grpcMapper.toReply(transaction));
+        }
+        responseObserver.onCompleted();
+    }
+
+    private static <T> void unary(StreamObserver<T> responseObserver, Supplier<T> call) {
+        T reply;
+        try {
+            reply = call.get();
+        } catch (RuntimeException e) {
+            responseObserver.onError(GrpcExceptionMapper.toStatusException(e));
+            return;
+        }
+        responseObserver.onNext(reply);
+        responseObserver.onCompleted();
+    }
+}
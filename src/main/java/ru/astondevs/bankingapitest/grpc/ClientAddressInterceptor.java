@@ -0,0 +1,35 @@
+package ru.astondevs.bankingapitest.grpc;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Класс ClientAddressInterceptor сохраняет адрес клиента в контексте вызова gRPC.
+ * Адрес используется как идентификатор клиента при ограничении неудачных попыток ввода PIN-кода,
+ * так же как IP-адрес в HTTP-запросе.
+ */
+public class ClientAddressInterceptor implements ServerInterceptor {
+
+    static final Context.Key<String> CLIENT_ID = Context.key("banking-client-id");
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                      ServerCallHandler<Q, R> next) {
+        SocketAddress address = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        String clientId;
+        if (address instanceof InetSocketAddress inetAddress) {
+            clientId = inetAddress.getHostString();
+        } else {
+            clientId = address == null ? null : address.toString();
+        }
+        return Contexts.interceptCall(Context.current().withValue(CLIENT_ID, clientId), call, headers, next);
+    }
+}
@@ -0,0 +1,87 @@
+package ru.astondevs.bankingapitest.grpc;
+
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import ru.astondevs.bankingapitest.exception.AccountNotFoundException;
+import ru.astondevs.bankingapitest.exception.ImportNotFoundException;
+import ru.astondevs.bankingapitest.exception.InsufficientBalanceException;
+import ru.astondevs.bankingapitest.exception.InvalidAmountException;
+import ru.astondevs.bankingapitest.exception.InvalidNameException;
+import ru.astondevs.bankingapitest.exception.InvalidPinException;
+import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+import ru.astondevs.bankingapitest.exception.TooManyPinAttemptsException;
+import ru.astondevs.bankingapitest.exception.TransferFailedException;
+import ru.astondevs.bankingapitest.exception.VelocityLimitExceededException;
+
+/**
+ * Класс GrpcExceptionMapper преобразует исключения бизнес-логики в статусы gRPC.
+ * Соответствие повторяет {@link ru.astondevs.bankingapitest.controller.GlobalExceptionHandler}:
+ * клиент получает один и тот же результат независимо от протокола.
+ */
+public final class GrpcExceptionMapper {
+
+    /**
+     * Заголовок с количеством секунд, через которое имеет смысл повторить вызов. Аналог HTTP Retry-After.
+     */
+    public static final Metadata.Key<String> RETRY_AFTER =
+            Metadata.Key.of("retry-after", Metadata.ASCII_STRING_MARSHALLER);
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcExceptionMapper.class);
+
+    private GrpcExceptionMapper() {
+    }
+
+    /**
+     * Возвращает статус gRPC для исключения. Сообщения неожиданных исключений клиенту не передаются.
+     *
+     * @param e исключение
+     * @return статус gRPC
+     */
+    public static Status toStatus(Throwable e) {
+        if (e instanceof AccountNotFoundException || e instanceof ImportNotFoundException) {
+            return Status.NOT_FOUND.withDescription(e.getMessage());
+        }
+        if (e instanceof InsufficientBalanceException) {
+            return Status.FAILED_PRECONDITION.withDescription(e.getMessage());
+        }
+        if (e instanceof InvalidAmountException || e instanceof InvalidNameException
+                || e instanceof InvalidRequestException) {
+            return Status.INVALID_ARGUMENT.withDescription(e.getMessage());
+        }
+        if (e instanceof InvalidPinException) {
+            return Status.UNAUTHENTICATED.withDescription(e.getMessage());
+        }
+        if (e instanceof TooManyPinAttemptsException || e instanceof VelocityLimitExceededException) {
+            return Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage());
+        }
+        if (e instanceof TransferFailedException) {
+            return Status.UNAVAILABLE.withDescription(e.getMessage());
+        }
+        if (e instanceof OptimisticLockingFailureException) {
+            return Status.ABORTED.withDescription("Account was modified concurrently, please retry");
+        }
+        logger.error("Unexpected error in gRPC call", e);
+        return Status.INTERNAL.withDescription("Internal error");
+    }
+
+    /**
+     * Преобразует исключение в исключение gRPC, которое можно передать в {@code onError}.
+     *
+     * @param e исключение
+     * @return исключение gRPC со статусом и заголовками ответа
+     */
+    public static StatusRuntimeException toStatusException(Throwable e) {
+        Metadata trailers = new Metadata();
+        if (e instanceof TooManyPinAttemptsException tooManyAttempts) {
+            trailers.put(RETRY_AFTER, String.valueOf(tooManyAttempts.getRetryAfterSeconds()));
+        }
+        if (e instanceof VelocityLimitExceededException limitExceeded) {
+            trailers.put(RETRY_AFTER, String.valueOf(limitExceeded.getRetryAfterSeconds()));
+        }
+        return toStatus(e).asRuntimeException(trailers);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.astondevs.bankingapitest.grpc;
+
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.config.GrpcProperties;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Класс GrpcServerLifecycle запускает gRPC-сервер на отдельном порту вместе с приложением
+ * и останавливает его при остановке контекста, давая выполняющимся вызовам время завершиться.
+ */
+@Component
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final GrpcProperties properties;
+    private final BankingGrpcService bankingGrpcService;
+    private volatile Server server;
+
+    public GrpcServerLifecycle(GrpcProperties properties, BankingGrpcService bankingGrpcService) {
+        this.properties = properties;
+        this.bankingGrpcService = bankingGrpcService;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            server = NettyServerBuilder.forPort(properties.getPort())
+                    .addService(ServerInterceptors.intercept(bankingGrpcService, new ClientAddressInterceptor()))
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start gRPC server on port " + properties.getPort(), e);
+        }
+        logger.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server current = server;
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(properties.getShutdownGracePeriod().toMillis(), TimeUnit.MILLISECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Возвращает фактический порт gRPC-сервера.
+     *
+     * @return порт или -1, если сервер не запущен
+     */
+    public int getPort() {
+        Server current = server;
+        return current == null ? -1 : current.getPort();
+    }
+}
@@ -0,0 +1,48 @@
+package ru.astondevs.bankingapitest.mapper;
+
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.dto.AccountImportDto;
+import ru.astondevs.bankingapitest.dto.AccountImportErrorDto;
+import ru.astondevs.bankingapitest.service.AccountImport;
+
+import java.util.stream.Collectors;
+
+/**
+ * Класс AccountImportMapper предназначен для преобразования объектов типа AccountImport в объекты типа AccountImportDto.
+ */
+@Component
+public class AccountImportMapper {
+
+    /**
+     * Преобразует объект типа AccountImport в объект типа AccountImportDto.
+     *
+     * @param accountImport объект типа AccountImport для преобразования.
+     * @return объект типа AccountImportDto, соответствующий входному объекту типа AccountImport.
+     */
+    public AccountImportDto toDto(AccountImport accountImport) {
+        AccountImportDto dto = new AccountImportDto();
+        dto.setId(accountImport.getId());
+        dto.setSource(accountImport.getSource());
+        dto.setStatus(accountImport.getStatus().name());
+        dto.setStartedAt(accountImport.getStartedAt().toString());
+        if (accountImport.getFinishedAt() != null) {
+            dto.setFinishedAt(accountImport.getFinishedAt().toString());
+        }
+        dto.setProcessedRows(accountImport.getProcessedRows());
+        dto.setCreatedCount(accountImport.getCreatedCount());
+        dto.setFailedCount(accountImport.getFailedCount());
+        dto.setErrors(accountImport.getErrors().stream()
+                .map(this::toDto)
+                .collect(Collectors.toList()));
+        dto.setErrorsTruncated(accountImport.isErrorsTruncated());
+        dto.setFailureMessage(accountImport.getFailureMessage());
+        return dto;
+    }
+
+    private AccountImportErrorDto toDto(AccountImport.RowError error) {
+        AccountImportErrorDto dto = new AccountImportErrorDto();
+        dto.setRow(error.getRow());
+        dto.setMessage(error.getMessage());
+        return dto;
+    }
+}
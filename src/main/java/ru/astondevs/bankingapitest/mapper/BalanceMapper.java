@@ -0,0 +1,28 @@
+package ru.astondevs.bankingapitest.mapper;
+
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.dto.BalanceDto;
+import ru.astondevs.bankingapitest.service.HistoricalBalance;
+
+/**
+ * Класс BalanceMapper предназначен для преобразования объектов типа HistoricalBalance в объекты типа BalanceDto.
+ */
+@Component
+public class BalanceMapper {
+
+    /**
+     * Преобразует объект типа HistoricalBalance в объект типа BalanceDto.
+     *
+     * @param balance объект типа HistoricalBalance для преобразования.
+     * @return объект типа BalanceDto, соответствующий входному объекту типа HistoricalBalance.
+     */
+    public BalanceDto toDto(HistoricalBalance balance) {
+        BalanceDto dto = new BalanceDto();
+        dto.setAccountId(balance.getAccountId());
+        dto.setAt(balance.getAt().toString());
+        dto.setBalance(balance.getBalance());
+        dto.setCheckpointAt(balance.getCheckpointAt() != null ? balance.getCheckpointAt().toString() : null);
+        dto.setReplayedTransactions(balance.getReplayedTransactions());
+        return dto;
+    }
+}
@@ -0,0 +1,78 @@
+package ru.astondevs.bankingapitest.mapper;
+
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.exception.InvalidAmountException;
+import ru.astondevs.bankingapitest.grpc.proto.AccountReply;
+import ru.astondevs.bankingapitest.grpc.proto.TransactionReply;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.model.Transaction;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс GrpcMapper предназначен для преобразования объектов Account и Transaction в сообщения gRPC
+ * и для разбора сумм, которые передаются в сообщениях строками.
+ */
+@Component
+public class GrpcMapper {
+
+    /**
+     * Преобразует объект типа Account в сообщение AccountReply.
+     *
+     * @param account объект типа Account для преобразования.
+     * @return сообщение AccountReply, соответствующее входному объекту типа Account.
+     */
+    public AccountReply toReply(Account account) {
+        AccountReply.Builder reply = AccountReply.newBuilder()
+                .setBalance(account.getBalance().toPlainString());
+        if (account.getId() != null) {
+            reply.setId(account.getId());
+        }
+        if (account.getAccountNumber() != null) {
+            reply.setAccountNumber(account.getAccountNumber());
+        }
+        if (account.getBeneficiaryName() != null) {
+            reply.setBeneficiaryName(account.getBeneficiaryName());
+        }
+        return reply.build();
+    }
+
+    /**
+     * Преобразует объект типа Transaction в сообщение TransactionReply.
+     *
+     * @param transaction объект типа Transaction для преобразования.
+     * @return сообщение TransactionReply, соответствующее входному объекту типа Transaction.
+     */
+    public TransactionReply toReply(Transaction transaction) {
+        TransactionReply.Builder reply = TransactionReply.newBuilder()
+                .setAccountNumber(transaction.getAccount().getAccountNumber())
+                .setType(transaction.getType().getName())
+                .setAmount(transaction.getAmount().toPlainString())
+                .setTimestamp(transaction.getTimestamp());
+        if (transaction.getId() != null) {
+            reply.setId(transaction.getId());
+        }
+        if (transaction.getCounterpartyAccountId() != null) {
+            reply.setCounterpartyAccountId(transaction.getCounterpartyAccountId());
+        }
+        return reply.build();
+    }
+
+    /**
+     * Разбирает сумму из десятичной записи. Пустая строка означает, что сумма не передана.
+     *
+     * @param amount сумма в десятичной записи
+     * @return сумма или null, если она не передана
+     * @throws InvalidAmountException если строка не является числом
+     */
+    public BigDecimal parseAmount(String amount) {
+        if (amount.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(amount);
+        } catch (NumberFormatException e) {
+            throw new InvalidAmountException("Amount must be a decimal number");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.astondevs.bankingapitest.mapper;
+
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.dto.PostingRunDto;
+import ru.astondevs.bankingapitest.service.PostingRun;
+
+/**
+ * Класс PostingMapper предназначен для преобразования объектов типа PostingRun в объекты типа PostingRunDto.
+ */
+@Component
+public class PostingMapper {
+
+    /**
+     * Преобразует объект типа PostingRun в объект типа PostingRunDto.
+     *
+     * @param run объект типа PostingRun для преобразования.
+     * @return объект типа PostingRunDto, соответствующий входному объекту типа PostingRun.
+     */
+    public PostingRunDto toDto(PostingRun run) {
+        PostingRunDto dto = new PostingRunDto();
+        dto.setId(run.getId());
+        dto.setType(run.getType().name());
+        dto.setRate(run.getRate());
+        dto.setAmount(run.getAmount());
+        dto.setStatus(run.getStatus().name());
+        dto.setPostedAt(run.getPostedAt().toString());
+        if (run.getFinishedAt() != null) {
+            dto.setFinishedAt(run.getFinishedAt().toString());
+        }
+        dto.setChunkCount(run.getChunkCount());
+        dto.setCompletedChunks(run.getCompletedChunks());
+        dto.setAccountsProcessed(run.getAccountsProcessed());
+        dto.setAccountsPosted(run.getAccountsPosted());
+        dto.setTotalAmount(run.getTotalAmount());
+        dto.setAccountsPerSecond(run.getAccountsPerSecond());
+        dto.setFailureMessage(run.getFailureMessage());
+        return dto;
+    }
+}
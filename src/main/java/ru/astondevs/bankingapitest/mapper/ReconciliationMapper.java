@@ -0,0 +1,52 @@
+package ru.astondevs.bankingapitest.mapper;
+
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.dto.ReconciliationDiscrepancyDto;
+import ru.astondevs.bankingapitest.dto.ReconciliationRunDto;
+import ru.astondevs.bankingapitest.service.ReconciliationRun;
+
+/**
+ * Класс ReconciliationMapper предназначен для преобразования результатов сверки в объекты передачи данных.
+ */
+@Component
+public class ReconciliationMapper {
+
+    /**
+     * Преобразует объект типа ReconciliationRun в объект типа ReconciliationRunDto.
+     *
+     * @param run объект типа ReconciliationRun для преобразования.
+     * @return объект типа ReconciliationRunDto, соответствующий входному объекту типа ReconciliationRun.
+     */
+    public ReconciliationRunDto toDto(ReconciliationRun run) {
+        ReconciliationRunDto dto = new ReconciliationRunDto();
+        dto.setId(run.getId());
+        dto.setStatus(run.getStatus().name());
+        dto.setStartedAt(run.getStartedAt().toString());
+        if (run.getFinishedAt() != null) {
+            dto.setFinishedAt(run.getFinishedAt().toString());
+        }
+        dto.setMinAccountId(run.getMinAccountId());
+        dto.setMaxAccountId(run.getMaxAccountId());
+        dto.setChunkCount(run.getChunkCount());
+        dto.setCompletedChunks(run.getCompletedChunks());
+        dto.setAccountsChecked(run.getAccountsChecked());
+        dto.setTransactionsScanned(run.getTransactionsScanned());
+        dto.setDiscrepancyCount(run.getDiscrepancyCount());
+        dto.setFailureMessage(run.getFailureMessage());
+        return dto;
+    }
+
+    /**
+     * Преобразует расхождение сверки в объект типа ReconciliationDiscrepancyDto.
+     *
+     * @param discrepancy расхождение для преобразования.
+     * @return объект типа ReconciliationDiscrepancyDto, соответствующий входному расхождению.
+     */
+    public ReconciliationDiscrepancyDto toDto(ReconciliationRun.Discrepancy discrepancy) {
+        ReconciliationDiscrepancyDto dto = new ReconciliationDiscrepancyDto();
+        dto.setAccountId(discrepancy.getAccountId());
+        dto.setBalance(discrepancy.getBalance());
+        dto.setLedgerBalance(discrepancy.getLedgerBalance());
+        return dto;
+    }
+}
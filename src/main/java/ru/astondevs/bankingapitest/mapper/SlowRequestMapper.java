@@ -0,0 +1,29 @@
+package ru.astondevs.bankingapitest.mapper;
+
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.dto.SlowRequestDto;
+import ru.astondevs.bankingapitest.metrics.SlowRequestLog;
+
+/**
+ * Класс SlowRequestMapper предназначен для преобразования объектов типа SlowRequest в объекты типа SlowRequestDto.
+ */
+@Component
+public class SlowRequestMapper {
+
+    /**
+     * Преобразует объект типа SlowRequest в объект типа SlowRequestDto.
+     *
+     * @param request объект типа SlowRequest для преобразования.
+     * @return объект типа SlowRequestDto, соответствующий входному объекту типа SlowRequest.
+     */
+    public SlowRequestDto toDto(SlowRequestLog.SlowRequest request) {
+        SlowRequestDto dto = new SlowRequestDto();
+        dto.setTimestamp(request.timestamp().toString());
+        dto.setMethod(request.method());
+        dto.setUri(request.uri());
+        dto.setStatus(request.status());
+        dto.setDurationMillis(request.durationMillis());
+        dto.setPhases(request.phaseMillis());
+        return dto;
+    }
+}
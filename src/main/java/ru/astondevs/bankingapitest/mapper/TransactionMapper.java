@@ -21,7 +21,8 @@ public class TransactionMapper {
         TransactionDto dto = new TransactionDto();
         dto.setId(transaction.getId());
         dto.setAccountNumber(transaction.getAccount().getAccountNumber());
-        dto.setType(transaction.getType());
+        dto.setType(transaction.getType().getName());
+        dto.setCounterpartyAccountId(transaction.getCounterpartyAccountId());
         dto.setAmount(transaction.getAmount());
         dto.setTimestamp(transaction.getTimestamp());
         return dto;
@@ -0,0 +1,69 @@
+package ru.astondevs.bankingapitest.metrics;
+
+/**
+ * Класс RequestMetricsContext переносит статистику обращений к базе данных и замер этапов HTTP-запроса
+ * в поток пула, который выполняет запрос асинхронно.
+ * <p>
+ * Поток пула накапливает их в собственных экземплярах, которые добавляются к экземплярам запроса вызовом
+ * {@link #merge()} только перед выдачей результата. Поэтому запрос, ответ на который уже отправлен
+ * по истечении времени ожидания, не меняет статистику, которую в это время читает поток ответа.
+ */
+public final class RequestMetricsContext {
+
+    private final RequestStatistics statistics;
+    private final RequestTiming timing;
+    private RequestStatistics workerStatistics;
+    private RequestTiming workerTiming;
+
+    private RequestMetricsContext(RequestStatistics statistics, RequestTiming timing) {
+        this.statistics = statistics;
+        this.timing = timing;
+    }
+
+    /**
+     * Запоминает статистику и замер запроса, обрабатываемого текущим потоком.
+     */
+    public static RequestMetricsContext capture() {
+        return new RequestMetricsContext(RequestStatistics.current(), RequestTiming.current());
+    }
+
+    /**
+     * Начинает накопление статистики и замера в текущем потоке пула.
+     *
+     * @param queuedNanos время ожидания в очереди пула, учитываемое как этап {@link RequestTiming.Phase#QUEUE}
+     */
+    public void attach(long queuedNanos) {
+        if (statistics != null) {
+            workerStatistics = RequestStatistics.begin();
+        }
+        if (timing != null) {
+            workerTiming = RequestTiming.begin();
+            workerTiming.addPhaseNanos(RequestTiming.Phase.QUEUE, queuedNanos);
+        }
+    }
+
+    /**
+     * Завершает накопление в текущем потоке пула.
+     */
+    public void detach() {
+        if (workerStatistics != null) {
+            RequestStatistics.end();
+        }
+        if (workerTiming != null) {
+            RequestTiming.end();
+        }
+    }
+
+    /**
+     * Добавляет накопленное в потоке пула к статистике и замеру запроса. Вызывается после {@link #detach()}
+     * и до выдачи результата запросу.
+     */
+    public void merge() {
+        if (workerStatistics != null) {
+            statistics.add(workerStatistics);
+        }
+        if (workerTiming != null) {
+            timing.add(workerTiming);
+        }
+    }
+}
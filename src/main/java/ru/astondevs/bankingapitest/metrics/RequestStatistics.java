@@ -0,0 +1,77 @@
+package ru.astondevs.bankingapitest.metrics;
+
+/**
+ * Класс RequestStatistics накапливает обращения к базе данных и к кэшу второго уровня Hibernate
+ * в рамках одного HTTP-запроса. Экземпляр привязан к потоку, обрабатывающему запрос, и заполняется
+ * {@link RequestStatisticsListener} из всех сессий Hibernate, открытых в этом потоке.
+ */
+public final class RequestStatistics {
+
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int cacheHits;
+    private int cacheMisses;
+
+    /**
+     * Возвращает статистику текущего запроса.
+     *
+     * @return статистика или null, если поток не обрабатывает HTTP-запрос
+     */
+    public static RequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    static RequestStatistics begin() {
+        RequestStatistics statistics = new RequestStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void resume(RequestStatistics statistics) {
+        CURRENT.set(statistics);
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Возвращает количество обращений к базе данных: выполненных запросов и JDBC-пакетов.
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Возвращает количество попаданий в кэш второго уровня, то есть сэкономленных обращений к базе данных.
+     */
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    public int getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Добавляет обращения, накопленные в другом потоке при обработке того же запроса.
+     */
+    void add(RequestStatistics other) {
+        statements += other.statements;
+        cacheHits += other.cacheHits;
+        cacheMisses += other.cacheMisses;
+    }
+
+    void statementExecuted() {
+        statements++;
+    }
+
+    void cacheGet(boolean hit) {
+        if (hit) {
+            cacheHits++;
+        } else {
+            cacheMisses++;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ru.astondevs.bankingapitest.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Класс RequestStatisticsFilter собирает статистику обращений к базе данных и к кэшу второго уровня
+ * для каждого HTTP-запроса и публикует ее в метриках с разбивкой по эндпоинтам:
+ * <ul>
+ *     <li>{@code banking.hibernate.request.statements} - распределение числа обращений к базе данных за запрос;</li>
+ *     <li>{@code banking.hibernate.request.cache} - попадания ({@code result=hit}) и промахи
+ *     ({@code result=miss}) кэша второго уровня.</li>
+ * </ul>
+ * Фильтр выполняется снаружи открытой на время запроса сессии Hibernate, поэтому учитываются все ее обращения,
+ * включая ленивую загрузку при преобразовании сущностей в DTO. Для асинхронного запроса статистика сохраняется
+ * в атрибуте запроса между диспетчеризациями и публикуется после последней из них.
+ */
+@Component
+public class RequestStatisticsFilter extends OncePerRequestFilter {
+
+    private static final String STATISTICS_ATTRIBUTE = RequestStatisticsFilter.class.getName() + ".STATISTICS";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestStatisticsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestStatistics statistics = (RequestStatistics) request.getAttribute(STATISTICS_ATTRIBUTE);
+        if (statistics == null) {
+            statistics = RequestStatistics.begin();
+            request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+        } else {
+            RequestStatistics.resume(statistics);
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestStatistics.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null && !isAsyncStarted(request)) {
+                record(request.getMethod(), pattern.toString(), statistics);
+            }
+        }
+    }
+
+    private void record(String method, String uri, RequestStatistics statistics) {
+        DistributionSummary.builder("banking.hibernate.request.statements")
+                .description("Database statements and JDBC batches executed per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        if (statistics.getCacheHits() > 0) {
+            Counter.builder("banking.hibernate.request.cache")
+                    .description("Second-level cache lookups per endpoint")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .tag("result", "hit")
+                    .register(meterRegistry)
+                    .increment(statistics.getCacheHits());
+        }
+        if (statistics.getCacheMisses() > 0) {
+            Counter.builder("banking.hibernate.request.cache")
+                    .description("Second-level cache lookups per endpoint")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .tag("result", "miss")
+                    .register(meterRegistry)
+                    .increment(statistics.getCacheMisses());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.astondevs.bankingapitest.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Класс RequestStatisticsListener передает события сессии Hibernate в статистику текущего HTTP-запроса.
+ * Сброс изменений сессии замеряется как этап {@link RequestTiming.Phase#LOCK}: при сбросе выполняются
+ * обновления строк счетов, которые блокируют строки и проверяют версию.
+ * Hibernate создает экземпляр для каждой сессии по настройке {@code hibernate.session.events.auto}.
+ */
+public class RequestStatisticsListener implements SessionEventListener {
+
+    private RequestTiming.Phase phaseBeforeFlush;
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            statistics.statementExecuted();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            statistics.statementExecuted();
+        }
+    }
+
+    @Override
+    public void cacheGetEnd(boolean hit) {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            statistics.cacheGet(hit);
+        }
+    }
+
+    @Override
+    public void flushStart() {
+        phaseBeforeFlush = RequestTiming.enter(RequestTiming.Phase.LOCK);
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestTiming.exit(phaseBeforeFlush);
+        phaseBeforeFlush = null;
+    }
+}
@@ -0,0 +1,237 @@
+package ru.astondevs.bankingapitest.metrics;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Класс RequestTiming замеряет длительность этапов обработки одного HTTP-запроса. Экземпляр привязан к потоку,
+ * обрабатывающему запрос, как и {@link RequestStatistics}.
+ * <p>
+ * В каждый момент времени активен не более чем один этап: вход во вложенный этап приостанавливает внешний, а выход
+ * возобновляет его. Поэтому длительности этапов не пересекаются, а время вне этапов в них не попадает.
+ * Замер стоит двух вызовов {@link System#nanoTime()} и не создает объектов; в потоке без запроса вызовы
+ * {@link #enter} и {@link #exit} ничего не делают.
+ */
+public final class RequestTiming {
+
+    /**
+     * Этап обработки запроса. Имя этапа выводится в заголовке Server-Timing.
+     */
+    public enum Phase {
+        /**
+         * Ожидание свободного потока в пуле, выполняющем запрос асинхронно.
+         */
+        QUEUE("queue"),
+        /**
+         * Проверка параметров, PIN-кода и лимитов операций.
+         */
+        VALIDATION("validation"),
+        /**
+         * Загрузка счетов.
+         */
+        LOAD("load"),
+        /**
+         * Запись транзакций по счетам.
+         */
+        INSERT("insert"),
+        /**
+         * Сброс изменений счетов в базу данных: обновление строк с их блокировкой и проверкой версии.
+         */
+        LOCK("lock"),
+        /**
+         * Фиксация транзакции базы данных, кроме сброса изменений.
+         */
+        COMMIT("commit"),
+        /**
+         * Преобразование тела ответа в JSON или двоичный формат.
+         */
+        SERIALIZATION("serialization");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startedNanos = System.nanoTime();
+    private final long[] phaseNanos = new long[PHASES.length];
+    private Phase phase;
+    private long phaseStartedNanos;
+    private long totalNanos;
+
+    /**
+     * Возвращает замер текущего запроса.
+     *
+     * @return замер или null, если поток не обрабатывает HTTP-запрос
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Начинает этап текущего запроса.
+     *
+     * @param phase этап
+     * @return этап, который был активен до этого; его нужно передать в {@link #exit}
+     */
+    public static Phase enter(Phase phase) {
+        RequestTiming timing = CURRENT.get();
+        return timing == null ? null : timing.switchTo(phase);
+    }
+
+    /**
+     * Завершает этап текущего запроса и возобновляет предыдущий.
+     *
+     * @param previous этап, возвращенный {@link #enter}
+     */
+    public static void exit(Phase previous) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.switchTo(previous);
+        }
+    }
+
+    /**
+     * Замеряет фиксацию текущей транзакции базы данных как этап {@link Phase#COMMIT}.
+     * Вызывается внутри транзакции; вне запроса или без синхронизации транзакции ничего не делает.
+     */
+    public static void timeCommit() {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private Phase previous;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                previous = timing.switchTo(Phase.COMMIT);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (timing.phase == Phase.COMMIT) {
+                    timing.switchTo(previous);
+                }
+            }
+        });
+    }
+
+    static RequestTiming begin() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void resume(RequestTiming timing) {
+        CURRENT.set(timing);
+    }
+
+    static void detach() {
+        CURRENT.remove();
+    }
+
+    static void end() {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.switchTo(null);
+            timing.totalNanos = System.nanoTime() - timing.startedNanos;
+        }
+        CURRENT.remove();
+    }
+
+    /**
+     * Возвращает длительность этапа в наносекундах.
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Возвращает общую длительность обработки запроса в наносекундах. Известна после завершения запроса.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Возвращает длительности этапов, которые заняли время, в миллисекундах в порядке этапов.
+     */
+    public Map<String, Double> getPhaseMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            if (phaseNanos[phase.ordinal()] > 0) {
+                millis.put(phase.getMetricName(), toMillis(phaseNanos[phase.ordinal()]));
+            }
+        }
+        return millis;
+    }
+
+    /**
+     * Формирует значение заголовка Server-Timing: этапы, занявшие время, и общую длительность обработки.
+     * До завершения запроса длительности указываются на текущий момент, включая время активного этапа.
+     */
+    String toServerTiming() {
+        long now = System.nanoTime();
+        StringBuilder header = new StringBuilder();
+        for (Phase phase : PHASES) {
+            long nanos = phaseNanos[phase.ordinal()];
+            if (phase == this.phase) {
+                nanos += now - phaseStartedNanos;
+            }
+            if (nanos > 0) {
+                appendMetric(header, phase.getMetricName(), nanos);
+            }
+        }
+        appendMetric(header, "total", totalNanos > 0 ? totalNanos : now - startedNanos);
+        return header.toString();
+    }
+
+    /**
+     * Добавляет длительности этапов другого замера, например замера той части запроса, которая выполнялась
+     * в другом потоке.
+     */
+    void add(RequestTiming other) {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] += other.phaseNanos[i];
+        }
+    }
+
+    void addPhaseNanos(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    private Phase switchTo(Phase next) {
+        long now = System.nanoTime();
+        Phase previous = phase;
+        if (previous != null) {
+            phaseNanos[previous.ordinal()] += now - phaseStartedNanos;
+        }
+        phase = next;
+        phaseStartedNanos = now;
+        return previous;
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(toMillis(nanos));
+    }
+
+    static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.astondevs.bankingapitest.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.WebUtils;
+import ru.astondevs.bankingapitest.config.TimingProperties;
+
+import java.io.IOException;
+
+/**
+ * Класс RequestTimingFilter замеряет этапы обработки каждого HTTP-запроса с помощью {@link RequestTiming},
+ * добавляет их в заголовок ответа {@code Server-Timing} и передает медленные запросы в {@link SlowRequestLog}.
+ * <p>
+ * Заголовки должны быть отправлены раньше тела, поэтому заголовок добавляется {@link ServerTimingResponse}
+ * непосредственно перед тем, как ответ может быть зафиксирован, а тело ответа не накапливается в памяти.
+ * Асинхронный запрос замеряется от начала первой диспетчеризации до конца последней.
+ */
+@Component
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+    private static final String TIMING_ATTRIBUTE = RequestTimingFilter.class.getName() + ".TIMING";
+
+    private final TimingProperties properties;
+    private final SlowRequestLog slowRequestLog;
+
+    public RequestTimingFilter(TimingProperties properties, SlowRequestLog slowRequestLog) {
+        this.properties = properties;
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTiming timing = (RequestTiming) request.getAttribute(TIMING_ATTRIBUTE);
+        if (timing == null) {
+            timing = RequestTiming.begin();
+            request.setAttribute(TIMING_ATTRIBUTE, timing);
+        } else {
+            RequestTiming.resume(timing);
+        }
+        ServerTimingResponse timed = null;
+        if (properties.isServerTimingHeader()) {
+            // При повторной диспетчеризации асинхронного запроса ответ может быть уже обернут
+            timed = WebUtils.getNativeResponse(response, ServerTimingResponse.class);
+            if (timed == null) {
+                timed = new ServerTimingResponse(response, timing);
+            }
+        }
+        try {
+            chain.doFilter(request, timed != null ? timed : response);
+        } finally {
+            if (isAsyncStarted(request)) {
+                RequestTiming.detach();
+            } else {
+                RequestTiming.end();
+                complete(request, response, timed, timing);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, HttpServletResponse response,
+                          ServerTimingResponse timed, RequestTiming timing) {
+        if (timed != null) {
+            // Ответ без тела еще не зафиксирован, и заголовок получает окончательные длительности
+            timed.addServerTiming();
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        slowRequestLog.offer(request.getMethod(), pattern != null ? pattern.toString() : request.getRequestURI(),
+                response.getStatus(), timing);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.astondevs.bankingapitest.metrics;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Класс SerializationTimingAdvice начинает этап {@link RequestTiming.Phase#SERIALIZATION} непосредственно перед
+ * преобразованием тела ответа. Этап продолжается до завершения запроса в {@link RequestTimingFilter}.
+ */
+@ControllerAdvice
+public class SerializationTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return RequestTiming.current() != null;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTiming.enter(RequestTiming.Phase.SERIALIZATION);
+        return body;
+    }
+}
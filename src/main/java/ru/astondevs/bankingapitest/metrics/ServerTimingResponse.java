@@ -0,0 +1,152 @@
+package ru.astondevs.bankingapitest.metrics;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Класс ServerTimingResponse добавляет заголовок {@code Server-Timing} непосредственно перед тем, как ответ может
+ * быть зафиксирован: перед первой записью или сбросом тела, перед отправкой ошибки или перенаправления.
+ * Тело ответа не накапливается и передается контейнеру сразу. Длительности этапов в заголовке указываются на момент
+ * его добавления; обычно это конец преобразования тела, поскольку преобразователи сообщений записывают тело
+ * из собственного буфера и сбрасывают поток по окончании.
+ */
+class ServerTimingResponse extends HttpServletResponseWrapper {
+
+    private final RequestTiming timing;
+    private boolean headerAdded;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    ServerTimingResponse(HttpServletResponse response, RequestTiming timing) {
+        super(response);
+        this.timing = timing;
+    }
+
+    /**
+     * Добавляет заголовок, если он еще не добавлен и ответ не зафиксирован.
+     */
+    void addServerTiming() {
+        if (!headerAdded) {
+            headerAdded = true;
+            if (!isCommitted()) {
+                setHeader(RequestTimingFilter.SERVER_TIMING, timing.toServerTiming());
+            }
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new TimingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new TimingWriter(super.getWriter()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        addServerTiming();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        addServerTiming();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        addServerTiming();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        addServerTiming();
+        super.sendRedirect(location);
+    }
+
+    private class TimingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        TimingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            addServerTiming();
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            addServerTiming();
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            addServerTiming();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            addServerTiming();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private class TimingWriter extends Writer {
+
+        private final PrintWriter delegate;
+
+        TimingWriter(PrintWriter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            addServerTiming();
+            delegate.write(cbuf, off, len);
+        }
+
+        @Override
+        public void flush() {
+            addServerTiming();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() {
+            addServerTiming();
+            delegate.close();
+        }
+    }
+}
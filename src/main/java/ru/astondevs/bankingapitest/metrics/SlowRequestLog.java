@@ -0,0 +1,84 @@
+package ru.astondevs.bankingapitest.metrics;
+
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.config.TimingProperties;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Класс SlowRequestLog хранит в памяти разбивку по этапам последних медленных HTTP-запросов.
+ * <p>
+ * Запрос попадает в журнал, если его обработка заняла не меньше {@code banking.timing.slow-request-threshold};
+ * из медленных запросов отбирается доля {@code banking.timing.slow-request-sample-rate}. Журнал - кольцевой буфер
+ * на {@code banking.timing.slow-request-capacity} записей: новая запись вытесняет самую старую.
+ */
+@Component
+public class SlowRequestLog {
+
+    /**
+     * Медленный запрос.
+     *
+     * @param timestamp     время завершения запроса
+     * @param method        метод HTTP
+     * @param uri           шаблон пути эндпоинта или путь запроса, если эндпоинт не найден
+     * @param status        код ответа
+     * @param durationMillis общая длительность обработки в миллисекундах
+     * @param phaseMillis   длительность этапов в миллисекундах
+     */
+    public record SlowRequest(Instant timestamp, String method, String uri, int status, double durationMillis,
+                              Map<String, Double> phaseMillis) {
+    }
+
+    private final TimingProperties properties;
+    private final long thresholdNanos;
+    private final SlowRequest[] entries;
+    private int next;
+    private int size;
+
+    public SlowRequestLog(TimingProperties properties) {
+        this.properties = properties;
+        this.thresholdNanos = properties.getSlowRequestThreshold().toNanos();
+        this.entries = new SlowRequest[Math.max(1, properties.getSlowRequestCapacity())];
+    }
+
+    /**
+     * Добавляет запрос в журнал, если он медленный и попал в выборку.
+     *
+     * @param method метод HTTP
+     * @param uri    шаблон пути эндпоинта или путь запроса
+     * @param status код ответа
+     * @param timing замер завершенного запроса
+     */
+    public void offer(String method, String uri, int status, RequestTiming timing) {
+        if (timing.getTotalNanos() < thresholdNanos) {
+            return;
+        }
+        double sampleRate = properties.getSlowRequestSampleRate();
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        add(new SlowRequest(Instant.now(), method, uri, status, RequestTiming.toMillis(timing.getTotalNanos()),
+                timing.getPhaseMillis()));
+    }
+
+    /**
+     * Возвращает запросы из журнала, начиная с самого нового.
+     */
+    public synchronized List<SlowRequest> getRecent() {
+        List<SlowRequest> recent = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            recent.add(entries[Math.floorMod(next - i, entries.length)]);
+        }
+        return recent;
+    }
+
+    private synchronized void add(SlowRequest request) {
+        entries[next] = request;
+        next = (next + 1) % entries.length;
+        size = Math.min(size + 1, entries.length);
+    }
+}
@@ -1,25 +1,32 @@
 package ru.astondevs.bankingapitest.model;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.astondevs.bankingapitest.exception.InsufficientBalanceException;
 import ru.astondevs.bankingapitest.exception.InvalidPinException;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Класс Account представляет собой модель банковского счета в банковском приложении.
  * Он содержит информацию о каждом счете, включая уникальный идентификатор, номер счета, имя владельца, PIN-код и баланс.
+ * Счета хранятся в кэше второго уровня Hibernate; изменения через Hibernate обновляют кэш автоматически.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Account {
 
     /**
@@ -30,8 +37,9 @@ public class Account {
     private Long id;
 
     /**
-     * Номер счета.
+     * Номер счета. Уникален и не меняется после создания счета.
      */
+    @Column(nullable = false, unique = true, updatable = false)
     private String accountNumber;
 
     /**
@@ -49,6 +57,13 @@ public class Account {
      */
     private BigDecimal balance;
 
+    /**
+     * Версия счета. Увеличивается при каждом изменении счета, в том числе баланса,
+     * и используется для оптимистической блокировки и для ETag в ответах на запросы чтения.
+     */
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("timestamp DESC")
     private List<Transaction> transactions = new ArrayList<>();
@@ -59,11 +74,12 @@ public class Account {
     /**
      * Создает новый объект Account.
      *
+     * @param accountNumber   номер счета
      * @param beneficiaryName имя владельца счета
      * @param pin             PIN-код счета
      */
-    public Account(String beneficiaryName, String pin) {
-        this.accountNumber = UUID.randomUUID().toString();
+    public Account(String accountNumber, String beneficiaryName, String pin) {
+        this.accountNumber = accountNumber;
         this.beneficiaryName = beneficiaryName;
         this.pin = pin;
         this.balance = BigDecimal.ZERO;
@@ -89,6 +105,10 @@ public class Account {
         return balance;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public List<Transaction> getTransactions() {
         return transactions;
     }
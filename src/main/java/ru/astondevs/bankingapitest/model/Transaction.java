@@ -1,5 +1,6 @@
 package ru.astondevs.bankingapitest.model;
 
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -11,7 +12,8 @@ import java.math.BigDecimal;
 
 /**
  * Класс Transaction представляет собой модель транзакции в банковском приложении.
- * Он содержит информацию о каждой транзакции, включая счет, тип транзакции, сумму и время проведения транзакции.
+ * Он содержит информацию о каждой транзакции, включая счет, тип транзакции, сумму и время проведения транзакции,
+ * а для переводов еще и счет другой стороны перевода.
  */
 @Entity
 public class Transaction {
@@ -31,9 +33,17 @@ public class Transaction {
     private Account account;
 
     /**
-     * Тип транзакции (например, "deposit", "withdraw", "transfer in", "transfer out").
+     * Тип транзакции. Хранится кодом типа, см. {@link TransactionType}.
      */
-    private String type;
+    @Convert(converter = TransactionTypeConverter.class)
+    private TransactionType type;
+
+    /**
+     * Идентификатор счета другой стороны перевода: получателя для "transfer out", отправителя для "transfer in",
+     * несостоявшегося получателя для "transfer reversal". Для остальных типов транзакций равен null.
+     * Счет может находиться в другом шарде, поэтому внешнего ключа на него нет.
+     */
+    private Long counterpartyAccountId;
 
     /**
      * Сумма транзакции.
@@ -48,10 +58,15 @@ public class Transaction {
     protected Transaction() {
     }
 
-    public Transaction(Account account, BigDecimal amount, String type) {
+    public Transaction(Account account, BigDecimal amount, TransactionType type) {
+        this(account, amount, type, null);
+    }
+
+    public Transaction(Account account, BigDecimal amount, TransactionType type, Long counterpartyAccountId) {
         this.account = account;
         this.amount = amount;
         this.type = type;
+        this.counterpartyAccountId = counterpartyAccountId;
         this.timestamp = java.time.LocalDateTime.now().toString();
     }
 
@@ -63,10 +78,14 @@ public class Transaction {
         return account;
     }
 
-    public String getType() {
+    public TransactionType getType() {
         return type;
     }
 
+    public Long getCounterpartyAccountId() {
+        return counterpartyAccountId;
+    }
+
     public BigDecimal getAmount() {
         return amount;
     }
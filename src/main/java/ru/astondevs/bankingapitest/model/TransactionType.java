@@ -0,0 +1,77 @@
+package ru.astondevs.bankingapitest.model;
+
+/**
+ * Перечисление TransactionType содержит типы транзакций счета.
+ * Код типа хранится в столбце transaction.type как SMALLINT и не должен меняться; в API тип передается названием.
+ */
+public enum TransactionType {
+
+    DEPOSIT(1, "deposit", true),
+    WITHDRAW(2, "withdraw", false),
+    TRANSFER_OUT(3, "transfer out", false),
+    TRANSFER_IN(4, "transfer in", true),
+    TRANSFER_REVERSAL(5, "transfer reversal", true),
+    INTEREST(6, "interest", true),
+    FEE(7, "fee", false);
+
+    private static final TransactionType[] BY_CODE = new TransactionType[8];
+
+    static {
+        for (TransactionType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final short code;
+    private final String name;
+    private final boolean credit;
+
+    TransactionType(int code, String name, boolean credit) {
+        this.code = (short) code;
+        this.name = name;
+        this.credit = credit;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * Возвращает название типа, под которым он передается в REST и gRPC API.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Возвращает true, если транзакция этого типа увеличивает баланс счета, и false, если уменьшает.
+     */
+    public boolean isCredit() {
+        return credit;
+    }
+
+    /**
+     * Возвращает тип транзакции по коду из базы данных.
+     *
+     * @param code код типа
+     * @return тип транзакции или null, если код неизвестен
+     */
+    public static TransactionType fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    /**
+     * Возвращает тип транзакции по названию из API.
+     *
+     * @param name название типа, например {@code "transfer in"}
+     * @return тип транзакции или null, если название неизвестно
+     */
+    public static TransactionType fromName(String name) {
+        for (TransactionType type : values()) {
+            if (type.name.equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
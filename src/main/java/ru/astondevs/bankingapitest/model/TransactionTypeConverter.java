@@ -0,0 +1,29 @@
+package ru.astondevs.bankingapitest.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Класс TransactionTypeConverter сохраняет тип транзакции в базе данных его кодом.
+ * В отличие от порядкового номера перечисления, код не меняется при добавлении или перестановке типов.
+ */
+@Converter
+public class TransactionTypeConverter implements AttributeConverter<TransactionType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(TransactionType type) {
+        return type != null ? type.getCode() : null;
+    }
+
+    @Override
+    public TransactionType convertToEntityAttribute(Short code) {
+        if (code == null) {
+            return null;
+        }
+        TransactionType type = TransactionType.fromCode(code);
+        if (type == null) {
+            throw new IllegalStateException("Unknown transaction type: " + code);
+        }
+        return type;
+    }
+}
@@ -1,12 +1,31 @@
 package ru.astondevs.bankingapitest.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.astondevs.bankingapitest.model.Account;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
+    /**
+     * Регион кэша запросов для результатов {@link #findByBeneficiaryName(String)}.
+     */
+    String BENEFICIARY_NAME_QUERY_REGION = "account-by-beneficiary";
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = BENEFICIARY_NAME_QUERY_REGION)
+    })
     List<Account> findByBeneficiaryName(String beneficiaryName);
+
+    Optional<Account> findByAccountNumber(String accountNumber);
+
+    @Query("select a.version from Account a where a.id = :id")
+    Optional<Long> findVersionById(Long id);
 }
@@ -1,6 +1,7 @@
 package ru.astondevs.bankingapitest.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 import ru.astondevs.bankingapitest.model.Account;
 import ru.astondevs.bankingapitest.model.Transaction;
@@ -8,6 +9,6 @@ import ru.astondevs.bankingapitest.model.Transaction;
 import java.util.List;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
     List<Transaction> findByAccount(Account account);
 }
@@ -0,0 +1,50 @@
+package ru.astondevs.bankingapitest.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.astondevs.bankingapitest.model.Transaction;
+import ru.astondevs.bankingapitest.model.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс TransactionSpecifications содержит условия поиска по истории транзакций счета.
+ * Незаданный фильтр не добавляет условия в запрос, поэтому запрос содержит только равенства и диапазоны,
+ * по которым база данных выбирает составной индекс по счету.
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    /**
+     * Возвращает условие поиска транзакций счета.
+     *
+     * @param accountId             идентификатор счета
+     * @param type                  тип транзакции или null
+     * @param counterpartyAccountId идентификатор счета другой стороны перевода или null
+     * @param minAmount             наименьшая сумма включительно или null
+     * @param maxAmount             наибольшая сумма включительно или null
+     * @return условие поиска
+     */
+    public static Specification<Transaction> search(Long accountId, TransactionType type, Long counterpartyAccountId,
+                                                    BigDecimal minAmount, BigDecimal maxAmount) {
+        Specification<Transaction> specification = (root, query, cb) ->
+                cb.equal(root.get("account").get("id"), accountId);
+        if (type != null) {
+            specification = specification.and((root, query, cb) -> cb.equal(root.get("type"), type));
+        }
+        if (counterpartyAccountId != null) {
+            specification = specification.and((root, query, cb) ->
+                    cb.equal(root.get("counterpartyAccountId"), counterpartyAccountId));
+        }
+        if (minAmount != null) {
+            specification = specification.and((root, query, cb) ->
+                    cb.greaterThanOrEqualTo(root.get("amount"), minAmount));
+        }
+        if (maxAmount != null) {
+            specification = specification.and((root, query, cb) ->
+                    cb.lessThanOrEqualTo(root.get("amount"), maxAmount));
+        }
+        return specification;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.astondevs.bankingapitest.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.coalescing.AccountWriteStamps;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.repository.AccountRepository;
+
+import java.util.Collection;
+
+/**
+ * Класс AccountCacheEvictor вытесняет счета из кэша второго уровня Hibernate после изменений,
+ * выполненных напрямую через JDBC. Такие изменения Hibernate не видит, поэтому сам кэш не обновляет.
+ * Вызывать методы следует после фиксации транзакции, иначе параллельный запрос может снова загрузить в кэш
+ * старое состояние счета. Вытесненные счета также отмечаются в {@link AccountWriteStamps}, чтобы последующие
+ * запросы не присоединялись к загрузкам, начатым до изменения.
+ */
+@Component
+public class AccountCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AccountWriteStamps writeStamps;
+
+    public AccountCacheEvictor(EntityManagerFactory entityManagerFactory, AccountWriteStamps writeStamps) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.writeStamps = writeStamps;
+    }
+
+    /**
+     * Вытесняет из кэша указанные счета.
+     *
+     * @param accountIds идентификаторы измененных счетов
+     */
+    public void evictAccounts(Collection<Long> accountIds) {
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        for (Long accountId : accountIds) {
+            cache.evict(Account.class, accountId);
+            writeStamps.advance(accountId);
+        }
+    }
+
+    /**
+     * Вытесняет кэшированные результаты поиска счетов по имени владельца. Нужно после создания счетов,
+     * так как новые счета могут входить в уже кэшированные результаты.
+     */
+    public void evictAccountQueries() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(AccountRepository.BENEFICIARY_NAME_QUERY_REGION);
+    }
+}
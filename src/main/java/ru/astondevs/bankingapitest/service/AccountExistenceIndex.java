@@ -0,0 +1,278 @@
+package ru.astondevs.bankingapitest.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.astondevs.bankingapitest.config.AccountExistenceIndexProperties;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Класс AccountExistenceIndex хранит в памяти фильтр Блума по идентификаторам счетов.
+ * <p>
+ * Фильтр отвечает «счета точно нет» без обращения к базе данных; ответ «счет, возможно, есть» требует
+ * проверки в базе данных. Ложноотрицательных ответов не бывает: идентификатор добавляется в фильтр после
+ * фиксации транзакции, создавшей счет, а при перестроении новые счета попадают и в старый, и в новый фильтр.
+ * До первого перестроения индекс не готов и на любой запрос отвечает «возможно, есть».
+ * <p>
+ * Счета не удаляются, поэтому фильтр только растет. Если счетов становится заметно больше, чем заложено при
+ * перестроении, вероятность ложноположительного ответа растет; ее оценка и фактическая доля публикуются
+ * как метрики, а размер фильтра пересчитывается при следующем перестроении.
+ */
+@Component
+public class AccountExistenceIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountExistenceIndex.class);
+
+    private final AccountExistenceIndexProperties properties;
+    private final Counter absentLookups;
+    private final Counter presentLookups;
+    private final Counter falsePositives;
+    private volatile BloomFilter current;
+    private volatile BloomFilter building;
+
+    public AccountExistenceIndex(AccountExistenceIndexProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.absentLookups = Counter.builder("banking.account.index.lookups")
+                .description("Lookups answered by the account existence index")
+                .tag("result", "absent")
+                .register(meterRegistry);
+        this.presentLookups = Counter.builder("banking.account.index.lookups")
+                .description("Lookups answered by the account existence index")
+                .tag("result", "maybe_present")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("banking.account.index.lookups")
+                .description("Lookups answered by the account existence index")
+                .tag("result", "false_positive")
+                .register(meterRegistry);
+        Gauge.builder("banking.account.index.entries", this, AccountExistenceIndex::getEntries)
+                .description("Number of account ids added to the existence index")
+                .register(meterRegistry);
+        Gauge.builder("banking.account.index.memory", this, AccountExistenceIndex::getMemoryBytes)
+                .description("Memory used by the existence index bit array")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("banking.account.index.fpp.estimated", this,
+                        AccountExistenceIndex::getEstimatedFalsePositiveProbability)
+                .description("False positive probability estimated from the filter size and fill")
+                .register(meterRegistry);
+        Gauge.builder("banking.account.index.fpp.observed", this,
+                        AccountExistenceIndex::getObservedFalsePositiveRate)
+                .description("Share of lookups of missing accounts that the index failed to reject")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Проверяет, может ли существовать счет с указанным идентификатором.
+     *
+     * @param accountId идентификатор счета
+     * @return false, если счета с таким идентификатором точно нет
+     */
+    public boolean mightContain(Long accountId) {
+        BloomFilter filter = current;
+        if (accountId == null || filter == null || !properties.isEnabled()) {
+            return true;
+        }
+        if (filter.mightContain(accountId)) {
+            presentLookups.increment();
+            return true;
+        }
+        absentLookups.increment();
+        return false;
+    }
+
+    /**
+     * Учитывает случай, когда индекс ответил «возможно, есть», а счет в базе данных не найден.
+     */
+    public void recordFalsePositive() {
+        if (current != null && properties.isEnabled()) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Добавляет идентификатор созданного счета. Внутри транзакции добавление откладывается до ее фиксации,
+     * чтобы перестроение, начавшееся до фиксации, не пропустило счет.
+     *
+     * @param accountId идентификатор счета
+     */
+    public void add(Long accountId) {
+        if (accountId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(accountId);
+                }
+            });
+        } else {
+            put(accountId);
+        }
+    }
+
+    /**
+     * Добавляет идентификаторы счетов, созданных одним пакетом. Внутри транзакции добавление откладывается до ее
+     * фиксации так же, как в {@link #add(Long)}, но одной синхронизацией на весь пакет.
+     *
+     * @param accountIds идентификаторы счетов
+     * @param count      количество идентификаторов в начале массива
+     */
+    public void addAll(long[] accountIds, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putAll(accountIds, count);
+                }
+            });
+        } else {
+            putAll(accountIds, count);
+        }
+    }
+
+    private void putAll(long[] accountIds, int count) {
+        for (int i = 0; i < count; i++) {
+            put(accountIds[i]);
+        }
+    }
+
+    private void put(long accountId) {
+        // Порядок чтения важен: rebuild сначала публикует новый фильтр в current и только затем очищает building
+        BloomFilter next = building;
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(accountId);
+        }
+        if (next != null && next != filter) {
+            next.put(accountId);
+        }
+    }
+
+    /**
+     * Перестраивает индекс по полному списку идентификаторов счетов.
+     *
+     * @param accountCount текущее количество счетов, используется для выбора размера фильтра
+     * @param accountIds   источник всех идентификаторов счетов
+     */
+    public synchronized void rebuild(long accountCount, Consumer<LongConsumer> accountIds) {
+        long capacity = Math.max(properties.getExpectedAccounts(), accountCount * 2);
+        BloomFilter next = new BloomFilter(capacity, properties.getFalsePositiveProbability());
+        building = next;
+        long started = System.nanoTime();
+        accountIds.accept(next::put);
+        current = next;
+        building = null;
+        logger.info("Account existence index rebuilt with {} accounts in {} ms ({} KB, {} hash functions)",
+                next.getEntries(), (System.nanoTime() - started) / 1_000_000, next.getMemoryBytes() / 1024,
+                next.numHashes);
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public long getEntries() {
+        BloomFilter filter = current;
+        return filter == null ? 0 : filter.getEntries();
+    }
+
+    public long getMemoryBytes() {
+        BloomFilter filter = current;
+        BloomFilter next = building;
+        return (filter == null ? 0 : filter.getMemoryBytes()) + (next == null ? 0 : next.getMemoryBytes());
+    }
+
+    public double getEstimatedFalsePositiveProbability() {
+        BloomFilter filter = current;
+        return filter == null ? 0 : filter.estimatedFalsePositiveProbability();
+    }
+
+    public double getObservedFalsePositiveRate() {
+        double missing = absentLookups.count() + falsePositives.count();
+        return missing == 0 ? 0 : falsePositives.count() / missing;
+    }
+
+    /**
+     * Фильтр Блума на битовом массиве AtomicLongArray. Установка битов выполняется без блокировок,
+     * поэтому добавление и проверка могут идти одновременно из разных потоков.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long numBits;
+        private final int numHashes;
+        private final AtomicLong entries = new AtomicLong();
+
+        BloomFilter(long expectedEntries, double falsePositiveProbability) {
+            long n = Math.max(1, expectedEntries);
+            double p = Math.min(Math.max(falsePositiveProbability, 1e-9), 0.5);
+            long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+            this.bits = new AtomicLongArray(words);
+            this.numBits = (long) words * 64;
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        }
+
+        void put(long value) {
+            long hash1 = mix(value);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Long.remainderUnsigned(hash1 + i * hash2, numBits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old = bits.get(word);
+                while ((old & mask) == 0 && !bits.compareAndSet(word, old, old | mask)) {
+                    old = bits.get(word);
+                }
+            }
+            entries.incrementAndGet();
+        }
+
+        boolean mightContain(long value) {
+            long hash1 = mix(value);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < numHashes; i++) {
+                long bit = Long.remainderUnsigned(hash1 + i * hash2, numBits);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long getEntries() {
+            return entries.get();
+        }
+
+        long getMemoryBytes() {
+            return numBits / 8;
+        }
+
+        double estimatedFalsePositiveProbability() {
+            return Math.pow(1 - Math.exp(-(double) numHashes * entries.get() / numBits), numHashes);
+        }
+
+        /**
+         * Финальное перемешивание SplitMix64: последовательные идентификаторы дают независимые по битам хеши.
+         */
+        private static long mix(long value) {
+            long z = value + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardTransactions;
+
+/**
+ * Класс AccountExistenceIndexInitializer заполняет индекс существования счетов при запуске приложения.
+ * Идентификаторы читаются из базы данных каждого шарда потоком, без загрузки сущностей и без накопления списка в памяти.
+ */
+@Component
+public class AccountExistenceIndexInitializer {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final AccountExistenceIndex accountExistenceIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final ShardTransactions shardTransactions;
+
+    public AccountExistenceIndexInitializer(AccountExistenceIndex accountExistenceIndex, JdbcTemplate jdbcTemplate,
+                                            ShardRouter shardRouter, ShardTransactions shardTransactions) {
+        this.accountExistenceIndex = accountExistenceIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.shardTransactions = shardTransactions;
+    }
+
+    /**
+     * Перестраивает индекс по всем счетам во всех шардах.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long accountCount = 0;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Long shardAccountCount = shardTransactions.onShard(shard,
+                    () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account", Long.class));
+            accountCount += shardAccountCount == null ? 0 : shardAccountCount;
+        }
+        accountExistenceIndex.rebuild(accountCount, sink -> {
+            JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+            streaming.setFetchSize(FETCH_SIZE);
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                shardTransactions.onShard(shard, () -> {
+                    streaming.query("SELECT id FROM account", rs -> {
+                        sink.accept(rs.getLong(1));
+                    });
+                    return null;
+                });
+            }
+        });
+    }
+}
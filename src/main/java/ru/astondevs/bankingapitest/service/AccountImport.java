@@ -0,0 +1,146 @@
+package ru.astondevs.bankingapitest.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Класс AccountImport описывает ход выполнения одного пакетного создания или импорта счетов.
+ * Счетчики обновляются потоком, выполняющим импорт, и могут читаться из других запросов во время его выполнения.
+ */
+public class AccountImport {
+
+    /**
+     * Состояние импорта.
+     */
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * Ошибка обработки одной строки импорта.
+     */
+    public static class RowError {
+
+        private final long row;
+        private final String message;
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final String id;
+    private final String source;
+    private final Instant startedAt;
+    private final int maxReportedErrors;
+    private final AtomicLong processedRows = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicInteger reportedErrors = new AtomicInteger();
+    private final ConcurrentLinkedQueue<RowError> errors = new ConcurrentLinkedQueue<>();
+    private volatile Status status = Status.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String failureMessage;
+
+    public AccountImport(String id, String source, int maxReportedErrors) {
+        this.id = id;
+        this.source = source;
+        this.maxReportedErrors = maxReportedErrors;
+        this.startedAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public long getProcessedRows() {
+        return processedRows.get();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Возвращает сохраненные ошибки по строкам. Их количество не превышает {@code maxReportedErrors}.
+     *
+     * @return список ошибок по строкам
+     */
+    public List<RowError> getErrors() {
+        return new ArrayList<>(errors);
+    }
+
+    /**
+     * Показывает, были ли ошибки, не попавшие в отчет из-за ограничения его размера.
+     *
+     * @return true, если часть ошибок учтена только в счетчике
+     */
+    public boolean isErrorsTruncated() {
+        return failedCount.get() > errors.size();
+    }
+
+    void rowsProcessed(long rows) {
+        processedRows.addAndGet(rows);
+    }
+
+    void accountsCreated(long count) {
+        createdCount.addAndGet(count);
+    }
+
+    void rowFailed(long row, String message) {
+        failedCount.incrementAndGet();
+        if (reportedErrors.getAndIncrement() < maxReportedErrors) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void fail(String message) {
+        failureMessage = message;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+}
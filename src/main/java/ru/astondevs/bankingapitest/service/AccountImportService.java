@@ -0,0 +1,359 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.config.AccountImportProperties;
+import ru.astondevs.bankingapitest.dto.AccountCreationRequest;
+import ru.astondevs.bankingapitest.exception.ImportNotFoundException;
+import ru.astondevs.bankingapitest.exception.InvalidNameException;
+import ru.astondevs.bankingapitest.exception.InvalidPinException;
+import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Класс AccountImportService предоставляет пакетное создание счетов и потоковый импорт счетов из CSV.
+ * Каждая строка проходит ту же проверку имени владельца и PIN-кода, что и при создании одного счета,
+ * корректные строки вставляются в базу данных JDBC-пакетами, а ошибки собираются по номерам строк.
+ */
+@Service
+public class AccountImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountImportService.class);
+    private static final String INSERT_ACCOUNT_SQL =
+            "INSERT INTO account (beneficiary_name, account_number, pin, balance) VALUES (?, ?, ?, 0)";
+    private static final String CSV_HEADER = "beneficiaryName,pin";
+
+    private final AccountService accountService;
+    private final AccountNumberGenerator accountNumberGenerator;
+    private final AccountExistenceIndex accountExistenceIndex;
+    private final AccountCacheEvictor accountCacheEvictor;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountImportProperties properties;
+    private final Map<String, AccountImport> imports = new ConcurrentHashMap<>();
+    private final Queue<String> finishedImports = new ConcurrentLinkedQueue<>();
+
+    public AccountImportService(AccountService accountService, AccountNumberGenerator accountNumberGenerator,
+                                AccountExistenceIndex accountExistenceIndex, AccountCacheEvictor accountCacheEvictor,
+                                JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                AccountImportProperties properties) {
+        this.accountService = accountService;
+        this.accountNumberGenerator = accountNumberGenerator;
+        this.accountExistenceIndex = accountExistenceIndex;
+        this.accountCacheEvictor = accountCacheEvictor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Создает счета из списка запросов. Номер строки в отчете об ошибках соответствует позиции запроса в списке, начиная с 1.
+     *
+     * @param requests список запросов на создание счетов
+     * @return Результат импорта со счетчиками и ошибками по строкам
+     * @throws InvalidRequestException если список не передан или превышает допустимый размер
+     */
+    public AccountImport createAccounts(List<AccountCreationRequest> requests) {
+        if (requests == null) {
+            throw new InvalidRequestException("Request body must not be null");
+        }
+        if (requests.size() > properties.getMaxBulkSize()) {
+            throw new InvalidRequestException("Bulk request must not contain more than "
+                    + properties.getMaxBulkSize() + " accounts");
+        }
+        AccountImport accountImport = start("bulk");
+        try {
+            BatchWriter writer = new BatchWriter(accountImport);
+            long row = 0;
+            for (AccountCreationRequest request : requests) {
+                row++;
+                if (request == null) {
+                    writer.reject(row, "Request body must not be null");
+                } else {
+                    writer.add(row, request.getBeneficiaryName(), request.getPin());
+                }
+            }
+            writer.flush();
+            finish(accountImport);
+            return accountImport;
+        } catch (RuntimeException e) {
+            abort(accountImport, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Импортирует счета из CSV, читая поток построчно. Каждая строка содержит имя владельца и PIN-код,
+     * первая строка может быть заголовком {@code beneficiaryName,pin}. Номер строки в отчете об ошибках
+     * соответствует номеру строки в файле.
+     *
+     * @param inputStream поток с содержимым CSV в кодировке UTF-8
+     * @return Результат импорта со счетчиками и ошибками по строкам
+     * @throws InvalidRequestException если поток не удалось прочитать
+     */
+    public AccountImport importCsv(InputStream inputStream) {
+        AccountImport accountImport = start("csv");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            BatchWriter writer = new BatchWriter(accountImport);
+            long lineNumber = 0;
+            boolean firstLine = true;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (firstLine) {
+                    firstLine = false;
+                    if (line.replace(" ", "").equalsIgnoreCase(CSV_HEADER)) {
+                        continue;
+                    }
+                }
+                List<String> fields = parseCsvLine(line);
+                if (fields == null || fields.size() != 2) {
+                    writer.reject(lineNumber, "Row must contain exactly two columns: beneficiaryName,pin");
+                } else {
+                    writer.add(lineNumber, fields.get(0), fields.get(1));
+                }
+            }
+            writer.flush();
+            finish(accountImport);
+            return accountImport;
+        } catch (IOException e) {
+            abort(accountImport, e);
+            throw new InvalidRequestException("Failed to read CSV: " + e.getMessage());
+        } catch (RuntimeException e) {
+            abort(accountImport, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Метод для получения хода выполнения импорта по его идентификатору.
+     *
+     * @param importId идентификатор импорта
+     * @return Объект импорта
+     * @throws ImportNotFoundException если импорт с указанным идентификатором не найден
+     */
+    public AccountImport getImport(String importId) {
+        AccountImport accountImport = imports.get(importId);
+        if (accountImport == null) {
+            throw new ImportNotFoundException("Import with id " + importId + " not found");
+        }
+        return accountImport;
+    }
+
+    /**
+     * Метод для получения списка выполняющихся и недавно завершенных импортов, начиная с самых новых.
+     *
+     * @return Список импортов
+     */
+    public List<AccountImport> getImports() {
+        List<AccountImport> result = new ArrayList<>(imports.values());
+        result.sort(Comparator.comparing(AccountImport::getStartedAt).reversed());
+        return result;
+    }
+
+    private AccountImport start(String source) {
+        AccountImport accountImport = new AccountImport(UUID.randomUUID().toString(), source,
+                properties.getMaxReportedErrors());
+        imports.put(accountImport.getId(), accountImport);
+        logger.info("Starting {} import {}", source, accountImport.getId());
+        return accountImport;
+    }
+
+    private void finish(AccountImport accountImport) {
+        accountImport.complete();
+        retire(accountImport);
+        logger.info("Import {} completed: {} rows processed, {} accounts created, {} rows failed",
+                accountImport.getId(), accountImport.getProcessedRows(), accountImport.getCreatedCount(),
+                accountImport.getFailedCount());
+    }
+
+    private void abort(AccountImport accountImport, Exception e) {
+        accountImport.fail(e.getMessage());
+        retire(accountImport);
+        logger.warn("Import {} failed after {} rows: {}", accountImport.getId(), accountImport.getProcessedRows(),
+                e.getMessage());
+    }
+
+    private void retire(AccountImport accountImport) {
+        finishedImports.add(accountImport.getId());
+        while (finishedImports.size() > properties.getRetainedImports()) {
+            String oldest = finishedImports.poll();
+            if (oldest != null) {
+                imports.remove(oldest);
+            }
+        }
+    }
+
+    /**
+     * Разбирает строку CSV из двух полей. Поддерживаются поля в двойных кавычках и экранирование кавычек удвоением.
+     *
+     * @return список полей или null, если строка содержит незакрытую кавычку
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Накапливает прошедшие проверку строки и вставляет их одним JDBC-пакетом в отдельной транзакции.
+     * Буферы выделяются один раз на импорт, поэтому потребление памяти не зависит от размера файла.
+     */
+    private class BatchWriter {
+
+        private final AccountImport accountImport;
+        private final long[] rows;
+        private final String[] names;
+        private final String[] pins;
+        private final String[] accountNumbers;
+        private int size;
+
+        BatchWriter(AccountImport accountImport) {
+            int batchSize = Math.max(1, properties.getBatchSize());
+            this.accountImport = accountImport;
+            this.rows = new long[batchSize];
+            this.names = new String[batchSize];
+            this.pins = new String[batchSize];
+            this.accountNumbers = new String[batchSize];
+        }
+
+        void add(long row, String beneficiaryName, String pin) {
+            try {
+                accountService.validateAccountDetails(beneficiaryName, pin);
+            } catch (InvalidNameException | InvalidPinException e) {
+                reject(row, e.getMessage());
+                return;
+            }
+            rows[size] = row;
+            names[size] = beneficiaryName;
+            pins[size] = pin;
+            accountNumbers[size] = accountNumberGenerator.nextAccountNumber();
+            size++;
+            if (size == rows.length) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            accountImport.rowFailed(row, message);
+            accountImport.rowsProcessed(1);
+        }
+
+        void flush() {
+            if (size == 0) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(0, size));
+                accountImport.accountsCreated(size);
+            } catch (DataAccessException e) {
+                logger.warn("Batch insert failed for import {}, retrying {} rows one by one: {}",
+                        accountImport.getId(), size, e.getMessage());
+                insertOneByOne();
+            }
+            accountCacheEvictor.evictAccountQueries();
+            accountImport.rowsProcessed(size);
+            Arrays.fill(names, 0, size, null);
+            Arrays.fill(pins, 0, size, null);
+            Arrays.fill(accountNumbers, 0, size, null);
+            size = 0;
+        }
+
+        private void insertOneByOne() {
+            for (int i = 0; i < size; i++) {
+                int index = i;
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(index, index + 1));
+                    accountImport.accountsCreated(1);
+                } catch (DataAccessException e) {
+                    accountImport.rowFailed(rows[index], "Failed to create account: "
+                            + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        }
+
+        /**
+         * Вставляет строки буфера с from по to и добавляет идентификаторы созданных счетов в индекс существования.
+         * Метод выполняется внутри транзакции пакета, поэтому {@link AccountExistenceIndex#addAll} откладывает
+         * обновление индекса до ее фиксации; если пакет откатится, индекс не изменится.
+         */
+        private void insert(int from, int to) {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_ACCOUNT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ps.setString(1, names[from + i]);
+                            ps.setString(2, accountNumbers[from + i]);
+                            ps.setString(3, pins[from + i]);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return to - from;
+                        }
+                    }, keyHolder);
+            List<Map<String, Object>> keyList = keyHolder.getKeyList();
+            // Массив нельзя переиспользовать между пакетами: он читается после фиксации транзакции
+            long[] ids = new long[keyList.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = ((Number) keyList.get(i).values().iterator().next()).longValue();
+            }
+            accountExistenceIndex.addAll(ids, ids.length);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.config.AccountNumberProperties;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Класс AccountNumberGenerator выдает уникальные номера счетов, упорядоченные по времени создания.
+ * <p>
+ * Номер состоит из 63 бит: 41 бит миллисекунд от 2024-01-01, 10 бит идентификатора узла и 12 бит счетчика
+ * внутри миллисекунды. Номер записывается как десятичное число из 19 цифр с ведущими нулями, поэтому
+ * строковый порядок совпадает с числовым, и новые номера добавляются в конец индекса, а не в случайные
+ * его страницы, как UUID. В отличие от {@code UUID.randomUUID()}, генерация не обращается к SecureRandom
+ * и не блокируется: состояние меняется одной операцией compare-and-set.
+ * <p>
+ * Если за миллисекунду выдано больше 4096 номеров или системные часы перевели назад, генератор продолжает
+ * счет от последнего выданного значения, забегая вперед по времени, поэтому номера остаются уникальными
+ * и возрастающими в пределах процесса. Чтобы это выполнялось и после перезапуска узла с отстающими часами,
+ * {@link AccountNumberGeneratorInitializer} при запуске продолжает счет от наибольшего номера узла в базе данных.
+ */
+@Component
+public class AccountNumberGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final long nodeId;
+
+    /**
+     * Последнее выданное значение в виде (миллисекунды << SEQUENCE_BITS) | счетчик.
+     */
+    private final AtomicLong lastState = new AtomicLong();
+
+    public AccountNumberGenerator(AccountNumberProperties properties) {
+        if (properties.getNodeId() < 0 || properties.getNodeId() > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = properties.getNodeId();
+    }
+
+    /**
+     * Выдает следующий номер счета.
+     *
+     * @return номер счета из 19 цифр
+     */
+    public String nextAccountNumber() {
+        return format(nextId());
+    }
+
+    long nextId() {
+        while (true) {
+            long now = currentTimeMillis() - EPOCH_MILLIS;
+            long last = lastState.get();
+            long next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    /**
+     * Продолжает счет после указанного номера, если он больше последнего выданного значения.
+     *
+     * @param id номер счета, выданный узлом ранее
+     */
+    void advancePast(long id) {
+        long millis = id >>> (NODE_BITS + SEQUENCE_BITS);
+        long sequence = id & ((1L << SEQUENCE_BITS) - 1);
+        lastState.accumulateAndGet((millis << SEQUENCE_BITS) | sequence, Math::max);
+    }
+
+    long getNodeId() {
+        return nodeId;
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    static String format(long id) {
+        String digits = Long.toString(id);
+        StringBuilder number = new StringBuilder(19);
+        for (int i = digits.length(); i < 19; i++) {
+            number.append('0');
+        }
+        return number.append(digits).toString();
+    }
+}
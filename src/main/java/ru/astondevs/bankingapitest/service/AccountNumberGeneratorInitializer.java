@@ -0,0 +1,62 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardTransactions;
+
+/**
+ * Класс AccountNumberGeneratorInitializer продолжает счет {@link AccountNumberGenerator} от наибольшего номера,
+ * выданного этим узлом до перезапуска. Без этого узел, запущенный с часами, отстающими от времени последнего
+ * номера, выдал бы уже существующие номера, и создание счета нарушило бы уникальный индекс на номере.
+ */
+@Component
+public class AccountNumberGeneratorInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountNumberGeneratorInitializer.class);
+
+    // Номера другого вида, например импортированные, и номера других узлов не учитываются. Приведение к числу
+    // выполняется только для номеров из 19 цифр, не превышающих наибольшее значение long.
+    private static final String MAX_NODE_NUMBER_SQL = "SELECT MAX(account_number) FROM account "
+            + "WHERE CASE WHEN REGEXP_LIKE(account_number, '^[0-9]{19}$') "
+            + "AND account_number <= '9223372036854775807' "
+            + "THEN BITAND(CAST(account_number AS BIGINT), CAST(? AS BIGINT)) END = CAST(? AS BIGINT)";
+
+    private final AccountNumberGenerator accountNumberGenerator;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final ShardTransactions shardTransactions;
+
+    public AccountNumberGeneratorInitializer(AccountNumberGenerator accountNumberGenerator, JdbcTemplate jdbcTemplate,
+                                             ShardRouter shardRouter, ShardTransactions shardTransactions) {
+        this.accountNumberGenerator = accountNumberGenerator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.shardTransactions = shardTransactions;
+    }
+
+    /**
+     * Находит наибольший номер узла в базе данных каждого шарда и продолжает счет после него.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long nodeMask = (long) AccountNumberGenerator.MAX_NODE_ID << AccountNumberGenerator.SEQUENCE_BITS;
+        long nodeBits = accountNumberGenerator.getNodeId() << AccountNumberGenerator.SEQUENCE_BITS;
+        long max = -1;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            String number = shardTransactions.onShard(shard, () -> jdbcTemplate.queryForObject(MAX_NODE_NUMBER_SQL,
+                    String.class, nodeMask, nodeBits));
+            if (number != null) {
+                max = Math.max(max, Long.parseLong(number));
+            }
+        }
+        if (max >= 0) {
+            accountNumberGenerator.advancePast(max);
+            logger.info("Account numbers continue after {}", AccountNumberGenerator.format(max));
+        }
+    }
+}
@@ -1,35 +1,78 @@
 package ru.astondevs.bankingapitest.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import ru.astondevs.bankingapitest.audit.AuditEventType;
+import ru.astondevs.bankingapitest.audit.AuditLog;
 import ru.astondevs.bankingapitest.exception.AccountNotFoundException;
 import ru.astondevs.bankingapitest.exception.InvalidAmountException;
 import ru.astondevs.bankingapitest.exception.InvalidNameException;
 import ru.astondevs.bankingapitest.exception.InvalidPinException;
+import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+import ru.astondevs.bankingapitest.exception.TooManyPinAttemptsException;
+import ru.astondevs.bankingapitest.exception.TransferFailedException;
+import ru.astondevs.bankingapitest.exception.VelocityLimitExceededException;
+import ru.astondevs.bankingapitest.metrics.RequestTiming;
 import ru.astondevs.bankingapitest.model.Account;
 import ru.astondevs.bankingapitest.model.Transaction;
+import ru.astondevs.bankingapitest.model.TransactionType;
 import ru.astondevs.bankingapitest.repository.AccountRepository;
 import ru.astondevs.bankingapitest.repository.TransactionRepository;
+import ru.astondevs.bankingapitest.repository.TransactionSpecifications;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardTransactions;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
 /**
  * Класс AccountService предоставляет сервисы для работы со счетами.
  * Он содержит методы для создания счетов, снятия и перевода средств, а также получения информации о счетах и транзакциях.
+ * <p>
+ * Каждая операция со счетом выполняется в шарде, которому принадлежит счет. Перевод между счетами одного шарда
+ * выполняется одной транзакцией, а между счетами разных шардов - сагой {@link TransferSagaService}.
+ * Зафиксированные пополнения, снятия и переводы записываются в журнал аудита {@link AuditLog}.
+ * Проверки, загрузка счетов и запись транзакций замеряются как этапы HTTP-запроса {@link RequestTiming}.
  */
 @Service
 public class AccountService {
 
-    private static final Logger logger = LoggerFactory.getLogger(AccountService.class);
+    private static final Pattern BENEFICIARY_NAME_PATTERN = Pattern.compile("[a-zA-Z0-9 ]*");
+    private static final Pattern PIN_PATTERN = Pattern.compile("\\d{4}");
+    /**
+     * Наибольшее количество транзакций в ответе поиска по истории счета.
+     */
+    static final int MAX_SEARCH_RESULTS = 1000;
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final AccountNumberGenerator accountNumberGenerator;
+    private final AccountExistenceIndex accountExistenceIndex;
+    private final PinAttemptThrottle pinAttemptThrottle;
+    private final ShardRouter shardRouter;
+    private final ShardTransactions shardTransactions;
+    private final TransferSagaService transferSagaService;
+    private final VelocityLimiter velocityLimiter;
+    private final AuditLog auditLog;
 
-    public AccountService(AccountRepository accountRepository, TransactionRepository transactionRepository) {
+    public AccountService(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                          AccountNumberGenerator accountNumberGenerator, AccountExistenceIndex accountExistenceIndex,
+                          PinAttemptThrottle pinAttemptThrottle, ShardRouter shardRouter,
+                          ShardTransactions shardTransactions, TransferSagaService transferSagaService,
+                          VelocityLimiter velocityLimiter, AuditLog auditLog) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.accountNumberGenerator = accountNumberGenerator;
+        this.accountExistenceIndex = accountExistenceIndex;
+        this.pinAttemptThrottle = pinAttemptThrottle;
+        this.shardRouter = shardRouter;
+        this.shardTransactions = shardTransactions;
+        this.transferSagaService = transferSagaService;
+        this.velocityLimiter = velocityLimiter;
+        this.auditLog = auditLog;
     }
 
     /**
@@ -40,18 +83,12 @@ public class AccountService {
      * @return Созданный объект счета
      */
     public Account createAccount(String beneficiaryName, String pin) {
-        if (beneficiaryName == null || beneficiaryName.trim().isEmpty()) {
-            throw new InvalidNameException("Beneficiary name must not be empty");
-        }
-        if (beneficiaryName.length() > 50) {
-            throw new InvalidNameException("Beneficiary name must not be longer than 50 characters");
-        }
-        if (!beneficiaryName.matches("[a-zA-Z0-9 ]*")) {
-            throw new InvalidNameException("Beneficiary name contains invalid characters");
-        }
-        validatePin(pin);
-        Account account = new Account(beneficiaryName, pin);
-        return accountRepository.save(account);
+        validateAccountDetails(beneficiaryName, pin);
+        Account newAccount = new Account(accountNumberGenerator.nextAccountNumber(), beneficiaryName, pin);
+        Account account = shardTransactions.onShard(shardRouter.shardForNewAccount(newAccount.getAccountNumber()),
+                () -> accountRepository.save(newAccount));
+        accountExistenceIndex.add(account.getId());
+        return account;
     }
 
     /**
@@ -61,17 +98,22 @@ public class AccountService {
      * @param amount    сумма, которую нужно внести
      * @return Обновленный объект счета после внесения средств
      */
-    @Transactional
     public Account deposit(Long accountId, BigDecimal amount) {
-        validateAmount(amount);
-
-        Account account = getAccount(accountId);
-        account.deposit(amount);
-        Transaction transaction = new Transaction(account, amount, "deposit");
-        transactionRepository.save(transaction);
-        account = accountRepository.save(account);
-        logger.info("Depositing {} to account {}", amount, accountId);
-        return account;
+        RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.VALIDATION);
+        try {
+            validateAmount(amount);
+        } finally {
+            RequestTiming.exit(previous);
+        }
+
+        Account result = shardTransactions.inTransaction(shardRouter.shardForAccountId(accountId), () -> {
+            Account account = loadAccount(accountId);
+            account.deposit(amount);
+            saveTransaction(new Transaction(account, amount, TransactionType.DEPOSIT));
+            return accountRepository.save(account);
+        });
+        auditLog.record(AuditEventType.DEPOSIT, accountId, null, amount);
+        return result;
     }
 
     /**
@@ -82,21 +124,34 @@ public class AccountService {
      * @param amount    сумма, которую нужно снять
      * @return Обновленный объект счета после снятия средств
      */
-    @Transactional
     public Account withdraw(Long accountId, String pin, BigDecimal amount) {
-        validatePin(pin);
-        validateAmount(amount);
+        return withdraw(accountId, pin, amount, null);
+    }
 
-        Account account = getAccount(accountId);
-        if (!account.getPin().equals(pin)) {
-            throw new InvalidPinException("Invalid PIN");
-        }
-        account.withdraw(pin, amount);
-        Transaction transaction = new Transaction(account, amount, "withdraw");
-        transactionRepository.save(transaction);
-        account = accountRepository.save(account);
-        logger.info("Withdrawing {} from account {}", amount, accountId);
-        return account;
+    /**
+     * Снимает указанную сумму со счета с учетом ограничения неудачных попыток ввода PIN-кода для клиента.
+     *
+     * @param accountId идентификатор счета, с которого будут сняты средства
+     * @param pin       PIN-код для проверки
+     * @param amount    сумма, которую нужно снять
+     * @param clientId  идентификатор клиента (например, IP-адрес) или null, если он неизвестен
+     * @return Обновленный объект счета после снятия средств
+     * @throws TooManyPinAttemptsException    если лимит неудачных попыток исчерпан; репозиторий при этом не вызывается
+     * @throws VelocityLimitExceededException если снятие превысит лимит суммы снятий со счета за окно
+     */
+    public Account withdraw(Long accountId, String pin, BigDecimal amount, String clientId) {
+        validateDebit(accountId, pin, amount, clientId);
+
+        Account result = shardTransactions.inTransaction(shardRouter.shardForAccountId(accountId), () -> {
+            Account account = loadAccount(accountId);
+            authorizeDebit(accountId, account, pin, clientId,
+                    () -> velocityLimiter.reserveWithdrawal(accountId, amount));
+            account.withdraw(pin, amount);
+            saveTransaction(new Transaction(account, amount, TransactionType.WITHDRAW));
+            return accountRepository.save(account);
+        });
+        auditLog.record(AuditEventType.WITHDRAWAL, accountId, null, amount);
+        return result;
     }
 
     /**
@@ -108,37 +163,144 @@ public class AccountService {
      * @param toAccountId   идентификатор счета, на который будут переведены средства
      * @return Обновленный объект счета после перевода средств
      */
-    @Transactional
     public Account transfer(Long fromAccountId, String pin, BigDecimal amount, Long toAccountId) {
-        validatePin(pin);
-        validateAmount(amount);
-
-        Account fromAccount = getAccount(fromAccountId);
-        Account toAccount = getAccount(toAccountId);
-        if (!fromAccount.getPin().equals(pin)) {
-            throw new InvalidPinException("Invalid PIN");
-        }
-        fromAccount.transfer(pin, amount, toAccount);
-        Transaction transactionFrom = new Transaction(fromAccount, amount, "transfer out");
-        Transaction transactionTo = new Transaction(toAccount, amount, "transfer in");
-        transactionRepository.save(transactionFrom);
-        transactionRepository.save(transactionTo);
-        accountRepository.save(toAccount);
-        fromAccount = accountRepository.save(fromAccount);
-        logger.info("Transferring {} from account {} to account {}", amount, fromAccountId, toAccountId);
+        return transfer(fromAccountId, pin, amount, toAccountId, null);
+    }
+
+    /**
+     * Переводит указанную сумму с одного счета на другой с учетом ограничения неудачных попыток ввода PIN-кода для клиента.
+     *
+     * @param fromAccountId идентификатор счета, с которого будут переведены средства
+     * @param pin           PIN-код для проверки
+     * @param amount        сумма, которую нужно перевести
+     * @param toAccountId   идентификатор счета, на который будут переведены средства
+     * @param clientId      идентификатор клиента (например, IP-адрес) или null, если он неизвестен
+     * @return Обновленный объект счета после перевода средств
+     * @throws TooManyPinAttemptsException    если лимит неудачных попыток исчерпан; репозиторий при этом не вызывается
+     * @throws VelocityLimitExceededException если перевод превысит лимит исходящих переводов со счета за окно
+     * @throws TransferFailedException        если счета находятся в разных шардах и средства не удалось зачислить
+     *                                        получателю после списания
+     */
+    public Account transfer(Long fromAccountId, String pin, BigDecimal amount, Long toAccountId, String clientId) {
+        validateDebit(fromAccountId, pin, amount, clientId);
+
+        int fromShard = shardRouter.shardForAccountId(fromAccountId);
+        int toShard = shardRouter.shardForAccountId(toAccountId);
+        if (fromShard != toShard) {
+            return transferBetweenShards(fromAccountId, pin, amount, toAccountId, clientId, fromShard, toShard);
+        }
+        Account result = shardTransactions.inTransaction(fromShard, () -> {
+            Account fromAccount = loadAccount(fromAccountId);
+            Account toAccount = loadAccount(toAccountId);
+            authorizeDebit(fromAccountId, fromAccount, pin, clientId,
+                    () -> velocityLimiter.reserveTransfer(fromAccountId, amount));
+            fromAccount.transfer(pin, amount, toAccount);
+            saveTransaction(new Transaction(fromAccount, amount, TransactionType.TRANSFER_OUT, toAccountId));
+            saveTransaction(new Transaction(toAccount, amount, TransactionType.TRANSFER_IN, fromAccountId));
+            accountRepository.save(toAccount);
+            return accountRepository.save(fromAccount);
+        });
+        auditLog.record(AuditEventType.TRANSFER, fromAccountId, toAccountId, amount);
+        return result;
+    }
+
+    /**
+     * Переводит средства между счетами разных шардов: списывает их в шарде отправителя вместе с сохранением
+     * перевода, а затем зачисляет получателю отдельной транзакцией. В журнал аудита перевод записывает
+     * {@link TransferSagaService}, когда он завершен или отменен.
+     */
+    private Account transferBetweenShards(Long fromAccountId, String pin, BigDecimal amount, Long toAccountId,
+                                          String clientId, int fromShard, int toShard) {
+        // Счет получателя проверяется до списания, чтобы не начинать перевод, который заведомо придется отменить
+        shardTransactions.onShard(toShard, () -> loadAccount(toAccountId));
+        TransferSaga[] saga = new TransferSaga[1];
+        Account fromAccount = shardTransactions.inTransaction(fromShard, () -> {
+            Account account = loadAccount(fromAccountId);
+            authorizeDebit(fromAccountId, account, pin, clientId,
+                    () -> velocityLimiter.reserveTransfer(fromAccountId, amount));
+            account.withdraw(pin, amount);
+            saveTransaction(new Transaction(account, amount, TransactionType.TRANSFER_OUT, toAccountId));
+            saga[0] = transferSagaService.begin(fromAccountId, toAccountId, amount);
+            return accountRepository.save(account);
+        });
+        transferSagaService.complete(saga[0]);
         return fromAccount;
     }
 
     /**
      * Метод для получения информации о счете по его идентификатору.
+     * Если индекс существования счетов отвечает, что счета точно нет, база данных не запрашивается.
      *
      * @param accountId идентификатор счета
      * @return Объект счета, соответствующий указанному идентификатору
      * @throws AccountNotFoundException если счет с указанным идентификатором не найден
      */
     public Account getAccount(Long accountId) {
-        return accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException("Account with id " + accountId + " not found"));
+        return shardTransactions.onShard(shardRouter.shardForAccountId(accountId), () -> loadAccount(accountId));
+    }
+
+    private Account loadAccount(Long accountId) {
+        if (!accountExistenceIndex.mightContain(accountId)) {
+            throw new AccountNotFoundException("Account with id " + accountId + " not found");
+        }
+        RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.LOAD);
+        try {
+            return accountRepository.findById(accountId)
+                    .orElseThrow(() -> {
+                        accountExistenceIndex.recordFalsePositive();
+                        return new AccountNotFoundException("Account with id " + accountId + " not found");
+                    });
+        } finally {
+            RequestTiming.exit(previous);
+        }
+    }
+
+    private void saveTransaction(Transaction transaction) {
+        RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.INSERT);
+        try {
+            transactionRepository.save(transaction);
+        } finally {
+            RequestTiming.exit(previous);
+        }
+    }
+
+    /**
+     * Метод для получения версии счета без загрузки самого счета.
+     * Версия меняется при каждом изменении баланса и, соответственно, при каждой новой транзакции по счету.
+     *
+     * @param accountId идентификатор счета
+     * @return Текущая версия счета
+     * @throws AccountNotFoundException если счет с указанным идентификатором не найден
+     */
+    public long getAccountVersion(Long accountId) {
+        if (!accountExistenceIndex.mightContain(accountId)) {
+            throw new AccountNotFoundException("Account with id " + accountId + " not found");
+        }
+        return shardTransactions.onShard(shardRouter.shardForAccountId(accountId),
+                        () -> accountRepository.findVersionById(accountId))
+                .orElseThrow(() -> {
+                    accountExistenceIndex.recordFalsePositive();
+                    return new AccountNotFoundException("Account with id " + accountId + " not found");
+                });
+    }
+
+    /**
+     * Метод для получения информации о счете по его номеру.
+     * Поиск выполняется по уникальному индексу на номере счета во всех шардах по очереди.
+     *
+     * @param accountNumber номер счета
+     * @return Объект счета, соответствующий указанному номеру
+     * @throws AccountNotFoundException если счет с указанным номером не найден
+     */
+    public Account getAccountByNumber(String accountNumber) {
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            Optional<Account> account = shardTransactions.onShard(shard,
+                    () -> accountRepository.findByAccountNumber(accountNumber));
+            if (account.isPresent()) {
+                return account.get();
+            }
+        }
+        throw new AccountNotFoundException("Account with number " + accountNumber + " not found");
     }
 
     /**
@@ -149,17 +311,65 @@ public class AccountService {
      * @throws AccountNotFoundException если счет с указанным идентификатором не найден
      */
     public List<Transaction> getTransactions(Long accountId) {
-        Account account = getAccount(accountId);
-        return transactionRepository.findByAccount(account);
+        return shardTransactions.onShard(shardRouter.shardForAccountId(accountId),
+                () -> transactionRepository.findByAccount(loadAccount(accountId)));
     }
 
     /**
-     * Метод для получения списка всех счетов.
+     * Метод для получения списка всех транзакций уже загруженного счета.
+     *
+     * @param account счет
+     * @return Список всех транзакций счета
+     */
+    public List<Transaction> getTransactions(Account account) {
+        return shardTransactions.onShard(shardRouter.shardForAccountId(account.getId()),
+                () -> transactionRepository.findByAccount(account));
+    }
+
+    /**
+     * Ищет транзакции счета по типу, счету другой стороны перевода и диапазону сумм. Незаданные фильтры
+     * не ограничивают поиск. Транзакции возвращаются от новых к старым.
+     *
+     * @param accountId             идентификатор счета
+     * @param type                  тип транзакции или null
+     * @param counterpartyAccountId идентификатор счета другой стороны перевода или null
+     * @param minAmount             наименьшая сумма включительно или null
+     * @param maxAmount             наибольшая сумма включительно или null
+     * @param limit                 наибольшее количество транзакций в ответе
+     * @return Найденные транзакции счета
+     * @throws AccountNotFoundException если счет с указанным идентификатором не найден
+     * @throws InvalidRequestException  если диапазон сумм пуст или количество вне допустимых пределов
+     */
+    public List<Transaction> searchTransactions(Long accountId, TransactionType type, Long counterpartyAccountId,
+                                                BigDecimal minAmount, BigDecimal maxAmount, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new InvalidRequestException("Limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new InvalidRequestException("Minimum amount must not exceed maximum amount");
+        }
+        Specification<Transaction> specification =
+                TransactionSpecifications.search(accountId, type, counterpartyAccountId, minAmount, maxAmount);
+        return shardTransactions.onShard(shardRouter.shardForAccountId(accountId), () -> {
+            loadAccount(accountId);
+            return transactionRepository.findBy(specification, query -> query
+                    .sortBy(Sort.by(Sort.Direction.DESC, "timestamp", "id"))
+                    .limit(limit)
+                    .all());
+        });
+    }
+
+    /**
+     * Метод для получения списка всех счетов. Счета шардов возвращаются по порядку номеров шардов.
      *
      * @return Список всех счетов
      */
     public List<Account> getAllAccounts() {
-        return accountRepository.findAll();
+        List<Account> accounts = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            accounts.addAll(shardTransactions.onShard(shard, accountRepository::findAll));
+        }
+        return accounts;
     }
 
     /**
@@ -169,14 +379,77 @@ public class AccountService {
      * @return Список всех счетов, принадлежащих указанному владельцу
      */
     public List<Account> getAllAccountsByBeneficiaryName(String beneficiaryName) {
-        return accountRepository.findByBeneficiaryName(beneficiaryName);
+        List<Account> accounts = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            accounts.addAll(shardTransactions.onShard(shard,
+                    () -> accountRepository.findByBeneficiaryName(beneficiaryName)));
+        }
+        return accounts;
+    }
+
+    /**
+     * Проверяет имя владельца и PIN-код нового счета.
+     * Используется как при создании одного счета, так и при пакетном импорте.
+     *
+     * @param beneficiaryName имя владельца счета
+     * @param pin             PIN-код счета
+     * @throws InvalidNameException если имя владельца недопустимо
+     * @throws InvalidPinException  если PIN-код недопустим
+     */
+    void validateAccountDetails(String beneficiaryName, String pin) {
+        validateBeneficiaryName(beneficiaryName);
+        validatePin(pin);
+    }
+
+    /**
+     * Проверяет параметры списания и лимит неудачных попыток ввода PIN-кода до обращения к базе данных.
+     * Неудачная попытка учитывается в {@link #authorizeDebit}, только если PIN-код неверен.
+     */
+    private void validateDebit(Long accountId, String pin, BigDecimal amount, String clientId) {
+        RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.VALIDATION);
+        try {
+            validatePin(pin);
+            validateAmount(amount);
+            pinAttemptThrottle.checkAllowed(accountId, clientId);
+        } finally {
+            RequestTiming.exit(previous);
+        }
+    }
+
+    /**
+     * Проверяет PIN-код загруженного счета и резервирует сумму списания в лимите операций.
+     */
+    private void authorizeDebit(Long accountId, Account account, String pin, String clientId,
+                                Runnable reserveLimit) {
+        RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.VALIDATION);
+        try {
+            if (!account.getPin().equals(pin)) {
+                pinAttemptThrottle.recordFailure(accountId, clientId);
+                throw new InvalidPinException("Invalid PIN");
+            }
+            reserveLimit.run();
+        } finally {
+            RequestTiming.exit(previous);
+        }
+    }
+
+    private void validateBeneficiaryName(String beneficiaryName) {
+        if (beneficiaryName == null || beneficiaryName.trim().isEmpty()) {
+            throw new InvalidNameException("Beneficiary name must not be empty");
+        }
+        if (beneficiaryName.length() > 50) {
+            throw new InvalidNameException("Beneficiary name must not be longer than 50 characters");
+        }
+        if (!BENEFICIARY_NAME_PATTERN.matcher(beneficiaryName).matches()) {
+            throw new InvalidNameException("Beneficiary name contains invalid characters");
+        }
     }
 
     private void validatePin(String pin) {
         if (pin == null || pin.trim().isEmpty()) {
             throw new InvalidPinException("PIN must not be empty");
         }
-        if (!pin.matches("\\d{4}")) {
+        if (!PIN_PATTERN.matcher(pin).matches()) {
             throw new InvalidPinException("PIN must be a 4-digit number");
         }
     }
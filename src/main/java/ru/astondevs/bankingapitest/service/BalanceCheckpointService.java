@@ -0,0 +1,250 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.astondevs.bankingapitest.config.CheckpointProperties;
+import ru.astondevs.bankingapitest.exception.AccountNotFoundException;
+import ru.astondevs.bankingapitest.metrics.RequestTiming;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardTransactions;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Класс BalanceCheckpointService вычисляет баланс счета по журналу транзакций на произвольный момент времени
+ * и строит для этого контрольные точки баланса.
+ * <p>
+ * Контрольная точка хранит сумму всех транзакций счета со временем не позже момента точки. Баланс на момент
+ * времени равен балансу ближайшей более ранней точки плюс сумма транзакций после нее, поэтому запрос читает
+ * не всю историю счета, а только транзакции после точки. Точки строятся в фоне после каждых
+ * {@code banking.checkpoint.transactions-per-checkpoint} транзакций счета, и просуммировать приходится не больше
+ * этого числа транзакций плюс транзакции, которые еще не обработаны фоновым построением.
+ * <p>
+ * Точка не должна устареть после записи, поэтому в нее попадают только транзакции старше
+ * {@code banking.checkpoint.settle-time}. Массовые проводки вставляют транзакции со временем начала запуска,
+ * поэтому, пока запуск выполняется, точки не строятся позже его начала. Транзакции, которые все же вставлены
+ * задним числом (например, при продолжении прерванного запуска), обнаруживаются по идентификатору: точки счета
+ * после такой транзакции удаляются и строятся заново.
+ */
+@Service
+public class BalanceCheckpointService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceCheckpointService.class);
+
+    /**
+     * Нижняя граница времени транзакций, которой соответствует отсутствие контрольной точки.
+     */
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String SELECT_ACCOUNT_SQL = "SELECT COUNT(*) FROM account WHERE id = ?";
+    private static final String SELECT_CHECKPOINT_SQL =
+            "SELECT checkpoint_at, balance FROM balance_checkpoint WHERE account_id = ? AND checkpoint_at <= ? "
+                    + "ORDER BY checkpoint_at DESC LIMIT 1";
+    private static final String SELECT_REPLAY_SQL =
+            "SELECT COUNT(*), COALESCE(SUM(" + ReconciliationService.SIGNED_AMOUNT_SQL + "), 0) "
+                    + "FROM transaction t WHERE t.account_id = ? AND t.timestamp > ? AND t.timestamp <= ?";
+    private static final String SELECT_MAX_TRANSACTION_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM transaction";
+    private static final String SELECT_RUNNING_POSTING_SQL = "SELECT MIN(posted_at) FROM posting_run WHERE status = ?";
+    private static final String SELECT_PROGRESS_SQL =
+            "SELECT checkpointed_until, last_transaction_id FROM balance_checkpoint_progress WHERE id = 1";
+    private static final String UPDATE_PROGRESS_SQL =
+            "UPDATE balance_checkpoint_progress SET checkpointed_until = ?, last_transaction_id = ? WHERE id = 1";
+    private static final String INSERT_PROGRESS_SQL =
+            "INSERT INTO balance_checkpoint_progress (id, checkpointed_until, last_transaction_id) VALUES (1, ?, ?)";
+    private static final String SELECT_LATE_TRANSACTIONS_SQL =
+            "SELECT account_id, MIN(timestamp) FROM transaction WHERE id > ? AND timestamp <= ? GROUP BY account_id";
+    private static final String SELECT_ACTIVE_ACCOUNTS_SQL =
+            "SELECT DISTINCT account_id FROM transaction WHERE timestamp > ? AND timestamp <= ?";
+    private static final String DELETE_CHECKPOINTS_SQL =
+            "DELETE FROM balance_checkpoint WHERE account_id = ? AND checkpoint_at >= ?";
+    private static final String SELECT_TRANSACTIONS_SQL =
+            "SELECT type, amount, timestamp FROM transaction WHERE account_id = ? AND timestamp > ? AND timestamp <= ? "
+                    + "ORDER BY timestamp";
+    private static final String INSERT_CHECKPOINT_SQL =
+            "INSERT INTO balance_checkpoint (account_id, checkpoint_at, balance) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final ShardTransactions shardTransactions;
+    private final CheckpointProperties properties;
+
+    public BalanceCheckpointService(JdbcTemplate jdbcTemplate, ShardRouter shardRouter,
+                                    ShardTransactions shardTransactions, CheckpointProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(properties.getFetchSize());
+        this.shardRouter = shardRouter;
+        this.shardTransactions = shardTransactions;
+        this.properties = properties;
+    }
+
+    /**
+     * Вычисляет баланс счета по журналу транзакций на момент времени: сумму всех транзакций счета со временем
+     * не позже этого момента.
+     *
+     * @param accountId идентификатор счета
+     * @param at        момент времени
+     * @return Баланс на момент времени
+     * @throws AccountNotFoundException если счет не найден
+     */
+    public HistoricalBalance getBalanceAt(Long accountId, LocalDateTime at) {
+        int shard = shardRouter.shardForAccountId(accountId);
+        RequestTiming.Phase previous = RequestTiming.enter(RequestTiming.Phase.LOAD);
+        try {
+            return shardTransactions.onShard(shard, () -> {
+                Integer accounts = jdbcTemplate.queryForObject(SELECT_ACCOUNT_SQL, Integer.class, accountId);
+                if (accounts == null || accounts == 0) {
+                    throw new AccountNotFoundException("Account with id " + accountId + " not found");
+                }
+                Checkpoint checkpoint = findCheckpoint(accountId, at);
+                LocalDateTime from = checkpoint != null ? checkpoint.at() : EPOCH;
+                BigDecimal balance = checkpoint != null ? checkpoint.balance() : BigDecimal.ZERO;
+                return jdbcTemplate.queryForObject(SELECT_REPLAY_SQL, (rs, rowNum) -> new HistoricalBalance(
+                        accountId, at, balance.add(rs.getBigDecimal(2)), checkpoint != null ? checkpoint.at() : null,
+                        rs.getLong(1)), accountId, from, at);
+            });
+        } finally {
+            RequestTiming.exit(previous);
+        }
+    }
+
+    /**
+     * Строит контрольные точки по транзакциям, появившимся с предыдущего запуска, во всех шардах.
+     */
+    @Scheduled(fixedDelayString = "${banking.checkpoint.interval:PT1M}",
+            initialDelayString = "${banking.checkpoint.interval:PT1M}")
+    public void checkpoint() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try {
+                checkpointShard(shard);
+            } catch (RuntimeException e) {
+                logger.warn("Balance checkpoints of shard {} could not be written", shard, e);
+            }
+        }
+    }
+
+    /**
+     * Строит контрольные точки шарда одной транзакцией базы данных, чтобы точки и ход построения
+     * фиксировались вместе.
+     *
+     * @param shard номер шарда
+     * @return количество записанных контрольных точек
+     */
+    int checkpointShard(int shard) {
+        return shardTransactions.inTransaction(shard, () -> {
+            // Идентификатор читается до состояния проводок: транзакции проводки, начавшейся позже,
+            // получат большие идентификаторы и будут обнаружены следующим запуском
+            long maxTransactionId = jdbcTemplate.queryForObject(SELECT_MAX_TRANSACTION_ID_SQL, Long.class);
+            Timestamp runningPostingAt = jdbcTemplate.queryForObject(SELECT_RUNNING_POSTING_SQL, Timestamp.class,
+                    PostingRun.Status.RUNNING.name());
+            List<Progress> stored = jdbcTemplate.query(SELECT_PROGRESS_SQL, (rs, rowNum) ->
+                    new Progress(rs.getObject(1, LocalDateTime.class), rs.getLong(2)));
+            Progress progress = stored.isEmpty() ? new Progress(EPOCH, 0) : stored.get(0);
+
+            LocalDateTime until = LocalDateTime.now().minus(properties.getSettleTime());
+            if (runningPostingAt != null && runningPostingAt.toLocalDateTime().minusNanos(1_000).isBefore(until)) {
+                until = runningPostingAt.toLocalDateTime().minusNanos(1_000);
+            }
+            if (until.isBefore(progress.until())) {
+                until = progress.until();
+            }
+
+            Set<Long> accountIds = new TreeSet<>();
+            List<Object[]> lateTransactions = jdbcTemplate.query(SELECT_LATE_TRANSACTIONS_SQL, (rs, rowNum) ->
+                    new Object[]{rs.getLong(1), rs.getObject(2, LocalDateTime.class)},
+                    progress.lastTransactionId(), progress.until());
+            for (Object[] late : lateTransactions) {
+                // Точки счета после транзакции, вставленной задним числом, ее не учитывают
+                jdbcTemplate.update(DELETE_CHECKPOINTS_SQL, late);
+                accountIds.add((Long) late[0]);
+            }
+            accountIds.addAll(jdbcTemplate.queryForList(SELECT_ACTIVE_ACCOUNTS_SQL, Long.class,
+                    progress.until(), until));
+
+            int written = 0;
+            for (Long accountId : accountIds) {
+                written += checkpointAccount(accountId, until);
+            }
+
+            // Пока проводка выполняется, ее транзакции могут быть еще не зафиксированы, поэтому граница
+            // идентификаторов не сдвигается до ее завершения
+            long lastTransactionId = runningPostingAt != null ? progress.lastTransactionId() : maxTransactionId;
+            if (stored.isEmpty()) {
+                jdbcTemplate.update(INSERT_PROGRESS_SQL, until, lastTransactionId);
+            } else {
+                jdbcTemplate.update(UPDATE_PROGRESS_SQL, until, lastTransactionId);
+            }
+            if (written > 0 || !lateTransactions.isEmpty()) {
+                logger.info("Shard {}: {} balance checkpoints written for {} accounts, {} accounts rebuilt after "
+                        + "back-dated transactions", shard, written, accountIds.size(), lateTransactions.size());
+            }
+            return written;
+        });
+    }
+
+    /**
+     * Строит контрольные точки счета по его транзакциям после последней точки и не позже {@code until}.
+     * Точка ставится после каждых {@code transactions-per-checkpoint} транзакций, но только на границе
+     * между транзакциями с разным временем, чтобы в точку попали все транзакции с ее временем.
+     */
+    private int checkpointAccount(Long accountId, LocalDateTime until) {
+        Checkpoint last = findCheckpoint(accountId, until);
+        LocalDateTime from = last != null ? last.at() : EPOCH;
+        long[] balanceCents = {last != null ? ReconciliationService.toCents(last.balance()) : 0};
+        long[] pending = {0};
+        LocalDateTime[] previousAt = {null};
+        List<Object[]> checkpoints = new ArrayList<>();
+        int perCheckpoint = Math.max(1, properties.getTransactionsPerCheckpoint());
+        streamingJdbcTemplate.query(SELECT_TRANSACTIONS_SQL, (RowCallbackHandler) rs -> {
+            LocalDateTime at = rs.getObject(3, LocalDateTime.class);
+            if (pending[0] >= perCheckpoint && !at.equals(previousAt[0])) {
+                checkpoints.add(checkpointRow(accountId, previousAt[0], balanceCents[0]));
+                pending[0] = 0;
+            }
+            balanceCents[0] += ReconciliationService.signedCents(rs.getInt(1), rs.getBigDecimal(2));
+            pending[0]++;
+            previousAt[0] = at;
+        }, accountId, from, until);
+        if (pending[0] >= perCheckpoint) {
+            checkpoints.add(checkpointRow(accountId, previousAt[0], balanceCents[0]));
+        }
+        if (!checkpoints.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_CHECKPOINT_SQL, checkpoints);
+        }
+        return checkpoints.size();
+    }
+
+    private Checkpoint findCheckpoint(Long accountId, LocalDateTime at) {
+        List<Checkpoint> checkpoints = jdbcTemplate.query(SELECT_CHECKPOINT_SQL, checkpointRowMapper(), accountId, at);
+        return checkpoints.isEmpty() ? null : checkpoints.get(0);
+    }
+
+    private static RowMapper<Checkpoint> checkpointRowMapper() {
+        return (rs, rowNum) -> new Checkpoint(rs.getObject(1, LocalDateTime.class), rs.getBigDecimal(2));
+    }
+
+    private static Object[] checkpointRow(Long accountId, LocalDateTime at, long balanceCents) {
+        return new Object[]{accountId, at, BigDecimal.valueOf(balanceCents, 2)};
+    }
+
+    private record Checkpoint(LocalDateTime at, BigDecimal balance) {
+    }
+
+    private record Progress(LocalDateTime until, long lastTransactionId) {
+    }
+}
@@ -0,0 +1,44 @@
+package ru.astondevs.bankingapitest.service;
+
+import java.util.BitSet;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Класс ChunkRangeTask - задача fork-join, которая делит диапазон номеров участков пополам, пока не останется
+ * один участок, и передает его обработчику. Участки, отмеченные как завершенные, пропускаются, что позволяет
+ * продолжать прерванную обработку с последней контрольной точки.
+ */
+class ChunkRangeTask extends RecursiveAction {
+
+    private final BitSet completedChunks;
+    private final int fromChunk;
+    private final int toChunk;
+    private final IntConsumer chunkProcessor;
+
+    /**
+     * @param completedChunks номера уже обработанных участков; не изменяется во время выполнения задачи
+     * @param fromChunk       первый номер участка (включительно)
+     * @param toChunk         последний номер участка (не включительно)
+     * @param chunkProcessor  обработчик одного участка
+     */
+    ChunkRangeTask(BitSet completedChunks, int fromChunk, int toChunk, IntConsumer chunkProcessor) {
+        this.completedChunks = completedChunks;
+        this.fromChunk = fromChunk;
+        this.toChunk = toChunk;
+        this.chunkProcessor = chunkProcessor;
+    }
+
+    @Override
+    protected void compute() {
+        if (toChunk - fromChunk <= 1) {
+            if (fromChunk < toChunk && !completedChunks.get(fromChunk)) {
+                chunkProcessor.accept(fromChunk);
+            }
+            return;
+        }
+        int middle = (fromChunk + toChunk) >>> 1;
+        invokeAll(new ChunkRangeTask(completedChunks, fromChunk, middle, chunkProcessor),
+                new ChunkRangeTask(completedChunks, middle, toChunk, chunkProcessor));
+    }
+}
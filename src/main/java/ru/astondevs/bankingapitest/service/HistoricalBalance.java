@@ -0,0 +1,53 @@
+package ru.astondevs.bankingapitest.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Класс HistoricalBalance описывает баланс счета по журналу транзакций на момент времени и то, как он получен:
+ * от какой контрольной точки и сколько транзакций после нее просуммировано.
+ */
+public class HistoricalBalance {
+
+    private final Long accountId;
+    private final LocalDateTime at;
+    private final BigDecimal balance;
+    private final LocalDateTime checkpointAt;
+    private final long replayedTransactions;
+
+    public HistoricalBalance(Long accountId, LocalDateTime at, BigDecimal balance, LocalDateTime checkpointAt,
+                             long replayedTransactions) {
+        this.accountId = accountId;
+        this.at = at;
+        this.balance = balance;
+        this.checkpointAt = checkpointAt;
+        this.replayedTransactions = replayedTransactions;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public LocalDateTime getAt() {
+        return at;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    /**
+     * Возвращает время контрольной точки, от которой вычислен баланс, или null, если подходящей точки нет
+     * и баланс вычислен по всем транзакциям счета.
+     */
+    public LocalDateTime getCheckpointAt() {
+        return checkpointAt;
+    }
+
+    /**
+     * Возвращает количество транзакций, просуммированных после контрольной точки.
+     */
+    public long getReplayedTransactions() {
+        return replayedTransactions;
+    }
+}
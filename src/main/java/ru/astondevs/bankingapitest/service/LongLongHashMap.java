@@ -0,0 +1,103 @@
+package ru.astondevs.bankingapitest.service;
+
+/**
+ * Класс LongLongHashMap - хеш-таблица с ключами и значениями типа long и открытой адресацией.
+ * В отличие от {@code HashMap<Long, Long>} не создает объектов на каждую запись, поэтому подходит
+ * для агрегирования миллионов транзакций по счетам.
+ * <p>
+ * Ключ 0 зарезервирован как признак пустой ячейки: идентификаторы счетов начинаются с 1.
+ * Экземпляр не потокобезопасен.
+ */
+public class LongLongHashMap {
+
+    private static final long EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private int resizeThreshold;
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Прибавляет значение к записи по ключу. Если записи нет, она создается со значением delta.
+     *
+     * @param key   ключ, не равный 0
+     * @param delta прибавляемое значение
+     */
+    public void addTo(long key, long delta) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int index = indexOf(key);
+        if (keys[index] == key) {
+            values[index] += delta;
+            return;
+        }
+        keys[index] = key;
+        values[index] = delta;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+    }
+
+    /**
+     * Возвращает значение по ключу.
+     *
+     * @param key          ключ
+     * @param defaultValue значение, возвращаемое при отсутствии записи
+     * @return значение записи или defaultValue
+     */
+    public long get(long key, long defaultValue) {
+        if (key == EMPTY) {
+            return defaultValue;
+        }
+        int index = indexOf(key);
+        return keys[index] == key ? values[index] : defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        return key != EMPTY && keys[indexOf(key)] == key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(long key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
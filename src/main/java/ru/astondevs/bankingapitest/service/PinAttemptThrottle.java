@@ -0,0 +1,175 @@
+package ru.astondevs.bankingapitest.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.config.PinThrottleProperties;
+import ru.astondevs.bankingapitest.exception.TooManyPinAttemptsException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Класс PinAttemptThrottle ограничивает количество неудачных попыток ввода PIN-кода для каждого счета
+ * и для каждого клиента. Проверка выполняется до обращения к базе данных, поэтому перебор PIN-кода
+ * после блокировки не нагружает репозиторий.
+ * <p>
+ * Проверка только отклоняет запрос, если в корзине не осталось токенов; токен расходуется лишь при неверном
+ * PIN-коде. Поэтому запросы с верным PIN-кодом, в том числе одновременные и от многих клиентов за одним
+ * адресом, не расходуют лимит.
+ * <p>
+ * Состояние хранится в памяти в двух экземплярах {@link TokenBucketStore} и периодически сохраняется
+ * в файл, чтобы перезапуск приложения не снимал блокировку.
+ */
+@Component
+public class PinAttemptThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(PinAttemptThrottle.class);
+    private static final int SNAPSHOT_MAGIC = 0x50494E54;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final PinThrottleProperties properties;
+    private final TokenBucketStore accountBuckets;
+    private final TokenBucketStore clientBuckets;
+
+    public PinAttemptThrottle(PinThrottleProperties properties) {
+        this.properties = properties;
+        this.accountBuckets = createStore(properties.getAccount(), properties);
+        this.clientBuckets = createStore(properties.getClient(), properties);
+    }
+
+    /**
+     * Проверяет, что для счета и клиента остались неудачные попытки ввода PIN-кода. Попытка не расходуется.
+     *
+     * @param accountId идентификатор счета
+     * @param clientId  идентификатор клиента или null, если он неизвестен
+     * @throws TooManyPinAttemptsException если для счета или клиента исчерпан лимит неудачных попыток
+     */
+    public void checkAllowed(Long accountId, String clientId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long accountWait = accountBuckets.millisUntilToken(String.valueOf(accountId), now);
+        if (accountWait > 0) {
+            throw new TooManyPinAttemptsException("Too many invalid PIN attempts for account " + accountId,
+                    toSeconds(accountWait));
+        }
+        long clientWait = clientId != null ? clientBuckets.millisUntilToken(clientId, now) : 0;
+        if (clientWait > 0) {
+            throw new TooManyPinAttemptsException("Too many invalid PIN attempts", toSeconds(clientWait));
+        }
+    }
+
+    /**
+     * Учитывает неудачную попытку ввода PIN-кода для счета и клиента.
+     *
+     * @param accountId идентификатор счета
+     * @param clientId  идентификатор клиента или null, если он неизвестен
+     */
+    public void recordFailure(Long accountId, String clientId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        accountBuckets.tryConsume(String.valueOf(accountId), now);
+        if (clientId != null) {
+            clientBuckets.tryConsume(clientId, now);
+        }
+    }
+
+    /**
+     * Загружает сохраненное состояние при запуске приложения.
+     */
+    @PostConstruct
+    public void loadSnapshot() {
+        Path file = snapshotPath();
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                logger.warn("Ignoring PIN throttle snapshot {} with unknown format", file);
+                return;
+            }
+            int accounts = readStore(in, accountBuckets);
+            int clients = readStore(in, clientBuckets);
+            logger.info("Restored PIN throttle state for {} accounts and {} clients", accounts, clients);
+        } catch (IOException e) {
+            logger.warn("Failed to read PIN throttle snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Сохраняет состояние в файл. Файл записывается во временный и затем атомарно переименовывается,
+     * поэтому при сбое во время записи остается предыдущий снимок.
+     */
+    @Scheduled(fixedDelayString = "${banking.pin-throttle.snapshot-interval:PT30S}")
+    @PreDestroy
+    public void saveSnapshot() {
+        Path file = snapshotPath();
+        if (file == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                writeStore(out, accountBuckets, now);
+                writeStore(out, clientBuckets, now);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write PIN throttle snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path snapshotPath() {
+        String file = properties.getSnapshotFile();
+        return file == null || file.isBlank() ? null : Path.of(file);
+    }
+
+    private static void writeStore(DataOutputStream out, TokenBucketStore store, long now) throws IOException {
+        Map<String, Long> partial = new LinkedHashMap<>();
+        store.forEachPartial(now, partial::put);
+        out.writeInt(partial.size());
+        for (Map.Entry<String, Long> entry : partial.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    private static int readStore(DataInputStream in, TokenBucketStore store) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            long state = in.readLong();
+            store.restore(key, state);
+        }
+        return count;
+    }
+
+    private static TokenBucketStore createStore(PinThrottleProperties.Bucket bucket, PinThrottleProperties properties) {
+        return new TokenBucketStore(bucket.getCapacity(), bucket.getRefillPeriod().toMillis(),
+                properties.getStripes(), properties.getMaxEntries());
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+}
@@ -0,0 +1,242 @@
+package ru.astondevs.bankingapitest.service;
+
+import ru.astondevs.bankingapitest.audit.AuditEventType;
+import ru.astondevs.bankingapitest.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Класс PostingRun описывает состояние одного запуска массовых проводок, сохраненное в таблице posting_run.
+ * Идентификатор запуска задается клиентом, поэтому повторная отправка того же запуска не проводит его дважды.
+ */
+public class PostingRun {
+
+    /**
+     * Вид проводки.
+     */
+    public enum Type {
+        /**
+         * Начисление процентов на положительный остаток по ставке {@code rate}.
+         */
+        INTEREST(TransactionType.INTEREST, AuditEventType.INTEREST),
+        /**
+         * Списание фиксированной комиссии {@code amount}, но не больше остатка на счете.
+         */
+        FEE(TransactionType.FEE, AuditEventType.FEE);
+
+        private final TransactionType transactionType;
+        private final AuditEventType auditEventType;
+
+        Type(TransactionType transactionType, AuditEventType auditEventType) {
+            this.transactionType = transactionType;
+            this.auditEventType = auditEventType;
+        }
+
+        /**
+         * Возвращает тип транзакции, которой проводка отражается в истории счета.
+         *
+         * @return тип транзакции
+         */
+        public TransactionType getTransactionType() {
+            return transactionType;
+        }
+
+        /**
+         * Возвращает вид операции, под которым проводка записывается в журнал аудита.
+         *
+         * @return вид операции
+         */
+        public AuditEventType getAuditEventType() {
+            return auditEventType;
+        }
+    }
+
+    /**
+     * Состояние запуска.
+     */
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        /**
+         * Запуск был остановлен вместе с приложением и продолжится при повторной отправке.
+         */
+        INTERRUPTED
+    }
+
+    private String id;
+    private Type type;
+    private BigDecimal rate;
+    private BigDecimal amount;
+    private Status status;
+    private Instant postedAt;
+    private Instant resumedAt;
+    private Instant finishedAt;
+    private long minAccountId;
+    private long maxAccountId;
+    private long chunkSize;
+    private int chunkCount;
+    private int completedChunks;
+    private long accountsProcessed;
+    private long accountsPosted;
+    private BigDecimal totalAmount;
+    private long accountsProcessedSinceResume;
+    private String failureMessage;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public void setRate(BigDecimal rate) {
+        this.rate = rate;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Instant getPostedAt() {
+        return postedAt;
+    }
+
+    public void setPostedAt(Instant postedAt) {
+        this.postedAt = postedAt;
+    }
+
+    public Instant getResumedAt() {
+        return resumedAt;
+    }
+
+    public void setResumedAt(Instant resumedAt) {
+        this.resumedAt = resumedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getMinAccountId() {
+        return minAccountId;
+    }
+
+    public void setMinAccountId(long minAccountId) {
+        this.minAccountId = minAccountId;
+    }
+
+    public long getMaxAccountId() {
+        return maxAccountId;
+    }
+
+    public void setMaxAccountId(long maxAccountId) {
+        this.maxAccountId = maxAccountId;
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks;
+    }
+
+    public void setCompletedChunks(int completedChunks) {
+        this.completedChunks = completedChunks;
+    }
+
+    public long getAccountsProcessed() {
+        return accountsProcessed;
+    }
+
+    public void setAccountsProcessed(long accountsProcessed) {
+        this.accountsProcessed = accountsProcessed;
+    }
+
+    public long getAccountsPosted() {
+        return accountsPosted;
+    }
+
+    public void setAccountsPosted(long accountsPosted) {
+        this.accountsPosted = accountsPosted;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public long getAccountsProcessedSinceResume() {
+        return accountsProcessedSinceResume;
+    }
+
+    public void setAccountsProcessedSinceResume(long accountsProcessedSinceResume) {
+        this.accountsProcessedSinceResume = accountsProcessedSinceResume;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public void setFailureMessage(String failureMessage) {
+        this.failureMessage = failureMessage;
+    }
+
+    /**
+     * Возвращает скорость обработки счетов с момента последнего запуска или продолжения.
+     *
+     * @return количество обработанных счетов в секунду
+     */
+    public double getAccountsPerSecond() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(resumedAt, end).toMillis());
+        return accountsProcessedSinceResume * 1000.0 / millis;
+    }
+}
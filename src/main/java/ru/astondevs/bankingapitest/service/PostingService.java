@@ -0,0 +1,418 @@
+package ru.astondevs.bankingapitest.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.audit.AuditLog;
+import ru.astondevs.bankingapitest.config.PostingProperties;
+import ru.astondevs.bankingapitest.dto.PostingRunRequest;
+import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+import ru.astondevs.bankingapitest.exception.PostingAlreadyRunningException;
+import ru.astondevs.bankingapitest.exception.PostingNotFoundException;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Класс PostingService проводит начисление процентов и списание комиссий сразу по всем счетам.
+ * <p>
+ * В отличие от {@link AccountService#deposit} и {@link AccountService#withdraw}, которые проводят одну операцию
+ * в отдельной транзакции, запуск делит диапазон идентификаторов счетов на участки и проводит каждый участок
+ * одной транзакцией базы данных: балансы участка блокируются одним запросом, суммы проводок вычисляются в памяти,
+ * а обновление балансов и вставка транзакций выполняются JDBC-пакетами. Участки проводятся параллельно в пуле
+ * fork-join.
+ * <p>
+ * Вместе с проводками участка фиксируется его контрольная точка, поэтому запуск, прерванный остановкой приложения
+ * или ошибкой, продолжается с первого непроведенного участка. Идентификатор запуска задается клиентом: повторная
+ * отправка того же запуска возвращает его состояние или продолжает его, но никогда не проводит участок дважды.
+ * Проводки участка записываются в журнал аудита после фиксации его транзакции.
+ */
+@Service
+public class PostingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostingService.class);
+    private static final int RECENT_RUNS = 20;
+    private static final Pattern RUN_ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private static final String SELECT_RUN_SQL =
+            "SELECT r.*, c.completed_chunks, c.accounts_processed, c.accounts_posted, c.total_amount, "
+                    + "c.accounts_processed_since_resume "
+                    + "FROM posting_run r LEFT JOIN ("
+                    + "SELECT ch.run_id, COUNT(*) AS completed_chunks, "
+                    + "SUM(ch.accounts_processed) AS accounts_processed, SUM(ch.accounts_posted) AS accounts_posted, "
+                    + "SUM(ch.total_amount) AS total_amount, SUM(CASE WHEN ch.completed_at >= pr.resumed_at "
+                    + "THEN ch.accounts_processed ELSE 0 END) AS accounts_processed_since_resume "
+                    + "FROM posting_chunk ch JOIN posting_run pr ON pr.id = ch.run_id GROUP BY ch.run_id"
+                    + ") c ON c.run_id = r.id ";
+    private static final String INSERT_RUN_SQL =
+            "INSERT INTO posting_run (id, type, rate, amount, status, posted_at, resumed_at, min_account_id, "
+                    + "max_account_id, chunk_size, chunk_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String RESUME_RUN_SQL =
+            "UPDATE posting_run SET status = ?, resumed_at = ?, finished_at = NULL, failure_message = NULL "
+                    + "WHERE id = ?";
+    private static final String FINISH_RUN_SQL =
+            "UPDATE posting_run SET status = ?, finished_at = ?, failure_message = ? WHERE id = ?";
+    private static final String LOCK_BALANCES_SQL =
+            "SELECT id, balance FROM account WHERE id >= ? AND id < ? FOR UPDATE";
+    private static final String UPDATE_BALANCE_SQL =
+            "UPDATE account SET balance = balance + ?, version = version + 1 WHERE id = ?";
+    private static final String INSERT_TRANSACTION_SQL =
+            "INSERT INTO transaction (account_id, type, amount, timestamp) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_CHUNK_SQL =
+            "INSERT INTO posting_chunk (run_id, chunk_index, accounts_processed, accounts_posted, total_amount, "
+                    + "completed_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountCacheEvictor accountCacheEvictor;
+    private final PostingProperties properties;
+    private final ShardRouter shardRouter;
+    private final AuditLog auditLog;
+    private final ForkJoinPool pool;
+    private final ExecutorService coordinator;
+    private final AtomicReference<String> activeRunId = new AtomicReference<>();
+    private volatile boolean stopping;
+
+    public PostingService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          AccountCacheEvictor accountCacheEvictor, PostingProperties properties,
+                          ShardRouter shardRouter, AuditLog auditLog) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.accountCacheEvictor = accountCacheEvictor;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.auditLog = auditLog;
+        int parallelism = properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("posting-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "posting-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Запускает проводки или возвращает состояние уже отправленного запуска с тем же идентификатором.
+     * Прерванный или завершившийся ошибкой запуск продолжается с первого непроведенного участка.
+     * Проводки выполняются в фоне.
+     *
+     * @param request параметры запуска
+     * @return Состояние запуска
+     * @throws InvalidRequestException        если параметры некорректны или запуск с тем же идентификатором
+     *                                        был отправлен с другими параметрами, а также если счета
+     *                                        разделены по шардам
+     * @throws PostingAlreadyRunningException если выполняется другой запуск
+     */
+    public PostingRun submit(PostingRunRequest request) {
+        if (shardRouter.isSharded()) {
+            // Участки проводятся по диапазонам идентификаторов одной базы данных
+            throw new InvalidRequestException("Posting runs are not supported when accounts are sharded");
+        }
+        PostingRun.Type type = validate(request);
+        List<PostingRun> existing = jdbcTemplate.query(SELECT_RUN_SQL + "WHERE r.id = ?", runRowMapper(),
+                request.getRunId());
+        if (!existing.isEmpty()) {
+            PostingRun run = existing.get(0);
+            if (run.getType() != type || !sameValue(run.getRate(), request.getRate())
+                    || !sameValue(run.getAmount(), request.getAmount())) {
+                throw new InvalidRequestException(
+                        "Posting run " + run.getId() + " already exists with different parameters");
+            }
+            if (run.getStatus() == PostingRun.Status.COMPLETED || run.getStatus() == PostingRun.Status.RUNNING) {
+                return run;
+            }
+            acquire(run.getId());
+            try {
+                jdbcTemplate.update(RESUME_RUN_SQL, PostingRun.Status.RUNNING.name(), Timestamp.from(Instant.now()),
+                        run.getId());
+                logger.info("Posting run {} resumed: {} of {} chunks already posted", run.getId(),
+                        run.getCompletedChunks(), run.getChunkCount());
+            } catch (RuntimeException e) {
+                activeRunId.set(null);
+                throw e;
+            }
+        } else {
+            acquire(request.getRunId());
+            try {
+                long[] range = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM account",
+                        (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+                long chunkSize = properties.getChunkSize();
+                int chunkCount = range[1] == 0 ? 0 : Math.toIntExact((range[1] - range[0]) / chunkSize + 1);
+                Timestamp now = Timestamp.from(Instant.now());
+                jdbcTemplate.update(INSERT_RUN_SQL, request.getRunId(), type.name(), request.getRate(),
+                        request.getAmount(), PostingRun.Status.RUNNING.name(), now, now, range[0], range[1],
+                        chunkSize, chunkCount);
+                logger.info("Posting run {} ({}) started: accounts {}..{}, {} chunks", request.getRunId(), type,
+                        range[0], range[1], chunkCount);
+            } catch (RuntimeException e) {
+                activeRunId.set(null);
+                throw e;
+            }
+        }
+        coordinator.execute(() -> execute(request.getRunId()));
+        return getRun(request.getRunId());
+    }
+
+    /**
+     * Возвращает состояние запуска.
+     *
+     * @param runId идентификатор запуска
+     * @return Состояние запуска
+     * @throws PostingNotFoundException если запуск не найден
+     */
+    public PostingRun getRun(String runId) {
+        List<PostingRun> runs = jdbcTemplate.query(SELECT_RUN_SQL + "WHERE r.id = ?", runRowMapper(), runId);
+        if (runs.isEmpty()) {
+            throw new PostingNotFoundException("Posting run not found with id: " + runId);
+        }
+        return runs.get(0);
+    }
+
+    /**
+     * Возвращает последние запуски, начиная с самого нового.
+     *
+     * @return список запусков
+     */
+    public List<PostingRun> getRuns() {
+        return jdbcTemplate.query(SELECT_RUN_SQL + "ORDER BY r.posted_at DESC LIMIT ?", runRowMapper(), RECENT_RUNS);
+    }
+
+    /**
+     * Помечает как прерванные запуски, которые выполнялись при предыдущей остановке приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterruptedRuns() {
+        int interrupted = jdbcTemplate.update("UPDATE posting_run SET status = ? WHERE status = ?",
+                PostingRun.Status.INTERRUPTED.name(), PostingRun.Status.RUNNING.name());
+        if (interrupted > 0) {
+            logger.warn("{} posting run(s) were interrupted by the previous shutdown", interrupted);
+        }
+    }
+
+    /**
+     * Останавливает выполняющийся запуск. Участки, которые уже проводятся, фиксируются до остановки.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        coordinator.shutdown();
+        pool.shutdown();
+        if (!coordinator.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Posting run did not stop within 30 seconds");
+        }
+    }
+
+    /**
+     * Вычисляет проводку по счету с указанным балансом.
+     *
+     * @param type    вид проводки
+     * @param rate    ставка процентов для {@link PostingRun.Type#INTEREST}
+     * @param amount  сумма комиссии для {@link PostingRun.Type#FEE}
+     * @param balance баланс счета
+     * @return изменение баланса со знаком; ноль, если счет не затрагивается
+     */
+    static BigDecimal computePosting(PostingRun.Type type, BigDecimal rate, BigDecimal amount, BigDecimal balance) {
+        if (balance.signum() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        if (type == PostingRun.Type.INTEREST) {
+            return balance.multiply(rate).setScale(2, RoundingMode.HALF_EVEN);
+        }
+        return amount.min(balance).negate();
+    }
+
+    private PostingRun.Type validate(PostingRunRequest request) {
+        if (request == null) {
+            throw new InvalidRequestException("Request body must not be null");
+        }
+        if (request.getRunId() == null || !RUN_ID_PATTERN.matcher(request.getRunId()).matches()) {
+            throw new InvalidRequestException(
+                    "Run ID must be 1 to 64 characters of letters, digits, '.', '_' or '-'");
+        }
+        PostingRun.Type type;
+        try {
+            type = PostingRun.Type.valueOf(String.valueOf(request.getType()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Posting type must be one of INTEREST, FEE");
+        }
+        if (type == PostingRun.Type.INTEREST) {
+            if (request.getRate() == null || request.getRate().signum() <= 0
+                    || request.getRate().compareTo(BigDecimal.ONE) > 0 || request.getRate().scale() > 6
+                    || request.getAmount() != null) {
+                throw new InvalidRequestException(
+                        "Interest posting requires a rate between 0 and 1 with at most 6 decimal places and no amount");
+            }
+        } else if (request.getAmount() == null || request.getAmount().signum() <= 0
+                || request.getAmount().scale() > 2 || request.getRate() != null) {
+            throw new InvalidRequestException(
+                    "Fee posting requires a positive amount with at most 2 decimal places and no rate");
+        }
+        return type;
+    }
+
+    private static boolean sameValue(BigDecimal a, BigDecimal b) {
+        return a == null || b == null ? Objects.equals(a, b) : a.compareTo(b) == 0;
+    }
+
+    private void acquire(String runId) {
+        if (stopping) {
+            throw new PostingAlreadyRunningException("Application is shutting down");
+        }
+        String active = activeRunId.get();
+        if (!activeRunId.compareAndSet(null, runId)) {
+            throw new PostingAlreadyRunningException("Posting run " + active + " is already running");
+        }
+    }
+
+    private void execute(String runId) {
+        long startNanos = System.nanoTime();
+        try {
+            PostingRun run = getRun(runId);
+            BitSet completedChunks = new BitSet(run.getChunkCount());
+            jdbcTemplate.query("SELECT chunk_index FROM posting_chunk WHERE run_id = ?",
+                    (RowCallbackHandler) rs -> completedChunks.set(rs.getInt(1)), runId);
+            pool.invoke(new ChunkRangeTask(completedChunks, 0, run.getChunkCount(),
+                    chunkIndex -> postChunk(run, chunkIndex)));
+            finish(runId, PostingRun.Status.COMPLETED, null);
+            PostingRun finished = getRun(runId);
+            logger.info("Posting run {} completed in {} ms: {} accounts processed, {} posted, total {}, {} accounts/s",
+                    runId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                    finished.getAccountsProcessed(), finished.getAccountsPosted(), finished.getTotalAmount(),
+                    Math.round(finished.getAccountsPerSecond()));
+        } catch (CancellationException e) {
+            logger.warn("Posting run {} interrupted", runId);
+            finish(runId, PostingRun.Status.INTERRUPTED, "Application was shut down");
+        } catch (RuntimeException e) {
+            logger.error("Posting run {} failed", runId, e);
+            finish(runId, PostingRun.Status.FAILED, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        } finally {
+            activeRunId.set(null);
+        }
+    }
+
+    private void finish(String runId, PostingRun.Status status, String failureMessage) {
+        jdbcTemplate.update(FINISH_RUN_SQL, status.name(), Timestamp.from(Instant.now()), failureMessage, runId);
+    }
+
+    private void postChunk(PostingRun run, int chunkIndex) {
+        if (stopping) {
+            throw new CancellationException("Posting run interrupted");
+        }
+        long fromId = run.getMinAccountId() + chunkIndex * run.getChunkSize();
+        long toId = Math.min(fromId + run.getChunkSize(), run.getMaxAccountId() + 1);
+        Timestamp postedAt = Timestamp.from(run.getPostedAt());
+        short transactionType = run.getType().getTransactionType().getCode();
+
+        List<Posting> postings = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            postings.clear();
+            long[] accountsProcessed = {0};
+            jdbcTemplate.query(LOCK_BALANCES_SQL, (RowCallbackHandler) rs -> {
+                BigDecimal posting = computePosting(run.getType(), run.getRate(), run.getAmount(),
+                        rs.getBigDecimal(2));
+                if (posting.signum() != 0) {
+                    postings.add(new Posting(rs.getLong(1), posting));
+                }
+                accountsProcessed[0]++;
+            }, fromId, toId);
+
+            BigDecimal totalAmount = BigDecimal.ZERO;
+            if (!postings.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, postings, properties.getBatchSize(), (ps, posting) -> {
+                    ps.setBigDecimal(1, posting.amount);
+                    ps.setLong(2, posting.accountId);
+                });
+                jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, postings, properties.getBatchSize(),
+                        (ps, posting) -> {
+                            ps.setLong(1, posting.accountId);
+                            ps.setShort(2, transactionType);
+                            ps.setBigDecimal(3, posting.amount.abs());
+                            ps.setTimestamp(4, postedAt);
+                        });
+                for (Posting posting : postings) {
+                    totalAmount = totalAmount.add(posting.amount.abs());
+                }
+            }
+            jdbcTemplate.update(INSERT_CHUNK_SQL, run.getId(), chunkIndex, accountsProcessed[0], postings.size(), totalAmount,
+                    Timestamp.from(Instant.now()));
+        });
+
+        // Балансы изменены в обход Hibernate, поэтому кэшированные счета участка устаревают
+        List<Long> accountIds = new ArrayList<>(postings.size());
+        for (Posting posting : postings) {
+            accountIds.add(posting.accountId);
+            auditLog.record(run.getType().getAuditEventType(), posting.accountId, null, posting.amount.abs());
+        }
+        accountCacheEvictor.evictAccounts(accountIds);
+    }
+
+    private static RowMapper<PostingRun> runRowMapper() {
+        return (rs, rowNum) -> {
+            PostingRun run = new PostingRun();
+            run.setId(rs.getString("id"));
+            run.setType(PostingRun.Type.valueOf(rs.getString("type")));
+            run.setRate(rs.getBigDecimal("rate"));
+            run.setAmount(rs.getBigDecimal("amount"));
+            run.setStatus(PostingRun.Status.valueOf(rs.getString("status")));
+            run.setPostedAt(rs.getTimestamp("posted_at").toInstant());
+            run.setResumedAt(rs.getTimestamp("resumed_at").toInstant());
+            Timestamp finishedAt = rs.getTimestamp("finished_at");
+            run.setFinishedAt(finishedAt == null ? null : finishedAt.toInstant());
+            run.setMinAccountId(rs.getLong("min_account_id"));
+            run.setMaxAccountId(rs.getLong("max_account_id"));
+            run.setChunkSize(rs.getLong("chunk_size"));
+            run.setChunkCount(rs.getInt("chunk_count"));
+            run.setFailureMessage(rs.getString("failure_message"));
+            run.setCompletedChunks(rs.getInt("completed_chunks"));
+            run.setAccountsProcessed(rs.getLong("accounts_processed"));
+            run.setAccountsPosted(rs.getLong("accounts_posted"));
+            BigDecimal totalAmount = rs.getBigDecimal("total_amount");
+            run.setTotalAmount(totalAmount == null ? BigDecimal.ZERO : totalAmount);
+            run.setAccountsProcessedSinceResume(rs.getLong("accounts_processed_since_resume"));
+            return run;
+        };
+    }
+
+    /**
+     * Проводка по одному счету: изменение баланса со знаком.
+     */
+    private static class Posting {
+
+        private final long accountId;
+        private final BigDecimal amount;
+
+        Posting(long accountId, BigDecimal amount) {
+            this.accountId = accountId;
+            this.amount = amount;
+        }
+    }
+}
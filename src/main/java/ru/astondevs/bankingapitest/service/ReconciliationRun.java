@@ -0,0 +1,170 @@
+package ru.astondevs.bankingapitest.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Класс ReconciliationRun описывает состояние одной сверки балансов с журналом транзакций,
+ * сохраненное в таблице reconciliation_run.
+ */
+public class ReconciliationRun {
+
+    /**
+     * Состояние сверки.
+     */
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        /**
+         * Сверка была остановлена вместе с приложением и может быть продолжена.
+         */
+        INTERRUPTED
+    }
+
+    /**
+     * Расхождение баланса счета с суммой его транзакций.
+     */
+    public static class Discrepancy {
+
+        private final long accountId;
+        private final BigDecimal balance;
+        private final BigDecimal ledgerBalance;
+
+        public Discrepancy(long accountId, BigDecimal balance, BigDecimal ledgerBalance) {
+            this.accountId = accountId;
+            this.balance = balance;
+            this.ledgerBalance = ledgerBalance;
+        }
+
+        public long getAccountId() {
+            return accountId;
+        }
+
+        public BigDecimal getBalance() {
+            return balance;
+        }
+
+        public BigDecimal getLedgerBalance() {
+            return ledgerBalance;
+        }
+    }
+
+    private String id;
+    private Status status;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long minAccountId;
+    private long maxAccountId;
+    private long chunkSize;
+    private int chunkCount;
+    private int completedChunks;
+    private long accountsChecked;
+    private long transactionsScanned;
+    private long discrepancyCount;
+    private String failureMessage;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getMinAccountId() {
+        return minAccountId;
+    }
+
+    public void setMinAccountId(long minAccountId) {
+        this.minAccountId = minAccountId;
+    }
+
+    public long getMaxAccountId() {
+        return maxAccountId;
+    }
+
+    public void setMaxAccountId(long maxAccountId) {
+        this.maxAccountId = maxAccountId;
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks;
+    }
+
+    public void setCompletedChunks(int completedChunks) {
+        this.completedChunks = completedChunks;
+    }
+
+    public long getAccountsChecked() {
+        return accountsChecked;
+    }
+
+    public void setAccountsChecked(long accountsChecked) {
+        this.accountsChecked = accountsChecked;
+    }
+
+    public long getTransactionsScanned() {
+        return transactionsScanned;
+    }
+
+    public void setTransactionsScanned(long transactionsScanned) {
+        this.transactionsScanned = transactionsScanned;
+    }
+
+    public long getDiscrepancyCount() {
+        return discrepancyCount;
+    }
+
+    public void setDiscrepancyCount(long discrepancyCount) {
+        this.discrepancyCount = discrepancyCount;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public void setFailureMessage(String failureMessage) {
+        this.failureMessage = failureMessage;
+    }
+}
@@ -0,0 +1,399 @@
+package ru.astondevs.bankingapitest.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.config.ReconciliationProperties;
+import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+import ru.astondevs.bankingapitest.exception.ReconciliationAlreadyRunningException;
+import ru.astondevs.bankingapitest.exception.ReconciliationNotFoundException;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Класс ReconciliationService сверяет балансы счетов с суммой их транзакций.
+ * <p>
+ * Диапазон идентификаторов счетов, существовавших на момент запуска, делится на участки фиксированного размера,
+ * которые обрабатываются параллельно в пуле fork-join. Для каждого участка транзакции читаются одним потоковым
+ * запросом и суммируются в копейках в хеш-таблице с примитивными ключами, после чего суммы сравниваются с балансами.
+ * Результат участка сохраняется в одной транзакции вместе с контрольной точкой, поэтому прерванную сверку можно
+ * продолжить, не повторяя уже обработанные участки.
+ * <p>
+ * Сверка выполняется на работающей базе данных: между чтением транзакций и чтением балансов счет может измениться.
+ * Поэтому каждое найденное расхождение перепроверяется одним запросом, который видит согласованное состояние счета,
+ * и в отчет попадают только подтвержденные расхождения.
+ */
+@Service
+public class ReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationService.class);
+    private static final int RECENT_RUNS = 20;
+    private static final int MAX_EXPECTED_ACCOUNTS_PER_CHUNK = 1 << 20;
+
+    private static final String SELECT_RUN_SQL =
+            "SELECT r.id, r.status, r.started_at, r.finished_at, r.min_account_id, r.max_account_id, r.chunk_size, "
+                    + "r.chunk_count, r.failure_message, c.completed_chunks, c.accounts_checked, "
+                    + "c.transactions_scanned, c.discrepancy_count "
+                    + "FROM reconciliation_run r LEFT JOIN ("
+                    + "SELECT run_id, COUNT(*) AS completed_chunks, SUM(accounts_checked) AS accounts_checked, "
+                    + "SUM(transactions_scanned) AS transactions_scanned, SUM(discrepancy_count) AS discrepancy_count "
+                    + "FROM reconciliation_chunk GROUP BY run_id) c ON c.run_id = r.id ";
+    private static final String INSERT_RUN_SQL =
+            "INSERT INTO reconciliation_run (id, status, started_at, min_account_id, max_account_id, chunk_size, "
+                    + "chunk_count) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_TRANSACTIONS_SQL =
+            "SELECT account_id, type, amount FROM transaction WHERE account_id >= ? AND account_id < ?";
+    private static final String SELECT_BALANCES_SQL =
+            "SELECT id, balance FROM account WHERE id >= ? AND id < ?";
+    /**
+     * Сумма транзакции {@code t} со знаком, с которым она входит в баланс счета; SQL-аналог {@link #signedCents}.
+     */
+    static final String SIGNED_AMOUNT_SQL = "CASE "
+            + "WHEN t.type IN (" + typeCodes(true) + ") THEN t.amount "
+            + "WHEN t.type IN (" + typeCodes(false) + ") THEN -t.amount END";
+    private static final String RECHECK_SQL =
+            "SELECT a.balance, (SELECT COALESCE(SUM(" + SIGNED_AMOUNT_SQL + "), 0) "
+                    + "FROM transaction t WHERE t.account_id = a.id) "
+                    + "FROM account a WHERE a.id = ?";
+    private static final String INSERT_DISCREPANCY_SQL =
+            "INSERT INTO reconciliation_discrepancy (run_id, account_id, balance, ledger_balance) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_CHUNK_SQL =
+            "INSERT INTO reconciliation_chunk (run_id, chunk_index, accounts_checked, transactions_scanned, "
+                    + "discrepancy_count, completed_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String FINISH_RUN_SQL =
+            "UPDATE reconciliation_run SET status = ?, finished_at = ?, failure_message = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReconciliationProperties properties;
+    private final ShardRouter shardRouter;
+    private final ForkJoinPool pool;
+    private final ExecutorService coordinator;
+    private final AtomicReference<String> activeRunId = new AtomicReference<>();
+    private volatile boolean stopping;
+
+    public ReconciliationService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 ReconciliationProperties properties, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(properties.getFetchSize());
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        int parallelism = properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("reconciliation-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reconciliation-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Запускает новую сверку всех счетов, существующих на момент вызова. Сверка выполняется в фоне.
+     *
+     * @return Состояние запущенной сверки
+     * @throws ReconciliationAlreadyRunningException если уже выполняется другая сверка
+     * @throws InvalidRequestException               если счета разделены по шардам
+     */
+    public ReconciliationRun start() {
+        checkNotSharded();
+        String runId = UUID.randomUUID().toString();
+        acquire(runId);
+        try {
+            long[] range = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM account",
+                    (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+            long minAccountId = range[0];
+            long maxAccountId = range[1];
+            long chunkSize = properties.getChunkSize();
+            int chunkCount = maxAccountId == 0 ? 0 : Math.toIntExact((maxAccountId - minAccountId) / chunkSize + 1);
+            jdbcTemplate.update(INSERT_RUN_SQL, runId, ReconciliationRun.Status.RUNNING.name(),
+                    Timestamp.from(Instant.now()), minAccountId, maxAccountId, chunkSize, chunkCount);
+            logger.info("Reconciliation {} started: accounts {}..{}, {} chunks", runId, minAccountId, maxAccountId,
+                    chunkCount);
+        } catch (RuntimeException e) {
+            activeRunId.set(null);
+            throw e;
+        }
+        coordinator.execute(() -> execute(runId));
+        return getRun(runId);
+    }
+
+    /**
+     * Продолжает прерванную или завершившуюся ошибкой сверку. Участки, для которых сохранены контрольные точки,
+     * повторно не обрабатываются.
+     *
+     * @param runId идентификатор сверки
+     * @return Состояние продолженной сверки
+     * @throws ReconciliationNotFoundException       если сверка не найдена
+     * @throws InvalidRequestException               если сверка уже завершена
+     * @throws ReconciliationAlreadyRunningException если уже выполняется другая сверка
+     */
+    public ReconciliationRun resume(String runId) {
+        checkNotSharded();
+        ReconciliationRun run = getRun(runId);
+        if (run.getStatus() == ReconciliationRun.Status.COMPLETED) {
+            throw new InvalidRequestException("Reconciliation " + runId + " is already completed");
+        }
+        acquire(runId);
+        try {
+            jdbcTemplate.update(FINISH_RUN_SQL, ReconciliationRun.Status.RUNNING.name(), null, null, runId);
+            logger.info("Reconciliation {} resumed: {} of {} chunks already completed", runId,
+                    run.getCompletedChunks(), run.getChunkCount());
+        } catch (RuntimeException e) {
+            activeRunId.set(null);
+            throw e;
+        }
+        coordinator.execute(() -> execute(runId));
+        return getRun(runId);
+    }
+
+    /**
+     * Возвращает состояние сверки.
+     *
+     * @param runId идентификатор сверки
+     * @return Состояние сверки
+     * @throws ReconciliationNotFoundException если сверка не найдена
+     */
+    public ReconciliationRun getRun(String runId) {
+        List<ReconciliationRun> runs = jdbcTemplate.query(SELECT_RUN_SQL + "WHERE r.id = ?", runRowMapper(), runId);
+        if (runs.isEmpty()) {
+            throw new ReconciliationNotFoundException("Reconciliation not found with id: " + runId);
+        }
+        return runs.get(0);
+    }
+
+    /**
+     * Возвращает последние сверки, начиная с самой новой.
+     *
+     * @return список сверок
+     */
+    public List<ReconciliationRun> getRuns() {
+        return jdbcTemplate.query(SELECT_RUN_SQL + "ORDER BY r.started_at DESC LIMIT ?", runRowMapper(), RECENT_RUNS);
+    }
+
+    /**
+     * Возвращает подтвержденные расхождения сверки в порядке идентификаторов счетов.
+     *
+     * @param runId идентификатор сверки
+     * @param limit максимальное количество расхождений
+     * @return список расхождений
+     * @throws ReconciliationNotFoundException если сверка не найдена
+     */
+    public List<ReconciliationRun.Discrepancy> getDiscrepancies(String runId, int limit) {
+        getRun(runId);
+        return jdbcTemplate.query(
+                "SELECT account_id, balance, ledger_balance FROM reconciliation_discrepancy "
+                        + "WHERE run_id = ? ORDER BY account_id LIMIT ?",
+                (rs, rowNum) -> new ReconciliationRun.Discrepancy(
+                        rs.getLong(1), rs.getBigDecimal(2), rs.getBigDecimal(3)),
+                runId, limit);
+    }
+
+    /**
+     * Помечает как прерванные сверки, которые выполнялись при предыдущей остановке приложения,
+     * чтобы их можно было продолжить.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterruptedRuns() {
+        int interrupted = jdbcTemplate.update("UPDATE reconciliation_run SET status = ? WHERE status = ?",
+                ReconciliationRun.Status.INTERRUPTED.name(), ReconciliationRun.Status.RUNNING.name());
+        if (interrupted > 0) {
+            logger.warn("{} reconciliation run(s) were interrupted by the previous shutdown", interrupted);
+        }
+    }
+
+    /**
+     * Останавливает выполняющуюся сверку. Участки, которые уже обрабатываются, дописывают свои контрольные точки.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        coordinator.shutdown();
+        pool.shutdown();
+        if (!coordinator.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Reconciliation did not stop within 30 seconds");
+        }
+    }
+
+    /**
+     * Сверка обрабатывает диапазон идентификаторов одной базы данных и не поддерживает разделение счетов по шардам.
+     */
+    private void checkNotSharded() {
+        if (shardRouter.isSharded()) {
+            throw new InvalidRequestException("Reconciliation is not supported when accounts are sharded");
+        }
+    }
+
+    /**
+     * Возвращает сумму транзакции в копейках со знаком, с которым она входит в баланс счета.
+     *
+     * @param typeCode код типа транзакции из базы данных
+     * @param amount   сумма транзакции
+     * @return сумма в копейках со знаком
+     * @throws IllegalStateException если тип транзакции неизвестен
+     */
+    static long signedCents(int typeCode, BigDecimal amount) {
+        TransactionType type = TransactionType.fromCode(typeCode);
+        if (type == null) {
+            throw new IllegalStateException("Unknown transaction type: " + typeCode);
+        }
+        long cents = toCents(amount);
+        return type.isCredit() ? cents : -cents;
+    }
+
+    /**
+     * Возвращает через запятую коды типов транзакций, которые увеличивают (credit) или уменьшают баланс счета.
+     */
+    private static String typeCodes(boolean credit) {
+        return Arrays.stream(TransactionType.values())
+                .filter(type -> type.isCredit() == credit)
+                .map(type -> String.valueOf(type.getCode()))
+                .collect(Collectors.joining(", "));
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    private void acquire(String runId) {
+        if (stopping) {
+            throw new ReconciliationAlreadyRunningException("Application is shutting down");
+        }
+        String active = activeRunId.get();
+        if (!activeRunId.compareAndSet(null, runId)) {
+            throw new ReconciliationAlreadyRunningException("Reconciliation " + active + " is already running");
+        }
+    }
+
+    private void execute(String runId) {
+        long startNanos = System.nanoTime();
+        try {
+            ReconciliationRun run = getRun(runId);
+            BitSet completedChunks = new BitSet(run.getChunkCount());
+            jdbcTemplate.query("SELECT chunk_index FROM reconciliation_chunk WHERE run_id = ?",
+                    (RowCallbackHandler) rs -> completedChunks.set(rs.getInt(1)), runId);
+            pool.invoke(new ChunkRangeTask(completedChunks, 0, run.getChunkCount(),
+                    chunkIndex -> reconcileChunk(run, chunkIndex)));
+            finish(runId, ReconciliationRun.Status.COMPLETED, null);
+            ReconciliationRun finished = getRun(runId);
+            logger.info("Reconciliation {} completed in {} ms: {} accounts, {} transactions, {} discrepancies",
+                    runId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                    finished.getAccountsChecked(), finished.getTransactionsScanned(), finished.getDiscrepancyCount());
+        } catch (CancellationException e) {
+            logger.warn("Reconciliation {} interrupted", runId);
+            finish(runId, ReconciliationRun.Status.INTERRUPTED, "Application was shut down");
+        } catch (RuntimeException e) {
+            logger.error("Reconciliation {} failed", runId, e);
+            finish(runId, ReconciliationRun.Status.FAILED, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        } finally {
+            activeRunId.set(null);
+        }
+    }
+
+    private void finish(String runId, ReconciliationRun.Status status, String failureMessage) {
+        jdbcTemplate.update(FINISH_RUN_SQL, status.name(), Timestamp.from(Instant.now()), failureMessage, runId);
+    }
+
+    private void reconcileChunk(ReconciliationRun run, int chunkIndex) {
+        if (stopping) {
+            throw new CancellationException("Reconciliation interrupted");
+        }
+        long fromId = run.getMinAccountId() + chunkIndex * run.getChunkSize();
+        long toId = Math.min(fromId + run.getChunkSize(), run.getMaxAccountId() + 1);
+
+        LongLongHashMap ledger = new LongLongHashMap((int) Math.min(toId - fromId, MAX_EXPECTED_ACCOUNTS_PER_CHUNK));
+        long[] transactionsScanned = {0};
+        streamingJdbcTemplate.query(SELECT_TRANSACTIONS_SQL, (RowCallbackHandler) rs -> {
+            ledger.addTo(rs.getLong(1), signedCents(rs.getInt(2), rs.getBigDecimal(3)));
+            transactionsScanned[0]++;
+        }, fromId, toId);
+
+        long[] accountsChecked = {0};
+        List<Long> suspects = new ArrayList<>();
+        streamingJdbcTemplate.query(SELECT_BALANCES_SQL, (RowCallbackHandler) rs -> {
+            long accountId = rs.getLong(1);
+            if (toCents(rs.getBigDecimal(2)) != ledger.get(accountId, 0)) {
+                suspects.add(accountId);
+            }
+            accountsChecked[0]++;
+        }, fromId, toId);
+
+        List<ReconciliationRun.Discrepancy> discrepancies = new ArrayList<>();
+        for (long accountId : suspects) {
+            jdbcTemplate.query(RECHECK_SQL, (RowCallbackHandler) rs -> {
+                BigDecimal balance = rs.getBigDecimal(1);
+                BigDecimal ledgerBalance = rs.getBigDecimal(2);
+                if (balance.compareTo(ledgerBalance) != 0) {
+                    discrepancies.add(new ReconciliationRun.Discrepancy(accountId, balance, ledgerBalance));
+                }
+            }, accountId);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!discrepancies.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_DISCREPANCY_SQL, discrepancies, discrepancies.size(), (ps, d) -> {
+                    ps.setString(1, run.getId());
+                    ps.setLong(2, d.getAccountId());
+                    ps.setBigDecimal(3, d.getBalance());
+                    ps.setBigDecimal(4, d.getLedgerBalance());
+                });
+            }
+            jdbcTemplate.update(INSERT_CHUNK_SQL, run.getId(), chunkIndex, accountsChecked[0],
+                    transactionsScanned[0], discrepancies.size(), Timestamp.from(Instant.now()));
+        });
+    }
+
+    private static RowMapper<ReconciliationRun> runRowMapper() {
+        return (rs, rowNum) -> {
+            ReconciliationRun run = new ReconciliationRun();
+            run.setId(rs.getString("id"));
+            run.setStatus(ReconciliationRun.Status.valueOf(rs.getString("status")));
+            run.setStartedAt(rs.getTimestamp("started_at").toInstant());
+            Timestamp finishedAt = rs.getTimestamp("finished_at");
+            run.setFinishedAt(finishedAt == null ? null : finishedAt.toInstant());
+            run.setMinAccountId(rs.getLong("min_account_id"));
+            run.setMaxAccountId(rs.getLong("max_account_id"));
+            run.setChunkSize(rs.getLong("chunk_size"));
+            run.setChunkCount(rs.getInt("chunk_count"));
+            run.setFailureMessage(rs.getString("failure_message"));
+            run.setCompletedChunks(rs.getInt("completed_chunks"));
+            run.setAccountsChecked(rs.getLong("accounts_checked"));
+            run.setTransactionsScanned(rs.getLong("transactions_scanned"));
+            run.setDiscrepancyCount(rs.getLong("discrepancy_count"));
+            return run;
+        };
+    }
+}
@@ -0,0 +1,320 @@
+package ru.astondevs.bankingapitest.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Класс SlidingWindowStore хранит для каждого счета сумму и количество операций за скользящее окно времени.
+ * <p>
+ * Окно делится на интервалы одинаковой длины. Суммы и количества операций интервалов хранятся в кольцевых буферах
+ * из примитивных массивов, а итоги окна - в отдельных полях, поэтому проверка лимита не зависит от числа операций.
+ * При сдвиге окна обнуляются только интервалы, вышедшие из него; их число не превышает размера буфера.
+ * <p>
+ * Хранилище разделено на сегменты по хешу счета, размер каждого сегмента ограничен. При переполнении сегмента
+ * удаляются только счета без операций в текущем окне. Если таких нет, новый счет не добавляется и его операция
+ * отклоняется: иначе вытеснение записи позволило бы обойти лимит.
+ */
+public class SlidingWindowStore {
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int maxEntriesPerStripe;
+    private final Map<Long, Window>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public SlidingWindowStore(long windowMillis, int bucketCount, int stripeCount, int maxEntries) {
+        if (bucketCount < 1) {
+            throw new IllegalArgumentException("Bucket count must be positive");
+        }
+        this.bucketCount = bucketCount;
+        this.bucketMillis = Math.max(1, windowMillis / bucketCount);
+        int count = Math.max(1, stripeCount);
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / count);
+        this.stripes = new Map[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Учитывает операцию, если вместе с ней сумма и количество операций за окно не превысят лимитов.
+     * Проверка и учет выполняются атомарно.
+     *
+     * @param key       идентификатор счета
+     * @param nowMillis текущее время в миллисекундах
+     * @param amount    сумма операции
+     * @param maxAmount наибольшая сумма за окно или 0, если сумма не ограничена
+     * @param maxCount  наибольшее количество операций за окно или 0, если количество не ограничено
+     * @return true, если операция учтена
+     */
+    public boolean tryAdd(long key, long nowMillis, long amount, long maxAmount, long maxCount) {
+        long bucket = bucket(nowMillis);
+        while (true) {
+            Window window = window(key, nowMillis);
+            if (window == null) {
+                return false;
+            }
+            synchronized (window) {
+                if (window.evicted) {
+                    continue;
+                }
+                window.advance(bucket);
+                if (exceeds(window.totalAmount + amount, maxAmount) || exceeds(window.totalCount + 1, maxCount)) {
+                    return false;
+                }
+                window.add(bucket, amount);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Учитывает операцию, выполненную в указанное время, без проверки лимитов. Операции старше окна не учитываются,
+     * как и операции нового счета, если сегмент заполнен счетами с операциями в текущем окне.
+     *
+     * @param key         идентификатор счета
+     * @param eventMillis время операции в миллисекундах
+     * @param nowMillis   текущее время в миллисекундах
+     * @param amount      сумма операции
+     */
+    public void add(long key, long eventMillis, long nowMillis, long amount) {
+        long bucket = bucket(eventMillis);
+        long current = bucket(nowMillis);
+        if (bucket <= current - bucketCount || bucket > current) {
+            return;
+        }
+        while (true) {
+            Window window = window(key, nowMillis);
+            if (window == null) {
+                return;
+            }
+            synchronized (window) {
+                if (window.evicted) {
+                    continue;
+                }
+                window.advance(current);
+                window.add(bucket, amount);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Исключает из окна ранее учтенную операцию, например при откате транзакции. Если интервал операции уже вышел
+     * из окна, ничего не делает.
+     *
+     * @param key         идентификатор счета
+     * @param eventMillis время, с которым операция была учтена
+     * @param nowMillis   текущее время в миллисекундах
+     * @param amount      сумма операции
+     */
+    public void remove(long key, long eventMillis, long nowMillis, long amount) {
+        Window window = stripe(key).get(key);
+        if (window == null) {
+            return;
+        }
+        long bucket = bucket(eventMillis);
+        synchronized (window) {
+            // Окно вытесняется, только когда в нем не осталось операций, поэтому исключать нечего
+            if (window.evicted) {
+                return;
+            }
+            window.advance(bucket(nowMillis));
+            if (bucket > window.lastBucket - bucketCount && bucket <= window.lastBucket) {
+                window.add(bucket, -amount, -1);
+            }
+        }
+    }
+
+    /**
+     * Вычисляет, через сколько миллисекунд из окна выйдет достаточно операций, чтобы операция с указанной суммой
+     * уложилась в лимиты.
+     *
+     * @param key       идентификатор счета
+     * @param nowMillis текущее время в миллисекундах
+     * @param amount    сумма операции
+     * @param maxAmount наибольшая сумма за окно или 0, если сумма не ограничена
+     * @param maxCount  наибольшее количество операций за окно или 0, если количество не ограничено
+     * @return количество миллисекунд; 0, если операция уже укладывается в лимиты
+     */
+    public long millisUntilAllowed(long key, long nowMillis, long amount, long maxAmount, long maxCount) {
+        Map<Long, Window> stripe = stripe(key);
+        Window window = stripe.get(key);
+        if (window == null) {
+            // Место в заполненном сегменте освободится не раньше, чем из окна выйдет очередной интервал
+            return stripe.size() >= maxEntriesPerStripe ? (bucket(nowMillis) + 1) * bucketMillis - nowMillis : 0;
+        }
+        synchronized (window) {
+            window.advance(bucket(nowMillis));
+            long totalAmount = window.totalAmount;
+            long totalCount = window.totalCount;
+            if (!exceeds(totalAmount + amount, maxAmount) && !exceeds(totalCount + 1, maxCount)) {
+                return 0;
+            }
+            // Интервал b выходит из окна, когда начинается интервал b + n
+            long bucket = window.lastBucket - bucketCount + 1;
+            for (; bucket < window.lastBucket; bucket++) {
+                int slot = slot(bucket);
+                totalAmount -= window.amounts[slot];
+                totalCount -= window.counts[slot];
+                if (!exceeds(totalAmount + amount, maxAmount) && !exceeds(totalCount + 1, maxCount)) {
+                    break;
+                }
+            }
+            return Math.max(0, (bucket + bucketCount) * bucketMillis - nowMillis);
+        }
+    }
+
+    /**
+     * Возвращает сумму операций за окно.
+     *
+     * @param key       идентификатор счета
+     * @param nowMillis текущее время в миллисекундах
+     * @return сумма операций
+     */
+    public long totalAmount(long key, long nowMillis) {
+        Window window = stripe(key).get(key);
+        if (window == null) {
+            return 0;
+        }
+        synchronized (window) {
+            window.advance(bucket(nowMillis));
+            return window.totalAmount;
+        }
+    }
+
+    /**
+     * Возвращает количество операций за окно.
+     *
+     * @param key       идентификатор счета
+     * @param nowMillis текущее время в миллисекундах
+     * @return количество операций
+     */
+    public long totalCount(long key, long nowMillis) {
+        Window window = stripe(key).get(key);
+        if (window == null) {
+            return 0;
+        }
+        synchronized (window) {
+            window.advance(bucket(nowMillis));
+            return window.totalCount;
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<Long, Window> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Возвращает окно счета, создавая его при необходимости.
+     *
+     * @return окно счета или null, если сегмент заполнен счетами с операциями в текущем окне
+     */
+    private Window window(long key, long nowMillis) {
+        Map<Long, Window> stripe = stripe(key);
+        Window window = stripe.get(key);
+        if (window != null) {
+            return window;
+        }
+        if (stripe.size() >= maxEntriesPerStripe) {
+            evictEmpty(stripe, bucket(nowMillis));
+            if (stripe.size() >= maxEntriesPerStripe) {
+                return null;
+            }
+        }
+        return stripe.computeIfAbsent(key, k -> new Window(bucketCount, bucket(nowMillis)));
+    }
+
+    /**
+     * Удаляет окна, все интервалы которых вышли из окна или не содержат операций. Удаленное окно помечается, чтобы
+     * операция, получившая его до удаления, повторила поиск и не была потеряна.
+     */
+    private void evictEmpty(Map<Long, Window> stripe, long currentBucket) {
+        stripe.values().removeIf(window -> {
+            synchronized (window) {
+                window.advance(currentBucket);
+                if (window.totalCount != 0 || window.totalAmount != 0) {
+                    return false;
+                }
+                window.evicted = true;
+                return true;
+            }
+        });
+    }
+
+    private Map<Long, Window> stripe(long key) {
+        int hash = Long.hashCode(key);
+        hash ^= hash >>> 16;
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    private long bucket(long millis) {
+        return Math.floorDiv(millis, bucketMillis);
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) bucketCount);
+    }
+
+    private static boolean exceeds(long value, long limit) {
+        return limit > 0 && value > limit;
+    }
+
+    /**
+     * Кольцевой буфер интервалов одного счета. Интервал {@code b} из окна {@code (lastBucket - n, lastBucket]}
+     * хранится в ячейке {@code b mod n}; ячейки интервалов, вышедших из окна, обнуляются при его сдвиге.
+     */
+    private final class Window {
+
+        private final long[] amounts;
+        private final int[] counts;
+        private long lastBucket;
+        private long totalAmount;
+        private long totalCount;
+        private boolean evicted;
+
+        Window(int bucketCount, long currentBucket) {
+            this.amounts = new long[bucketCount];
+            this.counts = new int[bucketCount];
+            this.lastBucket = currentBucket;
+        }
+
+        void advance(long currentBucket) {
+            if (currentBucket <= lastBucket) {
+                return;
+            }
+            if (currentBucket - lastBucket >= bucketCount) {
+                Arrays.fill(amounts, 0);
+                Arrays.fill(counts, 0);
+                totalAmount = 0;
+                totalCount = 0;
+            } else {
+                for (long bucket = lastBucket + 1; bucket <= currentBucket; bucket++) {
+                    int slot = slot(bucket);
+                    totalAmount -= amounts[slot];
+                    totalCount -= counts[slot];
+                    amounts[slot] = 0;
+                    counts[slot] = 0;
+                }
+            }
+            lastBucket = currentBucket;
+        }
+
+        void add(long bucket, long amount) {
+            add(bucket, amount, 1);
+        }
+
+        void add(long bucket, long amount, int count) {
+            int slot = slot(bucket);
+            amounts[slot] += amount;
+            counts[slot] += count;
+            totalAmount += amount;
+            totalCount += count;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package ru.astondevs.bankingapitest.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Класс TokenBucketStore хранит корзины токенов по строковым ключам.
+ * <p>
+ * Состояние корзины упаковано в один long: старшие 48 бит содержат время последнего пополнения
+ * в миллисекундах от эпохи Unix, младшие 16 бит - количество токенов в сотых долях. Поэтому
+ * расход и пополнение выполняются одной операцией compare-and-set без блокировок и без создания объектов.
+ * <p>
+ * Хранилище разделено на сегменты по хешу ключа, размер каждого сегмента ограничен. При переполнении
+ * сегмента удаляются только полностью восстановленные корзины, которые ничем не отличаются от новых.
+ * Неполные корзины не удаляются никогда, иначе заблокированный ключ можно было бы вытеснить потоком новых
+ * ключей и получить вместо него полную корзину. Если в сегменте не осталось полных корзин, новый ключ
+ * не получает токенов, пока какая-нибудь из корзин сегмента не восстановится.
+ */
+public class TokenBucketStore {
+
+    private static final int TOKEN_SCALE = 100;
+    private static final int TOKEN_BITS = 16;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+
+    private final long capacity;
+    private final long refillPeriodMillis;
+    private final int maxEntriesPerStripe;
+    private final Map<String, AtomicLong>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketStore(int capacity, long refillPeriodMillis, int stripeCount, int maxEntries) {
+        if (capacity < 1 || (long) capacity * TOKEN_SCALE > TOKEN_MASK) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + TOKEN_MASK / TOKEN_SCALE);
+        }
+        this.capacity = (long) capacity * TOKEN_SCALE;
+        this.refillPeriodMillis = Math.max(1, refillPeriodMillis);
+        int count = Math.max(1, stripeCount);
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / count);
+        this.stripes = new Map[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Атомарно расходует один токен, если он есть. Одновременные вызовы для одного ключа не могут
+     * израсходовать больше токенов, чем есть в корзине.
+     *
+     * @param key       ключ корзины
+     * @param nowMillis текущее время в миллисекундах
+     * @return true, если токен израсходован; false, если токенов нет или для нового ключа нет места
+     */
+    public boolean tryConsume(String key, long nowMillis) {
+        while (true) {
+            AtomicLong bucket = bucket(key, nowMillis);
+            if (bucket == null || !tryConsume(bucket, nowMillis)) {
+                return false;
+            }
+            // Полную корзину могли вытеснить до расхода токена; тогда токен расходуется из корзины,
+            // которая теперь хранится для ключа
+            if (stripe(key).get(key) == bucket) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Вычисляет, через сколько миллисекунд в корзине появится токен.
+     *
+     * @param key       ключ корзины
+     * @param nowMillis текущее время в миллисекундах
+     * @return количество миллисекунд или 0, если токен уже есть
+     */
+    public long millisUntilToken(String key, long nowMillis) {
+        Map<String, AtomicLong> stripe = stripe(key);
+        AtomicLong bucket = stripe.get(key);
+        if (bucket == null) {
+            // Новый ключ получит корзину, если в сегменте есть место или полная корзина, которую можно вытеснить
+            if (stripe.size() < maxEntriesPerStripe) {
+                return 0;
+            }
+            return stripe.values().stream().anyMatch(existing -> tokens(existing.get(), nowMillis) >= capacity)
+                    ? 0 : refillPeriodMillis;
+        }
+        long missing = TOKEN_SCALE - tokens(bucket.get(), nowMillis);
+        return missing <= 0 ? 0 : (missing * refillPeriodMillis + TOKEN_SCALE - 1) / TOKEN_SCALE;
+    }
+
+    /**
+     * Передает в consumer все корзины, которые еще не восстановились полностью.
+     * Полные корзины не несут информации и не сохраняются.
+     *
+     * @param nowMillis текущее время в миллисекундах
+     * @param consumer  получатель пар (ключ, упакованное состояние)
+     */
+    public void forEachPartial(long nowMillis, BiConsumer<String, Long> consumer) {
+        for (Map<String, AtomicLong> stripe : stripes) {
+            stripe.forEach((key, bucket) -> {
+                long state = bucket.get();
+                if (tokens(state, nowMillis) < capacity) {
+                    consumer.accept(key, state);
+                }
+            });
+        }
+    }
+
+    /**
+     * Восстанавливает корзину из сохраненного состояния.
+     *
+     * @param key   ключ корзины
+     * @param state упакованное состояние
+     */
+    public void restore(String key, long state) {
+        Map<String, AtomicLong> stripe = stripe(key);
+        if (stripe.size() < maxEntriesPerStripe) {
+            stripe.put(key, new AtomicLong(state));
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Возвращает корзину ключа, создавая ее при необходимости.
+     *
+     * @return корзина или null, если сегмент заполнен неполными корзинами
+     */
+    private AtomicLong bucket(String key, long nowMillis) {
+        Map<String, AtomicLong> stripe = stripe(key);
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxEntriesPerStripe) {
+            stripe.values().removeIf(existing -> tokens(existing.get(), nowMillis) >= capacity);
+            if (stripe.size() >= maxEntriesPerStripe) {
+                return null;
+            }
+        }
+        return stripe.computeIfAbsent(key, k -> new AtomicLong(pack(nowMillis, capacity)));
+    }
+
+    private boolean tryConsume(AtomicLong bucket, long nowMillis) {
+        while (true) {
+            long state = bucket.get();
+            long tokens = tokens(state, nowMillis);
+            if (tokens < TOKEN_SCALE) {
+                return false;
+            }
+            if (bucket.compareAndSet(state, pack(Math.max(nowMillis, lastRefill(state)), tokens - TOKEN_SCALE))) {
+                return true;
+            }
+        }
+    }
+
+    private Map<String, AtomicLong> stripe(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    private long tokens(long state, long nowMillis) {
+        long elapsed = Math.max(0, nowMillis - lastRefill(state));
+        long refilled = elapsed >= refillPeriodMillis * (capacity / TOKEN_SCALE + 1)
+                ? capacity
+                : elapsed * TOKEN_SCALE / refillPeriodMillis;
+        return Math.min(capacity, (state & TOKEN_MASK) + refilled);
+    }
+
+    private static long lastRefill(long state) {
+        return state >>> TOKEN_BITS;
+    }
+
+    private static long pack(long millis, long tokens) {
+        return (millis << TOKEN_BITS) | tokens;
+    }
+}
@@ -0,0 +1,81 @@
+package ru.astondevs.bankingapitest.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Класс TransferSaga описывает перевод между счетами разных шардов, сохраненный в таблице transfer_saga
+ * шарда отправителя.
+ * <p>
+ * Перевод выполняется двумя локальными транзакциями: списание в шарде отправителя и зачисление в шарде получателя.
+ * Если зачисление невозможно, выполняется компенсирующая транзакция, возвращающая средства отправителю.
+ */
+public class TransferSaga {
+
+    /**
+     * Состояние перевода.
+     */
+    public enum Status {
+        /**
+         * Средства списаны со счета отправителя и еще не зачислены получателю.
+         */
+        DEBITED,
+        /**
+         * Средства зачислены получателю.
+         */
+        COMPLETED,
+        /**
+         * Зачисление не удалось, средства возвращаются отправителю.
+         */
+        COMPENSATING,
+        /**
+         * Средства возвращены отправителю.
+         */
+        COMPENSATED
+    }
+
+    private final String id;
+    private final Long fromAccountId;
+    private final Long toAccountId;
+    private final BigDecimal amount;
+    private final Status status;
+    private final Instant createdAt;
+
+    public TransferSaga(String id, Long fromAccountId, Long toAccountId, BigDecimal amount, Status status,
+                        Instant createdAt) {
+        this.id = id;
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public Long getToAccountId() {
+        return toAccountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Возвращает время создания перевода. Перевод создается в одной транзакции со списанием, поэтому это время
+     * совпадает со временем, с которым перевод учтен в лимитах исходящих переводов.
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
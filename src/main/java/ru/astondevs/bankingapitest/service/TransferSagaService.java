@@ -0,0 +1,332 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.astondevs.bankingapitest.audit.AuditEventType;
+import ru.astondevs.bankingapitest.audit.AuditLog;
+import ru.astondevs.bankingapitest.config.ShardingProperties;
+import ru.astondevs.bankingapitest.exception.AccountNotFoundException;
+import ru.astondevs.bankingapitest.exception.TransferFailedException;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.model.Transaction;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.repository.AccountRepository;
+import ru.astondevs.bankingapitest.repository.TransactionRepository;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardTransactions;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Класс TransferSagaService выполняет переводы между счетами разных шардов.
+ * <p>
+ * Распределенная транзакция заменяется сагой. Списание со счета отправителя и строка перевода в таблице
+ * transfer_saga фиксируются одной транзакцией шарда отправителя. Затем второй транзакцией в шарде получателя
+ * зачисляются средства. Если зачисление не удалось, выполняется компенсация: в шарде получателя фиксируется отмена
+ * перевода, после чего средства возвращаются отправителю транзакцией {@code transfer reversal}. Таблица
+ * transfer_saga_outcome в шарде получателя допускает только один исход перевода, поэтому зачисление и возврат
+ * средств взаимно исключают друг друга даже при повторных попытках. После фиксации возврата перевод исключается
+ * из лимита исходящих переводов отправителя. Переводы, прерванные остановкой приложения
+ * или недоступностью шарда, завершает фоновая задача {@link #recoverPendingSagas()}.
+ * <p>
+ * Перевод записывается в журнал аудита, когда он переходит в состояние {@link TransferSaga.Status#COMPLETED}
+ * или {@link TransferSaga.Status#COMPENSATED}, - независимо от того, завершен он сразу или задачей восстановления.
+ * Переход выполняется условным обновлением строки перевода, поэтому событие записывается один раз.
+ */
+@Service
+public class TransferSagaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferSagaService.class);
+    private static final String OUTCOME_CREDITED = "CREDITED";
+    private static final String OUTCOME_CANCELLED = "CANCELLED";
+    private static final int RECOVERY_BATCH_SIZE = 1000;
+    private static final String INSERT_SAGA_SQL =
+            "INSERT INTO transfer_saga (id, from_account_id, to_account_id, amount, status, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE transfer_saga SET status = ?, updated_at = ?, failure_message = COALESCE(?, failure_message) "
+                    + "WHERE id = ? AND status = ?";
+    private static final String SELECT_SAGA_SQL =
+            "SELECT id, from_account_id, to_account_id, amount, status, created_at FROM transfer_saga ";
+    private static final String SELECT_OUTCOME_SQL = "SELECT outcome FROM transfer_saga_outcome WHERE saga_id = ?";
+    private static final String INSERT_OUTCOME_SQL =
+            "INSERT INTO transfer_saga_outcome (saga_id, outcome, created_at) VALUES (?, ?, ?)";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final ShardTransactions shardTransactions;
+    private final ShardingProperties properties;
+    private final VelocityLimiter velocityLimiter;
+    private final AuditLog auditLog;
+
+    public TransferSagaService(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                               JdbcTemplate jdbcTemplate, ShardRouter shardRouter,
+                               ShardTransactions shardTransactions, ShardingProperties properties,
+                               VelocityLimiter velocityLimiter, AuditLog auditLog) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.shardTransactions = shardTransactions;
+        this.properties = properties;
+        this.velocityLimiter = velocityLimiter;
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Сохраняет новый перевод. Вызывается в транзакции шарда отправителя, списывающей средства.
+     *
+     * @param fromAccountId идентификатор счета отправителя
+     * @param toAccountId   идентификатор счета получателя
+     * @param amount        сумма перевода
+     * @return Сохраненный перевод в состоянии {@link TransferSaga.Status#DEBITED}
+     */
+    public TransferSaga begin(Long fromAccountId, Long toAccountId, BigDecimal amount) {
+        Instant createdAt = Instant.now();
+        TransferSaga saga = new TransferSaga(UUID.randomUUID().toString(), fromAccountId, toAccountId, amount,
+                TransferSaga.Status.DEBITED, createdAt);
+        Timestamp now = Timestamp.from(createdAt);
+        jdbcTemplate.update(INSERT_SAGA_SQL, saga.getId(), fromAccountId, toAccountId, amount,
+                saga.getStatus().name(), now, now);
+        return saga;
+    }
+
+    /**
+     * Завершает перевод после списания: зачисляет средства получателю, а если это не удалось, возвращает
+     * их отправителю.
+     *
+     * @param saga перевод в состоянии {@link TransferSaga.Status#DEBITED}
+     * @throws TransferFailedException если средства не зачислены получателю
+     */
+    public void complete(TransferSaga saga) {
+        TransferSaga.Status status = resume(saga);
+        if (status == TransferSaga.Status.COMPENSATED) {
+            throw new TransferFailedException("Transfer " + saga.getId() + " failed, the amount was returned to account "
+                    + saga.getFromAccountId());
+        }
+        if (status != TransferSaga.Status.COMPLETED) {
+            throw new TransferFailedException("Transfer " + saga.getId()
+                    + " could not be completed, it will be finished or reversed automatically");
+        }
+    }
+
+    /**
+     * Завершает незавершенные переводы всех шардов, которые не изменялись дольше
+     * {@code banking.sharding.recovery-delay}: после остановки приложения между шагами перевода или после
+     * недоступности шарда.
+     */
+    @Scheduled(fixedDelayString = "${banking.sharding.recovery-interval:PT30S}")
+    public void recoverPendingSagas() {
+        if (!shardRouter.isSharded()) {
+            return;
+        }
+        Timestamp updatedBefore = Timestamp.from(Instant.now().minus(properties.getRecoveryDelay()));
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            List<TransferSaga> pending;
+            try {
+                pending = shardTransactions.onShard(shard, () -> jdbcTemplate.query(SELECT_SAGA_SQL
+                                + "WHERE status IN (?, ?) AND updated_at <= ? ORDER BY created_at LIMIT ?",
+                        sagaRowMapper(), TransferSaga.Status.DEBITED.name(),
+                        TransferSaga.Status.COMPENSATING.name(), updatedBefore, RECOVERY_BATCH_SIZE));
+            } catch (RuntimeException e) {
+                logger.warn("Pending transfers of shard {} could not be read", shard, e);
+                continue;
+            }
+            for (TransferSaga saga : pending) {
+                TransferSaga.Status status = resume(saga);
+                logger.info("Transfer {} recovered from {} to {}", saga.getId(), saga.getStatus(), status);
+            }
+        }
+    }
+
+    /**
+     * Точка внедрения сбоя перед зачислением средств получателю. Используется в тестах.
+     */
+    void beforeCredit(TransferSaga saga) {
+    }
+
+    /**
+     * Точка внедрения сбоя перед отменой перевода в шарде получателя. Используется в тестах.
+     */
+    void beforeCompensation(TransferSaga saga) {
+    }
+
+    /**
+     * Продолжает перевод с его текущего состояния.
+     *
+     * @return Состояние перевода после продолжения
+     */
+    private TransferSaga.Status resume(TransferSaga saga) {
+        if (saga.getStatus() == TransferSaga.Status.DEBITED) {
+            try {
+                beforeCredit(saga);
+                credit(saga);
+            } catch (RuntimeException e) {
+                logger.warn("Transfer {} could not be credited to account {}, reversing it", saga.getId(),
+                        saga.getToAccountId(), e);
+                return transition(saga, TransferSaga.Status.DEBITED, TransferSaga.Status.COMPENSATING, e.getMessage())
+                        ? compensate(saga)
+                        : currentStatus(saga);
+            }
+            // Средства уже зачислены; если шард отправителя недоступен, состояние обновит и запишет в журнал аудита
+            // задача восстановления
+            if (transition(saga, TransferSaga.Status.DEBITED, TransferSaga.Status.COMPLETED, null)) {
+                auditTransfer(saga);
+            }
+            logger.info("Transfer {} of {} from account {} to account {} completed", saga.getId(), saga.getAmount(),
+                    saga.getFromAccountId(), saga.getToAccountId());
+            return TransferSaga.Status.COMPLETED;
+        }
+        if (saga.getStatus() == TransferSaga.Status.COMPENSATING) {
+            return compensate(saga);
+        }
+        return saga.getStatus();
+    }
+
+    /**
+     * Зачисляет средства получателю. Повторное зачисление того же перевода ничего не делает, а зачисление
+     * отмененного перевода завершается ошибкой.
+     */
+    private void credit(TransferSaga saga) {
+        int shard = shardRouter.shardForAccountId(saga.getToAccountId());
+        retrying(() -> shardTransactions.inTransaction(shard, () -> {
+            String outcome = findOutcome(saga);
+            if (OUTCOME_CREDITED.equals(outcome)) {
+                return null;
+            }
+            if (outcome != null) {
+                throw new IllegalStateException("Transfer " + saga.getId() + " has already been cancelled");
+            }
+            jdbcTemplate.update(INSERT_OUTCOME_SQL, saga.getId(), OUTCOME_CREDITED, Timestamp.from(Instant.now()));
+            postToAccount(saga.getToAccountId(), saga.getAmount(), TransactionType.TRANSFER_IN,
+                    saga.getFromAccountId());
+            return null;
+        }));
+    }
+
+    /**
+     * Отменяет перевод в шарде получателя и возвращает средства отправителю. Если выяснилось, что средства
+     * уже зачислены (зачисление зафиксировано, но его результат не получен), перевод считается завершенным.
+     *
+     * @return Состояние перевода после компенсации; {@link TransferSaga.Status#COMPENSATING}, если один из шардов
+     * недоступен и компенсацию нужно повторить позже
+     */
+    private TransferSaga.Status compensate(TransferSaga saga) {
+        int toShard = shardRouter.shardForAccountId(saga.getToAccountId());
+        int fromShard = shardRouter.shardForAccountId(saga.getFromAccountId());
+        try {
+            beforeCompensation(saga);
+            String outcome = shardTransactions.inTransaction(toShard, () -> {
+                String existing = findOutcome(saga);
+                if (existing != null) {
+                    return existing;
+                }
+                jdbcTemplate.update(INSERT_OUTCOME_SQL, saga.getId(), OUTCOME_CANCELLED,
+                        Timestamp.from(Instant.now()));
+                return OUTCOME_CANCELLED;
+            });
+            if (OUTCOME_CREDITED.equals(outcome)) {
+                logger.info("Transfer {} turned out to be credited, completing it", saga.getId());
+                if (!transition(saga, TransferSaga.Status.COMPENSATING, TransferSaga.Status.COMPLETED, null)) {
+                    return currentStatus(saga);
+                }
+                auditTransfer(saga);
+                return TransferSaga.Status.COMPLETED;
+            }
+            TransferSaga.Status status = retrying(() -> shardTransactions.inTransaction(fromShard, () -> {
+                // Состояние меняется в одной транзакции с возвратом, поэтому средства возвращаются только один раз
+                if (!transition(saga, TransferSaga.Status.COMPENSATING, TransferSaga.Status.COMPENSATED, null)) {
+                    return currentStatus(saga);
+                }
+                postToAccount(saga.getFromAccountId(), saga.getAmount(), TransactionType.TRANSFER_REVERSAL,
+                        saga.getToAccountId());
+                return TransferSaga.Status.COMPENSATED;
+            }));
+            if (status == TransferSaga.Status.COMPENSATED) {
+                // Возврат зафиксирован, поэтому отмененный перевод больше не учитывается в лимите отправителя
+                velocityLimiter.releaseTransfer(saga.getFromAccountId(), saga.getAmount(),
+                        saga.getCreatedAt().toEpochMilli());
+                auditLog.record(AuditEventType.REVERSAL, saga.getFromAccountId(), saga.getToAccountId(),
+                        saga.getAmount());
+            }
+            logger.info("Transfer {} reversed: {} returned to account {}", saga.getId(), saga.getAmount(),
+                    saga.getFromAccountId());
+            return status;
+        } catch (RuntimeException e) {
+            logger.warn("Transfer {} could not be reversed yet, it will be retried", saga.getId(), e);
+            return TransferSaga.Status.COMPENSATING;
+        }
+    }
+
+    private void auditTransfer(TransferSaga saga) {
+        auditLog.record(AuditEventType.TRANSFER, saga.getFromAccountId(), saga.getToAccountId(), saga.getAmount());
+    }
+
+    private void postToAccount(Long accountId, BigDecimal amount, TransactionType type, Long counterpartyAccountId) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account with id " + accountId + " not found"));
+        account.deposit(amount);
+        transactionRepository.save(new Transaction(account, amount, type, counterpartyAccountId));
+        accountRepository.save(account);
+    }
+
+    private String findOutcome(TransferSaga saga) {
+        List<String> outcomes = jdbcTemplate.queryForList(SELECT_OUTCOME_SQL, String.class, saga.getId());
+        return outcomes.isEmpty() ? null : outcomes.get(0);
+    }
+
+    /**
+     * Меняет состояние перевода в шарде отправителя, если оно не изменилось с момента чтения.
+     *
+     * @return true, если состояние изменено
+     */
+    private boolean transition(TransferSaga saga, TransferSaga.Status from, TransferSaga.Status to, String message) {
+        int shard = shardRouter.shardForAccountId(saga.getFromAccountId());
+        try {
+            return shardTransactions.onShard(shard, () -> jdbcTemplate.update(UPDATE_STATUS_SQL, to.name(),
+                    Timestamp.from(Instant.now()), message, saga.getId(), from.name())) == 1;
+        } catch (RuntimeException e) {
+            logger.warn("Transfer {} could not be moved from {} to {}", saga.getId(), from, to, e);
+            return false;
+        }
+    }
+
+    private TransferSaga.Status currentStatus(TransferSaga saga) {
+        int shard = shardRouter.shardForAccountId(saga.getFromAccountId());
+        try {
+            return shardTransactions.onShard(shard, () -> jdbcTemplate.queryForObject(
+                    SELECT_SAGA_SQL + "WHERE id = ?", sagaRowMapper(), saga.getId())).getStatus();
+        } catch (RuntimeException e) {
+            return saga.getStatus();
+        }
+    }
+
+    private <T> T retrying(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= properties.getCreditAttempts()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static RowMapper<TransferSaga> sagaRowMapper() {
+        return (rs, rowNum) -> new TransferSaga(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4),
+                TransferSaga.Status.valueOf(rs.getString(5)), rs.getTimestamp(6).toInstant());
+    }
+}
@@ -0,0 +1,154 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.astondevs.bankingapitest.config.VelocityProperties;
+import ru.astondevs.bankingapitest.exception.InvalidAmountException;
+import ru.astondevs.bankingapitest.exception.VelocityLimitExceededException;
+import ru.astondevs.bankingapitest.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Класс VelocityLimiter ограничивает сумму и количество снятий и исходящих переводов со счета за скользящее окно
+ * времени. Итоги окна каждого счета хранятся в памяти в двух экземплярах {@link SlidingWindowStore}, поэтому
+ * проверка не обращается к истории транзакций в базе данных.
+ * <p>
+ * Операция учитывается в окне до изменения баланса. Если транзакция, в которой выполняется операция, откатывается,
+ * учтенная сумма исключается из окна. При запуске приложения окна восстанавливаются по недавним транзакциям
+ * {@link VelocityLimiterInitializer}.
+ */
+@Component
+public class VelocityLimiter {
+
+    private final VelocityProperties properties;
+    private final SlidingWindowStore withdrawals;
+    private final SlidingWindowStore transfers;
+
+    public VelocityLimiter(VelocityProperties properties) {
+        this.properties = properties;
+        this.withdrawals = createStore(properties.getWithdrawals(), properties);
+        this.transfers = createStore(properties.getTransfers(), properties);
+    }
+
+    /**
+     * Учитывает снятие средств со счета в окне снятий.
+     *
+     * @param accountId идентификатор счета
+     * @param amount    сумма снятия
+     * @throws InvalidAmountException         если сумма сама по себе превышает лимит за окно
+     * @throws VelocityLimitExceededException если вместе с предыдущими снятиями сумма или количество превысят лимит
+     */
+    public void reserveWithdrawal(Long accountId, BigDecimal amount) {
+        reserve(withdrawals, properties.getWithdrawals(), accountId, amount, "withdrawal");
+    }
+
+    /**
+     * Учитывает исходящий перевод со счета в окне переводов.
+     *
+     * @param accountId идентификатор счета отправителя
+     * @param amount    сумма перевода
+     * @throws InvalidAmountException         если сумма сама по себе превышает лимит за окно
+     * @throws VelocityLimitExceededException если вместе с предыдущими переводами сумма или количество превысят лимит
+     */
+    public void reserveTransfer(Long accountId, BigDecimal amount) {
+        reserve(transfers, properties.getTransfers(), accountId, amount, "transfer");
+    }
+
+    /**
+     * Исключает из окна переводов перевод, средства которого возвращены отправителю компенсирующей транзакцией.
+     * Вызывается после фиксации возврата.
+     *
+     * @param accountId   идентификатор счета отправителя
+     * @param amount      сумма перевода
+     * @param eventMillis время, с которым перевод был учтен
+     */
+    public void releaseTransfer(Long accountId, BigDecimal amount, long eventMillis) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        transfers.remove(accountId, eventMillis, System.currentTimeMillis(), toCents(amount));
+    }
+
+    /**
+     * Учитывает зафиксированную ранее операцию при восстановлении окон. Операции других типов и операции старше окна
+     * не учитываются.
+     *
+     * @param accountId   идентификатор счета
+     * @param type        тип транзакции
+     * @param amount      сумма транзакции
+     * @param eventMillis время транзакции в миллисекундах
+     * @param nowMillis   текущее время в миллисекундах
+     */
+    void record(long accountId, TransactionType type, BigDecimal amount, long eventMillis, long nowMillis) {
+        if (type == TransactionType.WITHDRAW) {
+            withdrawals.add(accountId, eventMillis, nowMillis, toCents(amount));
+        } else if (type == TransactionType.TRANSFER_OUT) {
+            transfers.add(accountId, eventMillis, nowMillis, toCents(amount));
+        }
+    }
+
+    /**
+     * Возвращает наибольшую длительность окна: транзакции старше нее не влияют на лимиты.
+     */
+    long longestWindowMillis() {
+        return Math.max(properties.getWithdrawals().getWindow().toMillis(),
+                properties.getTransfers().getWindow().toMillis());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    long withdrawnAmount(long accountId, long nowMillis) {
+        return withdrawals.totalAmount(accountId, nowMillis);
+    }
+
+    long transferCount(long accountId, long nowMillis) {
+        return transfers.totalCount(accountId, nowMillis);
+    }
+
+    private void reserve(SlidingWindowStore store, VelocityProperties.Limit limit, Long accountId, BigDecimal amount,
+                         String operation) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long cents = toCents(amount);
+        long maxAmount = limit.getMaxAmount() == null ? 0 : toCents(limit.getMaxAmount());
+        if (maxAmount > 0 && cents > maxAmount) {
+            throw new InvalidAmountException("Amount exceeds the " + operation + " limit of " + limit.getMaxAmount()
+                    + " per " + limit.getWindow());
+        }
+        long now = System.currentTimeMillis();
+        if (!store.tryAdd(accountId, now, cents, maxAmount, limit.getMaxCount())) {
+            throw new VelocityLimitExceededException("The " + operation + " limit for account " + accountId
+                    + " is exceeded", toSeconds(store.millisUntilAllowed(accountId, now, cents, maxAmount,
+                    limit.getMaxCount())));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        store.remove(accountId, now, System.currentTimeMillis(), cents);
+                    }
+                }
+            });
+        }
+    }
+
+    private static SlidingWindowStore createStore(VelocityProperties.Limit limit, VelocityProperties properties) {
+        return new SlidingWindowStore(limit.getWindow().toMillis(), limit.getBuckets(), properties.getStripes(),
+                properties.getMaxEntries());
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.CEILING).longValue();
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardTransactions;
+
+import java.sql.Timestamp;
+
+/**
+ * Класс VelocityLimiterInitializer восстанавливает окна лимитов {@link VelocityLimiter} при запуске приложения.
+ * Снятия и исходящие переводы за последнее окно читаются из базы данных каждого шарда потоком по индексу
+ * на времени транзакции, без загрузки сущностей. Затем из окон исключаются межшардовые переводы, средства которых
+ * возвращены отправителю, так же как это делает {@link VelocityLimiter#releaseTransfer} после возврата.
+ */
+@Component
+public class VelocityLimiterInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(VelocityLimiterInitializer.class);
+    private static final int FETCH_SIZE = 10_000;
+
+    private final VelocityLimiter velocityLimiter;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final ShardTransactions shardTransactions;
+
+    public VelocityLimiterInitializer(VelocityLimiter velocityLimiter, JdbcTemplate jdbcTemplate,
+                                      ShardRouter shardRouter, ShardTransactions shardTransactions) {
+        this.velocityLimiter = velocityLimiter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.shardTransactions = shardTransactions;
+    }
+
+    /**
+     * Учитывает в окнах лимитов все снятия и исходящие переводы, выполненные за наибольшее из окон, кроме отмененных
+     * переводов.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!velocityLimiter.isEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Timestamp since = new Timestamp(now - velocityLimiter.longestWindowMillis());
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(FETCH_SIZE);
+        long[] transactions = new long[1];
+        long[] reversals = new long[1];
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            shardTransactions.onShard(shard, () -> {
+                streaming.query("SELECT account_id, type, amount, timestamp FROM transaction "
+                                + "WHERE timestamp >= ? AND type IN (?, ?)",
+                        rs -> {
+                            velocityLimiter.record(rs.getLong(1), TransactionType.fromCode(rs.getInt(2)),
+                                    rs.getBigDecimal(3), rs.getTimestamp(4).getTime(), now);
+                            transactions[0]++;
+                        },
+                        since, TransactionType.WITHDRAW.getCode(), TransactionType.TRANSFER_OUT.getCode());
+                // Перевод исключается со временем, с которым он был учтен при выполнении
+                streaming.query("SELECT from_account_id, amount, created_at FROM transfer_saga "
+                                + "WHERE status = ? AND created_at >= ?",
+                        rs -> {
+                            velocityLimiter.releaseTransfer(rs.getLong(1), rs.getBigDecimal(2),
+                                    rs.getTimestamp(3).getTime());
+                            reversals[0]++;
+                        },
+                        TransferSaga.Status.COMPENSATED.name(), since);
+                return null;
+            });
+        }
+        logger.info("Restored velocity limits from {} recent transactions and {} reversed transfers",
+                transactions[0], reversals[0]);
+    }
+}
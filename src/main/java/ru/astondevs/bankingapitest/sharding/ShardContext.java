@@ -0,0 +1,55 @@
+package ru.astondevs.bankingapitest.sharding;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Класс ShardContext хранит номер шарда, к базе данных которого обращается текущий поток.
+ * Номер читается {@link ShardRoutingDataSource} при получении соединения, поэтому он должен быть задан
+ * до начала транзакции и не может меняться внутри нее.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Выполняет действие с соединениями указанного шарда и восстанавливает прежний шард после него.
+     *
+     * @param shard  номер шарда
+     * @param action действие
+     * @return результат действия
+     * @throws IllegalStateException если внутри транзакции запрошен другой шард: соединение транзакции
+     *                               уже получено, и запросы незаметно ушли бы не в тот шард
+     */
+    public static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = CURRENT_SHARD.get();
+        int active = previous == null ? 0 : previous;
+        if (active != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(
+                    "Cannot switch from shard " + active + " to shard " + shard + " inside a transaction");
+        }
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Возвращает номер шарда текущего потока.
+     *
+     * @return номер шарда или null, если шард не задан
+     */
+    public static Integer current() {
+        return CURRENT_SHARD.get();
+    }
+}
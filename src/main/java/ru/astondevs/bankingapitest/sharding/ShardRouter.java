@@ -0,0 +1,72 @@
+package ru.astondevs.bankingapitest.sharding;
+
+import org.springframework.stereotype.Component;
+import ru.astondevs.bankingapitest.config.ShardingProperties;
+
+/**
+ * Класс ShardRouter определяет шард, в котором хранится счет.
+ * <p>
+ * Каждому шарду выделен свой диапазон идентификаторов счетов, поэтому шард существующего счета вычисляется
+ * по идентификатору без обращения к базе данных. Шард нового счета выбирается по хешу его номера, что равномерно
+ * распределяет счета между шардами. Без включенного разделения все счета находятся в шарде 0.
+ */
+@Component
+public class ShardRouter {
+
+    private final int shardCount;
+    private final long accountIdRange;
+
+    public ShardRouter(ShardingProperties properties) {
+        if (properties.isEnabled() && properties.getShards().isEmpty()) {
+            throw new IllegalStateException("banking.sharding.shards must not be empty when sharding is enabled");
+        }
+        if (properties.getAccountIdRange() <= 0) {
+            throw new IllegalStateException("banking.sharding.account-id-range must be positive");
+        }
+        this.shardCount = properties.isEnabled() ? properties.getShards().size() : 1;
+        this.accountIdRange = properties.getAccountIdRange();
+    }
+
+    /**
+     * Возвращает шард счета с указанным идентификатором. Идентификаторы вне диапазонов шардов направляются
+     * в шард 0, где такого счета заведомо нет.
+     *
+     * @param accountId идентификатор счета
+     * @return номер шарда
+     */
+    public int shardForAccountId(Long accountId) {
+        if (shardCount == 1 || accountId == null || accountId < 1) {
+            return 0;
+        }
+        long shard = (accountId - 1) / accountIdRange;
+        return shard < shardCount ? (int) shard : 0;
+    }
+
+    /**
+     * Возвращает шард, в котором будет создан счет с указанным номером.
+     *
+     * @param accountNumber номер нового счета
+     * @return номер шарда
+     */
+    public int shardForNewAccount(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), shardCount);
+    }
+
+    /**
+     * Возвращает первый идентификатор счета, выделенный шарду.
+     *
+     * @param shard номер шарда
+     * @return первый идентификатор диапазона шарда
+     */
+    public long firstAccountId(int shard) {
+        return shard * accountIdRange + 1;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+}
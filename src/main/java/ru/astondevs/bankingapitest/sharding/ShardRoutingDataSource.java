@@ -0,0 +1,60 @@
+package ru.astondevs.bankingapitest.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Класс ShardRoutingDataSource выдает соединения с базой данных шарда, заданного в {@link ShardContext}.
+ * Если шард не задан, используется шард 0: в нем хранятся таблицы фоновых задач и счета пакетного импорта.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Возвращает базу данных шарда.
+     *
+     * @param shard номер шарда
+     * @return база данных шарда
+     */
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    /**
+     * Закрывает пулы соединений шардов при остановке приложения.
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
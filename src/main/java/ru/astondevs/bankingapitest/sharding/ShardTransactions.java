@@ -0,0 +1,50 @@
+package ru.astondevs.bankingapitest.sharding;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.metrics.RequestTiming;
+
+import java.util.function.Supplier;
+
+/**
+ * Класс ShardTransactions выполняет обращения к базе данных в шарде счета.
+ * Шард выбирается до начала транзакции, потому что транзакция получает соединение с базой данных при старте.
+ * Транзакция охватывает только один шард; операции над несколькими шардами выполняются последовательностью
+ * отдельных транзакций.
+ */
+@Component
+public class ShardTransactions {
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ShardTransactions(TransactionTemplate transactionTemplate) {
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Выполняет действие в транзакции базы данных шарда. Фиксация транзакции замеряется как этап
+     * {@link RequestTiming.Phase#COMMIT} текущего HTTP-запроса.
+     *
+     * @param shard  номер шарда
+     * @param action действие
+     * @return результат действия
+     */
+    public <T> T inTransaction(int shard, Supplier<T> action) {
+        return ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> {
+            RequestTiming.timeCommit();
+            return action.get();
+        }));
+    }
+
+    /**
+     * Выполняет действие с базой данных шарда без общей транзакции: каждое обращение к репозиторию
+     * выполняется в своей транзакции.
+     *
+     * @param shard  номер шарда
+     * @param action действие
+     * @return результат действия
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        return ShardContext.callOn(shard, action);
+    }
+}
@@ -0,0 +1 @@
+CREATE INDEX ix_account_beneficiary_name ON account (beneficiary_name);
@@ -0,0 +1,26 @@
+-- Тип транзакции хранится кодом перечисления TransactionType вместо строки
+ALTER TABLE transaction ADD COLUMN type_code SMALLINT;
+
+UPDATE transaction
+SET type_code = CASE type
+                    WHEN 'deposit' THEN 1
+                    WHEN 'withdraw' THEN 2
+                    WHEN 'transfer out' THEN 3
+                    WHEN 'transfer in' THEN 4
+                    WHEN 'transfer reversal' THEN 5
+                    WHEN 'interest' THEN 6
+                    WHEN 'fee' THEN 7
+    END;
+
+ALTER TABLE transaction ALTER COLUMN type_code SET NOT NULL;
+ALTER TABLE transaction DROP COLUMN type;
+ALTER TABLE transaction ALTER COLUMN type_code RENAME TO type;
+
+-- Счет другой стороны перевода. Для переводов, проведенных до миграции, он неизвестен и остается пустым.
+-- Счет может находиться в другом шарде, поэтому внешнего ключа нет.
+ALTER TABLE transaction ADD COLUMN counterparty_account_id BIGINT;
+
+-- Поиск по истории счета: по контрагенту (и типу), например, все входящие переводы со счета Y,
+-- и по типу (и диапазону сумм)
+CREATE INDEX ix_transaction_account_counterparty_type ON transaction (account_id, counterparty_account_id, type);
+CREATE INDEX ix_transaction_account_type_amount ON transaction (account_id, type, amount);
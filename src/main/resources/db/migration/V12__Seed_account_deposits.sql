@@ -0,0 +1,9 @@
+-- Начальные балансы счетов из V2 не подтверждены транзакциями. Добавляем для них пополнение, чтобы баланс
+-- каждого из этих счетов совпадал с суммой его транзакций. Другие счета без транзакций не изменяются:
+-- сверка сообщает о них как о расхождениях.
+INSERT INTO transaction (account_id, type, amount, timestamp)
+SELECT a.id, 1, a.balance, CURRENT_TIMESTAMP
+FROM account a
+WHERE a.account_number IN ('Account1', 'Account2', 'Account3', 'Account4', 'Account5', 'Account6')
+  AND a.balance <> 0
+  AND NOT EXISTS (SELECT 1 FROM transaction t WHERE t.account_id = a.id);
@@ -0,0 +1 @@
+CREATE UNIQUE INDEX ux_account_account_number ON account (account_number);
@@ -0,0 +1,36 @@
+CREATE TABLE reconciliation_run
+(
+    id              VARCHAR(36) PRIMARY KEY,
+    status          VARCHAR(16) NOT NULL,
+    started_at      TIMESTAMP   NOT NULL,
+    finished_at     TIMESTAMP,
+    min_account_id  BIGINT      NOT NULL,
+    max_account_id  BIGINT      NOT NULL,
+    chunk_size      BIGINT      NOT NULL,
+    chunk_count     INT         NOT NULL,
+    failure_message VARCHAR(1024)
+);
+
+-- Контрольная точка: строка появляется в одной транзакции с расхождениями диапазона,
+-- поэтому продолжение сверки пропускает ровно те диапазоны, результаты которых сохранены.
+CREATE TABLE reconciliation_chunk
+(
+    run_id               VARCHAR(36) NOT NULL,
+    chunk_index          INT         NOT NULL,
+    accounts_checked     BIGINT      NOT NULL,
+    transactions_scanned BIGINT      NOT NULL,
+    discrepancy_count    BIGINT      NOT NULL,
+    completed_at         TIMESTAMP   NOT NULL,
+    PRIMARY KEY (run_id, chunk_index),
+    FOREIGN KEY (run_id) REFERENCES reconciliation_run (id)
+);
+
+CREATE TABLE reconciliation_discrepancy
+(
+    run_id         VARCHAR(36)    NOT NULL,
+    account_id     BIGINT         NOT NULL,
+    balance        DECIMAL(19, 2) NOT NULL,
+    ledger_balance DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (run_id, account_id),
+    FOREIGN KEY (run_id) REFERENCES reconciliation_run (id)
+);
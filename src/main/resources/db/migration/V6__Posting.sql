@@ -0,0 +1,30 @@
+CREATE TABLE posting_run
+(
+    id              VARCHAR(64)    PRIMARY KEY,
+    type            VARCHAR(16)    NOT NULL,
+    rate            DECIMAL(9, 6),
+    amount          DECIMAL(19, 2),
+    status          VARCHAR(16)    NOT NULL,
+    posted_at       TIMESTAMP      NOT NULL,
+    resumed_at      TIMESTAMP      NOT NULL,
+    finished_at     TIMESTAMP,
+    min_account_id  BIGINT         NOT NULL,
+    max_account_id  BIGINT         NOT NULL,
+    chunk_size      BIGINT         NOT NULL,
+    chunk_count     INT            NOT NULL,
+    failure_message VARCHAR(1024)
+);
+
+-- Строка участка вставляется в той же транзакции, что и проводки по его счетам.
+-- Первичный ключ не позволяет провести один участок дважды.
+CREATE TABLE posting_chunk
+(
+    run_id             VARCHAR(64)    NOT NULL,
+    chunk_index        INT            NOT NULL,
+    accounts_processed BIGINT         NOT NULL,
+    accounts_posted    BIGINT         NOT NULL,
+    total_amount       DECIMAL(19, 2) NOT NULL,
+    completed_at       TIMESTAMP      NOT NULL,
+    PRIMARY KEY (run_id, chunk_index),
+    FOREIGN KEY (run_id) REFERENCES posting_run (id)
+);
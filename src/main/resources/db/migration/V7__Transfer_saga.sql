@@ -0,0 +1,25 @@
+-- Перевод между счетами разных шардов. Строка создается в шарде отправителя в одной транзакции со списанием
+-- и хранит состояние перевода, пока средства не зачислены получателю или не возвращены отправителю.
+CREATE TABLE transfer_saga
+(
+    id              VARCHAR(36)    PRIMARY KEY,
+    from_account_id BIGINT         NOT NULL,
+    to_account_id   BIGINT         NOT NULL,
+    amount          DECIMAL(19, 2) NOT NULL,
+    status          VARCHAR(16)    NOT NULL,
+    created_at      TIMESTAMP      NOT NULL,
+    updated_at      TIMESTAMP      NOT NULL,
+    failure_message VARCHAR(1024)
+);
+
+CREATE INDEX transfer_saga_status_idx ON transfer_saga (status, updated_at);
+
+-- Исход перевода в шарде получателя: CREDITED вставляется в одной транзакции с зачислением, CANCELLED - перед
+-- возвратом средств отправителю. Первичный ключ допускает только один исход, поэтому средства не могут быть
+-- одновременно зачислены и возвращены.
+CREATE TABLE transfer_saga_outcome
+(
+    saga_id    VARCHAR(36) PRIMARY KEY,
+    outcome    VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP   NOT NULL
+);
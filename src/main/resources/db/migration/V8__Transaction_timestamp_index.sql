@@ -0,0 +1 @@
+CREATE INDEX ix_transaction_timestamp ON transaction (timestamp);
@@ -0,0 +1,21 @@
+-- Баланс счета по журналу транзакций на момент checkpoint_at: сумма всех транзакций счета со временем
+-- не позже checkpoint_at. Баланс на произвольный момент вычисляется от ближайшей более ранней контрольной точки.
+CREATE TABLE balance_checkpoint
+(
+    account_id    BIGINT         NOT NULL,
+    checkpoint_at TIMESTAMP      NOT NULL,
+    balance       DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (account_id, checkpoint_at),
+    FOREIGN KEY (account_id) REFERENCES account (id)
+);
+
+-- Единственная строка с ходом построения контрольных точек: транзакции со временем не позже checkpointed_until
+-- учтены, а транзакции с идентификатором больше last_transaction_id могли быть вставлены задним числом.
+CREATE TABLE balance_checkpoint_progress
+(
+    id                  INT PRIMARY KEY,
+    checkpointed_until  TIMESTAMP NOT NULL,
+    last_transaction_id BIGINT    NOT NULL
+);
+
+CREATE INDEX ix_transaction_account_timestamp ON transaction (account_id, timestamp);
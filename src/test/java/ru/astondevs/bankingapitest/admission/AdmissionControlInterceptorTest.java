@@ -0,0 +1,97 @@
+package ru.astondevs.bankingapitest.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.astondevs.bankingapitest.config.AdmissionControlProperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionControlInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        AdmissionControlProperties properties = new AdmissionControlProperties();
+        properties.setRetryAfterSeconds(2);
+        properties.setReads(new AdmissionControlProperties.Limit(2, 1, 10));
+        properties.setWrites(new AdmissionControlProperties.Limit(1, 1, 10));
+        properties.setImports(new AdmissionControlProperties.Limit(1, 1, 1));
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new AdmissionControlInterceptor(properties, meterRegistry);
+    }
+
+    @Test
+    void testWriteRejectedWhenSaturated() throws Exception {
+        MockHttpServletRequest first = new MockHttpServletRequest("POST", "/api/accounts/1/transfer");
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(first, firstResponse, new Object()));
+
+        // Второй изменяющий запрос превышает ограничение и отклоняется сразу
+        MockHttpServletRequest second = new MockHttpServletRequest("POST", "/api/accounts/1/deposit");
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(second, secondResponse, new Object()));
+        assertEquals(503, secondResponse.getStatus());
+        assertEquals("2", secondResponse.getHeader("Retry-After"));
+
+        // Ограничение для чтения не зависит от изменяющих запросов
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/accounts/1");
+        assertTrue(interceptor.preHandle(read, new MockHttpServletResponse(), new Object()));
+
+        assertEquals(1, meterRegistry.get("banking.admission.rejected").tag("class", "write")
+                .functionCounter().count());
+        assertEquals(0, meterRegistry.get("banking.admission.rejected").tag("class", "read")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testImportsHaveSeparateLimit() throws Exception {
+        MockHttpServletRequest csvImport = new MockHttpServletRequest("POST", "/api/accounts/import");
+        assertTrue(interceptor.preHandle(csvImport, new MockHttpServletResponse(), new Object()));
+
+        // Выполняющийся импорт не занимает место переводов
+        MockHttpServletRequest transfer = new MockHttpServletRequest("POST", "/api/accounts/1/transfer");
+        assertTrue(interceptor.preHandle(transfer, new MockHttpServletResponse(), new Object()));
+
+        // Второй импорт превышает собственное ограничение импорта
+        MockHttpServletRequest bulk = new MockHttpServletRequest("POST", "/api/accounts/bulk");
+        MockHttpServletResponse bulkResponse = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(bulk, bulkResponse, new Object()));
+        assertEquals(503, bulkResponse.getStatus());
+
+        assertEquals(1, meterRegistry.get("banking.admission.inflight").tag("class", "import").gauge().value());
+        assertEquals(1, meterRegistry.get("banking.admission.inflight").tag("class", "write").gauge().value());
+        assertEquals(0, meterRegistry.get("banking.admission.rejected").tag("class", "write")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testPermitReleasedAfterCompletion() throws Exception {
+        MockHttpServletRequest first = new MockHttpServletRequest("POST", "/api/accounts/1/withdraw");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(first, response, new Object()));
+        assertEquals(1, meterRegistry.get("banking.admission.inflight").tag("class", "write").gauge().value());
+
+        interceptor.afterCompletion(first, response, new Object(), null);
+
+        assertEquals(0, meterRegistry.get("banking.admission.inflight").tag("class", "write").gauge().value());
+        MockHttpServletRequest next = new MockHttpServletRequest("POST", "/api/accounts/1/withdraw");
+        assertTrue(interceptor.preHandle(next, new MockHttpServletResponse(), new Object()));
+    }
+
+    @Test
+    void testAsyncDispatchReusesPermit() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/accounts/1/transfer");
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+
+        // Повторный вызов для того же запроса не занимает второе место
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+        assertEquals(1, meterRegistry.get("banking.admission.inflight").tag("class", "write").gauge().value());
+    }
+}
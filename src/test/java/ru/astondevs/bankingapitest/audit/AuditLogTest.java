@@ -0,0 +1,149 @@
+package ru.astondevs.bankingapitest.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.astondevs.bankingapitest.config.AuditProperties;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEventsAreWrittenAndRead() throws Exception {
+        AuditLog auditLog = start(properties());
+        auditLog.record(AuditEventType.DEPOSIT, 1L, null, new BigDecimal("100.50"));
+        auditLog.record(AuditEventType.TRANSFER, 1L, 2L, new BigDecimal("25"));
+        auditLog.stop();
+
+        List<AuditEvent> events = new ArrayList<>();
+        AuditLogReader.Result result = AuditLogReader.read(directory, events::add, problem -> { });
+
+        assertTrue(result.isIntact());
+        assertEquals(2, events.size());
+        assertEquals(0, events.get(0).sequence());
+        assertEquals(AuditEventType.DEPOSIT, events.get(0).type());
+        assertNull(events.get(0).counterpartyAccountId());
+        assertEquals(new BigDecimal("100.50"), events.get(0).amount());
+        assertEquals(2L, events.get(1).counterpartyAccountId());
+        assertEquals(new BigDecimal("25.00"), events.get(1).amount());
+        assertTrue(events.get(1).toJson().contains("\"type\":\"TRANSFER\""));
+    }
+
+    @Test
+    void testConcurrentWritersWithRotationAndRestart() throws Exception {
+        AuditProperties properties = properties();
+        properties.setBufferSize(64);
+        properties.setMaxFileSize(DataSize.ofKilobytes(16));
+        AuditLog auditLog = start(properties);
+
+        // Буфер намного меньше числа событий: при политике BLOCK потоки ждут записи, но ничего не теряется
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            long accountId = thread + 1;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2500; i++) {
+                    auditLog.record(AuditEventType.WITHDRAWAL, accountId, null, BigDecimal.ONE);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        auditLog.stop();
+
+        // После перезапуска нумерация продолжается в новом файле
+        AuditLog restarted = start(properties);
+        restarted.record(AuditEventType.DEPOSIT, 5L, null, BigDecimal.TEN);
+        restarted.stop();
+
+        List<AuditEvent> events = new ArrayList<>();
+        AuditLogReader.Result result = AuditLogReader.read(directory, events::add, problem -> { });
+        assertTrue(result.isIntact());
+        assertEquals(10_001, events.size());
+        assertEquals(10_000, events.get(10_000).sequence());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.filter(AuditLogFormat::isLogFile).count() > 2);
+        }
+    }
+
+    @Test
+    void testCorruptedRecordIsReported() throws Exception {
+        AuditLog auditLog = start(properties());
+        for (int i = 0; i < 3; i++) {
+            auditLog.record(AuditEventType.DEPOSIT, 1L, null, BigDecimal.ONE);
+        }
+        auditLog.stop();
+
+        Path file;
+        try (Stream<Path> files = Files.list(directory)) {
+            file = files.filter(AuditLogFormat::isLogFile).findFirst().orElseThrow();
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // Портим сумму второй записи и дописываем половину записи, как при аварийной остановке
+            long position = AuditLogFormat.HEADER_SIZE + AuditLogFormat.RECORD_SIZE + 40;
+            raf.seek(position);
+            raf.write(raf.read() ^ 0xFF);
+            raf.seek(raf.length());
+            raf.write(new byte[AuditLogFormat.RECORD_SIZE / 2]);
+        }
+
+        List<String> problems = new ArrayList<>();
+        AuditLogReader.Result result = AuditLogReader.read(directory, event -> { }, problems::add);
+
+        assertFalse(result.isIntact());
+        assertEquals(2, result.events());
+        assertEquals(2, result.corruptRecords());
+        assertEquals(1, result.missingEvents());
+        assertEquals(3, problems.size());
+    }
+
+    @Test
+    void testDropPolicy() throws Exception {
+        AuditProperties properties = properties();
+        properties.setBufferSize(2);
+        properties.setOverflowPolicy(AuditProperties.OverflowPolicy.DROP);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Поток записи не запущен, поэтому буфер не освобождается
+        AuditLog auditLog = new AuditLog(properties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            auditLog.record(AuditEventType.DEPOSIT, 1L, null, BigDecimal.ONE);
+        }
+
+        assertEquals(3, meterRegistry.get("banking.audit.events").tag("result", "dropped").counter().count());
+        assertEquals(2, auditLog.getBacklog());
+    }
+
+    private AuditProperties properties() {
+        AuditProperties properties = new AuditProperties();
+        properties.setDirectory(directory.toString());
+        return properties;
+    }
+
+    private static AuditLog start(AuditProperties properties) throws Exception {
+        AuditLog auditLog = new AuditLog(properties, new SimpleMeterRegistry());
+        auditLog.start();
+        return auditLog;
+    }
+}
@@ -0,0 +1,272 @@
+package ru.astondevs.bankingapitest.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.astondevs.bankingapitest.exception.InsufficientBalanceException;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.service.AccountService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Длительный тест конкурентных операций со счетами на настоящем слое хранения: JPA, кэше второго уровня и базе H2.
+ * <p>
+ * Запускается профилем {@code soak}: {@code mvn -Psoak verify}. Несколько потоков в течение заданного времени
+ * выполняют случайные пополнения, снятия и переводы по небольшому набору счетов. Часть переводов идет в обе
+ * стороны между одной парой счетов, чтобы встречные транзакции блокировали строки в разном порядке. Операция,
+ * отклоненная из-за одновременного изменения счета или блокировки, повторяется, как это сделал бы клиент.
+ * <p>
+ * Проверяется, что ни одно изменение не потеряно (баланс каждого счета равен ожидаемому по успешным операциям
+ * и сумме его транзакций), балансы никогда не становятся отрицательными, а общая сумма на счетах меняется только
+ * на сумму пополнений и снятий. В конце выводятся устойчивая пропускная способность и количество повторов.
+ * <p>
+ * Параметры: {@code -Dsoak.accounts}, {@code -Dsoak.threads}, {@code -Dsoak.durationSeconds},
+ * {@code -Dsoak.pairShare} (доля переводов между парой счетов в процентах).
+ * Ограничение неудачных попыток ввода PIN-кода включено, как в рабочей конфигурации.
+ */
+@SpringBootTest(properties = {"banking.grpc.enabled=false", "banking.audit.directory=target/audit/soak",
+        "banking.velocity.enabled=false",
+        // Каждый конфликт записи иначе попадает в журнал как ошибка SQL
+        "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF"})
+class AccountServiceSoakIT {
+
+    private static final int ACCOUNTS = Integer.getInteger("soak.accounts", 20);
+    private static final int THREADS = Integer.getInteger("soak.threads", 8);
+    private static final long DURATION_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("soak.durationSeconds", 60));
+    private static final int PAIR_SHARE = Integer.getInteger("soak.pairShare", 30);
+    private static final String PIN = "1234";
+    // Все потоки работают от имени одного клиента с включенным ограничением попыток ввода PIN-кода:
+    // запросы с верным PIN-кодом не должны получать отказ, сколько бы их ни было
+    private static final String CLIENT_ID = "10.0.0.1";
+    private static final long INITIAL_CENTS = 100_000;
+    private static final int MAX_ATTEMPTS = 100;
+    private static final int[] PAIR = {0, 1};
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountServiceSoakIT.class);
+    private static final String LEDGER_SQL = "SELECT a.id, a.balance, (SELECT COALESCE(SUM(CASE "
+            + "WHEN t.type IN (" + typeCodes(true) + ") THEN t.amount "
+            + "WHEN t.type IN (" + typeCodes(false) + ") THEN -t.amount END), 0) "
+            + "FROM transaction t WHERE t.account_id = a.id) FROM account a WHERE a.id IN (%s)";
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LongAdder deposits = new LongAdder();
+    private final LongAdder withdrawals = new LongAdder();
+    private final LongAdder transfers = new LongAdder();
+    private final LongAdder insufficientBalance = new LongAdder();
+    private final LongAdder optimisticRetries = new LongAdder();
+    private final LongAdder lockRetries = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder negativeObservations = new LongAdder();
+    private final LongAdder netDepositCents = new LongAdder();
+    private final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+
+    private long[] accountIds;
+    private AtomicLongArray expectedCents;
+
+    @Test
+    void testConcurrentOperationsConserveMoney() throws Exception {
+        accountIds = new long[ACCOUNTS];
+        expectedCents = new AtomicLongArray(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = accountService.createAccount("Soak " + i, PIN).getId();
+            accountService.deposit(accountIds[i], BigDecimal.valueOf(INITIAL_CENTS, 2));
+            expectedCents.set(i, INITIAL_CENTS);
+        }
+        long initialTotal = totalCents();
+
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(workers.submit(() -> work(deadline)));
+        }
+
+        // Раз в секунду фиксируется число завершенных операций и проверяется, что балансы неотрицательны
+        List<Long> perSecond = new ArrayList<>();
+        long previous = 0;
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(1000);
+            long completed = completedOperations();
+            perSecond.add(completed - previous);
+            previous = completed;
+            Integer negative = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM account WHERE balance < 0",
+                    Integer.class);
+            if (negative != null && negative > 0) {
+                negativeObservations.add(negative);
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        workers.shutdown();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        report(seconds, perSecond);
+
+        assertTrue(failures.isEmpty(), () -> "Unexpected failures: " + failures);
+        assertEquals(0, negativeObservations.sum(), "Negative balances observed during the run");
+        assertTrue(completedOperations() > 0, "No operations completed");
+
+        // Ни одно изменение не потеряно: баланс равен ожидаемому и сумме транзакций счета
+        Map<Long, long[]> ledger = ledger();
+        long expectedTotal = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            long[] row = ledger.get(accountIds[i]);
+            assertEquals(expectedCents.get(i), row[0], "Balance of account " + accountIds[i]);
+            assertEquals(row[0], row[1], "Ledger of account " + accountIds[i]);
+            assertTrue(row[0] >= 0, "Negative balance of account " + accountIds[i]);
+            expectedTotal += expectedCents.get(i);
+        }
+        // Переводы не меняют общую сумму, пополнения и снятия меняют ее ровно на свою сумму
+        assertEquals(expectedTotal, totalCents());
+        assertEquals(initialTotal + netDepositCents.sum(), totalCents());
+    }
+
+    private void work(long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline && failures.isEmpty()) {
+            long cents = random.nextLong(1, 10_000);
+            BigDecimal amount = BigDecimal.valueOf(cents, 2);
+            int operation = random.nextInt(100);
+            try {
+                if (operation < 20) {
+                    int account = random.nextInt(ACCOUNTS);
+                    if (attempt(() -> accountService.deposit(accountIds[account], amount)) != null) {
+                        expectedCents.addAndGet(account, cents);
+                        netDepositCents.add(cents);
+                        deposits.increment();
+                    }
+                } else if (operation < 40) {
+                    int account = random.nextInt(ACCOUNTS);
+                    if (attempt(() -> accountService.withdraw(accountIds[account], PIN, amount, CLIENT_ID)) != null) {
+                        expectedCents.addAndGet(account, -cents);
+                        netDepositCents.add(-cents);
+                        withdrawals.increment();
+                    }
+                } else {
+                    int from;
+                    int to;
+                    if (random.nextInt(100) < PAIR_SHARE) {
+                        // Встречные переводы между одной парой счетов
+                        boolean forward = random.nextBoolean();
+                        from = PAIR[forward ? 0 : 1];
+                        to = PAIR[forward ? 1 : 0];
+                    } else {
+                        from = random.nextInt(ACCOUNTS);
+                        to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    }
+                    if (attempt(() -> accountService.transfer(accountIds[from], PIN, amount, accountIds[to], CLIENT_ID)) != null) {
+                        expectedCents.addAndGet(from, -cents);
+                        expectedCents.addAndGet(to, cents);
+                        transfers.increment();
+                    }
+                }
+            } catch (InsufficientBalanceException e) {
+                insufficientBalance.increment();
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        }
+    }
+
+    /**
+     * Выполняет операцию, повторяя ее после отказа из-за одновременного изменения счета или блокировки.
+     *
+     * @return счет после операции или null, если все попытки отклонены
+     */
+    private Account attempt(Supplier<Account> operation) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try {
+                Account account = operation.get();
+                if (account.getBalance().signum() < 0) {
+                    negativeObservations.increment();
+                }
+                return account;
+            } catch (OptimisticLockingFailureException e) {
+                optimisticRetries.increment();
+            } catch (PessimisticLockingFailureException e) {
+                // Взаимная блокировка или истечение времени ожидания блокировки строки
+                lockRetries.increment();
+            }
+        }
+        abandoned.increment();
+        return null;
+    }
+
+    private long completedOperations() {
+        return deposits.sum() + withdrawals.sum() + transfers.sum() + insufficientBalance.sum();
+    }
+
+    private void report(double seconds, List<Long> perSecond) {
+        long[] rates = perSecond.stream().mapToLong(Long::longValue).sorted().toArray();
+        long completed = completedOperations();
+        logger.info("Soak: {} threads, {} accounts, {} s", THREADS, ACCOUNTS, String.format("%.1f", seconds));
+        logger.info("  operations: {} (deposits {}, withdrawals {}, transfers {}, insufficient balance {})",
+                completed, deposits.sum(), withdrawals.sum(), transfers.sum(), insufficientBalance.sum());
+        logger.info("  throughput: {} ops/s average, per-second min {}, p50 {}, max {}",
+                String.format("%.0f", completed / seconds), rates.length > 0 ? rates[0] : 0,
+                rates.length > 0 ? rates[rates.length / 2] : 0, rates.length > 0 ? rates[rates.length - 1] : 0);
+        logger.info("  retries: {} optimistic lock conflicts, {} deadlocks or lock timeouts, {} abandoned",
+                optimisticRetries.sum(), lockRetries.sum(), abandoned.sum());
+    }
+
+    private long totalCents() {
+        BigDecimal total = jdbcTemplate.queryForObject(String.format(
+                "SELECT COALESCE(SUM(balance), 0) FROM account WHERE id IN (%s)", idList()), BigDecimal.class);
+        return total.movePointRight(2).longValueExact();
+    }
+
+    private Map<Long, long[]> ledger() {
+        Map<Long, long[]> ledger = new HashMap<>();
+        jdbcTemplate.query(String.format(LEDGER_SQL, idList()), rs -> {
+            ledger.put(rs.getLong(1), new long[]{rs.getBigDecimal(2).movePointRight(2).longValueExact(),
+                    rs.getBigDecimal(3).movePointRight(2).longValueExact()});
+        });
+        return ledger;
+    }
+
+    /**
+     * Возвращает через запятую коды типов транзакций, увеличивающих (credit) или уменьшающих баланс.
+     */
+    private static String typeCodes(boolean credit) {
+        return Arrays.stream(TransactionType.values())
+                .filter(type -> type.isCredit() == credit)
+                .map(type -> String.valueOf(type.getCode()))
+                .collect(Collectors.joining(", "));
+    }
+
+    private String idList() {
+        return String.join(",", Arrays.stream(accountIds).mapToObj(Long::toString).toList());
+    }
+}
@@ -0,0 +1,137 @@
+package ru.astondevs.bankingapitest.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.astondevs.bankingapitest.admission.AdaptiveConcurrencyLimiter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный тест ограничения числа одновременных запросов.
+ * <p>
+ * Сервер моделируется ресурсом с фиксированной пропускной способностью: {@code CAPACITY} «соединений»
+ * и {@code SERVICE_TIME_MILLIS} на запрос. Число клиентов в несколько раз больше, чем сервер успевает
+ * обслуживать, то есть система работает за точкой насыщения. Без ограничения все запросы встают в очередь,
+ * и время ответа растет пропорционально числу клиентов. С ограничением лишние запросы сразу получают отказ,
+ * а время ответа принятых запросов остается близким ко времени обслуживания.
+ * Время ответа учитывается после разогрева, за который ограничение успевает подстроиться под сервер.
+ * <p>
+ * Тест зависит от времени и длится несколько секунд, поэтому запускается вместе с {@link AccountServiceSoakIT}
+ * профилем {@code soak}: {@code mvn -Psoak verify}.
+ */
+class AdmissionControlLoadIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlLoadIT.class);
+
+    private static final int CAPACITY = 4;
+    private static final int SERVICE_TIME_MILLIS = 10;
+    private static final int CLIENTS = 64;
+    private static final long WARM_UP_MILLIS = 500;
+    private static final long DURATION_MILLIS = 2500;
+
+    @Test
+    void testLatencyStaysBoundedPastSaturation() throws Exception {
+        Result unlimited = run(null);
+        Result limited = run(new AdaptiveConcurrencyLimiter(20, 1, 200));
+
+        logger.info("Unlimited: {} completed, p50={} ms, p99={} ms",
+                unlimited.completed(), unlimited.percentile(50), unlimited.percentile(99));
+        logger.info("Limited:   {} completed, {} rejected, p50={} ms, p99={} ms, final limit={}",
+                limited.completed(), limited.rejected, limited.percentile(50), limited.percentile(99),
+                limited.finalLimit);
+
+        // Без ограничения запросы ждут в очереди за остальными клиентами
+        assertTrue(unlimited.percentile(50) >= (long) CLIENTS / CAPACITY * SERVICE_TIME_MILLIS / 2);
+
+        // С ограничением лишние запросы отклоняются, а время ответа принятых остается ограниченным
+        assertTrue(limited.rejected > 0);
+        assertTrue(limited.percentile(99) < unlimited.percentile(50) / 2,
+                "limited p99 " + limited.percentile(99) + " ms, unlimited p50 " + unlimited.percentile(50) + " ms");
+
+        // Пропускная способность при этом не падает заметно
+        assertTrue(limited.completed() > unlimited.completed() / 2);
+    }
+
+    private Result run(AdaptiveConcurrencyLimiter limiter) throws InterruptedException {
+        Semaphore server = new Semaphore(CAPACITY, true);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong rejected = new AtomicLong();
+        long warmUpEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WARM_UP_MILLIS);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+
+        for (int i = 0; i < CLIENTS; i++) {
+            Thread client = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        if (limiter != null && !limiter.tryAcquire()) {
+                            if (start > warmUpEnd) {
+                                rejected.incrementAndGet();
+                            }
+                            // Клиент выдерживает паузу, как при получении Retry-After
+                            Thread.sleep(SERVICE_TIME_MILLIS);
+                            continue;
+                        }
+                        server.acquire();
+                        try {
+                            Thread.sleep(SERVICE_TIME_MILLIS);
+                        } finally {
+                            server.release();
+                        }
+                        long rtt = System.nanoTime() - start;
+                        if (limiter != null) {
+                            limiter.release(rtt, false);
+                        }
+                        if (start > warmUpEnd) {
+                            latencies.add(TimeUnit.NANOSECONDS.toMillis(rtt));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            client.setDaemon(true);
+            client.start();
+        }
+        assertTrue(done.await(DURATION_MILLIS * 5, TimeUnit.MILLISECONDS));
+        return new Result(latencies, rejected.get(), limiter == null ? 0 : limiter.getLimit());
+    }
+
+    private static final class Result {
+
+        private final List<Long> latencies;
+        private final long rejected;
+        private final int finalLimit;
+
+        Result(List<Long> latencies, long rejected, int finalLimit) {
+            this.latencies = new ArrayList<>(latencies);
+            Collections.sort(this.latencies);
+            this.rejected = rejected;
+            this.finalLimit = finalLimit;
+        }
+
+        long completed() {
+            return latencies.size();
+        }
+
+        long percentile(int percentile) {
+            if (latencies.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latencies.size()) - 1;
+            return latencies.get(Math.max(0, index));
+        }
+    }
+}
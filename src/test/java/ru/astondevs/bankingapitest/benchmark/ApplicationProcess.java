@@ -0,0 +1,175 @@
+package ru.astondevs.bankingapitest.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Запускает собранное приложение в отдельном процессе и измеряет время его запуска.
+ * <p>
+ * Время до готовности считается от старта процесса до первого успешного ответа на {@code GET /api/accounts/1};
+ * время первого запроса - от момента, когда порт начал принимать соединения, до этого ответа.
+ * Время запуска контекста берется из журнала Spring Boot.
+ */
+final class ApplicationProcess implements AutoCloseable {
+
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(60);
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+
+    private final Process process;
+    private final int port;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final AtomicReference<String> startedIn = new AtomicReference<>();
+    private final long readyMillis;
+    private final long firstRequestMillis;
+
+    private ApplicationProcess(List<String> launcher) throws IOException, InterruptedException {
+        this.port = freePort();
+        List<String> command = new ArrayList<>(launcher);
+        command.add("--server.port=" + port);
+        command.add("--banking.grpc.port=0");
+        command.add("--banking.pin-throttle.snapshot-file=");
+
+        long start = System.nanoTime();
+        this.process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Thread reader = new Thread(this::readLog);
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            long deadline = start + START_TIMEOUT.toNanos();
+            while (!accepts(port)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue());
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Application did not open port " + port);
+                }
+                Thread.sleep(5);
+            }
+            long requestStart = System.nanoTime();
+            HttpResponse<byte[]> response = send(request("/api/accounts/1").build());
+            long end = System.nanoTime();
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("First request failed with status " + response.statusCode());
+            }
+            this.readyMillis = TimeUnit.NANOSECONDS.toMillis(end - start);
+            this.firstRequestMillis = TimeUnit.NANOSECONDS.toMillis(end - requestStart);
+            while (startedIn.get() == null && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Запускает приложение командой JVM с указанными аргументами.
+     */
+    static ApplicationProcess java(List<String> jvmArguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArguments);
+        return new ApplicationProcess(command);
+    }
+
+    /**
+     * Запускает исполняемый файл, собранный native-image.
+     */
+    static ApplicationProcess executable(Path executable, List<String> arguments)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(executable.toString());
+        command.addAll(arguments);
+        return new ApplicationProcess(command);
+    }
+
+    HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(START_TIMEOUT);
+    }
+
+    HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    long readyMillis() {
+        return readyMillis;
+    }
+
+    long firstRequestMillis() {
+        return firstRequestMillis;
+    }
+
+    /**
+     * Возвращает время запуска контекста по журналу Spring Boot или -1, если строка в журнале не найдена.
+     */
+    long contextMillis() {
+        String seconds = startedIn.get();
+        return seconds == null ? -1 : (long) (Double.parseDouble(seconds) * 1000);
+    }
+
+    /**
+     * Возвращает объем резидентной памяти процесса (VmRSS) в килобайтах. Доступно только в Linux.
+     */
+    long rssKilobytes() throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(process.pid()), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(10, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+
+    private void readLog() {
+        try (BufferedReader log = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = log.readLine()) != null) {
+                Matcher matcher = STARTED.matcher(line);
+                if (matcher.find()) {
+                    startedIn.set(matcher.group(1));
+                }
+            }
+        } catch (IOException e) {
+            // Процесс завершен
+        }
+    }
+
+    private static boolean accepts(int port) {
+        try (Socket ignored = new Socket("localhost", port)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package ru.astondevs.bankingapitest.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.astondevs.bankingapitest.BankingApiTestApplication;
+import ru.astondevs.bankingapitest.model.TransactionType;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный тест файловой базы H2 под непрерывной нагрузкой переводами.
+ * <p>
+ * Запускается профилем {@code durable-benchmark}: {@code mvn -Pdurable-benchmark verify}.
+ * Сравниваются файловая база с настройками H2 по умолчанию и профиль Spring {@code durable}. Для каждого варианта
+ * несколько циклов подряд выполняется одно и то же: {@link TransferWorkload} в отдельном процессе переводит
+ * средства между счетами, а тест замеряет размер файла базы; по истечении заданного времени процесс аварийно
+ * завершается (SIGKILL). Затем измеряется время открытия базы после аварии и число зафиксированных, но потерянных
+ * переводов; сумма балансов после восстановления должна совпасть с суммой до нагрузки. Напоследок приложение
+ * запускается на восстановленной базе и останавливается штатно, чтобы измерить время запуска, время остановки
+ * и размер файла после нее.
+ * <p>
+ * Параметры: {@code -Dbenchmark.accounts}, {@code -Dbenchmark.threads}, {@code -Dbenchmark.durationSeconds},
+ * {@code -Dbenchmark.crashes}.
+ */
+class DurableStoreBenchmarkIT {
+
+    private static final int ACCOUNTS = Integer.getInteger("benchmark.accounts", 1000);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 4);
+    private static final long DURATION_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("benchmark.durationSeconds", 20));
+    private static final int CRASHES = Integer.getInteger("benchmark.crashes", 2);
+    private static final long START_TIMEOUT_SECONDS = 120;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSustainedTransfersWithCrashes() throws Exception {
+        Path defaultFile = directory.resolve("default").resolve("banking");
+        Path durableFile = directory.resolve("durable").resolve("banking");
+        Result defaults = run("H2 defaults", defaultFile,
+                "--spring.datasource.url=jdbc:h2:file:" + defaultFile + ";DB_CLOSE_ON_EXIT=FALSE");
+        Result durable = run("durable", durableFile,
+                "--spring.profiles.active=durable", "--banking.durable.file=" + durableFile);
+
+        System.out.printf("%-12s %12s %10s %14s %6s %11s %12s %10s %11s%n", "", "transfers/s", "peak, MB",
+                "MB/10k xfers", "lost", "reopen, ms", "restart, ms", "close, ms", "closed, MB");
+        for (Result result : List.of(defaults, durable)) {
+            System.out.printf("%-12s %12.0f %10.2f %14.3f %6d %11d %12d %10d %11.2f%n", result.name,
+                    result.transfersPerSecond(), megabytes(result.peakFileSize),
+                    megabytes(result.fileGrowth) * 10_000 / Math.max(1, result.transfers), result.lostTransfers,
+                    result.reopenMillis / CRASHES, result.restartMillis, result.closeMillis,
+                    megabytes(result.closedFileSize));
+        }
+
+        // Профиль durable сжимает файл при штатной остановке, поэтому он меньше пикового размера под нагрузкой
+        assertTrue(durable.closedFileSize < durable.peakFileSize,
+                "closed " + durable.closedFileSize + ", peak " + durable.peakFileSize);
+    }
+
+    private Result run(String name, Path file, String... arguments) throws Exception {
+        Result result = new Result(name);
+        Path storeFile = file.resolveSibling(file.getFileName() + ".mv.db");
+        Files.createDirectories(file.getParent());
+        List<String> applicationArguments = applicationArguments(arguments);
+
+        String url;
+        try (ConfigurableApplicationContext context = start(applicationArguments)) {
+            url = context.getEnvironment().getRequiredProperty("spring.datasource.url");
+        }
+        for (int crash = 0; crash < CRASHES; crash++) {
+            crashUnderLoad(applicationArguments, storeFile, url, result);
+        }
+
+        long restartStarted = System.nanoTime();
+        ConfigurableApplicationContext context = start(applicationArguments);
+        result.restartMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - restartStarted);
+        long closeStarted = System.nanoTime();
+        context.close();
+        result.closeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - closeStarted);
+        result.closedFileSize = Files.size(storeFile);
+        return result;
+    }
+
+    private static void crashUnderLoad(List<String> applicationArguments, Path storeFile, String url, Result result)
+            throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(TransferWorkload.class.getName());
+        command.add(Integer.toString(ACCOUNTS));
+        command.add(Integer.toString(THREADS));
+        command.addAll(applicationArguments);
+        Path log = storeFile.resolveSibling("workload.log");
+        Process process = new ProcessBuilder(command).redirectError(log.toFile()).start();
+
+        CompletableFuture<String[]> ready = new CompletableFuture<>();
+        AtomicLong committed = new AtomicLong();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader output = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = output.readLine()) != null) {
+                    if (line.startsWith("committed ")) {
+                        committed.accumulateAndGet(Long.parseLong(line.substring(10)), Math::max);
+                    } else if (line.startsWith("ready ")) {
+                        ready.complete(line.substring(6).split(" "));
+                    }
+                }
+            } catch (Exception e) {
+                ready.completeExceptionally(e);
+            }
+            ready.completeExceptionally(new IllegalStateException("Workload exited before it was ready, see " + log));
+        }, "transfer-workload-output");
+        reader.start();
+
+        BigDecimal total;
+        long transfersBefore;
+        try {
+            String[] state;
+            try {
+                state = ready.get(START_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage() + ":\n" + Files.readString(log), e);
+            }
+            total = new BigDecimal(state[0]);
+            transfersBefore = Long.parseLong(state[1]);
+            long initialFileSize = Files.size(storeFile);
+            long peakFileSize = initialFileSize;
+            long started = System.nanoTime();
+            long deadline = started + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+            while (System.nanoTime() < deadline) {
+                peakFileSize = Math.max(peakFileSize, Files.size(storeFile));
+                Thread.sleep(100);
+            }
+            result.peakFileSize = Math.max(result.peakFileSize, peakFileSize);
+            result.fileGrowth += peakFileSize - initialFileSize;
+            result.elapsedNanos += System.nanoTime() - started;
+        } finally {
+            // SIGKILL: приложение не успевает ни закрыть базу, ни записать несохраненные изменения
+            process.destroyForcibly().waitFor();
+            reader.join();
+        }
+        long expectedTransfers = Math.max(committed.get(), transfersBefore);
+        result.transfers += expectedTransfers - transfersBefore;
+
+        long reopenStarted = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "password");
+             Statement statement = connection.createStatement()) {
+            BigDecimal recoveredTotal = queryDecimal(statement, "SELECT SUM(balance) FROM account");
+            result.reopenMillis += TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - reopenStarted);
+            long recoveredTransfers = queryDecimal(statement,
+                    "SELECT COUNT(*) FROM transaction WHERE type = " + TransactionType.TRANSFER_OUT.getCode()).longValue();
+            long recoveredIncoming = queryDecimal(statement,
+                    "SELECT COUNT(*) FROM transaction WHERE type = " + TransactionType.TRANSFER_IN.getCode()).longValue();
+
+            // Перевод списывает и зачисляет средства в одной транзакции, поэтому после восстановления
+            // сумма балансов не меняется, а у каждого списания есть парное зачисление
+            assertEquals(0, total.compareTo(recoveredTotal),
+                    result.name + ": total " + total + ", recovered " + recoveredTotal);
+            assertEquals(recoveredTransfers, recoveredIncoming, result.name);
+            // Перевод может зафиксироваться, а процесс - завершиться до вывода строки о нем
+            assertTrue(recoveredTransfers <= expectedTransfers + THREADS, result.name);
+            result.lostTransfers += Math.max(0, expectedTransfers - recoveredTransfers);
+        }
+    }
+
+    private static List<String> applicationArguments(String... arguments) {
+        List<String> args = new ArrayList<>(List.of(arguments));
+        args.add("--server.port=0");
+        args.add("--banking.grpc.enabled=false");
+        args.add("--banking.pin-throttle.snapshot-file=");
+        // Нагрузка переводит средства с одних и тех же счетов чаще, чем разрешают лимиты исходящих переводов
+        args.add("--banking.velocity.enabled=false");
+        args.add("--banking.audit.directory=");
+        // Журнал каждой операции со счетом искажает измерения
+        args.add("--logging.level.root=WARN");
+        return args;
+    }
+
+    private static ConfigurableApplicationContext start(List<String> applicationArguments) {
+        return new SpringApplicationBuilder(BankingApiTestApplication.class)
+                .run(applicationArguments.toArray(new String[0]));
+    }
+
+    private static BigDecimal queryDecimal(Statement statement, String sql) throws Exception {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getBigDecimal(1);
+        }
+    }
+
+    private static double megabytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    private static final class Result {
+
+        private final String name;
+        private long elapsedNanos;
+        private long transfers;
+        private long lostTransfers;
+        private long peakFileSize;
+        private long fileGrowth;
+        private long closedFileSize;
+        private long reopenMillis;
+        private long restartMillis;
+        private long closeMillis;
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        double transfersPerSecond() {
+            return transfers * 1e9 / Math.max(1, elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.astondevs.bankingapitest.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверки исполняемого файла, собранного native-image, и сравнение его с запуском jar-файла в JVM.
+ * <p>
+ * Запускается профилем {@code native} после сборки: {@code mvn -Pnative verify}. Проверки затрагивают то,
+ * что в native-image зависит от метаданных: сущности JPA, миграции Flyway, драйвер H2, сериализацию DTO
+ * в JSON и CBOR и разбор CSV.
+ */
+class NativeImageSmokeIT {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static ApplicationProcess nativeApplication;
+
+    @BeforeAll
+    static void startNativeImage() throws Exception {
+        Path executable = Path.of(System.getProperty("benchmark.nativeExecutable"));
+        assertTrue(Files.isExecutable(executable), "Missing " + executable);
+        nativeApplication = ApplicationProcess.executable(executable, List.of());
+    }
+
+    @AfterAll
+    static void stopNativeImage() throws Exception {
+        if (nativeApplication != null) {
+            nativeApplication.close();
+        }
+    }
+
+    @Test
+    void testAccountLifecycle() throws Exception {
+        HttpResponse<byte[]> created = nativeApplication.send(nativeApplication.request("/api/accounts")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"beneficiaryName\":\"Native\",\"pin\":\"1234\"}"))
+                .build());
+        assertEquals(200, created.statusCode());
+        long id = JSON.readTree(created.body()).get("id").asLong();
+
+        HttpResponse<byte[]> deposited = nativeApplication.send(nativeApplication.request("/api/accounts/" + id + "/deposit")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":100.50}"))
+                .build());
+        assertEquals(200, deposited.statusCode());
+        assertEquals("100.50", JSON.readTree(deposited.body()).get("balance").decimalValue().toPlainString());
+
+        HttpResponse<byte[]> transactions = nativeApplication.send(
+                nativeApplication.request("/api/accounts/" + id + "/transactions").build());
+        assertEquals(200, transactions.statusCode());
+        JsonNode history = JSON.readTree(transactions.body());
+        assertEquals("deposit", history.get(0).get("type").asText());
+
+        String eTag = transactions.headers().firstValue("ETag").orElseThrow();
+        HttpResponse<byte[]> notModified = nativeApplication.send(
+                nativeApplication.request("/api/accounts/" + id + "/transactions").header("If-None-Match", eTag).build());
+        assertEquals(304, notModified.statusCode());
+    }
+
+    @Test
+    void testSeedAccountsAndCbor() throws Exception {
+        HttpResponse<byte[]> response = nativeApplication.send(nativeApplication.request("/api/accounts/1")
+                .header("Accept", "application/cbor")
+                .build());
+
+        assertEquals(200, response.statusCode());
+        JsonNode account = new ObjectMapper(new CBORFactory()).readTree(response.body());
+        assertTrue(account.get("accountNumber").asText().length() > 0);
+    }
+
+    @Test
+    void testCsvImport() throws Exception {
+        HttpResponse<byte[]> response = nativeApplication.send(nativeApplication.request("/api/accounts/import")
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString("beneficiaryName,pin\nNative1,1234\nNative2,12\n"))
+                .build());
+
+        assertEquals(200, response.statusCode());
+        JsonNode result = JSON.readTree(response.body());
+        assertEquals(1, result.get("createdCount").asLong());
+        assertEquals(1, result.get("failedCount").asLong());
+    }
+
+    @Test
+    void testCompareWithJvm() throws Exception {
+        Path jar = Path.of(System.getProperty("benchmark.jar"));
+        long nativeRss = nativeApplication.rssKilobytes();
+        long jvmReady;
+        long jvmRss;
+        try (ApplicationProcess jvmApplication = ApplicationProcess.java(List.of("-jar", jar.toString()))) {
+            jvmReady = jvmApplication.readyMillis();
+            jvmRss = jvmApplication.rssKilobytes();
+        }
+
+        System.out.printf("%-8s %16s %10s%n", "", "first 200, ms", "RSS, MB");
+        System.out.printf("%-8s %16d %10d%n", "JVM", jvmReady, jvmRss / 1024);
+        System.out.printf("%-8s %16d %10d%n", "native", nativeApplication.readyMillis(), nativeRss / 1024);
+
+        assertTrue(nativeApplication.readyMillis() < jvmReady);
+        assertTrue(nativeRss < jvmRss);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.astondevs.bankingapitest.benchmark;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнение времени запуска обычного исполняемого jar-файла и сборки для быстрого запуска (Spring AOT и CDS).
+ * <p>
+ * Запускается профилем {@code fast-startup} после сборки обоих вариантов: {@code mvn -Pfast-startup verify}.
+ * Каждый вариант запускается несколько раз в отдельной JVM; измеряются время запуска контекста по журналу
+ * Spring Boot, время от старта процесса до первого успешного ответа и время первого запроса после того,
+ * как порт начал принимать соединения.
+ */
+class StartupBenchmarkIT {
+
+    private static final int RUNS = Integer.getInteger("benchmark.runs", 5);
+
+    @Test
+    void testFastStartupIsFasterThanPlainJar() throws Exception {
+        String profiles = System.getProperty("benchmark.profiles", "prod");
+        Path plainJar = Path.of(System.getProperty("benchmark.plainJar"));
+        Path fastJar = Path.of(System.getProperty("benchmark.fastJar"));
+        Path cdsArchive = Path.of(System.getProperty("benchmark.cdsArchive"));
+        assertTrue(Files.exists(plainJar), "Missing " + plainJar);
+        assertTrue(Files.exists(fastJar), "Missing " + fastJar);
+        assertTrue(Files.exists(cdsArchive), "Missing " + cdsArchive);
+
+        List<Sample> plain = new ArrayList<>();
+        List<Sample> fast = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            plain.add(measure(List.of("-Dspring.profiles.active=" + profiles, "-jar", plainJar.toString())));
+            fast.add(measure(List.of("-XX:SharedArchiveFile=" + cdsArchive, "-Dspring.aot.enabled=true",
+                    "-Dspring.profiles.active=" + profiles, "-jar", fastJar.toString())));
+        }
+
+        Summary plainSummary = new Summary(plain);
+        Summary fastSummary = new Summary(fast);
+        System.out.printf("%-12s %14s %16s %16s%n", "", "context, ms", "first 200, ms", "first req, ms");
+        System.out.printf("%-12s %14d %16d %16d%n", "plain jar", plainSummary.context, plainSummary.ready,
+                plainSummary.firstRequest);
+        System.out.printf("%-12s %14d %16d %16d%n", "AOT + CDS", fastSummary.context, fastSummary.ready,
+                fastSummary.firstRequest);
+
+        // Медиана времени до первого успешного ответа у сборки для быстрого запуска меньше
+        assertTrue(fastSummary.ready < plainSummary.ready,
+                "fast " + fastSummary.ready + " ms, plain " + plainSummary.ready + " ms");
+    }
+
+    private static Sample measure(List<String> jvmArguments) throws Exception {
+        try (ApplicationProcess application = ApplicationProcess.java(jvmArguments)) {
+            return new Sample(application.contextMillis(), application.readyMillis(),
+                    application.firstRequestMillis());
+        }
+    }
+
+    private record Sample(long contextMillis, long readyMillis, long firstRequestMillis) {
+    }
+
+    private static final class Summary {
+
+        private final long context;
+        private final long ready;
+        private final long firstRequest;
+
+        Summary(List<Sample> samples) {
+            this.context = median(samples.stream().map(Sample::contextMillis).toList());
+            this.ready = median(samples.stream().map(Sample::readyMillis).toList());
+            this.firstRequest = median(samples.stream().map(Sample::firstRequestMillis).toList());
+        }
+
+        private static long median(List<Long> values) {
+            List<Long> sorted = new ArrayList<>(values);
+            Collections.sort(sorted);
+            return sorted.get(sorted.size() / 2);
+        }
+    }
+}
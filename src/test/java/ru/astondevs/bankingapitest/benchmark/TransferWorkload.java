@@ -0,0 +1,76 @@
+package ru.astondevs.bankingapitest.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.astondevs.bankingapitest.BankingApiTestApplication;
+import ru.astondevs.bankingapitest.exception.InsufficientBalanceException;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.service.AccountService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Непрерывная нагрузка переводами для {@link DurableStoreBenchmarkIT}, выполняемая в отдельном процессе,
+ * чтобы тест мог аварийно завершить его.
+ * <p>
+ * Аргументы: число счетов, число потоков и далее аргументы приложения. Процесс запускает приложение, создает счета,
+ * выводит строку {@code ready <сумма балансов> <число переводов>} и переводит средства между счетами, пока его
+ * не завершат. После каждого зафиксированного перевода выводится строка {@code committed <число переводов>}.
+ */
+final class TransferWorkload {
+
+    static final String PIN = "1234";
+    static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+    static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("1.00");
+
+    private TransferWorkload() {
+    }
+
+    public static void main(String[] args) {
+        int accounts = Integer.parseInt(args[0]);
+        int threads = Integer.parseInt(args[1]);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingApiTestApplication.class)
+                .run(Arrays.copyOfRange(args, 2, args.length));
+        AccountService accountService = context.getBean(AccountService.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        List<Long> accountIds = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            Long accountId = accountService.createAccount("Benchmark " + i, PIN).getId();
+            accountService.deposit(accountId, INITIAL_BALANCE);
+            accountIds.add(accountId);
+        }
+        BigDecimal total = jdbcTemplate.queryForObject("SELECT SUM(balance) FROM account", BigDecimal.class);
+        Long transfersBefore = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction WHERE type = ?", Long.class, TransactionType.TRANSFER_OUT.getCode());
+        AtomicLong transfers = new AtomicLong(transfersBefore);
+        System.out.println("ready " + total.toPlainString() + " " + transfersBefore);
+
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (true) {
+                    Long from = accountIds.get(random.nextInt(accountIds.size()));
+                    Long to = accountIds.get(random.nextInt(accountIds.size()));
+                    if (from.equals(to)) {
+                        continue;
+                    }
+                    try {
+                        accountService.transfer(from, PIN, TRANSFER_AMOUNT, to);
+                        System.out.println("committed " + transfers.incrementAndGet());
+                    } catch (ConcurrencyFailureException | InsufficientBalanceException e) {
+                        // Конфликт с параллельным переводом или пустой счет: следующий перевод выберет другую пару
+                    }
+                }
+            }, "transfer-workload-" + i);
+            worker.start();
+        }
+    }
+}
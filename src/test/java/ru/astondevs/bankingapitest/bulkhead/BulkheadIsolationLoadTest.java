@@ -0,0 +1,120 @@
+package ru.astondevs.bankingapitest.bulkhead;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный тест разделения пулов для чтения и изменяющих операций.
+ * <p>
+ * {@code SCAN_CLIENTS} клиентов непрерывно запрашивают долгую историю транзакций ({@code SCAN_MILLIS} на запрос),
+ * а {@code TRANSFER_CLIENTS} клиентов выполняют короткие переводы ({@code TRANSFER_MILLIS}). Если все запросы
+ * выполняются в одном пуле, переводы стоят в очереди за чтениями истории. В отдельных пулах чтения занимают
+ * только свои потоки, и время ответа переводов остается близким ко времени их выполнения.
+ */
+class BulkheadIsolationLoadTest {
+
+    private static final int THREADS = 8;
+    private static final int SCAN_CLIENTS = 32;
+    private static final int TRANSFER_CLIENTS = 4;
+    private static final int SCAN_MILLIS = 100;
+    private static final int TRANSFER_MILLIS = 5;
+    private static final long WARM_UP_MILLIS = 300;
+    private static final long DURATION_MILLIS = 2000;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final ScheduledExecutorService timer = new ScheduledThreadPoolExecutor(1);
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    void testSlowReadsDoNotStarveTransfers() throws Exception {
+        Bulkhead shared = new Bulkhead("shared", THREADS, 1000, true, 1, timer);
+        List<Long> sharedLatencies = run(shared, shared);
+        shared.shutdown(TIMEOUT);
+
+        Bulkhead reads = new Bulkhead("reads", THREADS / 2, 1000, true, 1, timer);
+        Bulkhead writes = new Bulkhead("writes", THREADS / 2, 1000, false, 1, timer);
+        List<Long> isolatedLatencies = run(reads, writes);
+        reads.shutdown(TIMEOUT);
+        writes.shutdown(TIMEOUT);
+
+        System.out.printf("Shared pool:    %d transfers, p50=%d ms, p99=%d ms%n", sharedLatencies.size(),
+                percentile(sharedLatencies, 50), percentile(sharedLatencies, 99));
+        System.out.printf("Separate pools: %d transfers, p50=%d ms, p99=%d ms%n", isolatedLatencies.size(),
+                percentile(isolatedLatencies, 50), percentile(isolatedLatencies, 99));
+
+        // В общем пуле перевод ждет, пока освободятся потоки, занятые чтениями истории
+        assertTrue(percentile(sharedLatencies, 50) >= SCAN_MILLIS);
+
+        // В отдельном пуле время ответа перевода не зависит от чтений, а переводов успевает пройти больше
+        assertTrue(percentile(isolatedLatencies, 99) < percentile(sharedLatencies, 50) / 2,
+                "isolated p99 " + percentile(isolatedLatencies, 99) + " ms, shared p50 "
+                        + percentile(sharedLatencies, 50) + " ms");
+        assertTrue(isolatedLatencies.size() > sharedLatencies.size() * 2);
+    }
+
+    private List<Long> run(Bulkhead reads, Bulkhead writes) throws InterruptedException {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        long warmUpEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WARM_UP_MILLIS);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+        CountDownLatch done = new CountDownLatch(SCAN_CLIENTS + TRANSFER_CLIENTS);
+
+        for (int i = 0; i < SCAN_CLIENTS + TRANSFER_CLIENTS; i++) {
+            boolean transfer = i < TRANSFER_CLIENTS;
+            Thread client = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        if (transfer) {
+                            writes.submit(() -> sleep(TRANSFER_MILLIS), TIMEOUT).join();
+                            if (start > warmUpEnd) {
+                                latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                            }
+                        } else {
+                            reads.submit(() -> sleep(SCAN_MILLIS), TIMEOUT).join();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+            client.setDaemon(true);
+            client.start();
+        }
+        assertTrue(done.await(DURATION_MILLIS * 5, TimeUnit.MILLISECONDS));
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private static Boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Boolean.TRUE;
+    }
+
+    private static long percentile(List<Long> sortedLatencies, int percentile) {
+        if (sortedLatencies.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.size()) - 1;
+        return sortedLatencies.get(Math.max(0, index));
+    }
+}
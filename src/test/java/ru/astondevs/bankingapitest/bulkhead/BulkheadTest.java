@@ -0,0 +1,121 @@
+package ru.astondevs.bankingapitest.bulkhead;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.astondevs.bankingapitest.exception.BulkheadFullException;
+import ru.astondevs.bankingapitest.exception.RequestTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadTest {
+
+    private static final Duration LONG_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ScheduledExecutorService timer = new ScheduledThreadPoolExecutor(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        timer.shutdownNow();
+    }
+
+    @Test
+    void testFullQueue_RejectsImmediately() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, true, 3, timer);
+        bulkhead.submit(this::block, LONG_TIMEOUT);
+        bulkhead.submit(this::block, LONG_TIMEOUT);
+
+        BulkheadFullException e = assertThrows(BulkheadFullException.class,
+                () -> bulkhead.submit(this::block, LONG_TIMEOUT));
+        assertEquals(3, e.getRetryAfterSeconds());
+        assertEquals(1, bulkhead.getRejected());
+    }
+
+    @Test
+    void testTimeout_QueuedRequestNeverRuns() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, false, 1, timer);
+        bulkhead.submit(this::block, LONG_TIMEOUT);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        CompletableFuture<String> queued = bulkhead.submit(() -> {
+            ran.set(true);
+            return "queued";
+        }, Duration.ofMillis(50));
+
+        assertTimedOut(queued);
+        // Отмененный запрос удален из очереди и не выполняется, даже когда поток освобождается
+        assertEquals(0, bulkhead.getQueued());
+        release.countDown();
+        assertTrue(bulkhead.shutdown(LONG_TIMEOUT));
+        assertFalse(ran.get());
+        assertEquals(1, bulkhead.getTimedOut());
+    }
+
+    @Test
+    void testTimeout_AbandonsRunningRead() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("reads", 1, 1, true, 1, timer);
+
+        CompletableFuture<String> running = bulkhead.submit(this::block, Duration.ofMillis(50));
+
+        assertTimedOut(running);
+    }
+
+    @Test
+    void testTimeout_WaitsForRunningWrite() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("writes", 1, 1, false, 1, timer);
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<String> running = bulkhead.submit(() -> {
+            started.countDown();
+            return block();
+        }, Duration.ofMillis(50));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+
+        // Выполняющаяся изменяющая операция не отменяется: клиент получает ее настоящий результат
+        assertFalse(running.isDone());
+        release.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.getTimedOut());
+    }
+
+    @Test
+    void testFailure_IsPassedToCaller() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, true, 1, timer);
+
+        CompletableFuture<String> failed = bulkhead.submit(() -> {
+            throw new IllegalStateException("boom");
+        }, LONG_TIMEOUT);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    private String block() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+
+    private static void assertTimedOut(CompletableFuture<?> future) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RequestTimeoutException.class, e.getCause());
+    }
+}
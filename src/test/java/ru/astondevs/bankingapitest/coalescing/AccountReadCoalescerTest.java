@@ -0,0 +1,74 @@
+package ru.astondevs.bankingapitest.coalescing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.service.AccountService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.astondevs.bankingapitest.support.AsyncRequests.perform;
+
+/**
+ * Интеграционный тест объединения запросов с изменениями счетов: чтение после зафиксированного изменения
+ * не должно получить результат загрузки, начатой до него.
+ */
+@SpringBootTest(properties = {"banking.grpc.enabled=false", "banking.audit.directory=target/audit/read-coalescing"})
+@AutoConfigureMockMvc
+class AccountReadCoalescerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SpyBean
+    private AccountService accountService;
+
+    @Test
+    void testReadAfterWrite_SeesTheWrite() throws Exception {
+        Account account = accountService.createAccount("Coalescing Test", "1234");
+        Long id = account.getId();
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        // Первая загрузка читает счет до пополнения и задерживает ответ
+        doAnswer(invocation -> {
+            Object result = invocation.callRealMethod();
+            if (first.getAndSet(false)) {
+                loaded.countDown();
+                release.await();
+            }
+            return result;
+        }).when(accountService).getAccount(id);
+
+        MvcResult before = mockMvc.perform(get("/api/accounts/" + id)).andExpect(request().asyncStarted()).andReturn();
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        accountService.deposit(id, new BigDecimal("25.00"));
+
+        try {
+            // Чтение сразу после пополнения запускает свою загрузку, а не присоединяется к начатой до него
+            perform(mockMvc, get("/api/accounts/" + id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.balance").value(25.0));
+        } finally {
+            release.countDown();
+        }
+        mockMvc.perform(asyncDispatch(before))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(0.0));
+    }
+}
@@ -0,0 +1,106 @@
+package ru.astondevs.bankingapitest.coalescing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testConcurrentRequests_ShareOneLoad() {
+        CompletableFuture<String> loading = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute(1L, () -> load(loading));
+        CompletableFuture<String> second = singleFlight.execute(1L, () -> load(loading));
+        CompletableFuture<String> other = singleFlight.execute(2L, () -> load(CompletableFuture.completedFuture("2")));
+        loading.complete("1");
+
+        assertEquals("1", first.join());
+        assertEquals("1", second.join());
+        assertEquals("2", other.join());
+        assertEquals(2, loads.get());
+        assertEquals(1, singleFlight.getFollowers());
+        assertEquals(1.0 / 3, singleFlight.getCoalescingRatio(), 1e-9);
+    }
+
+    @Test
+    void testCompletedLoad_IsNotReused() {
+        singleFlight.execute(1L, () -> load(CompletableFuture.completedFuture("old"))).join();
+
+        // После завершения загрузки новый запрос запускает свою и получает свежий результат
+        assertEquals("new", singleFlight.execute(1L, () -> load(CompletableFuture.completedFuture("new"))).join());
+        assertEquals(2, loads.get());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void testFailure_IsSharedAndNotCached() {
+        CompletableFuture<String> loading = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute(1L, () -> load(loading));
+        CompletableFuture<String> second = singleFlight.execute(1L, () -> load(loading));
+
+        loading.completeExceptionally(new IllegalStateException("boom"));
+
+        CompletionException e = assertThrows(CompletionException.class, first::join);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertThrows(CompletionException.class, second::join);
+        assertEquals("retry", singleFlight.execute(1L, () -> load(CompletableFuture.completedFuture("retry"))).join());
+    }
+
+    @Test
+    void testRejectedLoad_IsRethrownAndNotCached() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("queue is full");
+        }));
+
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void testCancelledRequest_DoesNotCancelOthers() {
+        CompletableFuture<String> loading = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute(1L, () -> load(loading));
+        CompletableFuture<String> second = singleFlight.execute(1L, () -> load(loading));
+
+        first.cancel(true);
+        loading.complete("1");
+
+        assertTrue(first.isCancelled());
+        assertEquals("1", second.join());
+    }
+
+    @Test
+    void testRequestAfterWrite_DoesNotJoinEarlierLoad() {
+        CompletableFuture<String> before = new CompletableFuture<>();
+        CompletableFuture<String> after = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute(1L, 0, () -> load(before));
+
+        // После фиксации изменения метка выросла: загрузка, начатая до него, могла прочитать старые данные
+        CompletableFuture<String> second = singleFlight.execute(1L, 1, () -> load(after));
+        // Запрос, пришедший раньше изменения, присоединяется и к более новой загрузке
+        CompletableFuture<String> third = singleFlight.execute(1L, 0, () -> load(before));
+        before.complete("old");
+        after.complete("new");
+
+        assertEquals("old", first.join());
+        assertEquals("new", second.join());
+        assertEquals("new", third.join());
+        assertEquals(2, loads.get());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    private CompletableFuture<String> load(CompletableFuture<String> result) {
+        loads.incrementAndGet();
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package ru.astondevs.bankingapitest.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import ru.astondevs.bankingapitest.dto.AccountDto;
+import ru.astondevs.bankingapitest.dto.TransactionDto;
+import ru.astondevs.bankingapitest.grpc.proto.AccountReply;
+import ru.astondevs.bankingapitest.grpc.proto.TransferAck;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.model.Transaction;
+import ru.astondevs.bankingapitest.model.TransactionTypeConverter;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeRuntimeHintsTest() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void testMigrationsAreIncluded() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/V1__Initial_schema.sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/V4__Account_version.sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("ehcache.xml").test(hints));
+    }
+
+    @Test
+    void testEntitiesAndDtosAreReflective() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Account.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Transaction.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TransactionTypeConverter.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+
+        // Для DTO регистрируются методы доступа, которые использует Jackson
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(AccountDto.class, "getBalance").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(TransactionDto.class, "setTimestamp").test(hints));
+    }
+
+    @Test
+    void testDriverAndGrpcMessagesAreReflective() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(org.h2.Driver.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(AccountReply.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(TransferAck.Builder.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+    }
+}
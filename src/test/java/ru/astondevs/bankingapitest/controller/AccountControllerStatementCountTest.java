@@ -0,0 +1,185 @@
+package ru.astondevs.bankingapitest.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.service.AccountService;
+import ru.astondevs.bankingapitest.support.StatementCounter;
+import ru.astondevs.bankingapitest.support.StatementCountingConfiguration;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.astondevs.bankingapitest.support.AsyncRequests.perform;
+
+/**
+ * Проверяет точное число обращений к базе данных для каждого эндпоинта AccountController.
+ * Кэш второго уровня очищается перед каждым тестом, поэтому первые обращения к счетам идут в базу данных.
+ */
+@SpringBootTest(properties = {"banking.grpc.enabled=false", "banking.audit.directory=target/audit/statement-count"})
+@AutoConfigureMockMvc
+@Import(StatementCountingConfiguration.class)
+class AccountControllerStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private Account account;
+    private Account otherAccount;
+
+    @BeforeEach
+    void setUp() {
+        account = accountService.createAccount(uniqueName(), "1234");
+        otherAccount = accountService.createAccount(uniqueName(), "5678");
+        accountService.deposit(account.getId(), new BigDecimal("100.00"));
+        entityManagerFactory.getCache().evictAll();
+        statementCounter.reset();
+    }
+
+    @Test
+    void testCreateAccount() throws Exception {
+        perform(mockMvc, post("/api/accounts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"beneficiaryName\":\"" + uniqueName() + "\",\"pin\":\"1234\"}"))
+                .andExpect(status().isOk());
+
+        // Вставка счета; номер счета генерируется без обращения к базе данных
+        statementCounter.assertStatementCount(1);
+    }
+
+    @Test
+    void testGetAccount() throws Exception {
+        perform(mockMvc, get("/api/accounts/" + account.getId())).andExpect(status().isOk());
+
+        // Загрузка счета; ETag берется из его версии
+        statementCounter.assertStatementCount(1);
+    }
+
+    @Test
+    void testGetAccount_Cached() throws Exception {
+        perform(mockMvc, get("/api/accounts/" + account.getId())).andExpect(status().isOk());
+        statementCounter.reset();
+
+        perform(mockMvc, get("/api/accounts/" + account.getId())).andExpect(status().isOk());
+
+        // Счет берется из кэша второго уровня без обращения к базе данных
+        statementCounter.assertStatementCount(0);
+    }
+
+    @Test
+    void testGetAccount_NotModified() throws Exception {
+        String eTag = perform(mockMvc, get("/api/accounts/" + account.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        statementCounter.reset();
+
+        perform(mockMvc, get("/api/accounts/" + account.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        // При совпадении ETag счет не загружается
+        statementCounter.assertStatementCount(1);
+    }
+
+    @Test
+    void testGetAccount_NotFound() throws Exception {
+        perform(mockMvc, get("/api/accounts/" + Long.MAX_VALUE)).andExpect(status().isNotFound());
+
+        // Индекс существования отвечает без обращения к базе данных
+        statementCounter.assertStatementCount(0);
+    }
+
+    @Test
+    void testGetAccountByNumber() throws Exception {
+        perform(mockMvc, get("/api/accounts/by-number/" + account.getAccountNumber())).andExpect(status().isOk());
+
+        statementCounter.assertStatementCount(1);
+    }
+
+    @Test
+    void testDeposit() throws Exception {
+        perform(mockMvc, post("/api/accounts/" + account.getId() + "/deposit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\":10.00}"))
+                .andExpect(status().isOk());
+
+        // Загрузка счета, вставка транзакции и обновление баланса
+        statementCounter.assertStatementCount(3);
+    }
+
+    @Test
+    void testWithdraw() throws Exception {
+        perform(mockMvc, post("/api/accounts/" + account.getId() + "/withdraw")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"pin\":\"1234\",\"amount\":10.00}"))
+                .andExpect(status().isOk());
+
+        statementCounter.assertStatementCount(3);
+    }
+
+    @Test
+    void testTransfer() throws Exception {
+        perform(mockMvc, post("/api/accounts/" + account.getId() + "/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"pin\":\"1234\",\"amount\":10.00,\"toAccountId\":" + otherAccount.getId() + "}"))
+                .andExpect(status().isOk());
+
+        // Загрузка, вставка транзакции и обновление для каждого из двух счетов
+        statementCounter.assertStatementCount(6);
+    }
+
+    @Test
+    void testGetTransactions() throws Exception {
+        accountService.deposit(account.getId(), new BigDecimal("1.00"));
+        accountService.deposit(account.getId(), new BigDecimal("2.00"));
+        entityManagerFactory.getCache().evictAll();
+        statementCounter.reset();
+
+        perform(mockMvc, get("/api/accounts/" + account.getId() + "/transactions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+
+        // Загрузка счета и один запрос транзакций, а не по запросу на каждую транзакцию
+        statementCounter.assertStatementCount(2);
+    }
+
+    @Test
+    void testGetAllAccounts() throws Exception {
+        perform(mockMvc, get("/api/accounts")).andExpect(status().isOk());
+
+        // Один запрос независимо от числа счетов и их транзакций
+        statementCounter.assertStatementCount(1);
+    }
+
+    @Test
+    void testGetAllAccountsByBeneficiaryName() throws Exception {
+        perform(mockMvc, get("/api/accounts").param("beneficiaryName", account.getBeneficiaryName()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        statementCounter.assertStatementCount(1);
+    }
+
+    private static String uniqueName() {
+        return "Statements " + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    }
+}
@@ -0,0 +1,409 @@
+package ru.astondevs.bankingapitest.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.astondevs.bankingapitest.bulkhead.AccountBulkheads;
+import ru.astondevs.bankingapitest.coalescing.AccountReadCoalescer;
+import ru.astondevs.bankingapitest.coalescing.AccountWriteStamps;
+import ru.astondevs.bankingapitest.config.BulkheadProperties;
+import ru.astondevs.bankingapitest.config.CoalescingProperties;
+import ru.astondevs.bankingapitest.config.WebConfig;
+import ru.astondevs.bankingapitest.dto.AccountDto;
+import ru.astondevs.bankingapitest.dto.DepositRequest;
+import ru.astondevs.bankingapitest.dto.TransactionDto;
+import ru.astondevs.bankingapitest.exception.AccountNotFoundException;
+import ru.astondevs.bankingapitest.mapper.AccountMapper;
+import ru.astondevs.bankingapitest.mapper.BalanceMapper;
+import ru.astondevs.bankingapitest.mapper.TransactionMapper;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.model.Transaction;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.service.AccountService;
+import ru.astondevs.bankingapitest.service.BalanceCheckpointService;
+import ru.astondevs.bankingapitest.service.HistoricalBalance;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.astondevs.bankingapitest.support.AsyncRequests.perform;
+
+@ExtendWith(MockitoExtension.class)
+class AccountControllerTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private BalanceCheckpointService balanceCheckpointService;
+
+    private MockMvc mockMvc;
+
+    private AccountBulkheads bulkheads;
+
+    @BeforeEach
+    void setUp() {
+        BulkheadProperties bulkheadProperties = new BulkheadProperties();
+        bulkheadProperties.getTimeouts().put("get-account-by-number", Duration.ofMillis(100));
+        bulkheads = new AccountBulkheads(bulkheadProperties, new SimpleMeterRegistry());
+        AccountReadCoalescer readCoalescer = new AccountReadCoalescer(new CoalescingProperties(),
+                new AccountWriteStamps(), new SimpleMeterRegistry());
+        AccountController controller = new AccountController(accountService, new AccountMapper(), new TransactionMapper(),
+                bulkheads, readCoalescer, balanceCheckpointService, new BalanceMapper());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setMessageConverters(messageConverters().toArray(new HttpMessageConverter<?>[0]))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        bulkheads.shutdown();
+    }
+
+    /**
+     * Возвращает счет с указанной версией, как если бы он был загружен из базы данных.
+     */
+    private static Account versioned(Account account, long version) {
+        Account loaded = spy(account);
+        doReturn(version).when(loaded).getVersion();
+        return loaded;
+    }
+
+    /**
+     * Собирает преобразователи сообщений так же, как в приложении: базовые преобразователи и JSON,
+     * затем двоичные форматы из {@link WebConfig}.
+     */
+    private static List<HttpMessageConverter<?>> messageConverters() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        RootBeanDefinition builderDefinition = new RootBeanDefinition(Jackson2ObjectMapperBuilder.class);
+        builderDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("jacksonObjectMapperBuilder", builderDefinition);
+        WebConfig webConfig = new WebConfig(null, beanFactory.getBeanProvider(Jackson2ObjectMapperBuilder.class));
+
+        List<HttpMessageConverter<?>> converters = new ArrayList<>();
+        converters.add(new ByteArrayHttpMessageConverter());
+        converters.add(new StringHttpMessageConverter());
+        converters.add(new MappingJackson2HttpMessageConverter());
+        webConfig.extendMessageConverters(converters);
+        return converters;
+    }
+
+    @Test
+    void testGetAccount_ReturnsETag() throws Exception {
+        Account account = versioned(new Account("1", "Test", "1234"), 3L);
+        when(accountService.getAccount(1L)).thenReturn(account);
+
+        perform(mockMvc, get("/api/accounts/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.beneficiaryName").value("Test"));
+
+        // Без If-None-Match версия из базы данных не нужна
+        verify(accountService, never()).getAccountVersion(1L);
+    }
+
+    @Test
+    void testGetAccount_NotModified() throws Exception {
+        when(accountService.getAccountVersion(1L)).thenReturn(3L);
+
+        perform(mockMvc, get("/api/accounts/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().string(""));
+
+        // При совпадении версии счет не загружается
+        verify(accountService, never()).getAccount(1L);
+    }
+
+    @Test
+    void testGetAccount_StaleETag() throws Exception {
+        when(accountService.getAccountVersion(1L)).thenReturn(4L);
+        Account account = versioned(new Account("1", "Test", "1234"), 4L);
+        when(accountService.getAccount(1L)).thenReturn(account);
+
+        perform(mockMvc, get("/api/accounts/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void testGetAccount_ETagMatchesLoadedAccount() throws Exception {
+        // Кэш второго уровня еще отдает версию 4, хотя в базе данных уже зафиксирована версия 5
+        when(accountService.getAccountVersion(1L)).thenReturn(5L);
+        Account account = versioned(new Account("1", "Test", "1234"), 4L);
+        when(accountService.getAccount(1L)).thenReturn(account);
+
+        // ETag соответствует телу ответа, поэтому следующий запрос получит новую версию, а не 304
+        perform(mockMvc, get("/api/accounts/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+    }
+
+    @Test
+    void testGetAccount_NotFound() throws Exception {
+        when(accountService.getAccountVersion(1L)).thenThrow(new AccountNotFoundException("Account with id 1 not found"));
+
+        perform(mockMvc, get("/api/accounts/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetAccount_CoalescesConcurrentRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Account account = versioned(new Account("1", "Test", "1234"), 3L);
+        when(accountService.getAccount(1L)).thenAnswer(invocation -> {
+            release.await();
+            return account;
+        });
+        when(accountService.getAccountVersion(1L)).thenReturn(3L);
+
+        // Пока первый запрос ждет базу данных, остальные присоединяются к нему, а не запускают свою загрузку
+        List<MvcResult> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(mockMvc.perform(get("/api/accounts/1")).andExpect(request().asyncStarted()).andReturn());
+        }
+        // Запрос с другим If-None-Match получает другой ответ и выполняется отдельно
+        MvcResult conditional = mockMvc.perform(get("/api/accounts/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(request().asyncStarted()).andReturn();
+        release.countDown();
+
+        for (MvcResult result : results) {
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                    .andExpect(jsonPath("$.beneficiaryName").value("Test"));
+        }
+        mockMvc.perform(asyncDispatch(conditional)).andExpect(status().isNotModified());
+        verify(accountService, times(1)).getAccountVersion(1L);
+        verify(accountService, times(1)).getAccount(1L);
+    }
+
+    @Test
+    void testGetAccountByNumber_Timeout() throws Exception {
+        when(accountService.getAccountByNumber("1")).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return new Account("1", "Test", "1234");
+        });
+
+        // Чтение дольше времени ожидания эндпоинта получает отказ, не дожидаясь завершения
+        perform(mockMvc, get("/api/accounts/by-number/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void testGetBalanceAt() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(balanceCheckpointService.getBalanceAt(1L, at)).thenReturn(new HistoricalBalance(1L, at,
+                new BigDecimal("150.00"), LocalDateTime.of(2024, 1, 1, 11, 0), 3));
+
+        perform(mockMvc, get("/api/accounts/1/balance").param("at", "2024-01-01T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(150.00))
+                .andExpect(jsonPath("$.checkpointAt").value("2024-01-01T11:00"))
+                .andExpect(jsonPath("$.replayedTransactions").value(3));
+    }
+
+    @Test
+    void testGetBalanceAt_InvalidTime() throws Exception {
+        // Некорректный момент времени отклоняется до постановки запроса в пул
+        mockMvc.perform(get("/api/accounts/1/balance").param("at", "yesterday"))
+                .andExpect(status().isBadRequest());
+        verify(balanceCheckpointService, never()).getBalanceAt(any(), any());
+    }
+
+    @Test
+    void testSearchTransactions() throws Exception {
+        Account account = new Account("1", "Test", "1234");
+        Transaction transaction = new Transaction(account, new BigDecimal("25.00"), TransactionType.TRANSFER_IN, 2L);
+        when(accountService.searchTransactions(1L, TransactionType.TRANSFER_IN, 2L, new BigDecimal("10"), null, 100))
+                .thenReturn(List.of(transaction));
+
+        // Тип передается в API названием, а не кодом
+        perform(mockMvc, get("/api/accounts/1/transactions/search").param("type", "transfer in")
+                .param("counterpartyAccountId", "2").param("minAmount", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("transfer in"))
+                .andExpect(jsonPath("$[0].counterpartyAccountId").value(2))
+                .andExpect(jsonPath("$[0].amount").value(25.00));
+    }
+
+    @Test
+    void testSearchTransactions_UnknownType() throws Exception {
+        mockMvc.perform(get("/api/accounts/1/transactions/search").param("type", "refund"))
+                .andExpect(status().isBadRequest());
+        verify(accountService, never()).searchTransactions(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetTransactions_NotModified() throws Exception {
+        when(accountService.getAccountVersion(1L)).thenReturn(7L);
+
+        perform(mockMvc, get("/api/accounts/1/transactions").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(status().isNotModified());
+
+        verify(accountService, never()).getAccount(1L);
+        verify(accountService, never()).getTransactions(any(Account.class));
+    }
+
+    @Test
+    void testGetTransactions_ReturnsETag() throws Exception {
+        Account account = versioned(new Account("1", "Test", "1234"), 7L);
+        when(accountService.getAccount(1L)).thenReturn(account);
+        when(accountService.getTransactions(account)).thenReturn(Collections.emptyList());
+
+        perform(mockMvc, get("/api/accounts/1/transactions"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void testGetAccount_ETagDiffersByFormat() throws Exception {
+        Account account = versioned(new Account("1", "Test", "1234"), 3L);
+        when(accountService.getAccount(1L)).thenReturn(account);
+
+        // Сильный ETag различается для каждого представления одной версии счета
+        perform(mockMvc, get("/api/accounts/1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        perform(mockMvc, get("/api/accounts/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-cbor\""));
+        perform(mockMvc, get("/api/accounts/1").accept(SMILE))
+                .andExpect(content().contentType(SMILE))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-smile\""));
+        perform(mockMvc, get("/api/accounts/1").header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"))
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-cbor\""));
+    }
+
+    @Test
+    void testGetAccount_NotModifiedOnlyForSameFormat() throws Exception {
+        when(accountService.getAccountVersion(1L)).thenReturn(3L);
+        Account account = versioned(new Account("1", "Test", "1234"), 3L);
+        when(accountService.getAccount(1L)).thenReturn(account);
+
+        perform(mockMvc, get("/api/accounts/1").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3-cbor\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-cbor\""));
+
+        // ETag ответа в другом формате не подходит, даже если версия та же: иначе кэш получил бы 304
+        // для представления, которого у него нет
+        perform(mockMvc, get("/api/accounts/1").accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3-cbor\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+        perform(mockMvc, get("/api/accounts/1/transactions").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-cbor\""));
+    }
+
+    @Test
+    void testJsonIsDefaultFormat() throws Exception {
+        when(accountService.getAllAccounts()).thenReturn(List.of(new Account("1", "Test", "1234")));
+
+        perform(mockMvc, get("/api/accounts"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        perform(mockMvc, get("/api/accounts").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void testCborResponses() throws Exception {
+        Account account = versioned(new Account("1", "Test", "1234"), 1L);
+        account.deposit(BigDecimal.TEN);
+        Transaction transaction = new Transaction(account, BigDecimal.TEN, TransactionType.DEPOSIT);
+        when(accountService.getAccount(1L)).thenReturn(account);
+        when(accountService.getTransactions(account)).thenReturn(List.of(transaction));
+        when(accountService.getAllAccounts()).thenReturn(List.of(account));
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+        byte[] body = perform(mockMvc, get("/api/accounts/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Test", cborMapper.readValue(body, AccountDto.class).getBeneficiaryName());
+
+        body = perform(mockMvc, get("/api/accounts/1/transactions").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        TransactionDto[] transactions = cborMapper.readValue(body, TransactionDto[].class);
+        assertEquals(0, BigDecimal.TEN.compareTo(transactions[0].getAmount()));
+
+        body = perform(mockMvc, get("/api/accounts").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(1, cborMapper.readValue(body, AccountDto[].class).length);
+    }
+
+    @Test
+    void testSmileRequestAndResponse() throws Exception {
+        Account account = new Account("1", "Test", "1234");
+        account.deposit(BigDecimal.TEN);
+        when(accountService.deposit(1L, new BigDecimal("10"))).thenReturn(account);
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        DepositRequest request = new DepositRequest();
+        request.setAmount(new BigDecimal("10"));
+
+        // Тело запроса тоже может передаваться в двоичном формате
+        byte[] body = perform(mockMvc, post("/api/accounts/1/deposit")
+                        .contentType(SMILE)
+                        .accept(SMILE)
+                        .content(smileMapper.writeValueAsBytes(request)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(0, BigDecimal.TEN.compareTo(smileMapper.readValue(body, AccountDto.class).getBalance()));
+    }
+}
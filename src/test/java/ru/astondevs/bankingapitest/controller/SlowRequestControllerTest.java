@@ -0,0 +1,67 @@
+package ru.astondevs.bankingapitest.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.service.AccountService;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasKey;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.astondevs.bankingapitest.support.AsyncRequests.perform;
+
+/**
+ * Проверяет заголовок Server-Timing и журнал медленных запросов. Порог медленного запроса равен нулю,
+ * поэтому в журнал попадает каждый запрос.
+ */
+@SpringBootTest(properties = {"banking.grpc.enabled=false", "banking.audit.directory=target/audit/slow-requests",
+        "banking.timing.slow-request-threshold=0ms"})
+@AutoConfigureMockMvc
+class SlowRequestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void testTransfer_ReportsPhases() throws Exception {
+        Account account = accountService.createAccount(uniqueName(), "1234");
+        Account otherAccount = accountService.createAccount(uniqueName(), "5678");
+        accountService.deposit(account.getId(), new BigDecimal("100.00"));
+
+        perform(mockMvc, post("/api/accounts/" + account.getId() + "/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"pin\":\"1234\",\"amount\":10.00,\"toAccountId\":" + otherAccount.getId() + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(90.0))
+                .andExpect(header().string("Server-Timing", allOf(containsString("validation;dur="),
+                        containsString("insert;dur="), containsString("lock;dur="), containsString("commit;dur="),
+                        containsString("serialization;dur="), containsString("total;dur="))));
+
+        // Запрос к журналу сам попадает в журнал уже после ответа, поэтому первым идет перевод
+        mockMvc.perform(get("/api/admin/slow-requests"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].method").value("POST"))
+                .andExpect(jsonPath("$[0].uri").value("/api/accounts/{id}/transfer"))
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].phases", allOf(hasKey("validation"), hasKey("insert"), hasKey("commit"))));
+    }
+
+    private static String uniqueName() {
+        return "Timing " + UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    }
+}
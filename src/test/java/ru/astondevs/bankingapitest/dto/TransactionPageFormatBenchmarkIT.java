@@ -0,0 +1,54 @@
+package ru.astondevs.bankingapitest.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Замер времени сериализации и десериализации страницы истории транзакций в форматах JSON, CBOR и Smile.
+ * <p>
+ * Для каждого формата после разогрева измеряется среднее время преобразования страницы из
+ * {@link TransactionPageFormatTest#transactionPage()}. Время выводится в журнал для сравнения и не проверяется,
+ * так как зависит от машины. Тест запускается профилем {@code soak}: {@code mvn -Psoak verify}.
+ */
+class TransactionPageFormatBenchmarkIT {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPageFormatBenchmarkIT.class);
+    private static final int WARM_UP_ITERATIONS = 30;
+    private static final int MEASURED_ITERATIONS = 30;
+
+    @Test
+    void testMeasureFormats() throws Exception {
+        List<TransactionDto> page = TransactionPageFormatTest.transactionPage();
+        for (Map.Entry<String, ObjectMapper> entry : TransactionPageFormatTest.mappers().entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+                mapper.readValue(mapper.writeValueAsBytes(page), TransactionDto[].class);
+            }
+
+            byte[] bytes = null;
+            TransactionDto[] decoded = null;
+            long serializeNanos = 0;
+            long deserializeNanos = 0;
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                long start = System.nanoTime();
+                bytes = mapper.writeValueAsBytes(page);
+                long serialized = System.nanoTime();
+                decoded = mapper.readValue(bytes, TransactionDto[].class);
+                deserializeNanos += System.nanoTime() - serialized;
+                serializeNanos += serialized - start;
+            }
+
+            logger.info("{} {} bytes, serialize {} us, deserialize {} us", String.format("%-5s", entry.getKey()),
+                    bytes.length, serializeNanos / MEASURED_ITERATIONS / 1000,
+                    deserializeNanos / MEASURED_ITERATIONS / 1000);
+            assertEquals(TransactionPageFormatTest.PAGE_SIZE, decoded.length);
+        }
+    }
+}
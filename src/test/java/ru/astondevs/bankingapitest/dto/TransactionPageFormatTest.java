@@ -0,0 +1,73 @@
+package ru.astondevs.bankingapitest.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнение форматов JSON, CBOR и Smile на большой странице истории транзакций: размер ответа и корректность
+ * обратного преобразования. Объекты отображения создаются так же, как в приложении. Время сериализации
+ * и десериализации замеряет {@link TransactionPageFormatBenchmarkIT}.
+ */
+class TransactionPageFormatTest {
+
+    static final int PAGE_SIZE = 10_000;
+
+    @Test
+    void testCompareFormats() throws Exception {
+        List<TransactionDto> page = transactionPage();
+
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> entry : mappers().entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            byte[] bytes = mapper.writeValueAsBytes(page);
+            TransactionDto[] decoded = mapper.readValue(bytes, TransactionDto[].class);
+            sizes.put(entry.getKey(), bytes.length);
+
+            // Данные переживают обратное преобразование без потерь
+            assertEquals(PAGE_SIZE, decoded.length);
+            assertEquals(page.get(PAGE_SIZE - 1).getTimestamp(), decoded[PAGE_SIZE - 1].getTimestamp());
+            assertEquals(0, page.get(PAGE_SIZE - 1).getAmount().compareTo(decoded[PAGE_SIZE - 1].getAmount()));
+        }
+
+        // Двоичные форматы компактнее JSON; Smile дополнительно сокращает повторяющиеся имена полей
+        assertTrue(sizes.get("CBOR") < sizes.get("JSON"));
+        assertTrue(sizes.get("Smile") < sizes.get("CBOR"));
+    }
+
+    static Map<String, ObjectMapper> mappers() {
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("JSON", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("CBOR", Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+        mappers.put("Smile", Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build());
+        return mappers;
+    }
+
+    static List<TransactionDto> transactionPage() {
+        List<TransactionDto> page = new ArrayList<>(PAGE_SIZE);
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 0, 0);
+        String[] types = {"deposit", "withdraw", "transfer out", "transfer in"};
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            TransactionDto dto = new TransactionDto();
+            dto.setId((long) i + 1);
+            dto.setAccountNumber("0000123456789012345");
+            dto.setType(types[i % types.length]);
+            dto.setAmount(BigDecimal.valueOf(i * 137L % 100_000, 2));
+            dto.setTimestamp(timestamp.plusSeconds(i).toString());
+            page.add(dto);
+        }
+        return page;
+    }
+}
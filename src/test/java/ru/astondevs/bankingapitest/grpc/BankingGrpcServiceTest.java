@@ -0,0 +1,205 @@
+package ru.astondevs.bankingapitest.grpc;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.astondevs.bankingapitest.exception.AccountNotFoundException;
+import ru.astondevs.bankingapitest.exception.InsufficientBalanceException;
+import ru.astondevs.bankingapitest.exception.TooManyPinAttemptsException;
+import ru.astondevs.bankingapitest.grpc.proto.AccountReply;
+import ru.astondevs.bankingapitest.grpc.proto.BankingServiceGrpc;
+import ru.astondevs.bankingapitest.grpc.proto.CreateAccountRequest;
+import ru.astondevs.bankingapitest.grpc.proto.DepositRequest;
+import ru.astondevs.bankingapitest.grpc.proto.GetAccountRequest;
+import ru.astondevs.bankingapitest.grpc.proto.GetTransactionsRequest;
+import ru.astondevs.bankingapitest.grpc.proto.TransactionReply;
+import ru.astondevs.bankingapitest.grpc.proto.TransferAck;
+import ru.astondevs.bankingapitest.grpc.proto.TransferRequest;
+import ru.astondevs.bankingapitest.grpc.proto.WithdrawRequest;
+import ru.astondevs.bankingapitest.mapper.GrpcMapper;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.model.Transaction;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.service.AccountService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BankingGrpcServiceTest {
+
+    @Mock
+    private AccountService accountService;
+
+    private InProcessGrpcHarness harness;
+    private BankingServiceGrpc.BankingServiceBlockingStub blockingStub;
+    private BankingServiceGrpc.BankingServiceStub asyncStub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        harness = new InProcessGrpcHarness(new BankingGrpcService(accountService, new GrpcMapper()));
+        blockingStub = BankingServiceGrpc.newBlockingStub(harness.channel());
+        asyncStub = BankingServiceGrpc.newStub(harness.channel());
+    }
+
+    @AfterEach
+    void tearDown() {
+        harness.close();
+    }
+
+    @Test
+    void testCreateAccount() {
+        when(accountService.createAccount("Test", "1234")).thenReturn(new Account("1", "Test", "1234"));
+
+        AccountReply reply = blockingStub.createAccount(CreateAccountRequest.newBuilder()
+                .setBeneficiaryName("Test").setPin("1234").build());
+
+        assertEquals("1", reply.getAccountNumber());
+        assertEquals("0", reply.getBalance());
+    }
+
+    @Test
+    void testGetAccount_NotFound() {
+        when(accountService.getAccount(1L)).thenThrow(new AccountNotFoundException("Account with id 1 not found"));
+
+        // Исключения бизнес-логики преобразуются в статусы так же, как в REST API
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class,
+                () -> blockingStub.getAccount(GetAccountRequest.newBuilder().setAccountId(1L).build()));
+        assertEquals(Status.Code.NOT_FOUND, e.getStatus().getCode());
+        assertEquals("Account with id 1 not found", e.getStatus().getDescription());
+    }
+
+    @Test
+    void testDeposit_InvalidAmount() {
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class,
+                () -> blockingStub.deposit(DepositRequest.newBuilder().setAccountId(1L).setAmount("ten").build()));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, e.getStatus().getCode());
+        verify(accountService, never()).deposit(any(), any());
+    }
+
+    @Test
+    void testWithdraw_PassesClientAddressAndRetryAfter() {
+        when(accountService.withdraw(eq(1L), eq("9999"), eq(new BigDecimal("10")), anyString()))
+                .thenThrow(new TooManyPinAttemptsException("Too many invalid PIN attempts", 42));
+
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class,
+                () -> blockingStub.withdraw(WithdrawRequest.newBuilder()
+                        .setAccountId(1L).setPin("9999").setAmount("10").build()));
+
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, e.getStatus().getCode());
+        assertEquals("42", e.getTrailers().get(GrpcExceptionMapper.RETRY_AFTER));
+    }
+
+    @Test
+    void testSubmitTransfers_AcksEachMessage() {
+        Account from = new Account("1", "From", "1234");
+        from.deposit(new BigDecimal("90"));
+        when(accountService.transfer(eq(1L), eq("1234"), eq(new BigDecimal("10")), eq(2L), anyString()))
+                .thenReturn(from);
+        when(accountService.transfer(eq(1L), eq("1234"), eq(new BigDecimal("1000")), eq(2L), anyString()))
+                .thenThrow(new InsufficientBalanceException("Insufficient balance"));
+
+        RecordingObserver<TransferAck> acks = new RecordingObserver<>();
+        StreamObserver<TransferRequest> requests = asyncStub.submitTransfers(acks);
+        requests.onNext(transfer("a", "10"));
+        requests.onNext(transfer("b", "1000"));
+        requests.onNext(transfer("c", "10"));
+        requests.onCompleted();
+
+        // Ошибка одного перевода передается в подтверждении и не завершает поток
+        assertTrue(acks.completed);
+        assertNull(acks.error);
+        assertEquals(3, acks.values.size());
+        assertEquals("a", acks.values.get(0).getRequestId());
+        assertEquals("OK", acks.values.get(0).getStatus());
+        assertEquals("90", acks.values.get(0).getAccount().getBalance());
+        assertEquals("b", acks.values.get(1).getRequestId());
+        assertEquals("FAILED_PRECONDITION", acks.values.get(1).getStatus());
+        assertEquals("Insufficient balance", acks.values.get(1).getMessage());
+        assertFalse(acks.values.get(1).hasAccount());
+        assertEquals("OK", acks.values.get(2).getStatus());
+    }
+
+    @Test
+    void testGetTransactions_StreamsHistory() {
+        Account account = new Account("1", "Test", "1234");
+        when(accountService.getTransactions(1L)).thenReturn(List.of(
+                new Transaction(account, new BigDecimal("5"), TransactionType.WITHDRAW),
+                new Transaction(account, new BigDecimal("20"), TransactionType.DEPOSIT)));
+
+        Iterator<TransactionReply> replies = blockingStub.getTransactions(
+                GetTransactionsRequest.newBuilder().setAccountId(1L).build());
+
+        List<TransactionReply> history = new ArrayList<>();
+        replies.forEachRemaining(history::add);
+        assertEquals(2, history.size());
+        assertEquals("withdraw", history.get(0).getType());
+        assertEquals("20", history.get(1).getAmount());
+        assertNotNull(history.get(1).getTimestamp());
+    }
+
+    @Test
+    void testGetTransactions_NotFound() {
+        when(accountService.getTransactions(1L)).thenThrow(new AccountNotFoundException("Account with id 1 not found"));
+
+        Iterator<TransactionReply> replies = blockingStub.getTransactions(
+                GetTransactionsRequest.newBuilder().setAccountId(1L).build());
+
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class, replies::hasNext);
+        assertEquals(Status.Code.NOT_FOUND, e.getStatus().getCode());
+    }
+
+    private static TransferRequest transfer(String requestId, String amount) {
+        return TransferRequest.newBuilder()
+                .setRequestId(requestId)
+                .setFromAccountId(1L)
+                .setPin("1234")
+                .setAmount(amount)
+                .setToAccountId(2L)
+                .build();
+    }
+
+    private static final class RecordingObserver<T> implements StreamObserver<T> {
+
+        private final List<T> values = new ArrayList<>();
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public void onNext(T value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+    }
+}
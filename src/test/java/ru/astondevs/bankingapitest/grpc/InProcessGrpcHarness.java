@@ -0,0 +1,41 @@
+package ru.astondevs.bankingapitest.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+
+import java.io.IOException;
+
+/**
+ * Запускает gRPC-сервисы на сервере в памяти процесса и открывает к нему канал.
+ * Сервисы подключаются с теми же перехватчиками, что и в {@link GrpcServerLifecycle},
+ * а вызовы выполняются в потоке теста, поэтому проверки не требуют ожидания.
+ */
+final class InProcessGrpcHarness implements AutoCloseable {
+
+    private final Server server;
+    private final ManagedChannel channel;
+
+    InProcessGrpcHarness(BindableService... services) throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        InProcessServerBuilder serverBuilder = InProcessServerBuilder.forName(name).directExecutor();
+        for (BindableService service : services) {
+            serverBuilder.addService(ServerInterceptors.intercept(service, new ClientAddressInterceptor()));
+        }
+        this.server = serverBuilder.build().start();
+        this.channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    ManagedChannel channel() {
+        return channel;
+    }
+
+    @Override
+    public void close() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+}
@@ -0,0 +1,144 @@
+package ru.astondevs.bankingapitest.metrics;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.astondevs.bankingapitest.config.TimingProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestTimingTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTiming.end();
+    }
+
+    @Test
+    void testNestedPhases_DoNotOverlap() throws InterruptedException {
+        RequestTiming timing = RequestTiming.begin();
+
+        RequestTiming.Phase outer = RequestTiming.enter(RequestTiming.Phase.VALIDATION);
+        Thread.sleep(5);
+        RequestTiming.Phase inner = RequestTiming.enter(RequestTiming.Phase.LOAD);
+        Thread.sleep(20);
+        RequestTiming.exit(inner);
+        Thread.sleep(5);
+        RequestTiming.exit(outer);
+        RequestTiming.end();
+
+        assertNull(outer);
+        assertEquals(RequestTiming.Phase.VALIDATION, inner);
+        long validation = timing.getPhaseNanos(RequestTiming.Phase.VALIDATION);
+        long load = timing.getPhaseNanos(RequestTiming.Phase.LOAD);
+        assertTrue(load >= Duration.ofMillis(20).toNanos());
+        assertTrue(validation >= Duration.ofMillis(10).toNanos());
+        // Замерены все ожидаемые этапы и только они
+        assertEquals(List.of("validation", "load"), List.copyOf(timing.getPhaseMillis().keySet()));
+        // Сумма этапов не превышает общую длительность. Проверка не зависит от точности sleep: если бы время
+        // вложенного этапа попадало и во внешний, внешний этап занял бы почти всю длительность, и вместе
+        // с вложенным сумма превысила бы ее
+        long phases = 0;
+        for (RequestTiming.Phase phase : RequestTiming.Phase.values()) {
+            phases += timing.getPhaseNanos(phase);
+        }
+        assertTrue(phases <= timing.getTotalNanos());
+    }
+
+    @Test
+    void testServerTiming_ListsOnlyTimedPhases() {
+        RequestTiming timing = RequestTiming.begin();
+        RequestTiming.exit(RequestTiming.enter(RequestTiming.Phase.INSERT));
+        RequestTiming.end();
+
+        String header = timing.toServerTiming();
+        assertTrue(header.matches("insert;dur=[0-9.]+, total;dur=[0-9.]+"), header);
+    }
+
+    @Test
+    void testServerTiming_BeforeEndIncludesActivePhase() throws InterruptedException {
+        RequestTiming timing = RequestTiming.begin();
+        RequestTiming.enter(RequestTiming.Phase.SERIALIZATION);
+        Thread.sleep(1);
+
+        // Заголовок, добавленный до завершения запроса, учитывает активный этап и время на текущий момент
+        String header = timing.toServerTiming();
+        assertTrue(header.matches("serialization;dur=[0-9.]+, total;dur=[0-9.]+"), header);
+    }
+
+    @Test
+    void testFilter_AddsHeaderWithoutBufferingBody() throws Exception {
+        RequestTimingFilter filter = new RequestTimingFilter(new TimingProperties(),
+                new SlowRequestLog(new TimingProperties()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/accounts/1"), response, (req, res) -> {
+            res.getOutputStream().write("first".getBytes(StandardCharsets.UTF_8));
+            // Заголовок добавлен до первой записи, а тело сразу передано ответу, а не накоплено в фильтре
+            assertTrue(response.getHeader(RequestTimingFilter.SERVER_TIMING).contains("total;dur="));
+            assertEquals("first", response.getContentAsString());
+            res.getOutputStream().write("second".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals("firstsecond", response.getContentAsString());
+        assertEquals(1, response.getHeaders(RequestTimingFilter.SERVER_TIMING).size());
+    }
+
+    @Test
+    void testFilter_AddsHeaderToResponseWithoutBody() throws Exception {
+        RequestTimingFilter filter = new RequestTimingFilter(new TimingProperties(),
+                new SlowRequestLog(new TimingProperties()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/accounts/1"), response,
+                (req, res) -> ((HttpServletResponse) res).setStatus(HttpServletResponse.SC_NOT_MODIFIED));
+
+        assertTrue(response.getHeader(RequestTimingFilter.SERVER_TIMING).contains("total;dur="));
+    }
+
+    @Test
+    void testOutsideRequest_DoesNothing() {
+        assertNull(RequestTiming.current());
+        assertNull(RequestTiming.enter(RequestTiming.Phase.LOAD));
+        RequestTiming.exit(null);
+        RequestTiming.timeCommit();
+        assertNull(RequestTiming.current());
+    }
+
+    @Test
+    void testSlowRequestLog_KeepsNewestRequests() {
+        TimingProperties properties = new TimingProperties();
+        properties.setSlowRequestThreshold(Duration.ZERO);
+        properties.setSlowRequestCapacity(2);
+        SlowRequestLog slowRequestLog = new SlowRequestLog(properties);
+
+        for (String uri : List.of("/first", "/second", "/third")) {
+            RequestTiming timing = RequestTiming.begin();
+            RequestTiming.end();
+            slowRequestLog.offer("GET", uri, 200, timing);
+        }
+
+        // Самая старая запись вытеснена, записи возвращаются начиная с самой новой
+        List<SlowRequestLog.SlowRequest> recent = slowRequestLog.getRecent();
+        assertEquals(List.of("/third", "/second"), recent.stream().map(SlowRequestLog.SlowRequest::uri).toList());
+    }
+
+    @Test
+    void testSlowRequestLog_SkipsFastRequests() {
+        SlowRequestLog slowRequestLog = new SlowRequestLog(new TimingProperties());
+        RequestTiming timing = RequestTiming.begin();
+        RequestTiming.end();
+
+        slowRequestLog.offer("GET", "/fast", 200, timing);
+
+        assertTrue(slowRequestLog.getRecent().isEmpty());
+    }
+}
@@ -0,0 +1,260 @@
+package ru.astondevs.bankingapitest.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.model.Transaction;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.service.AccountService;
+import ru.astondevs.bankingapitest.support.StatementCounter;
+import ru.astondevs.bankingapitest.support.StatementCountingConfiguration;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет планы запросов, которые Hibernate формирует для методов {@link AccountRepository}
+ * и {@link TransactionRepository}.
+ * <p>
+ * Каждый метод вызывается на заполненной базе данных, выполненные им запросы перехватываются прокси DataSource
+ * и повторяются под {@code EXPLAIN}. Тест падает, если план читает таблицу целиком вместо поиска по индексу
+ * или если метод перестал использовать ожидаемое условие индекса. Новый метод репозитория без проверки плана
+ * тоже ломает сборку: его нужно добавить в {@link #CHECKED_METHODS} и написать для него проверку.
+ * Поиск по истории счета строится из {@link TransactionSpecifications} и проверяется для каждого сочетания
+ * фильтров, для которого предназначены составные индексы.
+ */
+@SpringBootTest(properties = {"banking.grpc.enabled=false", "banking.audit.directory=target/audit/query-plans",
+        "spring.datasource.url=jdbc:h2:mem:query-plans",
+        // Счета вставляются в обход сервиса, поэтому индекс существования счетов о них не знает
+        "banking.existence-index.enabled=false"})
+@Import(StatementCountingConfiguration.class)
+class RepositoryQueryPlanTest {
+
+    private static final int SEEDED_ACCOUNTS = 5_000;
+    private static final int TRANSACTIONS_PER_ACCOUNT = 10;
+
+    /**
+     * Объявленные в репозиториях методы, планы которых проверяются этим тестом.
+     */
+    private static final Set<String> CHECKED_METHODS = Set.of(
+            "AccountRepository.findByBeneficiaryName",
+            "AccountRepository.findByAccountNumber",
+            "AccountRepository.findVersionById",
+            "TransactionRepository.findByAccount");
+
+    private static boolean seeded;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        if (!seeded) {
+            seed();
+            seeded = true;
+        }
+        account = accountRepository.findByAccountNumber("plan-" + SEEDED_ACCOUNTS / 2).orElseThrow();
+    }
+
+    @Test
+    void testEveryDeclaredMethodIsChecked() {
+        Set<String> declared = new TreeSet<>();
+        for (Class<?> repository : List.of(AccountRepository.class, TransactionRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (!method.isSynthetic() && !method.isDefault() && !Modifier.isStatic(method.getModifiers())) {
+                    declared.add(repository.getSimpleName() + "." + method.getName());
+                }
+            }
+        }
+        declared.removeAll(CHECKED_METHODS);
+
+        assertTrue(declared.isEmpty(), () -> "Repository methods without a query plan check: " + declared);
+    }
+
+    @Test
+    void testFindById() {
+        assertIndexed(() -> accountRepository.findById(account.getId()), "ID = ");
+    }
+
+    @Test
+    void testFindByBeneficiaryName() {
+        assertIndexed(() -> accountRepository.findByBeneficiaryName(account.getBeneficiaryName()),
+                "BENEFICIARY_NAME = ");
+    }
+
+    @Test
+    void testFindByAccountNumber() {
+        assertIndexed(() -> accountRepository.findByAccountNumber(account.getAccountNumber()), "ACCOUNT_NUMBER = ");
+    }
+
+    @Test
+    void testFindVersionById() {
+        assertIndexed(() -> accountRepository.findVersionById(account.getId()), "ID = ");
+    }
+
+    @Test
+    void testSave_UpdatesAccountByKey() {
+        // Загрузка счета и обновление строки с проверкой версии
+        assertIndexed(() -> transactionTemplate.executeWithoutResult(status -> {
+            Account loaded = accountRepository.findById(account.getId()).orElseThrow();
+            loaded.deposit(BigDecimal.ONE);
+            accountRepository.save(loaded);
+        }), "ID = ");
+    }
+
+    @Test
+    void testFindByAccount() {
+        assertIndexed(() -> transactionRepository.findByAccount(account), "ACCOUNT_ID = ");
+    }
+
+    @Test
+    void testSearchByCounterpartyAndType() {
+        // Все входящие переводы со счета другой стороны: i = 3 в данных seed()
+        Long counterparty = account.getId() + 3;
+        List<Transaction> found = new ArrayList<>();
+
+        assertIndexed(() -> found.addAll(accountService.searchTransactions(account.getId(),
+                        TransactionType.TRANSFER_IN, counterparty, null, null, 100)),
+                "COUNTERPARTY_ACCOUNT_ID = ", "TYPE = ");
+        assertEquals(1, found.size());
+        assertEquals(counterparty, found.get(0).getCounterpartyAccountId());
+    }
+
+    @Test
+    void testSearchByCounterparty() {
+        assertIndexed(() -> accountService.searchTransactions(account.getId(), null, account.getId() + 2,
+                null, null, 100), "COUNTERPARTY_ACCOUNT_ID = ");
+    }
+
+    @Test
+    void testSearchByTypeAndAmount() {
+        List<Transaction> found = new ArrayList<>();
+
+        assertIndexed(() -> found.addAll(accountService.searchTransactions(account.getId(), TransactionType.DEPOSIT,
+                null, new BigDecimal("5"), new BigDecimal("10"), 100)), "TYPE = ", "AMOUNT >= ");
+        // Пополнения с i = 5 и i = 10
+        assertEquals(2, found.size());
+    }
+
+    @Test
+    void testFindAll_ScansByDesign() {
+        // Список всех счетов по определению читает таблицу целиком; проверяется только, что запрос один
+        List<String> plans = explain(() -> accountRepository.findAll());
+
+        assertEquals(1, plans.size(), () -> "Unexpected statements:\n" + String.join("\n", plans));
+    }
+
+    /**
+     * Проверяет, что ни один запрос вызова не читает таблицу целиком, а среди условий поиска по индексу
+     * есть каждое из ожидаемых.
+     *
+     * @param call               вызов репозитория
+     * @param expectedConditions начала условий поиска по индексу, например {@code "ACCOUNT_ID = "}
+     */
+    private void assertIndexed(Runnable call, String... expectedConditions) {
+        List<String> plans = explain(call);
+        String report = String.join("\n", plans);
+
+        for (String plan : plans) {
+            assertFalse(plan.contains(".tableScan"), () -> "Query plan degraded to a table scan:\n" + report);
+        }
+        for (String condition : expectedConditions) {
+            assertTrue(plans.stream().anyMatch(plan -> indexConditions(plan).contains(condition)),
+                    () -> "No index lookup on " + condition + "...:\n" + report);
+        }
+    }
+
+    /**
+     * Выполняет вызов с пустым кэшем второго уровня и возвращает планы всех выполненных им запросов,
+     * кроме вставок.
+     */
+    private List<String> explain(Runnable call) {
+        entityManagerFactory.getCache().evictAll();
+        statementCounter.reset();
+        call.run();
+        List<StatementCounter.ExecutedQuery> queries = statementCounter.queries().stream()
+                .filter(query -> !query.sql().trim().toLowerCase(Locale.ROOT).startsWith("insert"))
+                .toList();
+        assertFalse(queries.isEmpty(), "The call executed no queries");
+
+        List<String> plans = new ArrayList<>();
+        for (StatementCounter.ExecutedQuery query : queries) {
+            plans.add(jdbcTemplate.queryForObject("EXPLAIN " + query.sql(), String.class,
+                    query.parameters().toArray()));
+        }
+        return plans;
+    }
+
+    /**
+     * Возвращает условия поиска по индексам из комментариев плана H2: после имени индекса через двоеточие
+     * указано условие, например {@code PUBLIC.PRIMARY_KEY_E: ID = ?1}.
+     */
+    private static String indexConditions(String plan) {
+        return Arrays.stream(plan.split("/\\*"))
+                .skip(1)
+                .map(comment -> comment.substring(0, Math.max(0, comment.indexOf("*/"))))
+                .filter(comment -> comment.contains(":"))
+                .map(comment -> comment.substring(comment.indexOf(':') + 1))
+                .collect(Collectors.joining(" | "));
+    }
+
+    /**
+     * Заполняет базу данных счетами с разными владельцами и транзакциями по ним и обновляет статистику
+     * оптимизатора, чтобы планы соответствовали таблицам рабочего размера. Транзакция i счета имеет сумму i,
+     * а ее тип зависит от остатка от деления i на 5: 0 - пополнение, 1 - снятие, 2 - исходящий перевод,
+     * 3 - входящий перевод, 4 - начисление процентов. Другая сторона перевода - счет с идентификатором на i больше.
+     */
+    private void seed() {
+        jdbcTemplate.batchUpdate("INSERT INTO account (beneficiary_name, account_number, pin, balance) VALUES (?, ?, ?, ?)",
+                IntStream.range(0, SEEDED_ACCOUNTS)
+                        .mapToObj(i -> new Object[]{"Plan Owner " + i % 1000, "plan-" + i, "1234", BigDecimal.TEN})
+                        .toList());
+        jdbcTemplate.update("INSERT INTO transaction (account_id, type, counterparty_account_id, amount, timestamp) "
+                        + "SELECT a.id, CASE MOD(r.x, 5) WHEN 0 THEN ? WHEN 1 THEN ? WHEN 2 THEN ? WHEN 3 THEN ? ELSE ? END, "
+                        + "CASE WHEN MOD(r.x, 5) IN (2, 3) THEN a.id + r.x END, r.x, CURRENT_TIMESTAMP "
+                        + "FROM account a, SYSTEM_RANGE(1, ?) r WHERE a.account_number LIKE 'plan-%'",
+                TransactionType.DEPOSIT.getCode(), TransactionType.WITHDRAW.getCode(),
+                TransactionType.TRANSFER_OUT.getCode(), TransactionType.TRANSFER_IN.getCode(),
+                TransactionType.INTEREST.getCode(), TRANSACTIONS_PER_ACCOUNT);
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
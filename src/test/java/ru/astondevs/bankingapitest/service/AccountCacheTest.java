@@ -0,0 +1,133 @@
+package ru.astondevs.bankingapitest.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.astondevs.bankingapitest.dto.AccountCreationRequest;
+import ru.astondevs.bankingapitest.dto.PostingRunRequest;
+import ru.astondevs.bankingapitest.model.Account;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.astondevs.bankingapitest.support.AsyncRequests.perform;
+
+@SpringBootTest(properties = {"banking.grpc.enabled=false", "banking.audit.directory=target/audit/account-cache"})
+@AutoConfigureMockMvc
+class AccountCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private PostingService postingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testGetAccount_SecondReadIsServedFromCache() throws Exception {
+        Account account = accountService.createAccount("Cache Test", "1234");
+        entityManagerFactory.getCache().evict(Account.class, account.getId());
+
+        perform(mockMvc, get("/api/accounts/" + account.getId())).andExpect(status().isOk());
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long statements = statistics.getPrepareStatementCount();
+
+        perform(mockMvc, get("/api/accounts/" + account.getId())).andExpect(status().isOk());
+
+        // Повторное чтение берет счет из кэша без обращения к базе данных
+        assertEquals(hits + 1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(meterRegistry.get("banking.hibernate.request.cache")
+                .tag("uri", "/api/accounts/{id}").tag("result", "hit").counter().count() >= 1);
+        assertTrue(meterRegistry.get("banking.hibernate.request.statements")
+                .tag("uri", "/api/accounts/{id}").summary().count() >= 2);
+    }
+
+    @Test
+    void testDeposit_UpdatesCachedAccount() throws Exception {
+        Account account = accountService.createAccount("Cache Test", "1234");
+        perform(mockMvc, get("/api/accounts/" + account.getId())).andExpect(status().isOk());
+
+        accountService.deposit(account.getId(), new BigDecimal("25.00"));
+
+        perform(mockMvc, get("/api/accounts/" + account.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(25.0));
+    }
+
+    @Test
+    void testFindByBeneficiaryName_UsesQueryCacheAndSeesImportedAccounts() {
+        String name = "Query Cache " + UUID.randomUUID().toString().substring(0, 8).replace("-", "");
+        accountService.createAccount(name, "1234");
+        assertEquals(1, accountService.getAllAccountsByBeneficiaryName(name).size());
+        long queryHits = statistics.getQueryCacheHitCount();
+
+        assertEquals(1, accountService.getAllAccountsByBeneficiaryName(name).size());
+        assertEquals(queryHits + 1, statistics.getQueryCacheHitCount());
+
+        // Импорт вставляет счета через JDBC и должен вытеснить кэшированные результаты поиска
+        AccountCreationRequest request = new AccountCreationRequest();
+        request.setBeneficiaryName(name);
+        request.setPin("5678");
+        accountImportService.createAccounts(List.of(request));
+
+        assertEquals(2, accountService.getAllAccountsByBeneficiaryName(name).size());
+    }
+
+    @Test
+    void testPosting_EvictsPostedAccounts() throws Exception {
+        Account account = accountService.deposit(accountService.createAccount("Cache Test", "1234").getId(),
+                new BigDecimal("100.00"));
+        perform(mockMvc, get("/api/accounts/" + account.getId())).andExpect(status().isOk());
+
+        PostingRunRequest request = new PostingRunRequest();
+        request.setRunId("cache-test-" + UUID.randomUUID());
+        request.setType("INTEREST");
+        request.setRate(new BigDecimal("0.5"));
+        String runId = postingService.submit(request).getId();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (postingService.getRun(runId).getStatus() == PostingRun.Status.RUNNING
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(PostingRun.Status.COMPLETED, postingService.getRun(runId).getStatus());
+
+        // Баланс изменен через JDBC: ответ должен содержать новое значение, а не закэшированное
+        perform(mockMvc, get("/api/accounts/" + account.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(150.0));
+    }
+}
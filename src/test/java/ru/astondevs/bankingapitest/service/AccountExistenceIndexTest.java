@@ -0,0 +1,144 @@
+package ru.astondevs.bankingapitest.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.astondevs.bankingapitest.config.AccountExistenceIndexProperties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountExistenceIndexTest {
+
+    private AccountExistenceIndexProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private AccountExistenceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AccountExistenceIndexProperties();
+        properties.setExpectedAccounts(100_000);
+        properties.setFalsePositiveProbability(0.01);
+        meterRegistry = new SimpleMeterRegistry();
+        index = new AccountExistenceIndex(properties, meterRegistry);
+    }
+
+    @Test
+    void testMightContain_NotReady() {
+        // До первого перестроения индекс не отвергает ни одного идентификатора
+        assertFalse(index.isReady());
+        assertTrue(index.mightContain(42L));
+    }
+
+    @Test
+    void testMightContain_NoFalseNegatives() {
+        index.rebuild(50_000, sink -> {
+            for (long id = 1; id <= 50_000; id++) {
+                sink.accept(id);
+            }
+        });
+
+        for (long id = 1; id <= 50_000; id++) {
+            assertTrue(index.mightContain(id));
+        }
+        assertEquals(50_000, index.getEntries());
+    }
+
+    @Test
+    void testMightContain_FalsePositiveRateWithinTarget() {
+        index.rebuild(100_000, sink -> {
+            for (long id = 1; id <= 100_000; id++) {
+                sink.accept(id);
+            }
+        });
+
+        int falsePositives = 0;
+        for (long id = 1_000_001; id <= 1_100_000; id++) {
+            if (index.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+
+        // Фактическая доля ложноположительных ответов близка к заданной вероятности
+        assertTrue(falsePositives < 100_000 * 0.02, "false positives: " + falsePositives);
+        assertTrue(index.getEstimatedFalsePositiveProbability() < 0.02);
+        assertEquals(100_000 - falsePositives,
+                meterRegistry.get("banking.account.index.lookups").tag("result", "absent").counter().count());
+    }
+
+    @Test
+    void testAdd_DuringRebuild() {
+        index.rebuild(0, sink -> sink.accept(1L));
+
+        // Счет, созданный во время перестроения, попадает в новый фильтр
+        index.rebuild(0, sink -> {
+            sink.accept(1L);
+            index.add(2L);
+        });
+        index.add(3L);
+
+        assertTrue(index.mightContain(1L));
+        assertTrue(index.mightContain(2L));
+        assertTrue(index.mightContain(3L));
+    }
+
+    @Test
+    void testAddAll_AfterCommit() {
+        index.rebuild(0, sink -> sink.accept(1L));
+        long[] ids = {2L, 3L, 4L};
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.addAll(ids, 2);
+            // До фиксации транзакции счета в индекс не попадают
+            assertFalse(index.mightContain(2L));
+            assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+            TransactionSynchronizationManager.getSynchronizations().get(0).afterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(index.mightContain(2L));
+        assertTrue(index.mightContain(3L));
+        assertEquals(3, index.getEntries());
+    }
+
+    @Test
+    void testAddAll_RolledBack() {
+        index.rebuild(0, sink -> sink.accept(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.addAll(new long[]{2L}, 1);
+            TransactionSynchronizationManager.getSynchronizations().get(0)
+                    .afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Счета откаченного пакета в индекс не попадают
+        assertFalse(index.mightContain(2L));
+    }
+
+    @Test
+    void testMetrics() {
+        index.rebuild(10, sink -> sink.accept(1L));
+        index.mightContain(2L);
+        index.recordFalsePositive();
+
+        assertTrue(meterRegistry.get("banking.account.index.memory").gauge().value() > 0);
+        assertEquals(1, meterRegistry.get("banking.account.index.entries").gauge().value());
+        assertEquals(0.5, meterRegistry.get("banking.account.index.fpp.observed").gauge().value());
+    }
+
+    @Test
+    void testDisabled() {
+        properties.setEnabled(false);
+        index.rebuild(10, sink -> sink.accept(1L));
+
+        assertTrue(index.mightContain(2L));
+    }
+}
@@ -0,0 +1,209 @@
+package ru.astondevs.bankingapitest.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.audit.AuditLog;
+import ru.astondevs.bankingapitest.config.AccountExistenceIndexProperties;
+import ru.astondevs.bankingapitest.config.AccountImportProperties;
+import ru.astondevs.bankingapitest.config.AccountNumberProperties;
+import ru.astondevs.bankingapitest.config.PinThrottleProperties;
+import ru.astondevs.bankingapitest.config.ShardingProperties;
+import ru.astondevs.bankingapitest.config.VelocityProperties;
+import ru.astondevs.bankingapitest.dto.AccountCreationRequest;
+import ru.astondevs.bankingapitest.exception.ImportNotFoundException;
+import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+import ru.astondevs.bankingapitest.repository.AccountRepository;
+import ru.astondevs.bankingapitest.repository.TransactionRepository;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardTransactions;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountImportServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private AuditLog auditLog;
+
+    @Mock
+    private AccountCacheEvictor accountCacheEvictor;
+
+    private AccountImportService accountImportService;
+
+    @BeforeEach
+    void setUp() {
+        AccountImportProperties properties = new AccountImportProperties();
+        properties.setBatchSize(2);
+        properties.setMaxReportedErrors(1);
+        properties.setMaxBulkSize(5);
+        AccountNumberGenerator accountNumberGenerator = new AccountNumberGenerator(new AccountNumberProperties());
+        AccountExistenceIndex accountExistenceIndex = new AccountExistenceIndex(
+                new AccountExistenceIndexProperties(), new SimpleMeterRegistry());
+        AccountService accountService = new AccountService(accountRepository, transactionRepository,
+                accountNumberGenerator, accountExistenceIndex, new PinAttemptThrottle(new PinThrottleProperties()),
+                new ShardRouter(new ShardingProperties()),
+                new ShardTransactions(new TransactionTemplate(transactionManager)), null,
+                new VelocityLimiter(new VelocityProperties()), auditLog);
+        accountImportService = new AccountImportService(accountService, accountNumberGenerator,
+                accountExistenceIndex, accountCacheEvictor, jdbcTemplate, new TransactionTemplate(transactionManager),
+                properties);
+    }
+
+    @Test
+    void testCreateAccounts_InsertsInBatches() {
+        List<AccountCreationRequest> requests = Arrays.asList(
+                request("Test1", "1234"),
+                request("Test2", "5678"),
+                request("Test3", "9012"));
+
+        AccountImport result = accountImportService.createAccounts(requests);
+
+        // Проверяем, что строки вставляются пакетами заданного размера
+        ArgumentCaptor<BatchPreparedStatementSetter> setterCaptor =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(any(PreparedStatementCreator.class), setterCaptor.capture(), any(KeyHolder.class));
+        assertEquals(2, setterCaptor.getAllValues().get(0).getBatchSize());
+        assertEquals(1, setterCaptor.getAllValues().get(1).getBatchSize());
+
+        assertEquals(AccountImport.Status.COMPLETED, result.getStatus());
+        assertEquals(3, result.getProcessedRows());
+        assertEquals(3, result.getCreatedCount());
+        assertEquals(0, result.getFailedCount());
+    }
+
+    @Test
+    void testCreateAccounts_ReportsErrorsPerRow() {
+        List<AccountCreationRequest> requests = Arrays.asList(
+                request("Test1", "1234"),
+                request("", "1234"),
+                null,
+                request("Test4", "12"));
+
+        AccountImport result = accountImportService.createAccounts(requests);
+
+        assertEquals(4, result.getProcessedRows());
+        assertEquals(1, result.getCreatedCount());
+        assertEquals(3, result.getFailedCount());
+
+        // В отчет попадает не больше ошибок, чем разрешено настройками
+        assertEquals(1, result.getErrors().size());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertEquals("Beneficiary name must not be empty", result.getErrors().get(0).getMessage());
+        assertTrue(result.isErrorsTruncated());
+    }
+
+    @Test
+    void testCreateAccounts_TooManyAccounts() {
+        List<AccountCreationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(request("Test", "1234"));
+        }
+
+        assertThrows(InvalidRequestException.class, () -> accountImportService.createAccounts(requests));
+    }
+
+    @Test
+    void testCreateAccounts_FailedBatchIsRetriedRowByRow() {
+        // Первая попытка вставить пакет целиком и вставка второй строки завершаются ошибкой
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class)))
+                .thenThrow(new DataIntegrityViolationException("batch failed"))
+                .thenReturn(new int[]{1})
+                .thenThrow(new DataIntegrityViolationException("row failed"));
+
+        AccountImport result = accountImportService.createAccounts(Arrays.asList(
+                request("Test1", "1234"),
+                request("Test2", "5678")));
+
+        assertEquals(2, result.getProcessedRows());
+        assertEquals(1, result.getCreatedCount());
+        assertEquals(1, result.getFailedCount());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertEquals("Failed to create account: row failed", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void testImportCsv() {
+        String csv = "beneficiaryName,pin\n"
+                + "Test1,1234\n"
+                + "\n"
+                + "\"Test 2\",5678\n"
+                + "Test3\n";
+
+        AccountImport result = accountImportService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        verify(jdbcTemplate, times(1)).batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class));
+        assertEquals(AccountImport.Status.COMPLETED, result.getStatus());
+        assertEquals(3, result.getProcessedRows());
+        assertEquals(2, result.getCreatedCount());
+        assertEquals(1, result.getFailedCount());
+
+        // Номер строки в отчете соответствует номеру строки в файле
+        assertEquals(5, result.getErrors().get(0).getRow());
+        assertFalse(result.isErrorsTruncated());
+    }
+
+    @Test
+    void testParseCsvLine() {
+        assertEquals(Arrays.asList("Test", "1234"), AccountImportService.parseCsvLine(" Test , 1234 "));
+        assertEquals(Arrays.asList("Te\"st", "1234"), AccountImportService.parseCsvLine("\"Te\"\"st\",1234"));
+        assertNull(AccountImportService.parseCsvLine("\"Test,1234"));
+    }
+
+    @Test
+    void testGetImport() {
+        AccountImport result = accountImportService.createAccounts(List.of(request("Test1", "1234")));
+
+        assertSame(result, accountImportService.getImport(result.getId()));
+        assertEquals(1, accountImportService.getImports().size());
+        assertThrows(ImportNotFoundException.class, () -> accountImportService.getImport("unknown"));
+    }
+
+    private static AccountCreationRequest request(String beneficiaryName, String pin) {
+        AccountCreationRequest request = new AccountCreationRequest();
+        request.setBeneficiaryName(beneficiaryName);
+        request.setPin(pin);
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.config.AccountNumberProperties;
+import ru.astondevs.bankingapitest.config.ShardingProperties;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardTransactions;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccountNumberGeneratorInitializerTest {
+
+    private static final long NOW = AccountNumberGenerator.EPOCH_MILLIS + 10_000;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void testSeed_ContinuesAfterLargestNumberOfNode() {
+        // Номера узла 1, выданные до перезапуска позже текущего времени, номер узла 2 и импортированный номер
+        long issued = generator(1, NOW + 500).nextId();
+        insertAccount(AccountNumberGenerator.format(generator(1, NOW + 400).nextId()));
+        insertAccount(AccountNumberGenerator.format(issued));
+        insertAccount(AccountNumberGenerator.format(generator(2, NOW + 900).nextId()));
+        insertAccount("9999999999999999999");
+
+        AccountNumberGenerator restarted = generator(1, NOW);
+        initializer(restarted).seed();
+
+        assertEquals(issued + 1, restarted.nextId());
+    }
+
+    @Test
+    void testSeed_NoNumbersOfNode() {
+        AccountNumberGenerator restarted = generator(1, NOW);
+        initializer(restarted).seed();
+
+        assertEquals(generator(1, NOW).nextId(), restarted.nextId());
+    }
+
+    private AccountNumberGeneratorInitializer initializer(AccountNumberGenerator generator) {
+        return new AccountNumberGeneratorInitializer(generator, jdbcTemplate,
+                new ShardRouter(new ShardingProperties()), new ShardTransactions(transactionTemplate));
+    }
+
+    private void insertAccount(String accountNumber) {
+        jdbcTemplate.update("INSERT INTO account (beneficiary_name, account_number, pin, balance) "
+                + "VALUES ('Person', ?, '1234', 0)", accountNumber);
+    }
+
+    private static AccountNumberGenerator generator(int nodeId, long millis) {
+        AccountNumberProperties properties = new AccountNumberProperties();
+        properties.setNodeId(nodeId);
+        return new AccountNumberGenerator(properties) {
+            @Override
+            long currentTimeMillis() {
+                return millis;
+            }
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.junit.jupiter.api.Test;
+import ru.astondevs.bankingapitest.config.AccountNumberProperties;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountNumberGeneratorTest {
+
+    @Test
+    void testNextAccountNumber_IsFixedWidthAndIncreasing() {
+        AccountNumberGenerator generator = new AccountNumberGenerator(new AccountNumberProperties());
+
+        String previous = generator.nextAccountNumber();
+        for (int i = 0; i < 10000; i++) {
+            String next = generator.nextAccountNumber();
+
+            // Номера имеют одинаковую длину, поэтому строковый порядок совпадает с порядком создания
+            assertEquals(19, next.length());
+            assertTrue(next.compareTo(previous) > 0);
+            previous = next;
+        }
+    }
+
+    @Test
+    void testNextAccountNumber_ContainsNodeId() {
+        AccountNumberProperties properties = new AccountNumberProperties();
+        properties.setNodeId(513);
+        AccountNumberGenerator generator = new AccountNumberGenerator(properties);
+
+        long id = Long.parseLong(generator.nextAccountNumber());
+
+        assertEquals(513, (id >>> AccountNumberGenerator.SEQUENCE_BITS) & AccountNumberGenerator.MAX_NODE_ID);
+    }
+
+    @Test
+    void testNextAccountNumber_SequenceOverflowAndClockGoingBack() {
+        // Часы стоят на месте, а затем переводятся назад
+        long[] clock = {AccountNumberGenerator.EPOCH_MILLIS + 1000};
+        AccountNumberGenerator generator = new AccountNumberGenerator(new AccountNumberProperties()) {
+            @Override
+            long currentTimeMillis() {
+                return clock[0];
+            }
+        };
+
+        Set<Long> ids = new HashSet<>();
+        long previous = -1;
+        for (int i = 0; i < 10000; i++) {
+            if (i == 5000) {
+                clock[0] -= 500;
+            }
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(ids.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void testAdvancePast_ContinuesAfterNumberIssuedBeforeRestart() {
+        // До перезапуска узел выдал номер на 500 мс позже, чем показывают часы после перезапуска
+        long[] clock = {AccountNumberGenerator.EPOCH_MILLIS + 1500};
+        AccountNumberGenerator generator = new AccountNumberGenerator(new AccountNumberProperties()) {
+            @Override
+            long currentTimeMillis() {
+                return clock[0];
+            }
+        };
+        long issued = generator.nextId();
+        clock[0] -= 500;
+        AccountNumberGenerator restarted = new AccountNumberGenerator(new AccountNumberProperties()) {
+            @Override
+            long currentTimeMillis() {
+                return clock[0];
+            }
+        };
+
+        restarted.advancePast(issued);
+
+        assertEquals(issued + 1, restarted.nextId());
+        // Меньший номер не отменяет продвижения счета
+        restarted.advancePast(0);
+        assertEquals(issued + 2, restarted.nextId());
+    }
+
+    @Test
+    void testNextAccountNumber_UniqueAcrossThreads() throws Exception {
+        AccountNumberGenerator generator = new AccountNumberGenerator(new AccountNumberProperties());
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        numbers.add(generator.nextAccountNumber());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(8 * 20000, numbers.size());
+    }
+
+    @Test
+    void testInvalidNodeId() {
+        AccountNumberProperties properties = new AccountNumberProperties();
+        properties.setNodeId(1024);
+
+        assertThrows(IllegalArgumentException.class, () -> new AccountNumberGenerator(properties));
+    }
+}
@@ -1,32 +1,55 @@
 package ru.astondevs.bankingapitest.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.audit.AuditEventType;
+import ru.astondevs.bankingapitest.audit.AuditLog;
+import ru.astondevs.bankingapitest.config.AccountExistenceIndexProperties;
+import ru.astondevs.bankingapitest.config.AccountNumberProperties;
+import ru.astondevs.bankingapitest.config.PinThrottleProperties;
+import ru.astondevs.bankingapitest.config.ShardingProperties;
 import ru.astondevs.bankingapitest.exception.AccountNotFoundException;
 import ru.astondevs.bankingapitest.exception.InsufficientBalanceException;
 import ru.astondevs.bankingapitest.exception.InvalidAmountException;
 import ru.astondevs.bankingapitest.exception.InvalidNameException;
 import ru.astondevs.bankingapitest.exception.InvalidPinException;
+import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+import ru.astondevs.bankingapitest.exception.TooManyPinAttemptsException;
+import ru.astondevs.bankingapitest.exception.VelocityLimitExceededException;
 import ru.astondevs.bankingapitest.model.Account;
 import ru.astondevs.bankingapitest.model.Transaction;
+import ru.astondevs.bankingapitest.model.TransactionType;
 import ru.astondevs.bankingapitest.repository.AccountRepository;
 import ru.astondevs.bankingapitest.repository.TransactionRepository;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardTransactions;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -43,10 +66,36 @@ class AccountServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Spy
+    private AccountNumberGenerator accountNumberGenerator = new AccountNumberGenerator(new AccountNumberProperties());
+
+    @Spy
+    private AccountExistenceIndex accountExistenceIndex = new AccountExistenceIndex(
+            new AccountExistenceIndexProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private PinAttemptThrottle pinAttemptThrottle = new PinAttemptThrottle(new PinThrottleProperties());
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+
+    @Spy
+    private ShardTransactions shardTransactions = new ShardTransactions(
+            new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)));
+
+    @Mock
+    private TransferSagaService transferSagaService;
+
+    @Spy
+    private VelocityLimiter velocityLimiter = new VelocityLimiter(VelocityLimiterTest.limitedProperties());
+
+    @Mock
+    private AuditLog auditLog;
+
     @Test
     void testCreateAccount() {
         // Ожидаемый объект Account
-        Account expectedAccount = new Account("Test", "1234");
+        Account expectedAccount = new Account("1", "Test", "1234");
 
         // Настраиваем поведение моков
         // Когда save() вызывается для любого объекта Account, возвращаем expectedAccount
@@ -86,7 +135,7 @@ class AccountServiceTest {
     @Test
     void testDeposit() {
         // Создаем объект Account
-        Account account = new Account("Test", "1234");
+        Account account = new Account("1", "Test", "1234");
 
         // Настраиваем поведение моков
         when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
@@ -112,8 +161,11 @@ class AccountServiceTest {
 
         // Проверяем, что создается правильная транзакция
         assertEquals(BigDecimal.valueOf(100), savedTransaction.getAmount());
-        assertEquals("deposit", savedTransaction.getType());
+        assertEquals(TransactionType.DEPOSIT, savedTransaction.getType());
         assertEquals(account, savedTransaction.getAccount());
+
+        // Проверяем, что пополнение записано в журнал аудита
+        verify(auditLog).record(AuditEventType.DEPOSIT, 1L, null, BigDecimal.valueOf(100));
     }
 
     @Test
@@ -129,7 +181,7 @@ class AccountServiceTest {
     @Test
     void testWithdraw_Success() {
         // Создаем объект Account
-        Account account = new Account("Test", "1234");
+        Account account = new Account("1", "Test", "1234");
         account.deposit(BigDecimal.valueOf(200));
 
         // Настраиваем поведение мока
@@ -156,7 +208,7 @@ class AccountServiceTest {
 
         // Проверяем, что создается правильная транзакция
         assertEquals(BigDecimal.valueOf(100), savedTransaction.getAmount());
-        assertEquals("withdraw", savedTransaction.getType());
+        assertEquals(TransactionType.WITHDRAW, savedTransaction.getType());
         assertEquals(account, savedTransaction.getAccount());
     }
 
@@ -173,7 +225,7 @@ class AccountServiceTest {
     @Test
     void testWithdraw_InsufficientBalance() {
         // Создаем объект Account с начальным балансом 0
-        Account account = new Account("Test", "1234");
+        Account account = new Account("1", "Test", "1234");
 
         // Настраиваем поведение моков
         when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
@@ -194,7 +246,7 @@ class AccountServiceTest {
     @Test
     void testWithdraw_InvalidPin() {
         // Создаем объект Account
-        Account account = new Account("Test", "1234");
+        Account account = new Account("1", "Test", "1234");
         account.deposit(BigDecimal.valueOf(200));
 
         // Настраиваем поведение мока
@@ -202,6 +254,97 @@ class AccountServiceTest {
 
         // Проверяем, что выбрасывается исключение InvalidPinException при неверном PIN-коде
         assertThrows(InvalidPinException.class, () -> accountService.withdraw(1L, "9999", BigDecimal.valueOf(100)));
+        verify(auditLog, never()).record(any(), any(), any(), any());
+    }
+
+    @Test
+    void testWithdraw_TooManyInvalidPinAttempts() {
+        Account account = new Account("1", "Test", "1234");
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+
+        // Исчерпываем лимит неудачных попыток для счета
+        for (int i = 0; i < 5; i++) {
+            assertThrows(InvalidPinException.class,
+                    () -> accountService.withdraw(1L, "9999", BigDecimal.valueOf(100), "10.0.0.1"));
+        }
+
+        // После блокировки даже верный PIN-код отклоняется, а репозиторий больше не вызывается
+        assertThrows(TooManyPinAttemptsException.class,
+                () -> accountService.withdraw(1L, "1234", BigDecimal.valueOf(100), "10.0.0.2"));
+        verify(accountRepository, times(5)).findById(1L);
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void testWithdraw_ConcurrentValidPinAttemptsAreNotThrottled() throws Exception {
+        Account account = new Account("1", "Test", "1234");
+        account.deposit(BigDecimal.valueOf(1000));
+        // Загрузка счета медленная, поэтому все запросы проверяют лимит до того, как завершится хотя бы один
+        when(accountRepository.findById(1L)).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return Optional.of(account);
+        });
+        // Больше емкости корзины счета (5) и корзины клиента (20): например, клиенты за общим NAT
+        int attempts = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return accountService.withdraw(1L, "1234", BigDecimal.ONE, "10.0.0.1");
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Верный PIN-код не расходует лимит неудачных попыток
+        verify(accountRepository, times(attempts)).findById(1L);
+        assertThrows(InvalidPinException.class,
+                () -> accountService.withdraw(1L, "9999", BigDecimal.ONE, "10.0.0.1"));
+    }
+
+    @Test
+    void testWithdraw_VelocityLimitExceeded() {
+        Account account = new Account("1", "Test", "1234");
+        account.deposit(BigDecimal.valueOf(20000));
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+
+        // Лимит - 10000.00 за 24 часа
+        accountService.withdraw(1L, "1234", BigDecimal.valueOf(6000));
+        VelocityLimitExceededException exception = assertThrows(VelocityLimitExceededException.class,
+                () -> accountService.withdraw(1L, "1234", BigDecimal.valueOf(5000)));
+
+        // Баланс не изменился, а ответ сообщает, когда повторить снятие
+        assertEquals(BigDecimal.valueOf(14000), account.getBalance());
+        assertTrue(exception.getRetryAfterSeconds() > 0);
+        verify(accountRepository, times(1)).save(any(Account.class));
+
+        // Сумма, которая сама по себе превышает лимит, недопустима
+        assertThrows(InvalidAmountException.class,
+                () -> accountService.withdraw(1L, "1234", BigDecimal.valueOf(10001)));
+    }
+
+    @Test
+    void testTransfer_VelocityLimitExceeded() {
+        Account fromAccount = new Account("1", "From", "1234");
+        fromAccount.deposit(BigDecimal.valueOf(100));
+        Account toAccount = new Account("2", "To", "1234");
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findById(2L)).thenReturn(Optional.of(toAccount));
+
+        // Лимит - 10 исходящих переводов в минуту
+        for (int i = 0; i < 10; i++) {
+            accountService.transfer(1L, "1234", BigDecimal.ONE, 2L);
+        }
+        assertThrows(VelocityLimitExceededException.class,
+                () -> accountService.transfer(1L, "1234", BigDecimal.ONE, 2L));
+
+        assertEquals(BigDecimal.valueOf(90), fromAccount.getBalance());
+        assertEquals(BigDecimal.valueOf(10), toAccount.getBalance());
     }
 
     @Test
@@ -216,9 +359,9 @@ class AccountServiceTest {
     @Test
     void testTransfer() {
         // Создаем два объекта Account
-        Account fromAccount = new Account("Test1", "1234");
+        Account fromAccount = new Account("1", "Test1", "1234");
         fromAccount.deposit(BigDecimal.valueOf(200));
-        Account toAccount = new Account("Test2", "5678");
+        Account toAccount = new Account("1", "Test2", "5678");
 
         // Настраиваем поведение моков
         when(accountRepository.findById(1L)).thenReturn(Optional.of(fromAccount));
@@ -247,12 +390,16 @@ class AccountServiceTest {
         // Проверяем, что баланс счета toAccount увеличился на правильную сумму
         assertEquals(BigDecimal.valueOf(100), toAccount.getBalance());
 
-        // Проверяем, что создаются правильные транзакции
+        // Проверяем, что создаются правильные транзакции с указанием счета другой стороны перевода
         for (Transaction savedTransaction : savedTransactions) {
             assertEquals(BigDecimal.valueOf(100), savedTransaction.getAmount());
-            assertTrue(savedTransaction.getType().startsWith("transfer"));
             assertTrue(savedTransaction.getAccount().equals(fromAccount) || savedTransaction.getAccount().equals(toAccount));
         }
+        assertEquals(TransactionType.TRANSFER_OUT, savedTransactions.get(0).getType());
+        assertEquals(2L, savedTransactions.get(0).getCounterpartyAccountId());
+        assertEquals(TransactionType.TRANSFER_IN, savedTransactions.get(1).getType());
+        assertEquals(1L, savedTransactions.get(1).getCounterpartyAccountId());
+        verify(auditLog).record(AuditEventType.TRANSFER, 1L, 2L, BigDecimal.valueOf(100));
     }
 
     @Test
@@ -262,9 +409,9 @@ class AccountServiceTest {
             accountService.transfer(1L, "1234", BigDecimal.valueOf(-100), 2L);
 
             // Создаем два объекта Account
-            Account fromAccount = new Account("Test1", "1234");
+            Account fromAccount = new Account("1", "Test1", "1234");
             fromAccount.deposit(BigDecimal.valueOf(200));
-            Account toAccount = new Account("Test2", "5678");
+            Account toAccount = new Account("1", "Test2", "5678");
 
             // Настраиваем поведение моков
             when(accountRepository.findById(1L)).thenReturn(Optional.of(fromAccount));
@@ -283,7 +430,7 @@ class AccountServiceTest {
             accountService.transfer(1L, "1234", BigDecimal.valueOf(100), 2L);
 
             // Создаем объект Account
-            Account toAccount = new Account("Test2", "5678");
+            Account toAccount = new Account("1", "Test2", "5678");
 
             // Настраиваем поведение моков
             when(accountRepository.findById(1L)).thenReturn(Optional.empty());
@@ -298,7 +445,7 @@ class AccountServiceTest {
     @Test
     void testTransfer_ToAccountNotFound() {
         // Создаем объект Account
-        Account fromAccount = new Account("Test1", "1234");
+        Account fromAccount = new Account("1", "Test1", "1234");
         fromAccount.deposit(BigDecimal.valueOf(200));
 
         // Настраиваем поведение моков
@@ -312,9 +459,9 @@ class AccountServiceTest {
     @Test
     void testTransfer_InvalidPin() {
         // Создаем два объекта Account
-        Account fromAccount = new Account("Test1", "1234");
+        Account fromAccount = new Account("1", "Test1", "1234");
         fromAccount.deposit(BigDecimal.valueOf(200));
-        Account toAccount = new Account("Test2", "5678");
+        Account toAccount = new Account("1", "Test2", "5678");
 
         // Настраиваем поведение моков
         when(accountRepository.findById(1L)).thenReturn(Optional.of(fromAccount));
@@ -327,7 +474,7 @@ class AccountServiceTest {
     @Test
     void testGetAccount() {
         // Создаем объект Account
-        Account account = new Account("Test", "1234");
+        Account account = new Account("1", "Test", "1234");
         account.deposit(BigDecimal.valueOf(200));
 
         // Настраиваем поведение мока
@@ -352,16 +499,63 @@ class AccountServiceTest {
         assertThrows(AccountNotFoundException.class, () -> accountService.getAccount(1L));
     }
 
+    @Test
+    void testGetAccount_AbsentFromExistenceIndex() {
+        // Индекс построен и содержит только счет с идентификатором 1
+        accountExistenceIndex.rebuild(1, sink -> sink.accept(1L));
+
+        // Проверяем, что для отсутствующего счета исключение выбрасывается без обращения к репозиторию
+        assertThrows(AccountNotFoundException.class, () -> accountService.getAccount(2L));
+        verify(accountRepository, never()).findById(2L);
+    }
+
+    @Test
+    void testGetAccountVersion() {
+        when(accountRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+
+        // Версия читается отдельным запросом, счет целиком не загружается
+        assertEquals(3L, accountService.getAccountVersion(1L));
+        verify(accountRepository, never()).findById(1L);
+    }
+
+    @Test
+    void testGetAccountVersion_AccountNotFound() {
+        when(accountRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class, () -> accountService.getAccountVersion(1L));
+    }
+
+    @Test
+    void testGetAccountByNumber() {
+        // Создаем объект Account
+        Account account = new Account("0000000000000000042", "Test", "1234");
+
+        // Настраиваем поведение мока
+        when(accountRepository.findByAccountNumber("0000000000000000042")).thenReturn(Optional.of(account));
+
+        // Проверяем, что возвращается счет с указанным номером
+        assertEquals(account, accountService.getAccountByNumber("0000000000000000042"));
+    }
+
+    @Test
+    void testGetAccountByNumber_AccountNotFound() {
+        // Настраиваем поведение мока
+        when(accountRepository.findByAccountNumber("unknown")).thenReturn(Optional.empty());
+
+        // Проверяем, что выбрасывается исключение AccountNotFoundException при отсутствии счета
+        assertThrows(AccountNotFoundException.class, () -> accountService.getAccountByNumber("unknown"));
+    }
+
     @Test
     void testGetTransactions() {
         // Создаем объект Account
-        Account account = new Account("Test", "1234");
+        Account account = new Account("1", "Test", "1234");
         account.deposit(BigDecimal.valueOf(200));
 
         // Создаем список транзакций
         List<Transaction> transactions = new ArrayList<>();
-        Transaction transaction1 = new Transaction(account, BigDecimal.valueOf(100), "deposit");
-        Transaction transaction2 = new Transaction(account, BigDecimal.valueOf(100), "withdraw");
+        Transaction transaction1 = new Transaction(account, BigDecimal.valueOf(100), TransactionType.DEPOSIT);
+        Transaction transaction2 = new Transaction(account, BigDecimal.valueOf(100), TransactionType.WITHDRAW);
         transactions.add(transaction1);
         transactions.add(transaction2);
 
@@ -389,12 +583,52 @@ class AccountServiceTest {
         assertThrows(AccountNotFoundException.class, () -> accountService.getTransactions(1L));
     }
 
+    @Test
+    void testSearchTransactions() {
+        Account account = new Account("1", "Test", "1234");
+        List<Transaction> transactions = List.of(
+                new Transaction(account, BigDecimal.TEN, TransactionType.TRANSFER_IN, 2L));
+
+        // Настраиваем поведение моков
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        when(transactionRepository.findBy(any(Specification.class), any())).thenReturn(transactions);
+
+        // Вызываем тестируемый метод
+        List<Transaction> result = accountService.searchTransactions(1L, TransactionType.TRANSFER_IN, 2L,
+                null, null, 10);
+
+        // Проверяем, что возвращается результат поиска
+        assertEquals(transactions, result);
+    }
+
+    @Test
+    void testSearchTransactions_InvalidFilters() {
+        // Проверяем, что пустой диапазон сумм и недопустимое количество отклоняются без обращения к репозиториям
+        assertThrows(InvalidRequestException.class, () -> accountService.searchTransactions(1L, null, null,
+                BigDecimal.TEN, BigDecimal.ONE, 10));
+        assertThrows(InvalidRequestException.class, () -> accountService.searchTransactions(1L, null, null,
+                null, null, 0));
+        assertThrows(InvalidRequestException.class, () -> accountService.searchTransactions(1L, null, null,
+                null, null, AccountService.MAX_SEARCH_RESULTS + 1));
+        verify(accountRepository, never()).findById(1L);
+    }
+
+    @Test
+    void testSearchTransactions_AccountNotFound() {
+        // Настраиваем поведение мока
+        when(accountRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Проверяем, что выбрасывается исключение AccountNotFoundException при отсутствии счета
+        assertThrows(AccountNotFoundException.class,
+                () -> accountService.searchTransactions(1L, null, null, null, null, 10));
+    }
+
     @Test
     void testGetAllAccounts() {
         // Создаем список аккаунтов
         List<Account> accounts = new ArrayList<>();
-        Account account1 = new Account("Test1", "1234");
-        Account account2 = new Account("Test2", "5678");
+        Account account1 = new Account("1", "Test1", "1234");
+        Account account2 = new Account("1", "Test2", "5678");
         accounts.add(account1);
         accounts.add(account2);
 
@@ -415,13 +649,13 @@ class AccountServiceTest {
     void testGetAllAccountsByBeneficiaryName() {
         // Создаем список аккаунтов для бенефициария "Test1"
         List<Account> accountsTest1 = new ArrayList<>();
-        Account account1 = new Account("Test1", "1234");
-        Account account2 = new Account("Test1", "5678");
+        Account account1 = new Account("1", "Test1", "1234");
+        Account account2 = new Account("1", "Test1", "5678");
         accountsTest1.add(account1);
         accountsTest1.add(account2);
 
         // Создаем аккаунт для другого бенефициария
-        Account account3 = new Account("Test2", "9012");
+        Account account3 = new Account("1", "Test2", "9012");
 
         // Настраиваем поведение мока
         when(accountRepository.findByBeneficiaryName("Test1")).thenReturn(accountsTest1);
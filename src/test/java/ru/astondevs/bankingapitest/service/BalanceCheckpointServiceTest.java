@@ -0,0 +1,158 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.config.CheckpointProperties;
+import ru.astondevs.bankingapitest.config.ShardingProperties;
+import ru.astondevs.bankingapitest.exception.AccountNotFoundException;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardTransactions;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BalanceCheckpointServiceTest {
+
+    private static final long ACCOUNT_ID = 3;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private BalanceCheckpointService balanceCheckpointService;
+
+    @BeforeEach
+    void setUp() {
+        // Каждый тест работает с отдельной базой данных в памяти, созданной миграциями приложения
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        CheckpointProperties properties = new CheckpointProperties();
+        properties.setTransactionsPerCheckpoint(3);
+        properties.setSettleTime(Duration.ZERO);
+        balanceCheckpointService = new BalanceCheckpointService(jdbcTemplate, new ShardRouter(new ShardingProperties()),
+                new ShardTransactions(new TransactionTemplate(new DataSourceTransactionManager(dataSource))),
+                properties);
+
+        // Десять пополнений по 10 с интервалом в минуту: 10:00 ... 10:09
+        for (int i = 0; i < 10; i++) {
+            insertTransaction(TransactionType.DEPOSIT, "10", START.plusMinutes(i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void testGetBalanceAt_WithoutCheckpoints() {
+        HistoricalBalance balance = balanceCheckpointService.getBalanceAt(ACCOUNT_ID, START.plusSeconds(270));
+
+        // Без контрольных точек суммируются все транзакции до 10:04:30
+        assertEquals(0, new BigDecimal("50").compareTo(balance.getBalance()));
+        assertNull(balance.getCheckpointAt());
+        assertEquals(5, balance.getReplayedTransactions());
+    }
+
+    @Test
+    void testCheckpointShard_BoundsReplay() {
+        insertTransaction(TransactionType.WITHDRAW, "25", START.plusMinutes(10));
+
+        assertEquals(3, balanceCheckpointService.checkpointShard(0));
+
+        // Точки поставлены после каждых трех транзакций счета
+        List<LocalDateTime> checkpoints = checkpointTimes();
+        assertEquals(List.of(START.plusMinutes(2), START.plusMinutes(5), START.plusMinutes(8)), checkpoints);
+        HistoricalBalance balance = balanceCheckpointService.getBalanceAt(ACCOUNT_ID, START.plusMinutes(7));
+        assertEquals(START.plusMinutes(5), balance.getCheckpointAt());
+        assertEquals(2, balance.getReplayedTransactions());
+        assertEquals(0, new BigDecimal("80").compareTo(balance.getBalance()));
+        assertEquals(0, new BigDecimal("75").compareTo(
+                balanceCheckpointService.getBalanceAt(ACCOUNT_ID, START.plusHours(1)).getBalance()));
+        // До первой транзакции баланс нулевой
+        assertEquals(0, BigDecimal.ZERO.compareTo(
+                balanceCheckpointService.getBalanceAt(ACCOUNT_ID, START.minusMinutes(1)).getBalance()));
+
+        // Повторный запуск без новых транзакций точек не добавляет
+        assertEquals(0, balanceCheckpointService.checkpointShard(0));
+    }
+
+    @Test
+    void testCheckpointShard_KeepsTransactionsWithSameTime() {
+        LocalDateTime time = START.plusMinutes(30);
+        for (int i = 0; i < 4; i++) {
+            insertTransaction(TransactionType.DEPOSIT, "1", time);
+        }
+        insertTransaction(TransactionType.DEPOSIT, "1", time.plusMinutes(1));
+
+        balanceCheckpointService.checkpointShard(0);
+
+        // Точка не разделяет транзакции с одинаковым временем
+        assertTrue(checkpointTimes().contains(time));
+        HistoricalBalance balance = balanceCheckpointService.getBalanceAt(ACCOUNT_ID, time);
+        assertEquals(time, balance.getCheckpointAt());
+        assertEquals(0, balance.getReplayedTransactions());
+        assertEquals(0, new BigDecimal("104").compareTo(balance.getBalance()));
+    }
+
+    @Test
+    void testCheckpointShard_RebuildsAfterBackdatedTransaction() {
+        balanceCheckpointService.checkpointShard(0);
+
+        // Транзакция вставлена задним числом, например, при продолжении прерванной массовой проводки
+        insertTransaction(TransactionType.FEE, "3", START.plusSeconds(210));
+        balanceCheckpointService.checkpointShard(0);
+
+        assertEquals(List.of(START.plusMinutes(2), START.plusMinutes(4), START.plusMinutes(7)), checkpointTimes());
+        for (int minute = 0; minute < 10; minute++) {
+            LocalDateTime at = START.plusMinutes(minute);
+            BigDecimal expected = BigDecimal.valueOf(10L * (minute + 1) - (minute >= 4 ? 3 : 0));
+            assertEquals(0, expected.compareTo(balanceCheckpointService.getBalanceAt(ACCOUNT_ID, at).getBalance()),
+                    "Balance at " + at);
+        }
+    }
+
+    @Test
+    void testCheckpointShard_StopsBeforeRunningPosting() {
+        jdbcTemplate.update("INSERT INTO posting_run (id, type, amount, status, posted_at, resumed_at, min_account_id, "
+                        + "max_account_id, chunk_size, chunk_count) VALUES ('run-1', 'FEE', 1, 'RUNNING', ?, ?, 1, 6, 10, 1)",
+                START.plusMinutes(6), START.plusMinutes(6));
+
+        balanceCheckpointService.checkpointShard(0);
+
+        // Выполняющаяся проводка может вставить транзакции со временем своего начала
+        assertEquals(List.of(START.plusMinutes(2), START.plusMinutes(5)), checkpointTimes());
+    }
+
+    @Test
+    void testGetBalanceAt_AccountNotFound() {
+        assertThrows(AccountNotFoundException.class,
+                () -> balanceCheckpointService.getBalanceAt(100L, START));
+    }
+
+    private void insertTransaction(TransactionType type, String amount, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO transaction (account_id, type, amount, timestamp) VALUES (?, ?, ?, ?)",
+                ACCOUNT_ID, type.getCode(), new BigDecimal(amount), timestamp);
+    }
+
+    private List<LocalDateTime> checkpointTimes() {
+        return jdbcTemplate.queryForList("SELECT checkpoint_at FROM balance_checkpoint WHERE account_id = ? "
+                + "ORDER BY checkpoint_at", LocalDateTime.class, ACCOUNT_ID);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongLongHashMapTest {
+
+    @Test
+    void testAddTo_AccumulatesPerKey() {
+        LongLongHashMap map = new LongLongHashMap(4);
+
+        map.addTo(1, 100);
+        map.addTo(2, 50);
+        map.addTo(1, -30);
+
+        assertEquals(70, map.get(1, 0));
+        assertEquals(50, map.get(2, 0));
+        assertEquals(-1, map.get(3, -1));
+        assertTrue(map.containsKey(2));
+        assertFalse(map.containsKey(3));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void testAddTo_GrowsBeyondExpectedSize() {
+        LongLongHashMap map = new LongLongHashMap(2);
+
+        // Таблица должна расширяться без потери записей, в том числе для ключей с одинаковыми младшими битами
+        for (long key = 1; key <= 10_000; key++) {
+            map.addTo(key << 20, key);
+        }
+
+        assertEquals(10_000, map.size());
+        for (long key = 1; key <= 10_000; key++) {
+            assertEquals(key, map.get(key << 20, 0));
+        }
+    }
+
+    @Test
+    void testAddTo_ZeroKeyIsRejected() {
+        LongLongHashMap map = new LongLongHashMap(4);
+
+        assertThrows(IllegalArgumentException.class, () -> map.addTo(0, 1));
+        assertFalse(map.containsKey(0));
+    }
+}
@@ -0,0 +1,190 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.astondevs.bankingapitest.config.PinThrottleProperties;
+import ru.astondevs.bankingapitest.exception.TooManyPinAttemptsException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PinAttemptThrottleTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAccountLockout() {
+        PinAttemptThrottle throttle = new PinAttemptThrottle(new PinThrottleProperties());
+
+        for (int i = 0; i < 5; i++) {
+            throttle.checkAllowed(1L, "10.0.0.1");
+            throttle.recordFailure(1L, "10.0.0.1");
+        }
+
+        // Счет заблокирован для любого клиента, другие счета доступны
+        TooManyPinAttemptsException e = assertThrows(TooManyPinAttemptsException.class,
+                () -> throttle.checkAllowed(1L, "10.0.0.2"));
+        assertTrue(e.getRetryAfterSeconds() >= 1 && e.getRetryAfterSeconds() <= 60);
+        assertDoesNotThrow(() -> throttle.checkAllowed(2L, "10.0.0.1"));
+    }
+
+    @Test
+    void testClientLockoutAcrossAccounts() {
+        PinAttemptThrottle throttle = new PinAttemptThrottle(new PinThrottleProperties());
+
+        // Клиент перебирает PIN-коды по разным счетам, не превышая лимит для каждого счета
+        for (long accountId = 1; accountId <= 20; accountId++) {
+            throttle.checkAllowed(accountId, "10.0.0.1");
+            throttle.recordFailure(accountId, "10.0.0.1");
+        }
+
+        assertThrows(TooManyPinAttemptsException.class, () -> throttle.checkAllowed(100L, "10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.checkAllowed(100L, "10.0.0.2"));
+        assertDoesNotThrow(() -> throttle.checkAllowed(100L, null));
+    }
+
+    @Test
+    void testDisabled() {
+        PinThrottleProperties properties = new PinThrottleProperties();
+        properties.setEnabled(false);
+        PinAttemptThrottle throttle = new PinAttemptThrottle(properties);
+
+        for (int i = 0; i < 10; i++) {
+            throttle.recordFailure(1L, "10.0.0.1");
+            assertDoesNotThrow(() -> throttle.checkAllowed(1L, "10.0.0.1"));
+        }
+    }
+
+    @Test
+    void testSnapshotSurvivesRestart() {
+        PinThrottleProperties properties = new PinThrottleProperties();
+        properties.setSnapshotFile(tempDir.resolve("pin-throttle.snapshot").toString());
+        PinAttemptThrottle throttle = new PinAttemptThrottle(properties);
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure(1L, "10.0.0.1");
+        }
+        throttle.saveSnapshot();
+        assertTrue(Files.exists(tempDir.resolve("pin-throttle.snapshot")));
+
+        // Новый экземпляр восстанавливает блокировку из файла
+        PinAttemptThrottle restarted = new PinAttemptThrottle(properties);
+        restarted.loadSnapshot();
+
+        assertThrows(TooManyPinAttemptsException.class, () -> restarted.checkAllowed(1L, null));
+        assertDoesNotThrow(() -> restarted.checkAllowed(2L, null));
+    }
+
+    @Test
+    void testTokenBucketRefillAndEviction() {
+        TokenBucketStore store = new TokenBucketStore(2, 1000, 1, 2);
+
+        assertTrue(store.tryConsume("a", 0));
+        assertTrue(store.tryConsume("a", 0));
+        assertFalse(store.tryConsume("a", 0));
+        assertEquals(500, store.millisUntilToken("a", 500));
+        assertTrue(store.tryConsume("a", 1000));
+
+        // При переполнении вытесняются только полностью восстановленные корзины
+        assertTrue(store.tryConsume("b", 4000));
+        assertTrue(store.tryConsume("c", 4000));
+        Set<String> keys = new HashSet<>();
+        store.forEachPartial(4000, (key, state) -> keys.add(key));
+        assertEquals(2, store.size());
+        assertEquals(Set.of("b", "c"), keys);
+    }
+
+    @Test
+    void testTokenBucketNeverEvictsDrainedBuckets() {
+        TokenBucketStore store = new TokenBucketStore(1, 1000, 1, 2);
+        assertTrue(store.tryConsume("locked", 0));
+        assertTrue(store.tryConsume("other", 0));
+
+        // Поток новых ключей не вытесняет заблокированную корзину: новые ключи не получают токенов
+        for (int i = 0; i < 100; i++) {
+            assertFalse(store.tryConsume("flood-" + i, 0));
+        }
+        assertFalse(store.tryConsume("locked", 0));
+        assertEquals(1000, store.millisUntilToken("flood-0", 0));
+
+        // Когда корзины восстановились, место освобождается
+        assertTrue(store.tryConsume("flood-0", 1000));
+    }
+
+    @Test
+    void testCheckDoesNotConsumeAttempts() {
+        PinAttemptThrottle throttle = new PinAttemptThrottle(new PinThrottleProperties());
+
+        // Запросы с верным PIN-кодом только проверяют лимит и не расходуют его
+        for (int i = 0; i < 100; i++) {
+            throttle.checkAllowed(1L, "10.0.0.1");
+        }
+
+        assertDoesNotThrow(() -> throttle.checkAllowed(1L, "10.0.0.1"));
+    }
+
+    @Test
+    void testConcurrentFailuresDoNotExceedCapacity() throws Exception {
+        TokenBucketStore store = new TokenBucketStore(5, 60_000, 1, 10);
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger consumed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                if (store.tryConsume("1", 0)) {
+                    consumed.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Одновременные вызовы расходуют не больше токенов, чем емкость корзины
+        assertEquals(5, consumed.get());
+        assertEquals(60_000, store.millisUntilToken("1", 0));
+    }
+
+    @Test
+    void testRefillPeriodFromProperties() {
+        PinThrottleProperties properties = new PinThrottleProperties();
+        properties.setAccount(new PinThrottleProperties.Bucket(1, Duration.ofMillis(1)));
+        PinAttemptThrottle throttle = new PinAttemptThrottle(properties);
+
+        throttle.recordFailure(1L, null);
+
+        // Корзина с периодом восстановления в одну миллисекунду быстро снимает блокировку
+        long deadline = System.currentTimeMillis() + 1000;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                throttle.checkAllowed(1L, null);
+                return;
+            } catch (TooManyPinAttemptsException e) {
+                Thread.onSpinWait();
+            }
+        }
+        throw new AssertionError("Bucket was not refilled");
+    }
+}
@@ -0,0 +1,216 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.audit.AuditEventType;
+import ru.astondevs.bankingapitest.audit.AuditLog;
+import ru.astondevs.bankingapitest.config.PostingProperties;
+import ru.astondevs.bankingapitest.config.ShardingProperties;
+import ru.astondevs.bankingapitest.dto.PostingRunRequest;
+import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+import ru.astondevs.bankingapitest.exception.PostingNotFoundException;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PostingServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AccountCacheEvictor accountCacheEvictor;
+    private AuditLog auditLog;
+    private PostingService postingService;
+
+    @BeforeEach
+    void setUp() {
+        // Каждый тест работает с отдельной базой данных в памяти, созданной миграциями приложения
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        PostingProperties properties = new PostingProperties();
+        properties.setChunkSize(2);
+        properties.setParallelism(2);
+        properties.setBatchSize(1);
+        accountCacheEvictor = mock(AccountCacheEvictor.class);
+        auditLog = mock(AuditLog.class);
+        postingService = new PostingService(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                accountCacheEvictor, properties, new ShardRouter(new ShardingProperties()), auditLog);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        postingService.shutdown();
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void testSubmit_PostsInterest() throws InterruptedException {
+        PostingRun run = awaitFinished(postingService.submit(interest("2024-01-interest", "0.01")).getId());
+
+        assertEquals(PostingRun.Status.COMPLETED, run.getStatus());
+        assertEquals(3, run.getCompletedChunks());
+        // Счета с нулевым балансом обрабатываются, но не затрагиваются
+        assertEquals(6, run.getAccountsProcessed());
+        assertEquals(4, run.getAccountsPosted());
+        assertEquals(0, new BigDecimal("3.00").compareTo(run.getTotalAmount()));
+        assertBalance(1, "101.00");
+        assertBalance(2, "50.50");
+        assertBalance(3, "0.00");
+        assertEquals(4, countTransactions(TransactionType.INTEREST));
+        // Версия счета увеличивается, чтобы клиенты не получили устаревший ETag
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT version FROM account WHERE id = 1", Long.class));
+        // Измененные через JDBC счета вытесняются из кэша второго уровня
+        verify(accountCacheEvictor).evictAccounts(List.of(1L, 2L));
+        verify(accountCacheEvictor).evictAccounts(List.of(4L));
+        verify(accountCacheEvictor).evictAccounts(List.of(6L));
+        // Каждая проводка записывается в журнал аудита
+        verify(auditLog).record(AuditEventType.INTEREST, 1L, null, new BigDecimal("1.00"));
+        verify(auditLog, times(4)).record(eq(AuditEventType.INTEREST), anyLong(), isNull(), any());
+    }
+
+    @Test
+    void testSubmit_ChargesFeeUpToBalance() throws InterruptedException {
+        PostingRunRequest request = new PostingRunRequest();
+        request.setRunId("2024-01-fee");
+        request.setType("FEE");
+        request.setAmount(new BigDecimal("60"));
+
+        PostingRun run = awaitFinished(postingService.submit(request).getId());
+
+        assertEquals(PostingRun.Status.COMPLETED, run.getStatus());
+        assertBalance(1, "40.00");
+        assertBalance(2, "0.00");
+        assertBalance(3, "0.00");
+        assertEquals(0, new BigDecimal("220.00").compareTo(run.getTotalAmount()));
+        assertEquals(4, countTransactions(TransactionType.FEE));
+        // В журнал аудита комиссия записывается положительной суммой, как и в истории счета
+        verify(auditLog).record(eq(AuditEventType.FEE), eq(2L), isNull(), argThat(amount -> amount.signum() > 0));
+        verify(auditLog, times(4)).record(eq(AuditEventType.FEE), anyLong(), isNull(), any());
+    }
+
+    @Test
+    void testSubmit_SameRunIdIsNotPostedTwice() throws InterruptedException {
+        String runId = postingService.submit(interest("2024-01-interest", "0.01")).getId();
+        awaitFinished(runId);
+
+        PostingRun run = postingService.submit(interest("2024-01-interest", "0.010"));
+
+        assertEquals(PostingRun.Status.COMPLETED, run.getStatus());
+        assertBalance(1, "101.00");
+        assertEquals(4, countTransactions(TransactionType.INTEREST));
+        assertThrows(InvalidRequestException.class,
+                () -> postingService.submit(interest("2024-01-interest", "0.02")));
+    }
+
+    @Test
+    void testSubmit_ResumesFromLastPostedChunk() throws InterruptedException {
+        String runId = postingService.submit(interest("2024-01-interest", "0.01")).getId();
+        awaitFinished(runId);
+
+        // Имитируем остановку приложения до фиксации последнего участка (счета 5 и 6)
+        jdbcTemplate.update("DELETE FROM posting_chunk WHERE run_id = ? AND chunk_index = 2", runId);
+        jdbcTemplate.update("DELETE FROM transaction WHERE type = ? AND account_id = 6",
+                TransactionType.INTEREST.getCode());
+        jdbcTemplate.update("UPDATE account SET balance = 50 WHERE id = 6");
+        jdbcTemplate.update("UPDATE posting_run SET status = 'RUNNING', finished_at = NULL WHERE id = ?", runId);
+        postingService.markInterruptedRuns();
+        assertEquals(PostingRun.Status.INTERRUPTED, postingService.getRun(runId).getStatus());
+
+        postingService.submit(interest("2024-01-interest", "0.01"));
+        PostingRun run = awaitFinished(runId);
+
+        // Проведенные участки не повторяются, оставшийся проводится
+        assertEquals(PostingRun.Status.COMPLETED, run.getStatus());
+        assertEquals(3, run.getCompletedChunks());
+        assertBalance(1, "101.00");
+        assertBalance(6, "50.50");
+        assertEquals(4, countTransactions(TransactionType.INTEREST));
+        assertEquals(2, run.getAccountsProcessedSinceResume());
+    }
+
+    @Test
+    void testSubmit_InvalidRequests() {
+        assertThrows(InvalidRequestException.class, () -> postingService.submit(interest("bad id", "0.01")));
+        assertThrows(InvalidRequestException.class, () -> postingService.submit(interest("run", "0")));
+        assertThrows(InvalidRequestException.class, () -> postingService.submit(interest("run", "1.5")));
+
+        PostingRunRequest fee = new PostingRunRequest();
+        fee.setRunId("run");
+        fee.setType("FEE");
+        assertThrows(InvalidRequestException.class, () -> postingService.submit(fee));
+        fee.setType("BONUS");
+        fee.setAmount(BigDecimal.ONE);
+        assertThrows(InvalidRequestException.class, () -> postingService.submit(fee));
+    }
+
+    @Test
+    void testGetRun_NotFound() {
+        assertThrows(PostingNotFoundException.class, () -> postingService.getRun("unknown"));
+    }
+
+    @Test
+    void testComputePosting() {
+        assertEquals(new BigDecimal("1.25"), PostingService.computePosting(PostingRun.Type.INTEREST,
+                new BigDecimal("0.0125"), null, new BigDecimal("100.00")));
+        // Сумма процентов округляется до копеек по банковскому правилу
+        assertEquals(new BigDecimal("0.00"), PostingService.computePosting(PostingRun.Type.INTEREST,
+                new BigDecimal("0.1"), null, new BigDecimal("0.05")));
+        assertEquals(new BigDecimal("-5.00"), PostingService.computePosting(PostingRun.Type.FEE,
+                null, new BigDecimal("5.00"), new BigDecimal("100.00")));
+        assertEquals(0, PostingService.computePosting(PostingRun.Type.FEE,
+                null, new BigDecimal("5.00"), BigDecimal.ZERO).signum());
+    }
+
+    private static PostingRunRequest interest(String runId, String rate) {
+        PostingRunRequest request = new PostingRunRequest();
+        request.setRunId(runId);
+        request.setType("INTEREST");
+        request.setRate(new BigDecimal(rate));
+        return request;
+    }
+
+    private void assertBalance(long accountId, String expected) {
+        BigDecimal balance = jdbcTemplate.queryForObject("SELECT balance FROM account WHERE id = ?",
+                BigDecimal.class, accountId);
+        assertTrue(new BigDecimal(expected).compareTo(balance) == 0,
+                "Account " + accountId + " balance " + balance + ", expected " + expected);
+    }
+
+    private long countTransactions(TransactionType type) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction WHERE type = ?", Long.class,
+                type.getCode());
+    }
+
+    private PostingRun awaitFinished(String runId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        PostingRun run = postingService.getRun(runId);
+        while (run.getStatus() == PostingRun.Status.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            run = postingService.getRun(runId);
+        }
+        return run;
+    }
+}
@@ -0,0 +1,180 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.config.ReconciliationProperties;
+import ru.astondevs.bankingapitest.config.ShardingProperties;
+import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+import ru.astondevs.bankingapitest.exception.ReconciliationNotFoundException;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReconciliationServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        // Каждый тест работает с отдельной базой данных в памяти, созданной миграциями приложения
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        ReconciliationProperties properties = new ReconciliationProperties();
+        properties.setChunkSize(2);
+        properties.setParallelism(2);
+        reconciliationService = new ReconciliationService(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), properties,
+                new ShardRouter(new ShardingProperties()));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        reconciliationService.shutdown();
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void testStart_ConsistentLedger() throws InterruptedException {
+        ReconciliationRun run = awaitFinished(reconciliationService.start().getId());
+
+        // Начальные балансы подтверждены транзакциями пополнения из миграции
+        assertEquals(ReconciliationRun.Status.COMPLETED, run.getStatus());
+        assertEquals(3, run.getChunkCount());
+        assertEquals(3, run.getCompletedChunks());
+        assertEquals(6, run.getAccountsChecked());
+        assertEquals(4, run.getTransactionsScanned());
+        assertEquals(0, run.getDiscrepancyCount());
+    }
+
+    @Test
+    void testStart_ReportsDiscrepancies() throws InterruptedException {
+        jdbcTemplate.update("INSERT INTO transaction (account_id, type, amount, timestamp) "
+                + "VALUES (1, ?, 10, CURRENT_TIMESTAMP)", TransactionType.WITHDRAW.getCode());
+        jdbcTemplate.update("UPDATE account SET balance = 0.01 WHERE id = 5");
+
+        ReconciliationRun run = awaitFinished(reconciliationService.start().getId());
+
+        assertEquals(ReconciliationRun.Status.COMPLETED, run.getStatus());
+        assertEquals(2, run.getDiscrepancyCount());
+        List<ReconciliationRun.Discrepancy> discrepancies = reconciliationService.getDiscrepancies(run.getId(), 10);
+        assertEquals(2, discrepancies.size());
+        assertEquals(1, discrepancies.get(0).getAccountId());
+        assertEquals(0, new BigDecimal("100").compareTo(discrepancies.get(0).getBalance()));
+        assertEquals(0, new BigDecimal("90").compareTo(discrepancies.get(0).getLedgerBalance()));
+        assertEquals(5, discrepancies.get(1).getAccountId());
+        assertEquals(0, BigDecimal.ZERO.compareTo(discrepancies.get(1).getLedgerBalance()));
+    }
+
+    @Test
+    void testStart_ReportsUnconfirmedBalanceOfExistingAccount() throws InterruptedException {
+        // Счет появился в базе данных до миграции V12: его баланс не подтверждается транзакцией из миграции
+        reconciliationService.shutdown();
+        jdbcTemplate.execute("SHUTDOWN");
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).target("11").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO account (beneficiary_name, account_number, pin, balance) "
+                + "VALUES ('Person4', 'Account7', '3456', 30)");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        reconciliationService = new ReconciliationService(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), new ReconciliationProperties(),
+                new ShardRouter(new ShardingProperties()));
+
+        ReconciliationRun run = awaitFinished(reconciliationService.start().getId());
+
+        assertEquals(ReconciliationRun.Status.COMPLETED, run.getStatus());
+        assertEquals(1, run.getDiscrepancyCount());
+        ReconciliationRun.Discrepancy discrepancy = reconciliationService.getDiscrepancies(run.getId(), 10).get(0);
+        assertEquals(7, discrepancy.getAccountId());
+        assertEquals(0, BigDecimal.ZERO.compareTo(discrepancy.getLedgerBalance()));
+    }
+
+    @Test
+    void testResume_SkipsCheckpointedChunks() throws InterruptedException {
+        String runId = reconciliationService.start().getId();
+        awaitFinished(runId);
+
+        // Имитируем остановку приложения после сохранения первых двух участков
+        jdbcTemplate.update("DELETE FROM reconciliation_chunk WHERE run_id = ? AND chunk_index = 2", runId);
+        jdbcTemplate.update("UPDATE reconciliation_run SET status = 'RUNNING', finished_at = NULL WHERE id = ?", runId);
+        reconciliationService.markInterruptedRuns();
+        assertEquals(ReconciliationRun.Status.INTERRUPTED, reconciliationService.getRun(runId).getStatus());
+
+        // Расхождение в уже сохраненном участке не должно обнаруживаться повторно, а в оставшемся - должно
+        jdbcTemplate.update("UPDATE account SET balance = 1 WHERE id IN (1, 5)");
+
+        reconciliationService.resume(runId);
+        ReconciliationRun run = awaitFinished(runId);
+
+        assertEquals(ReconciliationRun.Status.COMPLETED, run.getStatus());
+        assertEquals(3, run.getCompletedChunks());
+        assertEquals(6, run.getAccountsChecked());
+        assertEquals(1, run.getDiscrepancyCount());
+        assertEquals(5, reconciliationService.getDiscrepancies(runId, 10).get(0).getAccountId());
+    }
+
+    @Test
+    void testResume_CompletedRunIsRejected() throws InterruptedException {
+        String runId = reconciliationService.start().getId();
+        awaitFinished(runId);
+
+        assertThrows(InvalidRequestException.class, () -> reconciliationService.resume(runId));
+    }
+
+    @Test
+    void testStart_UnknownTransactionTypeFailsRun() throws InterruptedException {
+        jdbcTemplate.update("INSERT INTO transaction (account_id, type, amount, timestamp) "
+                + "VALUES (3, 99, 10, CURRENT_TIMESTAMP)");
+
+        ReconciliationRun run = awaitFinished(reconciliationService.start().getId());
+
+        assertEquals(ReconciliationRun.Status.FAILED, run.getStatus());
+        assertTrue(run.getFailureMessage().contains("99"));
+    }
+
+    @Test
+    void testGetRun_NotFound() {
+        assertThrows(ReconciliationNotFoundException.class, () -> reconciliationService.getRun("unknown"));
+        assertThrows(ReconciliationNotFoundException.class,
+                () -> reconciliationService.getDiscrepancies("unknown", 10));
+    }
+
+    @Test
+    void testSignedCents() {
+        assertEquals(1050, ReconciliationService.signedCents(TransactionType.DEPOSIT.getCode(), new BigDecimal("10.50")));
+        assertEquals(-1050, ReconciliationService.signedCents(TransactionType.TRANSFER_OUT.getCode(), new BigDecimal("10.50")));
+        assertEquals(1050, ReconciliationService.signedCents(TransactionType.TRANSFER_REVERSAL.getCode(), new BigDecimal("10.50")));
+        assertEquals(1050, ReconciliationService.signedCents(TransactionType.INTEREST.getCode(), new BigDecimal("10.50")));
+        assertEquals(-1050, ReconciliationService.signedCents(TransactionType.FEE.getCode(), new BigDecimal("10.50")));
+        assertThrows(IllegalStateException.class,
+                () -> ReconciliationService.signedCents(99, BigDecimal.ONE));
+    }
+
+    private ReconciliationRun awaitFinished(String runId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        ReconciliationRun run = reconciliationService.getRun(runId);
+        while (run.getStatus() == ReconciliationRun.Status.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            run = reconciliationService.getRun(runId);
+        }
+        return run;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingWindowStoreTest {
+
+    // Окно 60 секунд из 6 интервалов по 10 секунд
+    private final SlidingWindowStore store = new SlidingWindowStore(60_000, 6, 4, 1000);
+
+    @Test
+    void testAmountLimit_SlidesWithTime() {
+        assertTrue(store.tryAdd(1L, 0, 600, 1000, 0));
+        assertTrue(store.tryAdd(1L, 30_000, 400, 1000, 0));
+        assertFalse(store.tryAdd(1L, 30_000, 1, 1000, 0));
+        assertEquals(1000, store.totalAmount(1L, 30_000));
+
+        // Первая операция выходит из окна вместе со своим интервалом, и лимит снова доступен
+        assertEquals(30_000, store.millisUntilAllowed(1L, 30_000, 1, 1000, 0));
+        assertFalse(store.tryAdd(1L, 59_999, 1, 1000, 0));
+        assertTrue(store.tryAdd(1L, 60_000, 600, 1000, 0));
+        assertEquals(1000, store.totalAmount(1L, 60_000));
+
+        // После простоя дольше окна все интервалы очищаются
+        assertEquals(0, store.totalAmount(1L, 200_000));
+        assertEquals(0, store.totalCount(1L, 200_000));
+    }
+
+    @Test
+    void testCountLimit() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(store.tryAdd(1L, i * 10_000L, 1, 0, 3));
+        }
+
+        assertFalse(store.tryAdd(1L, 25_000, 1, 0, 3));
+        assertEquals(35_000, store.millisUntilAllowed(1L, 25_000, 1, 0, 3));
+        // Другие счета не затронуты
+        assertTrue(store.tryAdd(2L, 25_000, 1, 0, 3));
+    }
+
+    @Test
+    void testRemove() {
+        store.tryAdd(1L, 0, 500, 0, 0);
+        store.tryAdd(1L, 15_000, 300, 0, 0);
+
+        store.remove(1L, 15_000, 20_000, 300);
+        assertEquals(500, store.totalAmount(1L, 20_000));
+        assertEquals(1, store.totalCount(1L, 20_000));
+
+        // Операция, интервал которой уже вышел из окна, не вычитается повторно
+        store.remove(1L, 0, 70_000, 500);
+        assertEquals(0, store.totalAmount(1L, 70_000));
+        assertEquals(0, store.totalCount(1L, 70_000));
+    }
+
+    @Test
+    void testAdd_IgnoresEventsOutsideWindow() {
+        store.add(1L, 100_000, 120_000, 100);
+        store.add(1L, 50_000, 120_000, 200);
+        store.add(1L, 130_000, 120_000, 400);
+
+        assertEquals(100, store.totalAmount(1L, 120_000));
+        assertEquals(1, store.totalCount(1L, 120_000));
+    }
+
+    @Test
+    void testEviction_KeepsSizeBounded() {
+        SlidingWindowStore small = new SlidingWindowStore(60_000, 6, 1, 10);
+        for (long key = 0; key < 100; key++) {
+            // Операции разнесены по интервалам, поэтому окна старых счетов успевают опустеть
+            assertTrue(small.tryAdd(key, key * 10_000, 1, 0, 0));
+        }
+
+        assertTrue(small.size() <= 10);
+        assertEquals(1, small.totalCount(99L, 990_000));
+    }
+
+    @Test
+    void testEviction_NeverForgetsSpendInWindow() {
+        SlidingWindowStore small = new SlidingWindowStore(60_000, 6, 1, 2);
+        assertTrue(small.tryAdd(1L, 0, 100, 100, 0));
+        assertTrue(small.tryAdd(2L, 0, 1, 0, 0));
+
+        // Поток новых счетов не вытесняет счет, исчерпавший лимит: новые счета получают отказ
+        for (long key = 3; key < 100; key++) {
+            assertFalse(small.tryAdd(key, 1000, 1, 0, 0));
+        }
+        assertFalse(small.tryAdd(1L, 1000, 1, 100, 0));
+        assertEquals(100, small.totalAmount(1L, 1000));
+        assertEquals(9000, small.millisUntilAllowed(3L, 1000, 1, 0, 0));
+
+        // Когда операции вышли из окна, место освобождается
+        assertTrue(small.tryAdd(3L, 60_000, 1, 0, 0));
+    }
+}
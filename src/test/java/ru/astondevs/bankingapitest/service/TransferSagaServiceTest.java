@@ -0,0 +1,277 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.astondevs.bankingapitest.audit.AuditEventType;
+import ru.astondevs.bankingapitest.audit.AuditLog;
+import ru.astondevs.bankingapitest.exception.InvalidRequestException;
+import ru.astondevs.bankingapitest.exception.TransferFailedException;
+import ru.astondevs.bankingapitest.model.Account;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardRoutingDataSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.astondevs.bankingapitest.support.AsyncRequests.perform;
+
+/**
+ * Интеграционный тест разделения счетов по двум базам H2 в памяти (профиль {@code sharded}).
+ * Сбои между шагами перевода внедряются через точки {@link TransferSagaService#beforeCredit} и
+ * {@link TransferSagaService#beforeCompensation}.
+ */
+@SpringBootTest(properties = {
+        "banking.grpc.enabled=false",
+        "banking.sharding.recovery-interval=PT1H",
+        "banking.sharding.recovery-delay=PT0S",
+        "banking.audit.directory=target/audit/transfer-saga",
+        "banking.velocity.enabled=true"
+})
+@ActiveProfiles("sharded")
+@AutoConfigureMockMvc
+class TransferSagaServiceTest {
+
+    private static final String PIN = "1234";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @SpyBean
+    private TransferSagaService transferSagaService;
+
+    @SpyBean
+    private AuditLog auditLog;
+
+    @Autowired
+    private VelocityLimiter velocityLimiter;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @Test
+    void testAccountsAreRoutedToShards() {
+        Account first = createAccount(0, "100.00");
+        Account second = createAccount(1, "50.00");
+
+        // Идентификатор счета принадлежит диапазону шарда, а строка счета есть только в базе этого шарда
+        assertTrue(second.getId() >= shardRouter.firstAccountId(1));
+        assertEquals(1, countRows(1, "SELECT COUNT(*) FROM account WHERE id = ?", second.getId()));
+        assertEquals(0, countRows(0, "SELECT COUNT(*) FROM account WHERE id = ?", second.getId()));
+        assertEquals(1, countRows(0, "SELECT COUNT(*) FROM account WHERE id = ?", first.getId()));
+
+        // Счета начального заполнения остались только в шарде 0
+        assertEquals(0, countRows(1, "SELECT COUNT(*) FROM account WHERE id < ?", shardRouter.firstAccountId(1)));
+
+        assertBalance("50.00", second.getId());
+        assertEquals(second.getId(), accountService.getAccountByNumber(second.getAccountNumber()).getId());
+        List<Long> ids = accountService.getAllAccounts().stream().map(Account::getId).toList();
+        assertTrue(ids.contains(first.getId()) && ids.contains(second.getId()));
+        assertEquals(1, accountService.getTransactions(second.getId()).size());
+
+        assertThrows(InvalidRequestException.class, () -> reconciliationService.start());
+    }
+
+    @Test
+    void testTransferWithinShard_DoesNotStartSaga() {
+        Account from = createAccount(1, "100.00");
+        Account to = createAccount(1, "0.00");
+        long sagas = countRows(1, "SELECT COUNT(*) FROM transfer_saga");
+
+        accountService.transfer(from.getId(), PIN, new BigDecimal("30.00"), to.getId());
+
+        assertBalance("70.00", from.getId());
+        assertBalance("30.00", to.getId());
+        assertEquals(sagas, countRows(1, "SELECT COUNT(*) FROM transfer_saga"));
+    }
+
+    @Test
+    void testTransferBetweenShards_Completes() {
+        Account from = createAccount(0, "100.00");
+        Account to = createAccount(1, "10.00");
+
+        Account result = accountService.transfer(from.getId(), PIN, new BigDecimal("40.00"), to.getId());
+
+        assertEquals(0, new BigDecimal("60.00").compareTo(result.getBalance()));
+        assertBalance("60.00", from.getId());
+        assertBalance("50.00", to.getId());
+        assertEquals("COMPLETED", sagaStatus(from.getId()));
+        assertEquals(1, velocityLimiter.transferCount(from.getId(), System.currentTimeMillis()));
+        assertEquals(List.of("deposit", "transfer out"), transactionTypes(from.getId()));
+        assertEquals(List.of("deposit", "transfer in"), transactionTypes(to.getId()));
+        verifyAudited(1, AuditEventType.TRANSFER, from, to, "40.00");
+    }
+
+    @Test
+    void testTransferBetweenShards_CreditFailureIsCompensated() throws Exception {
+        Account from = createAccount(1, "100.00");
+        Account to = createAccount(0, "0.00");
+        doThrow(new DataAccessResourceFailureException("shard 0 is unavailable"))
+                .when(transferSagaService).beforeCredit(any());
+
+        perform(mockMvc, post("/api/accounts/" + from.getId() + "/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"pin\":\"1234\",\"amount\":25.00,\"toAccountId\":" + to.getId() + "}"))
+                .andExpect(status().isServiceUnavailable());
+
+        // Списание отменено компенсирующей транзакцией, а получатель средств не получил
+        assertBalance("100.00", from.getId());
+        assertBalance("0.00", to.getId());
+        assertEquals("COMPENSATED", sagaStatus(from.getId()));
+        assertEquals(List.of("deposit", "transfer out", "transfer reversal"), transactionTypes(from.getId()));
+        assertEquals(List.of(), transactionTypes(to.getId()));
+        // Отмененный перевод не учитывается в лимите исходящих переводов отправителя
+        assertEquals(0, velocityLimiter.transferCount(from.getId(), System.currentTimeMillis()));
+        // В журнал аудита записывается отмена, а не перевод
+        verifyAudited(1, AuditEventType.REVERSAL, from, to, "25.00");
+        verifyAudited(0, AuditEventType.TRANSFER, from, to, "25.00");
+    }
+
+    @Test
+    void testTransferBetweenShards_CrashBetweenLegsIsRecovered() {
+        Account from = createAccount(0, "100.00");
+        Account to = createAccount(1, "0.00");
+        // Приложение останавливается после фиксации списания, не успев зачислить средства
+        doThrow(new Error("simulated crash")).when(transferSagaService).beforeCredit(any());
+
+        assertThrows(Error.class,
+                () -> accountService.transfer(from.getId(), PIN, new BigDecimal("10.00"), to.getId()));
+        assertBalance("90.00", from.getId());
+        assertBalance("0.00", to.getId());
+        assertEquals("DEBITED", sagaStatus(from.getId()));
+        verifyAudited(0, AuditEventType.TRANSFER, from, to, "10.00");
+
+        doNothing().when(transferSagaService).beforeCredit(any());
+        transferSagaService.recoverPendingSagas();
+
+        assertBalance("90.00", from.getId());
+        assertBalance("10.00", to.getId());
+        assertEquals("COMPLETED", sagaStatus(from.getId()));
+        // Перевод, завершенный задачей восстановления, записывается в журнал аудита
+        verifyAudited(1, AuditEventType.TRANSFER, from, to, "10.00");
+    }
+
+    @Test
+    void testTransferBetweenShards_RecoveryDoesNotCreditTwice() {
+        Account from = createAccount(1, "100.00");
+        Account to = createAccount(0, "0.00");
+        accountService.transfer(from.getId(), PIN, new BigDecimal("10.00"), to.getId());
+        // Зачисление зафиксировано, но состояние перевода в шарде отправителя не обновилось
+        jdbcTemplate(1).update("UPDATE transfer_saga SET status = 'DEBITED' WHERE from_account_id = ?", from.getId());
+
+        transferSagaService.recoverPendingSagas();
+
+        assertBalance("90.00", from.getId());
+        assertBalance("10.00", to.getId());
+        assertEquals("COMPLETED", sagaStatus(from.getId()));
+        assertEquals(List.of("transfer in"), transactionTypes(to.getId()));
+    }
+
+    @Test
+    void testTransferBetweenShards_FailedCompensationIsRetried() {
+        Account from = createAccount(0, "100.00");
+        Account to = createAccount(1, "0.00");
+        doThrow(new DataAccessResourceFailureException("shard 1 is unavailable"))
+                .when(transferSagaService).beforeCredit(any());
+        doThrow(new DataAccessResourceFailureException("shard 1 is unavailable"))
+                .when(transferSagaService).beforeCompensation(any());
+
+        assertThrows(TransferFailedException.class,
+                () -> accountService.transfer(from.getId(), PIN, new BigDecimal("10.00"), to.getId()));
+        assertBalance("90.00", from.getId());
+        assertEquals("COMPENSATING", sagaStatus(from.getId()));
+        verifyAudited(0, AuditEventType.REVERSAL, from, to, "10.00");
+        // Пока возврат не зафиксирован, перевод учитывается в лимите
+        assertEquals(1, velocityLimiter.transferCount(from.getId(), System.currentTimeMillis()));
+
+        // После восстановления шарда получателя средства возвращаются отправителю, а не зачисляются получателю
+        doNothing().when(transferSagaService).beforeCredit(any());
+        doNothing().when(transferSagaService).beforeCompensation(any());
+        transferSagaService.recoverPendingSagas();
+
+        assertBalance("100.00", from.getId());
+        assertBalance("0.00", to.getId());
+        assertEquals("COMPENSATED", sagaStatus(from.getId()));
+        // Перевод исключается из лимита только после фиксации возврата, выполненного задачей восстановления
+        assertEquals(0, velocityLimiter.transferCount(from.getId(), System.currentTimeMillis()));
+        verifyAudited(1, AuditEventType.REVERSAL, from, to, "10.00");
+        verifyAudited(0, AuditEventType.TRANSFER, from, to, "10.00");
+    }
+
+    /**
+     * Создает счета, пока очередной не окажется в указанном шарде: шард нового счета выбирается по хешу его номера.
+     */
+    private Account createAccount(int shard, String balance) {
+        while (true) {
+            Account account = accountService.createAccount("Shard Test", PIN);
+            if (shardRouter.shardForAccountId(account.getId()) == shard) {
+                if (new BigDecimal(balance).signum() > 0) {
+                    return accountService.deposit(account.getId(), new BigDecimal(balance));
+                }
+                return account;
+            }
+        }
+    }
+
+    private void verifyAudited(int times, AuditEventType type, Account from, Account to, String amount) {
+        verify(auditLog, times == 0 ? never() : times(times)).record(eq(type), eq(from.getId()), eq(to.getId()),
+                argThat(value -> value.compareTo(new BigDecimal(amount)) == 0));
+    }
+
+    private void assertBalance(String expected, Long accountId) {
+        BigDecimal balance = jdbcTemplate(shardRouter.shardForAccountId(accountId))
+                .queryForObject("SELECT balance FROM account WHERE id = ?", BigDecimal.class, accountId);
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), "balance of account " + accountId);
+    }
+
+    private String sagaStatus(Long fromAccountId) {
+        return jdbcTemplate(shardRouter.shardForAccountId(fromAccountId)).queryForObject(
+                "SELECT status FROM transfer_saga WHERE from_account_id = ?", String.class, fromAccountId);
+    }
+
+    private List<String> transactionTypes(Long accountId) {
+        return jdbcTemplate(shardRouter.shardForAccountId(accountId)).queryForList(
+                        "SELECT type FROM transaction WHERE account_id = ? ORDER BY id", Integer.class, accountId)
+                .stream()
+                .map(code -> TransactionType.fromCode(code).getName())
+                .toList();
+    }
+
+    private long countRows(int shard, String sql, Object... args) {
+        return jdbcTemplate(shard).queryForObject(sql, Long.class, args);
+    }
+
+    private JdbcTemplate jdbcTemplate(int shard) {
+        return new JdbcTemplate(dataSource.getShard(shard));
+    }
+}
@@ -0,0 +1,73 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.astondevs.bankingapitest.config.ShardingProperties;
+import ru.astondevs.bankingapitest.model.TransactionType;
+import ru.astondevs.bankingapitest.sharding.ShardRouter;
+import ru.astondevs.bankingapitest.sharding.ShardTransactions;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VelocityLimiterInitializerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private VelocityLimiter velocityLimiter;
+    private VelocityLimiterInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        velocityLimiter = new VelocityLimiter(VelocityLimiterTest.limitedProperties());
+        initializer = new VelocityLimiterInitializer(velocityLimiter, jdbcTemplate,
+                new ShardRouter(new ShardingProperties()),
+                new ShardTransactions(new TransactionTemplate(new DataSourceTransactionManager(dataSource))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void testRebuild_ExcludesReversedTransfers() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            insertTransaction(1L, TransactionType.TRANSFER_OUT, now - 1000);
+        }
+        // Один из переводов не зачислен получателю, и средства возвращены отправителю
+        insertTransaction(1L, TransactionType.TRANSFER_REVERSAL, now - 500);
+        insertSaga(1L, TransferSaga.Status.COMPENSATED, now - 1000);
+        insertSaga(1L, TransferSaga.Status.COMPLETED, now - 1000);
+
+        initializer.rebuild();
+
+        assertEquals(2, velocityLimiter.transferCount(1L, System.currentTimeMillis()));
+    }
+
+    private void insertTransaction(long accountId, TransactionType type, long millis) {
+        jdbcTemplate.update("INSERT INTO transaction (account_id, type, amount, timestamp) VALUES (?, ?, ?, ?)",
+                accountId, type.getCode(), BigDecimal.TEN, new Timestamp(millis));
+    }
+
+    private void insertSaga(long fromAccountId, TransferSaga.Status status, long millis) {
+        jdbcTemplate.update("INSERT INTO transfer_saga (id, from_account_id, to_account_id, amount, status, "
+                        + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID().toString(), fromAccountId, 2L, BigDecimal.TEN, status.name(),
+                new Timestamp(millis), new Timestamp(millis));
+    }
+}
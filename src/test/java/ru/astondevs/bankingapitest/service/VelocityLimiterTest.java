@@ -0,0 +1,129 @@
+package ru.astondevs.bankingapitest.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.astondevs.bankingapitest.config.VelocityProperties;
+import ru.astondevs.bankingapitest.exception.InvalidAmountException;
+import ru.astondevs.bankingapitest.exception.VelocityLimitExceededException;
+import ru.astondevs.bankingapitest.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VelocityLimiterTest {
+
+    @Test
+    void testWithdrawalAmountLimit() {
+        VelocityLimiter limiter = new VelocityLimiter(limitedProperties());
+
+        limiter.reserveWithdrawal(1L, new BigDecimal("9000.00"));
+        limiter.reserveWithdrawal(1L, new BigDecimal("1000.00"));
+
+        VelocityLimitExceededException e = assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserveWithdrawal(1L, new BigDecimal("0.01")));
+        assertTrue(e.getRetryAfterSeconds() >= 1 && e.getRetryAfterSeconds() <= Duration.ofHours(24).toSeconds());
+        assertThrows(InvalidAmountException.class, () -> limiter.reserveWithdrawal(2L, new BigDecimal("10000.01")));
+        // Переводы ограничиваются отдельно от снятий
+        assertDoesNotThrow(() -> limiter.reserveTransfer(1L, new BigDecimal("5000.00")));
+    }
+
+    @Test
+    void testTransferCountLimit() {
+        VelocityLimiter limiter = new VelocityLimiter(limitedProperties());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.reserveTransfer(1L, BigDecimal.ONE);
+        }
+
+        VelocityLimitExceededException e = assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserveTransfer(1L, BigDecimal.ONE));
+        assertTrue(e.getRetryAfterSeconds() >= 1 && e.getRetryAfterSeconds() <= 60);
+        assertDoesNotThrow(() -> limiter.reserveTransfer(2L, BigDecimal.ONE));
+    }
+
+    @Test
+    void testRollbackReleasesReservation() {
+        VelocityLimiter limiter = new VelocityLimiter(limitedProperties());
+        long now = System.currentTimeMillis();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            limiter.reserveWithdrawal(1L, new BigDecimal("400.00"));
+            limiter.reserveWithdrawal(2L, new BigDecimal("300.00"));
+            // Снятие со счета 1 откатывается, со счета 2 - фиксируется
+            TransactionSynchronization rolledBack = TransactionSynchronizationManager.getSynchronizations().get(0);
+            TransactionSynchronization committed = TransactionSynchronizationManager.getSynchronizations().get(1);
+            rolledBack.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            committed.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, limiter.withdrawnAmount(1L, now));
+        assertEquals(30_000, limiter.withdrawnAmount(2L, now));
+    }
+
+    @Test
+    void testRecordRestoresRecentTransactions() {
+        VelocityLimiter limiter = new VelocityLimiter(limitedProperties());
+        long now = System.currentTimeMillis();
+
+        limiter.record(1L, TransactionType.WITHDRAW, new BigDecimal("9999.00"),
+                now - Duration.ofHours(1).toMillis(), now);
+        limiter.record(1L, TransactionType.WITHDRAW, new BigDecimal("5000.00"),
+                now - Duration.ofHours(25).toMillis(), now);
+        limiter.record(1L, TransactionType.DEPOSIT, new BigDecimal("5000.00"), now, now);
+        for (int i = 0; i < 10; i++) {
+            limiter.record(2L, TransactionType.TRANSFER_OUT, BigDecimal.ONE, now - 1000, now);
+        }
+
+        assertEquals(999_900, limiter.withdrawnAmount(1L, now));
+        assertEquals(10, limiter.transferCount(2L, now));
+        assertThrows(VelocityLimitExceededException.class,
+                () -> limiter.reserveWithdrawal(1L, new BigDecimal("1.01")));
+        assertThrows(VelocityLimitExceededException.class, () -> limiter.reserveTransfer(2L, BigDecimal.ONE));
+    }
+
+    @Test
+    void testDisabledByDefault() {
+        VelocityLimiter limiter = new VelocityLimiter(new VelocityProperties());
+
+        for (int i = 0; i < 20; i++) {
+            limiter.reserveTransfer(1L, new BigDecimal("100000.00"));
+        }
+
+        assertEquals(0, limiter.transferCount(1L, System.currentTimeMillis()));
+    }
+
+    @Test
+    void testNoLimitsConfigured() {
+        VelocityProperties properties = new VelocityProperties();
+        properties.setEnabled(true);
+        VelocityLimiter limiter = new VelocityLimiter(properties);
+
+        // Без заданных порогов операции только учитываются
+        for (int i = 0; i < 20; i++) {
+            limiter.reserveTransfer(1L, new BigDecimal("100000.00"));
+        }
+
+        assertEquals(20, limiter.transferCount(1L, System.currentTimeMillis()));
+    }
+
+    /**
+     * Возвращает настройки с лимитами из примера в README: снятия - не более 10000.00 за 24 часа,
+     * исходящие переводы - не более 10 в минуту.
+     */
+    static VelocityProperties limitedProperties() {
+        VelocityProperties properties = new VelocityProperties();
+        properties.setEnabled(true);
+        properties.getWithdrawals().setMaxAmount(new BigDecimal("10000.00"));
+        properties.getTransfers().setMaxCount(10);
+        return properties;
+    }
+}
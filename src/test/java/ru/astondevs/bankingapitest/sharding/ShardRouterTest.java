@@ -0,0 +1,72 @@
+package ru.astondevs.bankingapitest.sharding;
+
+import org.junit.jupiter.api.Test;
+import ru.astondevs.bankingapitest.config.ShardingProperties;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardRouterTest {
+
+    @Test
+    void testShardForAccountId_ByRange() {
+        ShardRouter router = new ShardRouter(properties(3, 100));
+
+        assertTrue(router.isSharded());
+        assertEquals(0, router.shardForAccountId(1L));
+        assertEquals(0, router.shardForAccountId(100L));
+        assertEquals(1, router.shardForAccountId(101L));
+        assertEquals(2, router.shardForAccountId(300L));
+        assertEquals(201, router.firstAccountId(2));
+
+        // Идентификаторы вне диапазонов шардов направляются в шард 0, где такого счета нет
+        assertEquals(0, router.shardForAccountId(301L));
+        assertEquals(0, router.shardForAccountId(0L));
+        assertEquals(0, router.shardForAccountId(null));
+    }
+
+    @Test
+    void testShardForNewAccount_SpreadsAccounts() {
+        ShardRouter router = new ShardRouter(properties(2, 100));
+
+        int[] counts = new int[2];
+        for (int i = 0; i < 1000; i++) {
+            counts[router.shardForNewAccount("40817810" + i)]++;
+        }
+
+        // Номера счетов распределяются между шардами примерно поровну
+        assertTrue(counts[0] > 400 && counts[1] > 400);
+    }
+
+    @Test
+    void testDisabled_SingleShard() {
+        ShardingProperties properties = properties(2, 100);
+        properties.setEnabled(false);
+        ShardRouter router = new ShardRouter(properties);
+
+        assertFalse(router.isSharded());
+        assertEquals(1, router.shardCount());
+        assertEquals(0, router.shardForAccountId(150L));
+        assertEquals(0, router.shardForNewAccount("40817810"));
+    }
+
+    @Test
+    void testEnabled_WithoutShards() {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+
+        assertThrows(IllegalStateException.class, () -> new ShardRouter(properties));
+    }
+
+    private static ShardingProperties properties(int shardCount, long accountIdRange) {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setAccountIdRange(accountIdRange);
+        properties.setShards(Collections.nCopies(shardCount, new ShardingProperties.Shard()));
+        return properties;
+    }
+}
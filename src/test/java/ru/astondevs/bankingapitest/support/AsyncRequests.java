@@ -0,0 +1,24 @@
+package ru.astondevs.bankingapitest.support;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Выполняет запросы к асинхронным эндпоинтам через MockMvc: дожидается результата контроллера
+ * и выполняет повторную диспетчеризацию, в которой формируется ответ.
+ */
+public final class AsyncRequests {
+
+    private AsyncRequests() {
+    }
+
+    public static ResultActions perform(MockMvc mockMvc, RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,101 @@
+package ru.astondevs.bankingapitest.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Считает обращения к базе данных через DataSource, обернутый в {@link StatementCountingConfiguration}.
+ * Одно обращение - это выполнение одного запроса или одного JDBC-пакета, независимо от числа строк в пакете.
+ * Тест сбрасывает счетчик перед вызовом эндпоинта и проверяет точное число запросов после него;
+ * при несовпадении в сообщение об ошибке попадают тексты всех выполненных запросов.
+ * Одиночные запросы запоминаются вместе с параметрами, чтобы их можно было повторить, например, под EXPLAIN.
+ */
+public class StatementCounter implements QueryExecutionListener {
+
+    /**
+     * Выполненный одиночный запрос.
+     *
+     * @param sql        текст запроса
+     * @param parameters значения параметров в порядке их номеров
+     */
+    public record ExecutedQuery(String sql, List<Object> parameters) {
+    }
+
+    private final List<String> statements = new ArrayList<>();
+    private final List<ExecutedQuery> queries = new ArrayList<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        if (execInfo.isBatch()) {
+            sql = "batch(" + execInfo.getBatchSize() + "): " + sql;
+        }
+        synchronized (statements) {
+            statements.add(sql);
+            if (!execInfo.isBatch() && queryInfoList.size() == 1) {
+                QueryInfo query = queryInfoList.get(0);
+                List<Object> parameters = query.getParametersList().isEmpty() ? List.of() : parameters(
+                        query.getParametersList().get(0));
+                queries.add(new ExecutedQuery(query.getQuery(), parameters));
+            }
+        }
+    }
+
+    private static List<Object> parameters(List<ParameterSetOperation> operations) {
+        return operations.stream()
+                .sorted(Comparator.comparingInt(operation -> (Integer) operation.getArgs()[0]))
+                .map(operation -> ParameterSetOperation.isSetNullParameterOperation(operation)
+                        ? null : operation.getArgs()[1])
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Забывает все выполненные ранее запросы.
+     */
+    public void reset() {
+        synchronized (statements) {
+            statements.clear();
+            queries.clear();
+        }
+    }
+
+    /**
+     * Возвращает тексты запросов, выполненных после последнего сброса.
+     */
+    public List<String> statements() {
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+
+    /**
+     * Возвращает одиночные запросы с параметрами, выполненные после последнего сброса. JDBC-пакеты не возвращаются.
+     */
+    public List<ExecutedQuery> queries() {
+        synchronized (statements) {
+            return new ArrayList<>(queries);
+        }
+    }
+
+    /**
+     * Проверяет, что после последнего сброса выполнено ровно expected запросов.
+     */
+    public void assertStatementCount(int expected) {
+        List<String> executed = statements();
+        assertEquals(expected, executed.size(), () -> "Unexpected number of statements:\n  "
+                + String.join("\n  ", executed));
+    }
+}
@@ -0,0 +1,39 @@
+package ru.astondevs.bankingapitest.support;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает DataSource приложения в прокси, который сообщает о каждом выполненном запросе в {@link StatementCounter}.
+ * Подключается к тестовому контексту через {@code @Import(StatementCountingConfiguration.class)}.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class StatementCountingConfiguration {
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor(
+            ObjectProvider<StatementCounter> statementCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(statementCounter.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}